@@ -0,0 +1,124 @@
+package com.timxs.steam;
+
+import com.timxs.steam.model.OwnedGame;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * 基准测试用的合成数据，固定种子保证每次运行一致
+ */
+public final class BenchmarkData {
+
+    public static final String HEADER_TEMPLATE =
+            "https://cdn.example.com/steam/apps/{appid}/header.jpg";
+    public static final String ICON_TEMPLATE =
+            "https://cdn.example.com/steamcommunity/public/images/apps/{appid}/{hash}.jpg";
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * 生成游戏库，名称长度和游玩时长分布接近真实账号（约 10% 未游玩）
+     */
+    public static List<OwnedGame> games(int size) {
+        Random random = new Random(size);
+        long now = System.currentTimeMillis() / 1000;
+        List<OwnedGame> games = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            OwnedGame game = new OwnedGame();
+            game.setAppId(10L + i * 10L);
+            game.setName(randomName(random));
+            int playtime = random.nextInt(10) == 0 ? 0 : random.nextInt(100_000);
+            game.setPlaytimeForever(playtime);
+            game.setImgIconUrl(Long.toHexString(random.nextLong()) + Long.toHexString(random.nextLong()));
+            game.setRtimeLastPlayed(playtime == 0 ? 0L : now - random.nextInt(365 * 86400));
+            games.add(game);
+        }
+        return games;
+    }
+
+    /**
+     * 从游戏库中随机选取约 1% 作为隐藏游戏
+     */
+    public static Set<Long> hiddenIds(List<OwnedGame> games) {
+        Random random = new Random(games.size() + 1L);
+        Set<Long> hidden = new HashSet<>();
+        for (OwnedGame game : games) {
+            if (random.nextInt(100) == 0) {
+                hidden.add(game.getAppId());
+            }
+        }
+        return hidden;
+    }
+
+    /**
+     * GetOwnedGames 原始响应
+     */
+    public static String ownedGamesJson(int size) {
+        StringBuilder json = new StringBuilder(size * 160);
+        json.append("{\"response\":{\"game_count\":").append(size).append(",\"games\":[");
+        List<OwnedGame> games = games(size);
+        for (int i = 0; i < games.size(); i++) {
+            OwnedGame game = games.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"appid\":").append(game.getAppId())
+                    .append(",\"name\":\"").append(game.getName()).append('"')
+                    .append(",\"playtime_forever\":").append(game.getPlaytimeForever())
+                    .append(",\"img_icon_url\":\"").append(game.getImgIconUrl()).append('"')
+                    .append(",\"has_community_visible_stats\":true")
+                    .append(",\"playtime_windows_forever\":").append(game.getPlaytimeForever())
+                    .append(",\"playtime_mac_forever\":0,\"playtime_linux_forever\":0,\"playtime_deck_forever\":0")
+                    .append(",\"rtime_last_played\":").append(game.getRtimeLastPlayed())
+                    .append(",\"content_descriptorids\":[2,5],\"playtime_disconnected\":0}");
+        }
+        return json.append("]}}").toString();
+    }
+
+    /**
+     * GetBadges 原始响应
+     */
+    public static String badgesJson(int size) {
+        Random random = new Random(size);
+        StringBuilder json = new StringBuilder(size * 140);
+        json.append("{\"response\":{\"badges\":[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"badgeid\":").append(1 + random.nextInt(60))
+                    .append(",\"appid\":").append(10 + i * 10)
+                    .append(",\"level\":").append(1 + random.nextInt(5))
+                    .append(",\"completion_time\":").append(1500000000L + random.nextInt(200_000_000))
+                    .append(",\"xp\":").append(100 * (1 + random.nextInt(5)))
+                    .append(",\"communityitemid\":\"").append(Math.abs(random.nextLong())).append('"')
+                    .append(",\"border_color\":0")
+                    .append(",\"scarcity\":").append(random.nextInt(5_000_000)).append('}');
+        }
+        return json.append("],\"player_xp\":123456,\"player_level\":120,")
+                .append("\"player_xp_needed_to_level_up\":544,\"player_xp_needed_current_level\":123000}}")
+                .toString();
+    }
+
+    private static String randomName(Random random) {
+        String[] words = {"Dark", "Souls", "Hollow", "Knight", "Stellar", "Frontier", "Legend", "Craft",
+                "Tactics", "Odyssey", "Simulator", "Chronicles", "Rogue", "Factory", "Valley", "Space"};
+        int count = 1 + random.nextInt(4);
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                name.append(' ');
+            }
+            name.append(words[random.nextInt(words.length)]);
+        }
+        if (random.nextInt(4) == 0) {
+            name.append(' ').append(1 + random.nextInt(4));
+        }
+        return name.toString();
+    }
+}
@@ -0,0 +1,62 @@
+package com.timxs.steam.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.timxs.steam.BenchmarkData;
+import com.timxs.steam.model.GameDetail;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Steam 响应解析：GetOwnedGames、GetBadges 反序列化与 Store appdetails 解析
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ParsingBenchmark {
+
+    @Param({"100", "1000", "5000", "20000"})
+    public int librarySize;
+
+    /** 与 WebClient 的 Jackson 解码器一致：忽略响应中未声明的字段（如 has_community_visible_stats） */
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private byte[] ownedGamesBody;
+    private byte[] badgesBody;
+    private String appDetailsBody;
+
+    @Setup
+    public void setup() throws IOException {
+        ownedGamesBody = BenchmarkData.ownedGamesJson(librarySize).getBytes(StandardCharsets.UTF_8);
+        // 徽章数量通常远小于游戏数量
+        badgesBody = BenchmarkData.badgesJson(Math.max(10, librarySize / 10)).getBytes(StandardCharsets.UTF_8);
+        try (InputStream in = getClass().getResourceAsStream("/appdetails/730-schinese.json")) {
+            appDetailsBody = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Benchmark
+    public SteamApiClientImpl.OwnedGamesResponse ownedGames() throws IOException {
+        return objectMapper.readValue(ownedGamesBody, SteamApiClientImpl.OwnedGamesResponse.class);
+    }
+
+    @Benchmark
+    public SteamApiClientImpl.BadgesResponse badges() throws IOException {
+        return objectMapper.readValue(badgesBody, SteamApiClientImpl.BadgesResponse.class);
+    }
+
+    @Benchmark
+    public GameDetail storeAppDetails() {
+        return SteamApiClientImpl.parseStoreResponse(appDetailsBody, 730L, "schinese").block();
+    }
+}
@@ -0,0 +1,63 @@
+package com.timxs.steam.model;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.timxs.steam.BenchmarkData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 游戏列表序列化，包含 URL 模板替换和时长/日期格式化等派生 getter
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OwnedGameSerializationBenchmark {
+
+    /** 单页大小到整库导出 */
+    @Param({"20", "1000", "20000"})
+    public int count;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private List<OwnedGame> games;
+
+    @Setup
+    public void setup() {
+        games = BenchmarkData.games(count);
+        for (OwnedGame game : games) {
+            game.setHeaderTemplate(BenchmarkData.HEADER_TEMPLATE);
+            game.setIconTemplate(BenchmarkData.ICON_TEMPLATE);
+        }
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(games);
+    }
+
+    /**
+     * 只调用派生 getter，区分字符串拼接与 Jackson 本身的开销
+     */
+    @Benchmark
+    public int derivedGetters() {
+        int length = 0;
+        for (OwnedGame game : games) {
+            length += game.getHeaderImageUrl().length();
+            String icon = game.getIconUrl();
+            length += icon != null ? icon.length() : 0;
+            length += game.getPlaytimeFormatted().length();
+            String lastPlayed = game.getLastPlayedFormatted();
+            length += lastPlayed != null ? lastPlayed.length() : 0;
+        }
+        return length;
+    }
+}
@@ -0,0 +1,62 @@
+package com.timxs.steam.service;
+
+import com.timxs.steam.BenchmarkData;
+import com.timxs.steam.library.LibraryColumns;
+import com.timxs.steam.library.LibraryIndex;
+import com.timxs.steam.library.LibraryPage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 游戏库分页、排序、过滤（每次请求 /games 或渲染 /steam 都会执行）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LibraryBenchmark {
+
+    @Param({"100", "1000", "5000", "20000"})
+    public int librarySize;
+
+    private LibraryColumns columns;
+    private LibraryIndex index;
+    private Set<Long> hiddenIds;
+
+    @Setup
+    public void setup() {
+        var games = BenchmarkData.games(librarySize);
+        columns = LibraryColumns.of(games);
+        index = LibraryIndex.build(columns);
+        hiddenIds = BenchmarkData.hiddenIds(games);
+    }
+
+    /**
+     * 游戏库刷新后的首次请求：建立索引
+     */
+    @Benchmark
+    public LibraryIndex buildIndex() {
+        return LibraryIndex.build(columns);
+    }
+
+    /**
+     * 一次完整的分页请求：跳过隐藏游戏，按游玩时长取第 3 页
+     */
+    @Benchmark
+    public LibraryPage pageByPlaytime() {
+        return index.page("playtime", 3, 20, hiddenIds, 0);
+    }
+
+    @Benchmark
+    public LibraryPage pageByName() {
+        return index.page("name", 3, 20, hiddenIds, 0);
+    }
+}
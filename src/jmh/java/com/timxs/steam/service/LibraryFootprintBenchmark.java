@@ -0,0 +1,106 @@
+package com.timxs.steam.service;
+
+import com.timxs.steam.BenchmarkData;
+import com.timxs.steam.library.LibraryColumns;
+import com.timxs.steam.model.OwnedGame;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 游戏库缓存的内存占用：{@code List<OwnedGame>} 与 {@link LibraryColumns} 对比
+ * 基准方法衡量建立缓存的耗时，配合 {@code -PjmhProfilers=gc} 查看每次分配的字节数（gc.alloc.rate.norm）；
+ * 每轮结束时另外测量保留在堆上的字节数并打印到输出中。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LibraryFootprintBenchmark {
+
+    /** 测量保留内存时同时持有的副本数，摊薄测量误差 */
+    private static final int COPIES = 20;
+
+    @Param({"1000", "10000", "20000"})
+    public int librarySize;
+
+    private List<OwnedGame> games;
+
+    @Setup
+    public void setup() {
+        games = BenchmarkData.games(librarySize);
+    }
+
+    /**
+     * 原来的缓存方式：反序列化得到的游戏对象列表
+     */
+    @Benchmark
+    public List<OwnedGame> objectList() {
+        return copyOf(games);
+    }
+
+    @Benchmark
+    public LibraryColumns columns() {
+        return LibraryColumns.of(games);
+    }
+
+    @TearDown(Level.Trial)
+    public void reportRetained() {
+        long list = retainedBytes(() -> copyOf(games));
+        long columns = retainedBytes(() -> LibraryColumns.of(games));
+        System.out.printf("%n[footprint] librarySize=%d List<OwnedGame>=%d KB LibraryColumns=%d KB (%.1fx)%n",
+                librarySize, list / 1024, columns / 1024, (double) list / Math.max(1, columns));
+    }
+
+    /**
+     * 每个游戏复制出独立的对象和字符串，与 Jackson 反序列化后的保留结构一致
+     */
+    private static List<OwnedGame> copyOf(List<OwnedGame> source) {
+        List<OwnedGame> copy = new ArrayList<>(source.size());
+        for (OwnedGame game : source) {
+            OwnedGame item = new OwnedGame();
+            item.setAppId(Long.valueOf(game.getAppId()));
+            item.setName(new String(game.getName()));
+            item.setPlaytimeForever(Integer.valueOf(game.getPlaytimeForever()));
+            item.setImgIconUrl(game.getImgIconUrl() != null ? new String(game.getImgIconUrl()) : null);
+            item.setImgLogoUrl(game.getImgLogoUrl() != null ? new String(game.getImgLogoUrl()) : null);
+            item.setRtimeLastPlayed(Long.valueOf(game.getRtimeLastPlayed()));
+            copy.add(item);
+        }
+        return copy;
+    }
+
+    private static long retainedBytes(Supplier<Object> factory) {
+        Object[] held = new Object[COPIES];
+        long before = usedHeap();
+        for (int i = 0; i < COPIES; i++) {
+            held[i] = factory.get();
+        }
+        long after = usedHeap();
+        long perCopy = (after - before) / COPIES;
+        // 保证测量期间副本不被回收
+        if (held[COPIES - 1] == null) {
+            throw new IllegalStateException();
+        }
+        return perCopy;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
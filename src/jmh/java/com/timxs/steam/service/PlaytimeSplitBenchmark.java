@@ -0,0 +1,51 @@
+package com.timxs.steam.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 跨天时长分配（追踪任务长时间未运行后，每款游戏都会执行一次）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PlaytimeSplitBenchmark {
+
+    /** 两次快照之间的间隔天数，60 为追踪服务允许的最大跨度 */
+    @Param({"1", "7", "30", "60"})
+    public int gapDays;
+
+    private ZoneId zone;
+    private Instant start;
+    private Instant end;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private int minutes;
+
+    @Setup
+    public void setup() {
+        zone = ZoneId.systemDefault();
+        end = Instant.parse("2025-06-30T15:59:00Z");
+        start = end.minusSeconds(gapDays * 86400L - 3600);
+        startDate = start.atZone(zone).toLocalDate();
+        endDate = end.atZone(zone).toLocalDate();
+        minutes = 45 * gapDays;
+    }
+
+    @Benchmark
+    public List<PlaytimeTrackingServiceImpl.DayAllocation> allocate() {
+        return PlaytimeTrackingServiceImpl.allocateAcrossDays(minutes, start, end, startDate, endDate, zone);
+    }
+}
@@ -0,0 +1,61 @@
+package com.timxs.steam.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * 单个请求类型的延迟统计
+ */
+class LatencyStats {
+
+    private long[] samples = new long[1024];
+    private int count;
+    private int errors;
+
+    synchronized void record(long nanos, boolean error) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+        if (error) {
+            errors++;
+        }
+    }
+
+    synchronized int count() {
+        return count;
+    }
+
+    synchronized int errors() {
+        return errors;
+    }
+
+    /**
+     * 分位数延迟（毫秒）
+     */
+    synchronized double percentileMillis(double quantile) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int index = Math.max(0, Math.min(count - 1, (int) Math.ceil(quantile * count) - 1));
+        return sorted[index] / 1_000_000.0;
+    }
+
+    synchronized double maxMillis() {
+        long max = 0;
+        for (int i = 0; i < count; i++) {
+            max = Math.max(max, samples[i]);
+        }
+        return max / 1_000_000.0;
+    }
+
+    synchronized void merge(LatencyStats other) {
+        synchronized (other) {
+            for (int i = 0; i < other.count; i++) {
+                record(other.samples[i], false);
+            }
+            errors += other.errors;
+        }
+    }
+}
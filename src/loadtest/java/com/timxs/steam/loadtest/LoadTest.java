@@ -0,0 +1,276 @@
+package com.timxs.steam.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.timxs.steam.mock.MockSteamServer;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 插件公开 API 与主题路由的压测工具
+ *
+ * <p>启动模拟 Steam 服务后，按固定速率（开环）请求运行中的 Halo 实例，统计各请求类型的延迟分位数、
+ * 吞吐量、每个请求引起的上游调用次数，以及（开启 actuator 时）Halo 的内存分配速率。</p>
+ *
+ * <p>Halo 需预先配置：自定义 API 地址为 http://127.0.0.1:{mockPort}，Steam ID 为
+ * {@link MockSteamServer#STEAM_ID}，API Key 任意。</p>
+ *
+ * <pre>
+ * ./gradlew loadTest -PloadtestArgs="--target=http://localhost:8090 --scenario=all --rate=100 --duration=30 \
+ *     --username=admin --password=xxx"
+ * </pre>
+ *
+ * 场景：
+ * <ul>
+ *   <li>cold：先清空插件缓存，再开始压测，观察并发请求合并</li>
+ *   <li>warm：预热所有请求后压测，上游调用应接近 0</li>
+ *   <li>degraded：清空缓存后让上游变慢并返回 20% 的 503，观察超时、重试与熔断</li>
+ * </ul>
+ */
+public class LoadTest {
+
+    private static final String API = "/apis/api.steam.timxs.com/v1alpha1";
+    private static final String CONSOLE_API = "/apis/console.api.steam.timxs.com/v1alpha1";
+    private static final String ALLOCATED_METRIC = "/actuator/metrics/jvm.gc.memory.allocated";
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final Map<String, String> options;
+    private final WebClient webClient;
+    private final MockSteamServer mock;
+    private final Random random = new Random(1);
+
+    LoadTest(Map<String, String> options, MockSteamServer mock) {
+        this.options = options;
+        this.mock = mock;
+        WebClient.Builder builder = WebClient.builder()
+                .baseUrl(option("target", "http://localhost:8090"))
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(16 * 1024 * 1024));
+        if (options.containsKey("username")) {
+            builder.defaultHeaders(headers -> headers.setBasicAuth(options.get("username"),
+                    option("password", "")));
+        }
+        this.webClient = builder.build();
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> options = parseArgs(args);
+        int mockPort = Integer.parseInt(options.getOrDefault("mockPort", "18080"));
+        int librarySize = Integer.parseInt(options.getOrDefault("library", "2000"));
+
+        try (MockSteamServer mock = new MockSteamServer().librarySize(librarySize).start(mockPort)) {
+            System.out.printf("模拟 Steam 服务: %s（游戏库 %d 款，Steam ID %s）%n",
+                    mock.baseUrl(), librarySize, MockSteamServer.STEAM_ID);
+            LoadTest loadTest = new LoadTest(options, mock);
+            String scenario = options.getOrDefault("scenario", "warm");
+            List<String> scenarios = "all".equals(scenario) ? List.of("cold", "warm", "degraded") : List.of(scenario);
+            for (String name : scenarios) {
+                loadTest.runScenario(name);
+            }
+        }
+    }
+
+    void runScenario(String scenario) {
+        mock.latency(Duration.ZERO).errorRate(0, 503).slowBody(Duration.ZERO);
+        switch (scenario) {
+            case "cold" -> refreshCache();
+            case "warm" -> warmUp();
+            case "degraded" -> {
+                refreshCache();
+                mock.latency(Duration.ofMillis(Long.parseLong(option("degradedLatencyMillis", "800"))))
+                        .errorRate(Double.parseDouble(option("degradedErrorRate", "0.2")), 503);
+            }
+            default -> throw new IllegalArgumentException("未知场景: " + scenario);
+        }
+
+        int rate = Integer.parseInt(option("rate", "50"));
+        int durationSeconds = Integer.parseInt(option("duration", "30"));
+        int concurrency = Integer.parseInt(option("concurrency", "256"));
+        long total = (long) rate * durationSeconds;
+        long periodNanos = 1_000_000_000L / rate;
+
+        Map<String, LatencyStats> stats = new ConcurrentHashMap<>();
+        Long allocatedBefore = allocatedBytes();
+        mock.resetCounts();
+        long start = System.nanoTime();
+
+        // 开环：请求按计划时间发出，延迟从计划时间算起，避免协调遗漏
+        Flux.interval(Duration.ofNanos(periodNanos))
+                .take(total)
+                .flatMap(i -> {
+                    long scheduledAt = start + i * periodNanos;
+                    Request request = nextRequest();
+                    return webClient.get().uri(request.uri())
+                            .exchangeToMono(response -> response.releaseBody()
+                                    .thenReturn(response.statusCode().isError()))
+                            .onErrorReturn(true)
+                            .doOnNext(error -> stats.computeIfAbsent(request.type(), k -> new LatencyStats())
+                                    .record(System.nanoTime() - scheduledAt, error));
+                }, concurrency)
+                .blockLast();
+
+        double elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        Long allocatedAfter = allocatedBytes();
+        report(scenario, stats, elapsedSeconds, allocatedBefore, allocatedAfter);
+    }
+
+    /**
+     * 按权重随机选择请求：游戏库分页与主题页面占多数
+     */
+    private Request nextRequest() {
+        int librarySize = mock.library().size();
+        int pages = Math.max(1, librarySize / 20);
+        int roll = random.nextInt(100);
+        if (roll < 10) {
+            return new Request("profile", API + "/profile");
+        }
+        if (roll < 35) {
+            String sortBy = random.nextBoolean() ? "playtime_forever" : "name";
+            return new Request("games", API + "/games?page=" + (1 + random.nextInt(pages))
+                    + "&size=20&sortBy=" + sortBy);
+        }
+        if (roll < 45) {
+            return new Request("recent", API + "/recent");
+        }
+        if (roll < 55) {
+            return new Request("stats", API + "/stats");
+        }
+        if (roll < 60) {
+            return new Request("badges", API + "/badges");
+        }
+        if (roll < 70) {
+            Object appId = mock.library().get(random.nextInt(librarySize)).get("appid");
+            String lang = random.nextBoolean() ? "schinese" : "english";
+            return new Request("game-detail", API + "/game-detail/" + appId + "?lang=" + lang);
+        }
+        if (roll < 80) {
+            LocalDate today = LocalDate.now();
+            return new Request("heatmap", API + "/heatmap/records?startDate=" + today.minusDays(365)
+                    + "&endDate=" + today);
+        }
+        return new Request("steam-page", "/steam/page/" + (1 + random.nextInt(Math.min(pages, 10))));
+    }
+
+    private void warmUp() {
+        refreshCache();
+        List<Supplier<Request>> fixed = List.of(
+                () -> new Request("profile", API + "/profile"),
+                () -> new Request("recent", API + "/recent"),
+                () -> new Request("stats", API + "/stats"),
+                () -> new Request("badges", API + "/badges"));
+        Flux.fromIterable(fixed)
+                .map(Supplier::get)
+                .concatWith(Flux.range(0, 500).map(i -> nextRequest()))
+                .flatMap(request -> webClient.get().uri(request.uri())
+                        .exchangeToMono(response -> response.releaseBody())
+                        .onErrorResume(e -> Mono.empty()), 16)
+                .blockLast();
+    }
+
+    private void refreshCache() {
+        if (!options.containsKey("username")) {
+            System.out.println("未提供 --username/--password，跳过清空缓存（cold/degraded 场景可能不是冷启动）");
+            return;
+        }
+        webClient.post().uri(CONSOLE_API + "/refresh")
+                .exchangeToMono(response -> response.releaseBody())
+                .onErrorResume(e -> {
+                    System.out.println("清空缓存失败: " + e.getMessage());
+                    return Mono.empty();
+                })
+                .block();
+    }
+
+    /**
+     * 读取 Halo 累计分配字节数，未开启 actuator 时返回 null
+     */
+    private Long allocatedBytes() {
+        if (!Boolean.parseBoolean(option("actuator", "false"))) {
+            return null;
+        }
+        try {
+            String body = webClient.get().uri(ALLOCATED_METRIC)
+                    .retrieve()
+                    .bodyToMono(String.class)
+                    .block(Duration.ofSeconds(5));
+            JsonNode measurements = OBJECT_MAPPER.readTree(body).path("measurements");
+            for (JsonNode measurement : measurements) {
+                if ("COUNT".equals(measurement.path("statistic").asText())) {
+                    return measurement.path("value").asLong();
+                }
+            }
+        } catch (Exception e) {
+            System.out.println("读取 actuator 分配指标失败: " + e.getMessage());
+        }
+        return null;
+    }
+
+    private void report(String scenario, Map<String, LatencyStats> stats, double elapsedSeconds,
+                        Long allocatedBefore, Long allocatedAfter) {
+        LatencyStats overall = new LatencyStats();
+        stats.values().forEach(overall::merge);
+        int completed = overall.count();
+
+        System.out.printf("%n==== 场景 %s ====%n", scenario);
+        System.out.printf("%-12s %8s %7s %9s %9s %9s %9s%n", "请求", "次数", "错误", "p50(ms)", "p90(ms)", "p99(ms)",
+                "max(ms)");
+        List<String> types = new ArrayList<>(stats.keySet());
+        types.sort(String::compareTo);
+        for (String type : types) {
+            printRow(type, stats.get(type));
+        }
+        printRow("总计", overall);
+        System.out.printf("吞吐量: %.1f 请求/秒（%d 个请求，%.1f 秒）%n", completed / elapsedSeconds, completed,
+                elapsedSeconds);
+        System.out.printf("上游调用: %d 次，%.3f 次/请求%n", mock.totalRequests(),
+                completed > 0 ? (double) mock.totalRequests() / completed : 0);
+        for (String endpoint : List.of("GetPlayerSummaries", "GetOwnedGames", "GetRecentlyPlayedGames",
+                "GetSteamLevel", "GetBadges", "GetPlayerAchievements", "appdetails")) {
+            long count = mock.requestCount(endpoint);
+            if (count > 0) {
+                System.out.printf("  %-24s %d%n", endpoint, count);
+            }
+        }
+        if (allocatedBefore != null && allocatedAfter != null) {
+            System.out.printf("Halo 分配速率: %.1f MB/秒，%.1f KB/请求%n",
+                    (allocatedAfter - allocatedBefore) / elapsedSeconds / 1024 / 1024,
+                    completed > 0 ? (allocatedAfter - allocatedBefore) / 1024.0 / completed : 0);
+        } else {
+            System.out.println("Halo 分配速率: n/a（使用 --actuator=true 并开放 metrics 端点）");
+        }
+    }
+
+    private static void printRow(String type, LatencyStats stats) {
+        System.out.printf("%-12s %8d %7d %9.1f %9.1f %9.1f %9.1f%n", type, stats.count(), stats.errors(),
+                stats.percentileMillis(0.5), stats.percentileMillis(0.9), stats.percentileMillis(0.99),
+                stats.maxMillis());
+    }
+
+    private String option(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                int index = arg.indexOf('=');
+                options.put(arg.substring(2, index), arg.substring(index + 1));
+            }
+        }
+        return options;
+    }
+
+    private record Request(String type, String uri) {
+    }
+}
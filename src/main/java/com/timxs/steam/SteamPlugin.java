@@ -2,6 +2,7 @@ package com.timxs.steam;
 
 import com.timxs.steam.cache.CacheService;
 import com.timxs.steam.model.DailyPlaytimeRecord;
+import com.timxs.steam.model.GameMetadata;
 import com.timxs.steam.model.PlaytimeSnapshot;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
@@ -77,6 +78,20 @@ public class SteamPlugin extends BasePlugin {
                     record -> record.getSpec().getAppId().toString()))
             );
         });
+
+        // 注册 GameMetadata 并声明索引
+        schemeManager.register(GameMetadata.class, indexSpecs -> {
+            indexSpecs.add(new IndexSpec()
+                .setName("spec.appId")
+                .setIndexFunc(simpleAttribute(GameMetadata.class,
+                    metadata -> metadata.getSpec().getAppId().toString()))
+            );
+            indexSpecs.add(new IndexSpec()
+                .setName("spec.refreshedAt")
+                .setIndexFunc(simpleAttribute(GameMetadata.class,
+                    metadata -> metadata.getSpec().getRefreshedAt().toString()))
+            );
+        });
         
         log.info("Steam 插件启动成功！");
     }
@@ -86,6 +101,7 @@ public class SteamPlugin extends BasePlugin {
         // 注销 Custom Resource（使用官方推荐的写法）
         schemeManager.unregister(Scheme.buildFromType(PlaytimeSnapshot.class));
         schemeManager.unregister(Scheme.buildFromType(DailyPlaytimeRecord.class));
+        schemeManager.unregister(Scheme.buildFromType(GameMetadata.class));
 
         // 清理缓存资源
         cacheService.evictAll().subscribe(
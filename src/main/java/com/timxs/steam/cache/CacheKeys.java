@@ -0,0 +1,57 @@
+package com.timxs.steam.cache;
+
+/**
+ * 缓存键
+ * 业务服务写入、HTTP 条件请求读取版本时共用
+ */
+public final class CacheKeys {
+
+    public static final String PROFILE = "steam:profile";
+    public static final String GAMES = "steam:games";
+    public static final String RECENT = "steam:recent";
+    public static final String BADGES = "steam:badges";
+    public static final String GAME_CORE_PREFIX = "steam:game-core:";
+    public static final String GAME_TEXT_PREFIX = "steam:game-text:";
+    public static final String GAME_PRICE_PREFIX = "steam:game-price:";
+    public static final String GAME_ACHIEVEMENTS_PREFIX = "steam:game-achievements:";
+
+    private CacheKeys() {
+    }
+
+    /**
+     * 游戏详情中与语言无关的元数据，所有语言共享
+     */
+    public static String gameCore(Long appId) {
+        return GAME_CORE_PREFIX + appId;
+    }
+
+    /**
+     * 游戏详情的本地化文本，按 Store 语言区分
+     */
+    public static String gameText(Long appId, String language) {
+        return GAME_TEXT_PREFIX + appId + ":" + language;
+    }
+
+    /**
+     * 游戏详情的价格，按地区区分
+     * @param countryCode 为 null 时表示未指定地区（由 Store 按请求来源决定）
+     */
+    public static String gamePrice(Long appId, String countryCode) {
+        return GAME_PRICE_PREFIX + appId + ":" + (countryCode != null ? countryCode : "default");
+    }
+
+    /**
+     * 当前用户在某个游戏中的成就进度
+     */
+    public static String gameAchievements(Long appId) {
+        return GAME_ACHIEVEMENTS_PREFIX + appId;
+    }
+
+    /**
+     * 游戏详情响应依赖的缓存键：元数据、本地化文本、价格与游戏库
+     * 成就进度不参与，它随游玩变化时游戏库中的时长也会变化
+     */
+    public static String[] gameDetailParts(Long appId, String language, String countryCode) {
+        return new String[] {gameCore(appId), gameText(appId, language), gamePrice(appId, countryCode), GAMES};
+    }
+}
@@ -37,4 +37,9 @@ public interface CacheService {
      * 检查缓存是否存在且未过期
      */
     Mono<Boolean> exists(String key);
+
+    /**
+     * 获取缓存条目的版本信息（即使已过期），不存在时返回空
+     */
+    Mono<CacheVersion> getVersion(String key);
 }
@@ -0,0 +1,25 @@
+package com.timxs.steam.cache;
+
+/**
+ * 缓存条目的版本信息
+ *
+ * @param version   写入版本号，每次写入递增，用于生成 ETag
+ * @param cachedAt  写入时间（毫秒）
+ * @param expiresAt 过期时间（毫秒）
+ */
+public record CacheVersion(long version, long cachedAt, long expiresAt) {
+
+    /**
+     * 距离过期的剩余秒数，已过期时为 0
+     */
+    public long remainingSeconds() {
+        return Math.max(0, (expiresAt - System.currentTimeMillis()) / 1000);
+    }
+
+    /**
+     * 写入时设置的 TTL 秒数
+     */
+    public long ttlSeconds() {
+        return Math.max(0, (expiresAt - cachedAt) / 1000);
+    }
+}
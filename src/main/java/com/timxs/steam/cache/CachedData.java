@@ -9,6 +9,7 @@ import lombok.Data;
 public class CachedData<T> {
     
     private T data;
+    private long version;
     private long cachedAt;
     private long expiresAt;
 
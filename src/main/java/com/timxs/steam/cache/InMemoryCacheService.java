@@ -1,82 +1,114 @@
 package com.timxs.steam.cache;
 
+import com.timxs.steam.trace.SteamTracer;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 内存缓存服务实现
  */
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class InMemoryCacheService implements CacheService {
 
     private final ConcurrentHashMap<String, CachedData<?>> cache = new ConcurrentHashMap<>();
 
+    /** 写入版本号，所有键共用一个递增序列 */
+    private final AtomicLong versions = new AtomicLong();
+
+    private final SteamTracer tracer;
+
     @Override
     @SuppressWarnings("unchecked")
     public <T> Mono<T> get(String key, Class<T> type) {
-        return Mono.fromCallable(() -> {
+        return tracer.span(SteamTracer.CACHE, "get", span -> Mono.fromCallable(() -> {
+            span.tag("key", key);
             CachedData<?> cachedData = cache.get(key);
             if (cachedData == null) {
+                span.tag("hit", false);
                 return null;
             }
             if (cachedData.isExpired()) {
                 log.debug("缓存已过期: key={}", key);
+                span.tag("hit", false).tag("expired", true);
                 return null;
             }
+            span.tag("hit", true);
             return (T) cachedData.getData();
-        });
+        }));
     }
 
     @Override
     public <T> Mono<Void> put(String key, T value, int ttlMinutes) {
-        return Mono.fromRunnable(() -> {
+        return tracer.span(SteamTracer.CACHE, "put", span -> Mono.fromRunnable(() -> {
+            span.tag("key", key);
             CachedData<T> cachedData = new CachedData<>(value, ttlMinutes);
+            cachedData.setVersion(versions.incrementAndGet());
             cache.put(key, cachedData);
             log.debug("缓存已存储: key={}, ttl={}min", key, ttlMinutes);
-        });
+        }));
     }
 
     @Override
     public Mono<Void> evict(String key) {
-        return Mono.fromRunnable(() -> {
+        return tracer.span(SteamTracer.CACHE, "evict", span -> Mono.fromRunnable(() -> {
+            span.tag("key", key);
             cache.remove(key);
             log.debug("缓存已删除: key={}", key);
-        });
+        }));
     }
 
     @Override
     public Mono<Void> evictAll() {
-        return Mono.fromRunnable(() -> {
+        return tracer.span(SteamTracer.CACHE, "evictAll", Mono.fromRunnable(() -> {
             cache.clear();
             log.info("所有缓存已清空");
-        });
+        }));
     }
 
     @Override
     @SuppressWarnings("unchecked")
     public <T> Mono<T> getStale(String key, Class<T> type) {
-        return Mono.fromCallable(() -> {
+        return tracer.span(SteamTracer.CACHE, "getStale", span -> Mono.fromCallable(() -> {
+            span.tag("key", key);
             CachedData<?> cachedData = cache.get(key);
             if (cachedData == null) {
+                span.tag("hit", false);
                 return null;
             }
             // 返回数据，即使已过期
             if (cachedData.isExpired()) {
                 log.debug("返回过期缓存: key={}, age={}min", key, cachedData.getAgeMinutes());
+                span.tag("expired", true);
             }
+            span.tag("hit", true);
             return (T) cachedData.getData();
-        });
+        }));
     }
 
     @Override
     public Mono<Boolean> exists(String key) {
-        return Mono.fromCallable(() -> {
+        return tracer.span(SteamTracer.CACHE, "exists", span -> Mono.fromCallable(() -> {
+            span.tag("key", key);
             CachedData<?> cachedData = cache.get(key);
             return cachedData != null && !cachedData.isExpired();
+        }));
+    }
+
+    @Override
+    public Mono<CacheVersion> getVersion(String key) {
+        return Mono.fromCallable(() -> {
+            CachedData<?> cachedData = cache.get(key);
+            if (cachedData == null) {
+                return null;
+            }
+            return new CacheVersion(cachedData.getVersion(), cachedData.getCachedAt(), cachedData.getExpiresAt());
         });
     }
 }
@@ -0,0 +1,397 @@
+package com.timxs.steam.catalog;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.SortedMap;
+import java.util.function.IntPredicate;
+
+/**
+ * Steam 应用目录文件
+ * 只读映射到内存，查询时直接读取映射区域，不在堆上保留二十万个对象。
+ *
+ * <pre>
+ * 文件头（32 字节）   magic、格式版本、应用数、键数、最后修改时间（增量刷新的起点）
+ * 前缀表             65537 个 int，键按前两个字节分桶后每个桶的起始下标
+ * 键                 每项 (应用下标, 名称内的字节偏移)，按该偏移起的规范化名称字节排序；
+ *                    每个单词的起始位置各有一个键，因此能从名称中间的单词开始匹配
+ * 应用               每项 (appId, 规范化名称偏移, 长度, 原名称偏移, 长度)，按 appId 升序
+ * 字符串区           UTF-8 字节
+ * </pre>
+ */
+final class AppCatalogFile {
+
+    private static final int MAGIC = 0x53544341;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int PREFIX_BUCKETS = 65536;
+    private static final int PREFIX_TABLE_BYTES = (PREFIX_BUCKETS + 1) * Integer.BYTES;
+    private static final int KEY_BYTES = 8;
+    private static final int APP_BYTES = 20;
+
+    private final ByteBuffer buffer;
+    private final int appCount;
+    private final int keyCount;
+    private final long lastModified;
+    private final int keysOffset;
+    private final int appsOffset;
+    private final int stringsOffset;
+
+    private AppCatalogFile(ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IllegalStateException("应用目录文件格式不正确");
+        }
+        this.appCount = buffer.getInt(8);
+        this.keyCount = buffer.getInt(12);
+        this.lastModified = buffer.getLong(16);
+        this.keysOffset = HEADER_BYTES + PREFIX_TABLE_BYTES;
+        this.appsOffset = keysOffset + keyCount * KEY_BYTES;
+        this.stringsOffset = appsOffset + appCount * APP_BYTES;
+    }
+
+    /**
+     * 映射目录文件
+     */
+    static AppCatalogFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new AppCatalogFile(mapped.order(ByteOrder.BIG_ENDIAN));
+        }
+    }
+
+    int appCount() {
+        return appCount;
+    }
+
+    long lastModified() {
+        return lastModified;
+    }
+
+    long appIdAt(int app) {
+        return Integer.toUnsignedLong(buffer.getInt(appsOffset + app * APP_BYTES));
+    }
+
+    String nameAt(int app) {
+        int base = appsOffset + app * APP_BYTES;
+        return readString(buffer.getInt(base + 12), buffer.getInt(base + 16));
+    }
+
+    /**
+     * 按 appId 查找应用下标，不存在返回 -1
+     */
+    int findApp(long appId) {
+        int low = 0;
+        int high = appCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long value = appIdAt(mid);
+            if (value < appId) {
+                low = mid + 1;
+            } else if (value > appId) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 应用名称中是否有单词以该前缀开头
+     */
+    boolean matchesPrefix(int app, byte[] prefix) {
+        int base = appsOffset + app * APP_BYTES;
+        int offset = buffer.getInt(base + 4);
+        int length = buffer.getInt(base + 8);
+        for (int i = 0; i + prefix.length <= length; i++) {
+            if (isWordStart(buffer, stringsOffset + offset, i) && regionEquals(stringsOffset + offset + i, prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 名称（从开头起）是否以该前缀开头
+     */
+    boolean startsWith(int app, byte[] prefix) {
+        int base = appsOffset + app * APP_BYTES;
+        return buffer.getInt(base + 8) >= prefix.length
+                && regionEquals(stringsOffset + buffer.getInt(base + 4), prefix);
+    }
+
+    int normalizedLength(int app) {
+        return buffer.getInt(appsOffset + app * APP_BYTES + 8);
+    }
+
+    /**
+     * 按前缀扫描键，返回名称中有单词以该前缀开头的应用下标（去重，按键顺序）
+     *
+     * @param prefix  规范化后的前缀字节
+     * @param max     最多返回数量
+     * @param include 是否收录该应用
+     */
+    int[] scanPrefix(byte[] prefix, int max, IntPredicate include) {
+        if (prefix.length == 0 || keyCount == 0) {
+            return new int[0];
+        }
+        int bucket = (prefix[0] & 0xff) << 8;
+        int from;
+        int to;
+        if (prefix.length == 1) {
+            from = prefixTable(bucket);
+            to = prefixTable(bucket + 256);
+        } else {
+            bucket |= prefix[1] & 0xff;
+            from = prefixTable(bucket);
+            to = prefixTable(bucket + 1);
+        }
+        // 桶内二分查找第一个不小于前缀的键
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareKey(mid, prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        int[] result = new int[Math.max(0, max)];
+        int count = 0;
+        for (int k = low; k < to && count < max; k++) {
+            if (compareKey(k, prefix) != 0) {
+                break;
+            }
+            int app = buffer.getInt(keysOffset + k * KEY_BYTES);
+            if (include.test(app) && !contains(result, count, app)) {
+                result[count++] = app;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * 逐个读取全部应用，增量刷新时用于与新数据合并
+     */
+    void forEach(AppConsumer consumer) {
+        for (int app = 0; app < appCount; app++) {
+            consumer.accept(appIdAt(app), nameAt(app));
+        }
+    }
+
+    @FunctionalInterface
+    interface AppConsumer {
+        void accept(long appId, String name);
+    }
+
+    private int prefixTable(int bucket) {
+        return buffer.getInt(HEADER_BYTES + bucket * Integer.BYTES);
+    }
+
+    /**
+     * 比较键与前缀：键以前缀开头时返回 0
+     */
+    private int compareKey(int key, byte[] prefix) {
+        int base = keysOffset + key * KEY_BYTES;
+        int app = buffer.getInt(base);
+        int offset = buffer.getInt(base + 4);
+        int appBase = appsOffset + app * APP_BYTES;
+        int start = stringsOffset + buffer.getInt(appBase + 4) + offset;
+        int length = buffer.getInt(appBase + 8) - offset;
+        for (int i = 0; i < prefix.length; i++) {
+            if (i >= length) {
+                return -1;
+            }
+            int diff = (buffer.get(start + i) & 0xff) - (prefix[i] & 0xff);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return 0;
+    }
+
+    private boolean regionEquals(int position, byte[] prefix) {
+        for (int i = 0; i < prefix.length; i++) {
+            if (buffer.get(position + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String readString(int offset, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(stringsOffset + offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        // 同一应用的多个键通常相邻，从后往前找
+        for (int i = count - 1; i >= 0 && i >= count - 8; i--) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 规范化名称：NFKC（全角转半角）并转小写
+     */
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        return Normalizer.normalize(value, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT).trim();
+    }
+
+    /**
+     * 单词起点：名称开头，或前一个字节是 ASCII 空白、标点而当前字节不是
+     */
+    private static boolean isWordStart(ByteBuffer buffer, int base, int i) {
+        if (i == 0) {
+            return true;
+        }
+        return isSeparator(buffer.get(base + i - 1)) && !isSeparator(buffer.get(base + i));
+    }
+
+    private static boolean isSeparator(byte b) {
+        return b >= 0 && !Character.isLetterOrDigit((char) b);
+    }
+
+    /**
+     * 写入目录文件，先写临时文件再原子替换，已映射的旧文件不受影响
+     *
+     * @param path         目标文件
+     * @param appIds       按 appId 升序、不重复
+     * @param names        与 appIds 对应的原名称
+     * @param lastModified 数据中最大的修改时间
+     */
+    static void write(Path path, long[] appIds, String[] names, long lastModified) throws IOException {
+        int appCount = appIds.length;
+        byte[][] normalized = new byte[appCount][];
+        byte[][] original = new byte[appCount][];
+        int stringBytes = 0;
+        for (int app = 0; app < appCount; app++) {
+            normalized[app] = normalize(names[app]).getBytes(StandardCharsets.UTF_8);
+            original[app] = (names[app] != null ? names[app] : "").getBytes(StandardCharsets.UTF_8);
+            stringBytes += normalized[app].length + original[app].length;
+        }
+
+        int keyCount = 0;
+        int[] keyApps = new int[appCount * 2];
+        int[] keyOffsets = new int[appCount * 2];
+        for (int app = 0; app < appCount; app++) {
+            byte[] name = normalized[app];
+            ByteBuffer view = ByteBuffer.wrap(name);
+            for (int i = 0; i < name.length; i++) {
+                if (isWordStart(view, 0, i)) {
+                    if (keyCount == keyApps.length) {
+                        keyApps = Arrays.copyOf(keyApps, keyCount * 2);
+                        keyOffsets = Arrays.copyOf(keyOffsets, keyCount * 2);
+                    }
+                    keyApps[keyCount] = app;
+                    keyOffsets[keyCount] = i;
+                    keyCount++;
+                }
+            }
+        }
+        final int[] apps = keyApps;
+        final int[] offsets = keyOffsets;
+        Integer[] order = new Integer[keyCount];
+        for (int k = 0; k < keyCount; k++) {
+            order[k] = k;
+        }
+        Arrays.sort(order, (a, b) -> compareSuffix(normalized[apps[a]], offsets[a], normalized[apps[b]], offsets[b]));
+
+        int[] prefixTable = new int[PREFIX_BUCKETS + 1];
+        int next = 0;
+        for (int bucket = 0; bucket <= PREFIX_BUCKETS; bucket++) {
+            while (next < keyCount && bucketOf(normalized[apps[order[next]]], offsets[order[next]]) < bucket) {
+                next++;
+            }
+            prefixTable[bucket] = next;
+        }
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.createDirectories(path.getParent());
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(appCount).putInt(keyCount).putLong(lastModified);
+            out.write(header.array());
+
+            ByteBuffer ints = ByteBuffer.allocate(Integer.BYTES * 5);
+            for (int value : prefixTable) {
+                out.write(ints.clear().putInt(value).array(), 0, Integer.BYTES);
+            }
+            for (int k = 0; k < keyCount; k++) {
+                out.write(ints.clear().putInt(apps[order[k]]).putInt(offsets[order[k]]).array(), 0, KEY_BYTES);
+            }
+            int stringOffset = 0;
+            for (int app = 0; app < appCount; app++) {
+                ints.clear()
+                        .putInt((int) appIds[app])
+                        .putInt(stringOffset)
+                        .putInt(normalized[app].length)
+                        .putInt(stringOffset + normalized[app].length)
+                        .putInt(original[app].length);
+                out.write(ints.array(), 0, APP_BYTES);
+                stringOffset += normalized[app].length + original[app].length;
+            }
+            for (int app = 0; app < appCount; app++) {
+                out.write(normalized[app]);
+                out.write(original[app]);
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static int compareSuffix(byte[] a, int offsetA, byte[] b, int offsetB) {
+        int lengthA = a.length - offsetA;
+        int lengthB = b.length - offsetB;
+        int length = Math.min(lengthA, lengthB);
+        for (int i = 0; i < length; i++) {
+            int diff = (a[offsetA + i] & 0xff) - (b[offsetB + i] & 0xff);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return lengthA - lengthB;
+    }
+
+    private static int bucketOf(byte[] name, int offset) {
+        int first = offset < name.length ? name[offset] & 0xff : 0;
+        int second = offset + 1 < name.length ? name[offset + 1] & 0xff : 0;
+        return first << 8 | second;
+    }
+
+    /**
+     * 把应用列表整理为按 appId 升序、不重复的数组后写入
+     */
+    static void writeSorted(Path path, SortedMap<Long, String> apps, long lastModified) throws IOException {
+        long[] appIds = new long[apps.size()];
+        String[] names = new String[apps.size()];
+        int i = 0;
+        for (var entry : apps.entrySet()) {
+            appIds[i] = entry.getKey();
+            names[i] = entry.getValue();
+            i++;
+        }
+        write(path, appIds, names, lastModified);
+    }
+}
@@ -0,0 +1,316 @@
+package com.timxs.steam.catalog;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.timxs.steam.client.RequestPriority;
+import com.timxs.steam.client.SteamApiClient;
+import com.timxs.steam.model.AppListPage;
+import com.timxs.steam.service.SteamService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Steam 应用目录服务
+ * 目录来自 IStoreService/GetAppList 或导入的文件，保存为映射到内存的目录文件（见 {@link AppCatalogFile}）。
+ * 首次查询时才加载或下载；超过刷新间隔后在后台只拉取修改过的应用并重建文件。
+ */
+@Slf4j
+@Service
+public class AppCatalogService {
+
+    /** 目录多久增量刷新一次 */
+    private static final Duration REFRESH_INTERVAL = Duration.ofHours(24);
+
+    /** 自动刷新失败后的重试间隔，避免每次联想都请求 Steam */
+    private static final Duration RETRY_INTERVAL = Duration.ofMinutes(30);
+
+    /** GetAppList 每页数量 */
+    private static final int PAGE_SIZE = 20000;
+
+    /** 前缀扫描的候选数量上限，超出后只在这些候选里排序 */
+    private static final int SCAN_LIMIT = 500;
+
+    private final SteamApiClient steamApiClient;
+    private final SteamService steamService;
+    private final Path catalogPath;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private volatile AppCatalogFile catalog;
+    private volatile boolean loaded;
+    private volatile Instant checkedAt = Instant.EPOCH;
+    private volatile Instant attemptedAt = Instant.EPOCH;
+
+    public AppCatalogService(SteamApiClient steamApiClient, SteamService steamService, Environment environment) {
+        this.steamApiClient = steamApiClient;
+        this.steamService = steamService;
+        String workDir = environment.getProperty("halo.work-dir",
+                Path.of(System.getProperty("user.home"), ".halo2").toString());
+        this.catalogPath = Path.of(workDir, "steam", "catalog", "apps.bin");
+    }
+
+    /**
+     * 按名称前缀（或 appId）联想应用，拥有的游戏排在前面
+     *
+     * @param keyword 名称中任一单词的前缀，或数字 appId
+     * @param limit   最多返回数量
+     */
+    public Mono<CatalogSuggestions> suggest(String keyword, int limit) {
+        return Mono.zip(catalog(), steamService.getOwnedAppIds().onErrorReturn(Set.of()).defaultIfEmpty(Set.of()))
+                .map(tuple -> suggest(tuple.getT1(), tuple.getT2(), keyword, limit))
+                .defaultIfEmpty(new CatalogSuggestions(List.of(), 0, refreshing.get()));
+    }
+
+    private CatalogSuggestions suggest(AppCatalogFile file, Set<Long> owned, String keyword, int limit) {
+        byte[] prefix = AppCatalogFile.normalize(keyword).getBytes(StandardCharsets.UTF_8);
+        List<CatalogSuggestions.Item> items = new ArrayList<>();
+        Set<Integer> seen = new HashSet<>();
+
+        // appId 精确匹配
+        if (keyword.trim().matches("\\d{1,10}")) {
+            int app = file.findApp(Long.parseLong(keyword.trim()));
+            if (app >= 0 && seen.add(app)) {
+                items.add(item(file, app, owned));
+            }
+        }
+
+        // 拥有的游戏：逐个检查名称中的单词，数量有限，直接遍历
+        List<Integer> ownedMatches = new ArrayList<>();
+        for (Long appId : owned) {
+            int app = file.findApp(appId);
+            if (app >= 0 && !seen.contains(app) && file.matchesPrefix(app, prefix)) {
+                ownedMatches.add(app);
+            }
+        }
+        ownedMatches.sort(ranking(file, prefix));
+        for (int app : ownedMatches) {
+            if (seen.add(app)) {
+                items.add(item(file, app, owned));
+            }
+        }
+
+        // 其余应用：在前缀索引中取候选后排序
+        if (items.size() < limit) {
+            List<Integer> others = new ArrayList<>();
+            for (int app : file.scanPrefix(prefix, SCAN_LIMIT, app -> !seen.contains(app))) {
+                others.add(app);
+            }
+            others.sort(ranking(file, prefix));
+            for (int app : others) {
+                if (items.size() >= limit) {
+                    break;
+                }
+                if (seen.add(app)) {
+                    items.add(item(file, app, owned));
+                }
+            }
+        }
+        return new CatalogSuggestions(items.size() > limit ? items.subList(0, limit) : items,
+                file.appCount(), refreshing.get());
+    }
+
+    /**
+     * 名称以关键词开头的优先，其次名称较短的（更接近关键词本身）
+     */
+    private static Comparator<Integer> ranking(AppCatalogFile file, byte[] prefix) {
+        return Comparator.<Integer>comparingInt(app -> file.startsWith(app, prefix) ? 0 : 1)
+                .thenComparingInt(file::normalizedLength)
+                .thenComparingLong(file::appIdAt);
+    }
+
+    private static CatalogSuggestions.Item item(AppCatalogFile file, int app, Set<Long> owned) {
+        long appId = file.appIdAt(app);
+        return new CatalogSuggestions.Item(appId, file.nameAt(app), owned.contains(appId));
+    }
+
+    /**
+     * 获取目录：首次调用时映射已有文件；没有文件或已超过刷新间隔时在后台刷新
+     * 目录尚不可用时返回空
+     */
+    private Mono<AppCatalogFile> catalog() {
+        return Mono.fromCallable(() -> {
+                    if (!loaded) {
+                        synchronized (this) {
+                            if (!loaded) {
+                                catalog = openIfExists();
+                                loaded = true;
+                            }
+                        }
+                    }
+                    AppCatalogFile file = catalog;
+                    Instant now = Instant.now();
+                    boolean stale = file == null || now.isAfter(checkedAt.plus(REFRESH_INTERVAL));
+                    if (stale && now.isAfter(attemptedAt.plus(RETRY_INTERVAL))) {
+                        refreshInBackground();
+                    }
+                    return file;
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private AppCatalogFile openIfExists() {
+        if (!Files.exists(catalogPath)) {
+            return null;
+        }
+        try {
+            AppCatalogFile file = AppCatalogFile.open(catalogPath);
+            checkedAt = Files.getLastModifiedTime(catalogPath).toInstant();
+            log.info("已加载 Steam 应用目录: {} 个应用", file.appCount());
+            return file;
+        } catch (IOException | RuntimeException e) {
+            log.warn("加载 Steam 应用目录失败，将重新下载: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 在后台刷新目录，已在刷新时忽略
+     */
+    public void refreshInBackground() {
+        refresh().subscribe(
+                count -> { },
+                e -> log.warn("刷新 Steam 应用目录失败: {}", e.getMessage()));
+    }
+
+    /**
+     * 刷新目录：已有目录时只拉取上次之后修改过的应用
+     *
+     * @return 刷新后的应用数，已在刷新时返回空
+     */
+    public Mono<Integer> refresh() {
+        return Mono.defer(() -> {
+            if (!refreshing.compareAndSet(false, true)) {
+                return Mono.empty();
+            }
+            attemptedAt = Instant.now();
+            AppCatalogFile current = catalog;
+            long since = current != null ? current.lastModified() : 0;
+            SortedMap<Long, String> changed = new TreeMap<>();
+            long[] maxModified = {since};
+            return steamApiClient.getAppList(since, 0, PAGE_SIZE)
+                    .expand(page -> page.isHaveMoreResults() && page.getLastAppId() != null
+                            ? steamApiClient.getAppList(since, page.getLastAppId(), PAGE_SIZE)
+                            : Mono.empty())
+                    .doOnNext(page -> collect(page, changed, maxModified))
+                    .then(Mono.fromCallable(() -> rebuild(current, changed, maxModified[0]))
+                            .subscribeOn(Schedulers.boundedElastic()))
+                    .doOnSuccess(count -> log.info("Steam 应用目录已刷新: 更新 {} 个，共 {} 个应用", changed.size(), count))
+                    .doFinally(signal -> refreshing.set(false))
+                    .contextWrite(RequestPriority.BACKGROUND.context());
+        });
+    }
+
+    /**
+     * 导入应用列表文件（ISteamApps/GetAppList 或 IStoreService/GetAppList 的 JSON），与现有目录合并
+     *
+     * @return 合并后的应用数
+     */
+    public Mono<Integer> importFile(Path file) {
+        return Mono.fromCallable(() -> {
+                    if (!refreshing.compareAndSet(false, true)) {
+                        throw new IllegalStateException("目录正在刷新，请稍后再试");
+                    }
+                    try {
+                        SortedMap<Long, String> imported = new TreeMap<>();
+                        long[] maxModified = {catalog != null ? catalog.lastModified() : 0};
+                        try (InputStream in = Files.newInputStream(file)) {
+                            readAppList(in, imported, maxModified);
+                        }
+                        int count = rebuild(catalog, imported, maxModified[0]);
+                        log.info("已导入 Steam 应用目录: {} 个应用，合并后共 {} 个", imported.size(), count);
+                        return count;
+                    } finally {
+                        refreshing.set(false);
+                    }
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static void collect(AppListPage page, SortedMap<Long, String> apps, long[] maxModified) {
+        if (page.getApps() == null) {
+            return;
+        }
+        for (AppListPage.App app : page.getApps()) {
+            if (app.getAppId() == null || app.getName() == null || app.getName().isBlank()) {
+                continue;
+            }
+            apps.put(app.getAppId(), app.getName());
+            if (app.getLastModified() != null && app.getLastModified() > maxModified[0]) {
+                maxModified[0] = app.getLastModified();
+            }
+        }
+    }
+
+    /**
+     * 流式读取 JSON 中的 apps 数组，不把整个文件读入内存
+     */
+    private static void readAppList(InputStream in, SortedMap<Long, String> apps, long[] maxModified)
+            throws IOException {
+        try (JsonParser parser = new JsonFactory().createParser(in)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token != JsonToken.FIELD_NAME || !"apps".equals(parser.currentName())) {
+                    continue;
+                }
+                if (parser.nextToken() != JsonToken.START_ARRAY) {
+                    continue;
+                }
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    Long appId = null;
+                    String name = null;
+                    long modified = 0;
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String field = parser.currentName();
+                        parser.nextToken();
+                        switch (field) {
+                            case "appid" -> appId = parser.getValueAsLong();
+                            case "name" -> name = parser.getValueAsString();
+                            case "last_modified" -> modified = parser.getValueAsLong();
+                            default -> parser.skipChildren();
+                        }
+                    }
+                    if (appId != null && appId > 0 && name != null && !name.isBlank()) {
+                        apps.put(appId, name);
+                        maxModified[0] = Math.max(maxModified[0], modified);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 合并现有目录与新数据，写入新文件并重新映射
+     */
+    private int rebuild(AppCatalogFile current, SortedMap<Long, String> changed, long lastModified)
+            throws IOException {
+        SortedMap<Long, String> merged = new TreeMap<>();
+        if (current != null) {
+            current.forEach(merged::put);
+        }
+        merged.putAll(changed);
+        AppCatalogFile.writeSorted(catalogPath, merged, lastModified);
+        catalog = AppCatalogFile.open(catalogPath);
+        loaded = true;
+        checkedAt = Instant.now();
+        return catalog.appCount();
+    }
+}
@@ -0,0 +1,29 @@
+package com.timxs.steam.catalog;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 应用目录联想结果
+ */
+@Data
+@AllArgsConstructor
+public class CatalogSuggestions {
+    /** 匹配的应用，拥有的游戏在前 */
+    private List<Item> items;
+    /** 目录中的应用总数，0 表示目录尚未就绪 */
+    private int catalogSize;
+    /** 目录是否正在后台刷新 */
+    private boolean refreshing;
+
+    @Data
+    @AllArgsConstructor
+    public static class Item {
+        private long appId;
+        private String name;
+        /** 是否已拥有 */
+        private boolean owned;
+    }
+}
@@ -0,0 +1,113 @@
+package com.timxs.steam.client;
+
+import com.timxs.steam.service.SteamSettingService;
+import com.timxs.steam.service.SteamSettingService.AdaptiveTimeoutConfig;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 按接口自适应的上游超时
+ * 根据各接口最近请求耗时的 p99 乘以系数计算超时，并限制在配置的上下限之间；
+ * 样本不足或未启用时使用「API 请求超时时间」配置
+ */
+@Component
+public class AdaptiveTimeouts {
+
+    /** 样本数少于该值时不使用自适应超时 */
+    private static final int MIN_SAMPLES = 20;
+
+    private final SteamSettingService settingService;
+    private final Map<SteamEndpoint, LatencyTracker> trackers = new EnumMap<>(SteamEndpoint.class);
+
+    public AdaptiveTimeouts(SteamSettingService settingService) {
+        this.settingService = settingService;
+        for (SteamEndpoint endpoint : SteamEndpoint.values()) {
+            trackers.put(endpoint, new LatencyTracker());
+        }
+    }
+
+    /**
+     * 获取接口当前应使用的超时时间
+     */
+    public Mono<Duration> timeoutFor(SteamEndpoint endpoint) {
+        return Mono.zip(settingService.getApiTimeoutSeconds(), settingService.getAdaptiveTimeoutConfig())
+                .map(tuple -> Duration.ofMillis(
+                        computeTimeoutMillis(endpoint, tuple.getT1() * 1000L, tuple.getT2())));
+    }
+
+    /**
+     * 记录请求耗时：成功记录实际耗时，超时记录已等待的时间，使超时后估计值能够回升
+     */
+    public <T> Mono<T> measure(SteamEndpoint endpoint, Mono<T> request) {
+        LatencyTracker tracker = trackers.get(endpoint);
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return request
+                    .doOnSuccess(value -> tracker.record(elapsedMillis(start)))
+                    .doOnError(TimeoutException.class, e -> tracker.record(elapsedMillis(start)));
+        });
+    }
+
+    /**
+     * 获取各接口延迟分位数与当前超时
+     */
+    public Mono<List<TimeoutStatus>> getStatus() {
+        return Mono.zip(settingService.getApiTimeoutSeconds(), settingService.getAdaptiveTimeoutConfig())
+                .map(tuple -> {
+                    List<TimeoutStatus> result = new ArrayList<>();
+                    for (Map.Entry<SteamEndpoint, LatencyTracker> entry : trackers.entrySet()) {
+                        LatencyTracker tracker = entry.getValue();
+                        result.add(new TimeoutStatus(
+                                entry.getKey(),
+                                tracker.size(),
+                                tracker.percentile(0.5),
+                                tracker.percentile(0.95),
+                                tracker.percentile(0.99),
+                                computeTimeoutMillis(entry.getKey(), tuple.getT1() * 1000L, tuple.getT2())));
+                    }
+                    return result;
+                });
+    }
+
+    private long computeTimeoutMillis(SteamEndpoint endpoint, long staticMillis, AdaptiveTimeoutConfig config) {
+        if (!Boolean.TRUE.equals(config.getEnabled())) {
+            return staticMillis;
+        }
+        LatencyTracker tracker = trackers.get(endpoint);
+        if (tracker.size() < MIN_SAMPLES) {
+            return staticMillis;
+        }
+        long minMillis = config.getMinMillis();
+        long maxMillis = Math.max(minMillis, config.getMaxSeconds() * 1000L);
+        long adaptive = (long) (tracker.percentile(0.99) * config.getFactor());
+        return Math.max(minMillis, Math.min(maxMillis, adaptive));
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    /**
+     * 接口超时状态
+     */
+    @Data
+    @AllArgsConstructor
+    public static class TimeoutStatus {
+        private SteamEndpoint endpoint;
+        private int samples;
+        private long p50Millis;
+        private long p95Millis;
+        private long p99Millis;
+        /** 当前生效的超时时间（毫秒） */
+        private long timeoutMillis;
+    }
+}
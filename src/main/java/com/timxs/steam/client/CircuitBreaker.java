@@ -0,0 +1,104 @@
+package com.timxs.steam.client;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 单个上游接口的熔断器
+ * CLOSED：正常放行，连续失败达到阈值后进入 OPEN
+ * OPEN：直接拒绝，等待时间到达后进入 HALF_OPEN
+ * HALF_OPEN：只放行一个探测请求，成功则恢复 CLOSED，失败则重新 OPEN
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final SteamEndpoint endpoint;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+    private long totalFailures;
+    private long rejected;
+
+    public CircuitBreaker(SteamEndpoint endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * 尝试获取调用许可
+     * @param openMillis OPEN 状态持续时间
+     * @return false 表示熔断中，应直接失败
+     */
+    public synchronized boolean tryAcquire(long openMillis) {
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() - openedAt < openMillis) {
+                rejected++;
+                return false;
+            }
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialInFlight) {
+                rejected++;
+                return false;
+            }
+            trialInFlight = true;
+        }
+        return true;
+    }
+
+    /**
+     * 记录一次成功（上游有正常响应）
+     */
+    public synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+
+    /**
+     * 记录一次上游故障
+     * @param failureThreshold 连续失败多少次后熔断
+     */
+    public synchronized void onFailure(int failureThreshold) {
+        totalFailures++;
+        consecutiveFailures++;
+        trialInFlight = false;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * 调用被取消，释放探测名额
+     */
+    public synchronized void onCancel() {
+        trialInFlight = false;
+    }
+
+    public synchronized Status status() {
+        return new Status(endpoint, endpoint.getDisplayName(), state, consecutiveFailures,
+                state == State.CLOSED ? null : openedAt, totalFailures, rejected);
+    }
+
+    /**
+     * 熔断器状态
+     */
+    @Data
+    @AllArgsConstructor
+    public static class Status {
+        private SteamEndpoint endpoint;
+        private String displayName;
+        private State state;
+        private int consecutiveFailures;
+        /** 最近一次熔断时间（毫秒时间戳），CLOSED 时为 null */
+        private Long openedAt;
+        private long totalFailures;
+        private long rejected;
+    }
+}
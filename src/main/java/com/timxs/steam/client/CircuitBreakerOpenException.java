@@ -0,0 +1,11 @@
+package com.timxs.steam.client;
+
+/**
+ * 上游接口熔断中，请求被直接拒绝
+ */
+public class CircuitBreakerOpenException extends RuntimeException {
+
+    public CircuitBreakerOpenException(SteamEndpoint endpoint) {
+        super("Steam 接口熔断中: " + endpoint.getDisplayName());
+    }
+}
@@ -0,0 +1,53 @@
+package com.timxs.steam.client;
+
+import java.util.Arrays;
+
+/**
+ * 滚动延迟直方图
+ * 保留最近 WINDOW 次请求耗时，按需排序计算分位数
+ */
+public class LatencyTracker {
+
+    private static final int WINDOW = 256;
+
+    private final long[] samples = new long[WINDOW];
+    private int size;
+    private int next;
+    private long[] sorted;
+
+    /**
+     * 记录一次请求耗时（毫秒）
+     */
+    public synchronized void record(long millis) {
+        samples[next] = millis;
+        next = (next + 1) % WINDOW;
+        if (size < WINDOW) {
+            size++;
+        }
+        sorted = null;
+    }
+
+    /**
+     * 当前窗口内的样本数
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * 计算分位数耗时（毫秒）
+     * @param quantile 0 到 1 之间，如 0.99
+     * @return 没有样本时返回 -1
+     */
+    public synchronized long percentile(double quantile) {
+        if (size == 0) {
+            return -1;
+        }
+        if (sorted == null) {
+            sorted = Arrays.copyOf(samples, size);
+            Arrays.sort(sorted);
+        }
+        int index = (int) Math.ceil(quantile * size) - 1;
+        return sorted[Math.max(0, Math.min(size - 1, index))];
+    }
+}
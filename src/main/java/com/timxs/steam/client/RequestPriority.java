@@ -0,0 +1,52 @@
+package com.timxs.steam.client;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/**
+ * 上游请求优先级
+ * 通过 Reactor Context 传递，未指定时按访客交互请求处理
+ */
+@Getter
+@RequiredArgsConstructor
+public enum RequestPriority {
+
+    /**
+     * 访客交互请求：Finder、REST API、页面渲染
+     */
+    INTERACTIVE(8, 200),
+
+    /**
+     * 预取与预热：成就进度补充等附加数据
+     */
+    PREFETCH(4, 100),
+
+    /**
+     * 后台任务：定时时长追踪、批量扫描
+     */
+    BACKGROUND(2, 1000);
+
+    public static final String CONTEXT_KEY = RequestPriority.class.getName();
+
+    /** 该通道同时进行的最大上游请求数（默认值，可在高级配置中修改） */
+    private final int maxConcurrency;
+
+    /** 该通道最多排队的请求数，超出后直接拒绝（默认值，可在高级配置中修改） */
+    private final int maxQueueSize;
+
+    /**
+     * 生成携带当前优先级的 Reactor Context，用于 contextWrite
+     */
+    public Context context() {
+        return Context.of(CONTEXT_KEY, this);
+    }
+
+    /**
+     * 从 Reactor Context 读取优先级
+     */
+    public static RequestPriority from(ContextView context) {
+        return context.getOrDefault(CONTEXT_KEY, INTERACTIVE);
+    }
+}
@@ -1,13 +1,16 @@
 package com.timxs.steam.client;
 
 import com.timxs.steam.model.AchievementProgress;
+import com.timxs.steam.model.AppListPage;
 import com.timxs.steam.model.BadgeInfo;
 import com.timxs.steam.model.GameDetail;
+import com.timxs.steam.model.GameMetadata;
 import com.timxs.steam.model.OwnedGame;
 import com.timxs.steam.model.PlayerSummary;
 import com.timxs.steam.model.RecentGame;
 import com.timxs.steam.model.ValidationResult;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
 
 import java.util.List;
 
@@ -64,4 +67,36 @@ public interface SteamApiClient {
      * @param language Steam 语言代码（如 schinese, english）
      */
     Mono<GameDetail> getGameDetail(Long appId, String language);
+
+    /**
+     * 只获取游戏详情中随语言和地区变化的部分（来自 Steam Store API 的 filters）
+     * 其余字段为空，由持久化的元数据补齐
+     * @param appId 游戏 ID
+     * @param language Steam 语言代码
+     * @param includeText 是否需要名称、描述、类型、发售日期等本地化文本；为 false 时只取价格
+     */
+    Mono<GameDetail> getGameDetailDelta(Long appId, String language, boolean includeText);
+
+    /**
+     * 获取与语言和地区无关的游戏元数据（以 english 请求 Steam Store API）
+     * 游戏不存在或已下架时返回空
+     */
+    Mono<GameMetadata.GameMetadataSpec> getGameMetadata(Long appId);
+
+    /**
+     * 以指定语言请求一次完整的 appdetails，同时解析出元数据和游戏详情
+     * 用于未开启元数据持久化时，一次请求拆分出元数据、本地化文本和价格；元数据中的文本为该语言
+     * 游戏不存在或已下架时返回空
+     * @param appId 游戏 ID
+     * @param language Steam 语言代码
+     */
+    Mono<Tuple2<GameMetadata.GameMetadataSpec, GameDetail>> getGameDetailWithMetadata(Long appId, String language);
+
+    /**
+     * 获取 Steam 应用列表的一页（游戏、DLC、软件等，按 appId 升序）
+     * @param ifModifiedSince 只返回该时间（Unix 秒）之后修改过的应用，0 表示全部
+     * @param lastAppId 上一页的 last_appid，0 表示第一页
+     * @param maxResults 每页最多数量
+     */
+    Mono<AppListPage> getAppList(long ifModifiedSince, long lastAppId, int maxResults);
 }
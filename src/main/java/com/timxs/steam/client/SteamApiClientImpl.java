@@ -5,27 +5,28 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.timxs.steam.model.AchievementProgress;
+import com.timxs.steam.model.AppListPage;
 import com.timxs.steam.model.Badge;
 import com.timxs.steam.model.BadgeInfo;
 import com.timxs.steam.model.GameDetail;
+import com.timxs.steam.model.GameMetadata;
 import com.timxs.steam.model.OwnedGame;
 import com.timxs.steam.model.PlayerSummary;
 import com.timxs.steam.model.RecentGame;
 import com.timxs.steam.model.ValidationResult;
 import com.timxs.steam.service.SteamSettingService;
-import com.timxs.steam.service.SteamSettingService.ApiProxyConfig;
+import com.timxs.steam.trace.SteamTracer;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.stereotype.Component;
-import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
-import reactor.netty.http.client.HttpClient;
-import reactor.netty.transport.ProxyProvider;
+import reactor.util.function.Tuple2;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 /**
  * Steam Web API 客户端实现
@@ -34,68 +35,47 @@ import java.util.Map;
 @Component
 public class SteamApiClientImpl implements SteamApiClient {
 
-    private static final String STEAM_API_BASE = "https://api.steampowered.com";
-    private static final String STEAM_STORE_API = "https://store.steampowered.com";
     private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(10);
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final int APP_LIST_MAX_BYTES = 16 * 1024 * 1024;
 
-    private final SteamSettingService settingService;
+    /** 本地化增量只请求随语言变化的文本和价格，开发商、封面等来自元数据 */
+    private static final String DELTA_TEXT_FILTERS = "basic,genres,release_date,price_overview";
+    private static final String DELTA_PRICE_FILTERS = "price_overview";
 
-    public SteamApiClientImpl(SteamSettingService settingService) {
+    private final SteamSettingService settingService;
+    private final SteamRequestDispatcher dispatcher;
+    private final UpstreamResilience resilience;
+    private final AdaptiveTimeouts timeouts;
+    private final UpstreamRouter router;
+    private final SteamTracer tracer;
+
+    public SteamApiClientImpl(SteamSettingService settingService, SteamRequestDispatcher dispatcher,
+                              UpstreamResilience resilience, AdaptiveTimeouts timeouts,
+                              UpstreamRouter router, SteamTracer tracer) {
         this.settingService = settingService;
+        this.dispatcher = dispatcher;
+        this.resilience = resilience;
+        this.timeouts = timeouts;
+        this.router = router;
+        this.tracer = tracer;
     }
 
     /**
-     * 根据配置创建 WebClient
+     * 执行幂等的上游 GET 请求：按优先级调度，失败重试并经过接口熔断器
+     * 访客请求的重试总耗时不超过该接口的超时时间
+     * 耗时在取得调度许可后开始统计，不包含排队时间；追踪 span 覆盖排队与重试的全过程
      */
-    private Mono<WebClient> getWebClient() {
-        return settingService.getApiProxyConfig()
-                .map(proxyConfig -> {
-                    String baseUrl = getBaseUrl(proxyConfig);
-                    log.debug("API 代理配置 - enabled: {}, proxyType: {}, httpHost: {}, httpPort: {}, baseUrl: {}", 
-                            proxyConfig.getEnabled(), proxyConfig.getProxyType(), 
-                            proxyConfig.getHttpHost(), proxyConfig.getHttpPort(), baseUrl);
-                    
-                    if (proxyConfig.getEnabled() != null && proxyConfig.getEnabled() 
-                            && "http".equals(proxyConfig.getProxyType())
-                            && proxyConfig.getHttpHost() != null && !proxyConfig.getHttpHost().isBlank()
-                            && proxyConfig.getHttpPort() != null) {
-                        // 使用 HTTP 代理
-                        log.debug("使用 HTTP 代理: {}:{}", proxyConfig.getHttpHost(), proxyConfig.getHttpPort());
-                        HttpClient httpClient = HttpClient.create()
-                                .proxy(proxy -> proxy
-                                        .type(ProxyProvider.Proxy.HTTP)
-                                        .host(proxyConfig.getHttpHost())
-                                        .port(proxyConfig.getHttpPort()));
-                        return WebClient.builder()
-                                .baseUrl(baseUrl)
-                                .clientConnector(new ReactorClientHttpConnector(httpClient))
-                                .build();
-                    }
-                    
-                    // 不使用代理或使用自定义 API 地址
-                    log.debug("不使用 HTTP 代理，直连 baseUrl: {}", baseUrl);
-                    return WebClient.builder()
-                            .baseUrl(baseUrl)
-                            .build();
-                });
+    private <T> Mono<T> call(SteamEndpoint endpoint, Mono<T> request) {
+        return tracer.span(SteamTracer.UPSTREAM, endpoint.name(), span -> {
+            span.label("endpoint", endpoint.getDisplayName());
+            return getTimeout(endpoint).flatMap(deadline -> resilience.execute(endpoint,
+                    timeouts.measure(endpoint, request), deadline));
+        });
     }
 
-    /**
-     * 获取 API 基础地址
-     */
-    private String getBaseUrl(ApiProxyConfig proxyConfig) {
-        if (proxyConfig.getEnabled() != null && proxyConfig.getEnabled() 
-                && "custom".equals(proxyConfig.getProxyType())
-                && proxyConfig.getCustomApiUrl() != null && !proxyConfig.getCustomApiUrl().isBlank()) {
-            String customUrl = proxyConfig.getCustomApiUrl().trim();
-            // 移除末尾斜杠
-            if (customUrl.endsWith("/")) {
-                customUrl = customUrl.substring(0, customUrl.length() - 1);
-            }
-            return customUrl;
-        }
-        return STEAM_API_BASE;
+    private Mono<Duration> getTimeout(SteamEndpoint endpoint) {
+        return timeouts.timeoutFor(endpoint);
     }
 
     private Mono<Duration> getTimeout() {
@@ -106,12 +86,11 @@ public class SteamApiClientImpl implements SteamApiClient {
 
     @Override
     public Mono<PlayerSummary> getPlayerSummary(String steamId) {
-        return Mono.zip(settingService.getApiKey(), getTimeout(), getWebClient())
+        return call(SteamEndpoint.PLAYER_SUMMARIES, Mono.zip(settingService.getApiKey(), getTimeout(SteamEndpoint.PLAYER_SUMMARIES))
                 .flatMap(tuple -> {
                     String apiKey = tuple.getT1();
                     Duration timeout = tuple.getT2();
-                    WebClient webClient = tuple.getT3();
-                    return webClient.get()
+                    return router.exchange(SteamEndpoint.PLAYER_SUMMARIES, false, webClient -> webClient.get()
                             .uri(uriBuilder -> uriBuilder
                                     .path("/ISteamUser/GetPlayerSummaries/v2/")
                                     .queryParam("key", apiKey)
@@ -119,7 +98,7 @@ public class SteamApiClientImpl implements SteamApiClient {
                                     .build())
                             .retrieve()
                             .bodyToMono(PlayerSummaryResponse.class)
-                            .timeout(timeout)
+                            .timeout(timeout))
                             .flatMap(response -> {
                                 if (response.response != null && 
                                     response.response.players != null && 
@@ -129,17 +108,16 @@ public class SteamApiClientImpl implements SteamApiClient {
                                 return Mono.empty();
                             })
                             .doOnError(e -> log.error("获取用户资料失败: steamId={}", steamId, e));
-                });
+                }));
     }
 
     @Override
     public Mono<List<OwnedGame>> getOwnedGames(String steamId, boolean includeAppInfo, boolean includeFreeGames) {
-        return Mono.zip(settingService.getApiKey(), getTimeout(), getWebClient())
+        return call(SteamEndpoint.OWNED_GAMES, Mono.zip(settingService.getApiKey(), getTimeout(SteamEndpoint.OWNED_GAMES))
                 .flatMap(tuple -> {
                     String apiKey = tuple.getT1();
                     Duration timeout = tuple.getT2();
-                    WebClient webClient = tuple.getT3();
-                    return webClient.get()
+                    return router.exchange(SteamEndpoint.OWNED_GAMES, false, webClient -> webClient.get()
                             .uri(uriBuilder -> uriBuilder
                                     .path("/IPlayerService/GetOwnedGames/v1/")
                                     .queryParam("key", apiKey)
@@ -149,7 +127,7 @@ public class SteamApiClientImpl implements SteamApiClient {
                                     .build())
                             .retrieve()
                             .bodyToMono(OwnedGamesResponse.class)
-                            .timeout(timeout)
+                            .timeout(timeout))
                             .map(response -> {
                                 if (response.response != null && response.response.games != null) {
                                     return response.response.games;
@@ -157,17 +135,16 @@ public class SteamApiClientImpl implements SteamApiClient {
                                 return Collections.<OwnedGame>emptyList();
                             })
                             .doOnError(e -> log.error("获取游戏库失败: steamId={}", steamId, e));
-                });
+                }));
     }
 
     @Override
     public Mono<List<RecentGame>> getRecentlyPlayedGames(String steamId, int count) {
-        return Mono.zip(settingService.getApiKey(), getTimeout(), getWebClient())
+        return call(SteamEndpoint.RECENTLY_PLAYED_GAMES, Mono.zip(settingService.getApiKey(), getTimeout(SteamEndpoint.RECENTLY_PLAYED_GAMES))
                 .flatMap(tuple -> {
                     String apiKey = tuple.getT1();
                     Duration timeout = tuple.getT2();
-                    WebClient webClient = tuple.getT3();
-                    return webClient.get()
+                    return router.exchange(SteamEndpoint.RECENTLY_PLAYED_GAMES, false, webClient -> webClient.get()
                             .uri(uriBuilder -> uriBuilder
                                     .path("/IPlayerService/GetRecentlyPlayedGames/v1/")
                                     .queryParam("key", apiKey)
@@ -176,7 +153,7 @@ public class SteamApiClientImpl implements SteamApiClient {
                                     .build())
                             .retrieve()
                             .bodyToMono(RecentGamesResponse.class)
-                            .timeout(timeout)
+                            .timeout(timeout))
                             .map(response -> {
                                 if (response.response != null && response.response.games != null) {
                                     return response.response.games;
@@ -184,17 +161,16 @@ public class SteamApiClientImpl implements SteamApiClient {
                                 return Collections.<RecentGame>emptyList();
                             })
                             .doOnError(e -> log.error("获取最近游玩失败: steamId={}", steamId, e));
-                });
+                }));
     }
 
     @Override
     public Mono<Integer> getSteamLevel(String steamId) {
-        return Mono.zip(settingService.getApiKey(), getTimeout(), getWebClient())
+        return call(SteamEndpoint.STEAM_LEVEL, Mono.zip(settingService.getApiKey(), getTimeout(SteamEndpoint.STEAM_LEVEL))
                 .flatMap(tuple -> {
                     String apiKey = tuple.getT1();
                     Duration timeout = tuple.getT2();
-                    WebClient webClient = tuple.getT3();
-                    return webClient.get()
+                    return router.exchange(SteamEndpoint.STEAM_LEVEL, false, webClient -> webClient.get()
                             .uri(uriBuilder -> uriBuilder
                                     .path("/IPlayerService/GetSteamLevel/v1/")
                                     .queryParam("key", apiKey)
@@ -202,7 +178,7 @@ public class SteamApiClientImpl implements SteamApiClient {
                                     .build())
                             .retrieve()
                             .bodyToMono(SteamLevelResponse.class)
-                            .timeout(timeout)
+                            .timeout(timeout))
                             .map(response -> {
                                 if (response.response != null) {
                                     return response.response.getOrDefault("player_level", 0);
@@ -210,15 +186,13 @@ public class SteamApiClientImpl implements SteamApiClient {
                                 return 0;
                             })
                             .doOnError(e -> log.error("获取Steam等级失败: steamId={}", steamId, e));
-                });
+                }));
     }
 
     @Override
     public Mono<ValidationResult> validateApiKey(String apiKey, String steamId) {
-        return Mono.zip(getTimeout(), getWebClient()).flatMap(tuple -> {
-            Duration timeout = tuple.getT1();
-            WebClient webClient = tuple.getT2();
-            return webClient.get()
+        return dispatcher.dispatch(getTimeout().flatMap(timeout -> {
+            return router.exchange(SteamEndpoint.PLAYER_SUMMARIES, false, webClient -> webClient.get()
                     .uri(uriBuilder -> uriBuilder
                             .path("/ISteamUser/GetPlayerSummaries/v2/")
                             .queryParam("key", apiKey)
@@ -241,22 +215,21 @@ public class SteamApiClientImpl implements SteamApiClient {
                                     return ValidationResult.error(404, "Steam ID 不存在");
                                 });
                     })
-                    .timeout(timeout)
+                    .timeout(timeout))
                     .onErrorResume(e -> {
                         log.error("验证 API Key 时发生错误", e);
                         return Mono.just(ValidationResult.error(500, e.getMessage()));
                     });
-        });
+        }));
     }
 
     @Override
     public Mono<AchievementProgress> getPlayerAchievements(String steamId, Long appId) {
-        return Mono.zip(settingService.getApiKey(), getTimeout(), getWebClient())
+        return call(SteamEndpoint.PLAYER_ACHIEVEMENTS, Mono.zip(settingService.getApiKey(), getTimeout(SteamEndpoint.PLAYER_ACHIEVEMENTS))
                 .flatMap(tuple -> {
                     String apiKey = tuple.getT1();
                     Duration timeout = tuple.getT2();
-                    WebClient webClient = tuple.getT3();
-                    return webClient.get()
+                    return router.exchange(SteamEndpoint.PLAYER_ACHIEVEMENTS, false, webClient -> webClient.get()
                             .uri(uriBuilder -> uriBuilder
                                     .path("/ISteamUserStats/GetPlayerAchievements/v1/")
                                     .queryParam("key", apiKey)
@@ -266,7 +239,7 @@ public class SteamApiClientImpl implements SteamApiClient {
                                     .build())
                             .retrieve()
                             .bodyToMono(PlayerAchievementsResponse.class)
-                            .timeout(timeout)
+                            .timeout(timeout))
                             .map(response -> {
                                 if (response.playerstats != null && response.playerstats.achievements != null) {
                                     List<AchievementItem> achievements = response.playerstats.achievements;
@@ -292,10 +265,44 @@ public class SteamApiClientImpl implements SteamApiClient {
                                 // 让错误继续传播，由 Service 层处理 403/400 逻辑
                                 return Mono.error(e);
                             });
-                });
+                }));
+    }
+
+    @Override
+    public Mono<AppListPage> getAppList(long ifModifiedSince, long lastAppId, int maxResults) {
+        return call(SteamEndpoint.APP_LIST, Mono.zip(settingService.getApiKey(), getTimeout(SteamEndpoint.APP_LIST))
+                .flatMap(tuple -> {
+                    String apiKey = tuple.getT1();
+                    Duration timeout = tuple.getT2();
+                    // 一页数据可达数 MB，超过 WebClient 默认的 256KB 缓冲上限
+                    return router.exchange(SteamEndpoint.APP_LIST, false, webClient -> webClient.mutate()
+                            .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(APP_LIST_MAX_BYTES))
+                            .build()
+                            .get()
+                            .uri(uriBuilder -> uriBuilder
+                                    .path("/IStoreService/GetAppList/v1/")
+                                    .queryParam("key", apiKey)
+                                    .queryParam("if_modified_since", ifModifiedSince)
+                                    .queryParam("last_appid", lastAppId)
+                                    .queryParam("max_results", maxResults)
+                                    .queryParam("include_games", true)
+                                    .queryParam("include_dlc", true)
+                                    .queryParam("include_software", true)
+                                    .build())
+                            .retrieve()
+                            .bodyToMono(AppListResponse.class)
+                            .timeout(timeout))
+                            .map(response -> response.response != null ? response.response : new AppListPage())
+                            .doOnError(e -> log.error("获取 Steam 应用列表失败: lastAppId={}", lastAppId, e));
+                }));
     }
 
     // API 响应 DTO 类
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private static class AppListResponse {
+        public AppListPage response;
+    }
+
     @JsonIgnoreProperties(ignoreUnknown = true)
     private static class PlayerSummaryResponse {
         public PlayerSummaryResponseInner response;
@@ -307,12 +314,12 @@ public class SteamApiClientImpl implements SteamApiClient {
     }
 
     @JsonIgnoreProperties(ignoreUnknown = true)
-    private static class OwnedGamesResponse {
+    static class OwnedGamesResponse {
         public OwnedGamesResponseInner response;
     }
 
     @JsonIgnoreProperties(ignoreUnknown = true)
-    private static class OwnedGamesResponseInner {
+    static class OwnedGamesResponseInner {
         public Integer game_count;
         public List<OwnedGame> games;
     }
@@ -357,12 +364,11 @@ public class SteamApiClientImpl implements SteamApiClient {
 
     @Override
     public Mono<BadgeInfo> getBadges(String steamId) {
-        return Mono.zip(settingService.getApiKey(), getTimeout(), getWebClient())
+        return call(SteamEndpoint.BADGES, Mono.zip(settingService.getApiKey(), getTimeout(SteamEndpoint.BADGES))
                 .flatMap(tuple -> {
                     String apiKey = tuple.getT1();
                     Duration timeout = tuple.getT2();
-                    WebClient webClient = tuple.getT3();
-                    return webClient.get()
+                    return router.exchange(SteamEndpoint.BADGES, false, webClient -> webClient.get()
                             .uri(uriBuilder -> uriBuilder
                                     .path("/IPlayerService/GetBadges/v1/")
                                     .queryParam("key", apiKey)
@@ -370,7 +376,7 @@ public class SteamApiClientImpl implements SteamApiClient {
                                     .build())
                             .retrieve()
                             .bodyToMono(BadgesResponse.class)
-                            .timeout(timeout)
+                            .timeout(timeout))
                             .map(response -> {
                                 if (response.response != null) {
                                     return BadgeInfo.builder()
@@ -390,16 +396,16 @@ public class SteamApiClientImpl implements SteamApiClient {
                                         .build();
                             })
                             .doOnError(e -> log.error("获取徽章失败: steamId={}", steamId, e));
-                });
+                }));
     }
 
     @JsonIgnoreProperties(ignoreUnknown = true)
-    private static class BadgesResponse {
+    static class BadgesResponse {
         public BadgesResponseInner response;
     }
 
     @JsonIgnoreProperties(ignoreUnknown = true)
-    private static class BadgesResponseInner {
+    static class BadgesResponseInner {
         public List<Badge> badges;
         @JsonProperty("player_xp")
         public Integer playerXp;
@@ -413,12 +419,42 @@ public class SteamApiClientImpl implements SteamApiClient {
 
     @Override
     public Mono<GameDetail> getGameDetail(Long appId, String language) {
-        return Mono.zip(getTimeout(), getStoreWebClient())
-                .flatMap(tuple -> {
-                    Duration timeout = tuple.getT1();
-                    WebClient webClient = tuple.getT2();
+        return fetchAppDetails(appId, language, null, body -> parseStoreResponse(body, appId, language))
+                .doOnError(e -> log.error("获取游戏详情失败: appId={}", appId, e));
+    }
+
+    @Override
+    public Mono<GameDetail> getGameDetailDelta(Long appId, String language, boolean includeText) {
+        return fetchAppDetails(appId, language, includeText ? DELTA_TEXT_FILTERS : DELTA_PRICE_FILTERS,
+                        body -> parseStoreResponse(body, appId, language))
+                .doOnError(e -> log.debug("获取游戏本地化数据失败: appId={}, language={}", appId, language, e));
+    }
+
+    @Override
+    public Mono<GameMetadata.GameMetadataSpec> getGameMetadata(Long appId) {
+        return fetchAppDetails(appId, GameMetadata.LANGUAGE, null, body -> parseMetadataResponse(body, appId))
+                .doOnError(e -> log.warn("获取游戏元数据失败: appId={}: {}", appId, e.getMessage()));
+    }
+
+    @Override
+    public Mono<Tuple2<GameMetadata.GameMetadataSpec, GameDetail>> getGameDetailWithMetadata(Long appId, String language) {
+        return fetchAppDetails(appId, language, null, body -> parseMetadataResponse(body, appId)
+                        .zipWith(parseStoreResponse(body, appId, language)))
+                .doOnError(e -> log.debug("获取游戏详情失败: appId={}, language={}", appId, language, e));
+    }
+
+    /**
+     * 请求 Store appdetails
+     *
+     * @param filters 只返回这些顶层字段，为 null 时返回全部
+     * @param parser  解析响应体，解析失败与请求失败一样计入熔断和重试
+     */
+    private <T> Mono<T> fetchAppDetails(Long appId, String language, String filters,
+                                        Function<String, Mono<T>> parser) {
+        return call(SteamEndpoint.STORE_APP_DETAILS, getTimeout(SteamEndpoint.STORE_APP_DETAILS)
+                .flatMap(timeout -> {
                     String cc = SteamSettingService.getCountryCode(language);
-                    return webClient.get()
+                    return router.exchange(SteamEndpoint.STORE_APP_DETAILS, true, webClient -> webClient.get()
                             .uri(uriBuilder -> {
                                 uriBuilder.path("/api/appdetails")
                                         .queryParam("appids", appId)
@@ -426,58 +462,64 @@ public class SteamApiClientImpl implements SteamApiClient {
                                 if (cc != null) {
                                     uriBuilder.queryParam("cc", cc);
                                 }
+                                if (filters != null) {
+                                    uriBuilder.queryParam("filters", filters);
+                                }
                                 return uriBuilder.build();
                             })
                             .retrieve()
                             .bodyToMono(String.class)
-                            .timeout(timeout)
-                            .flatMap(body -> parseStoreResponse(body, appId, language))
-                            .doOnError(e -> log.error("获取游戏详情失败: appId={}", appId, e));
-                });
-    }
-
-    private Mono<WebClient> getStoreWebClient() {
-        return settingService.getApiProxyConfig()
-                .map(proxyConfig -> {
-                    String baseUrl = getStoreBaseUrl(proxyConfig);
-                    if (proxyConfig.getEnabled() != null && proxyConfig.getEnabled()
-                            && "http".equals(proxyConfig.getProxyType())
-                            && proxyConfig.getHttpHost() != null && !proxyConfig.getHttpHost().isBlank()
-                            && proxyConfig.getHttpPort() != null) {
-                        HttpClient httpClient = HttpClient.create()
-                                .proxy(proxy -> proxy
-                                        .type(ProxyProvider.Proxy.HTTP)
-                                        .host(proxyConfig.getHttpHost())
-                                        .port(proxyConfig.getHttpPort()));
-                        return WebClient.builder()
-                                .baseUrl(baseUrl)
-                                .clientConnector(new ReactorClientHttpConnector(httpClient))
-                                .build();
-                    }
-                    return WebClient.builder()
-                            .baseUrl(baseUrl)
-                            .build();
-                });
+                            .timeout(timeout))
+                            .flatMap(parser);
+                }));
     }
 
     /**
-     * 获取 Store API 基础地址
-     * 自定义 API 地址时，将路径前缀改为 /store 以区分 Steam Web API 和 Store API
+     * 解析元数据：只保留与语言和地区无关的字段，价格不保存
      */
-    private String getStoreBaseUrl(ApiProxyConfig proxyConfig) {
-        if (proxyConfig.getEnabled() != null && proxyConfig.getEnabled()
-                && "custom".equals(proxyConfig.getProxyType())
-                && proxyConfig.getCustomApiUrl() != null && !proxyConfig.getCustomApiUrl().isBlank()) {
-            String customUrl = proxyConfig.getCustomApiUrl().trim();
-            if (customUrl.endsWith("/")) {
-                customUrl = customUrl.substring(0, customUrl.length() - 1);
+    static Mono<GameMetadata.GameMetadataSpec> parseMetadataResponse(String body, Long appId) {
+        try {
+            JsonNode appNode = OBJECT_MAPPER.readTree(body).path(String.valueOf(appId));
+            if (!appNode.path("success").asBoolean(false)) {
+                return Mono.empty();
+            }
+            JsonNode data = appNode.path("data");
+
+            GameMetadata.GameMetadataSpec spec = new GameMetadata.GameMetadataSpec();
+            spec.setAppId(appId);
+            spec.setName(data.path("name").asText(null));
+            spec.setHeaderImage(data.path("header_image").asText(null));
+            spec.setShortDescription(data.path("short_description").asText(null));
+            spec.setDevelopers(textList(data.path("developers"), null));
+            spec.setPublishers(textList(data.path("publishers"), null));
+            spec.setGenres(textList(data.path("genres"), "description"));
+            spec.setReleaseDate(data.path("release_date").path("date").asText(null));
+            spec.setIsFree(data.path("is_free").asBoolean(false));
+            return Mono.just(spec);
+        } catch (Exception e) {
+            log.error("解析 Steam Store API 元数据失败: appId={}", appId, e);
+            return Mono.error(e);
+        }
+    }
+
+    /**
+     * 读取字符串数组，field 不为 null 时取每个元素中的该字段
+     */
+    private static List<String> textList(JsonNode array, String field) {
+        if (!array.isArray() || array.isEmpty()) {
+            return null;
+        }
+        List<String> values = new ArrayList<>(array.size());
+        for (JsonNode item : array) {
+            String value = (field != null ? item.path(field) : item).asText(null);
+            if (value != null && !value.isBlank()) {
+                values.add(value);
             }
-            return customUrl;
         }
-        return STEAM_STORE_API;
+        return values.isEmpty() ? null : values;
     }
 
-    private Mono<GameDetail> parseStoreResponse(String body, Long appId, String language) {
+    static Mono<GameDetail> parseStoreResponse(String body, Long appId, String language) {
         try {
             JsonNode root = OBJECT_MAPPER.readTree(body);
             JsonNode appNode = root.path(String.valueOf(appId));
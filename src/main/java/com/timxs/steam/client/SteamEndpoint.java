@@ -0,0 +1,25 @@
+package com.timxs.steam.client;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Steam 上游接口
+ * 用于按接口区分熔断、超时等状态
+ */
+@Getter
+@RequiredArgsConstructor
+public enum SteamEndpoint {
+
+    PLAYER_SUMMARIES("ISteamUser/GetPlayerSummaries"),
+    OWNED_GAMES("IPlayerService/GetOwnedGames"),
+    RECENTLY_PLAYED_GAMES("IPlayerService/GetRecentlyPlayedGames"),
+    STEAM_LEVEL("IPlayerService/GetSteamLevel"),
+    PLAYER_ACHIEVEMENTS("ISteamUserStats/GetPlayerAchievements"),
+    BADGES("IPlayerService/GetBadges"),
+    STORE_APP_DETAILS("Store/appdetails"),
+    APP_LIST("IStoreService/GetAppList");
+
+    /** 接口显示名称 */
+    private final String displayName;
+}
@@ -0,0 +1,272 @@
+package com.timxs.steam.client;
+
+import com.timxs.steam.service.SteamSettingService;
+import com.timxs.steam.service.SteamSettingService.RequestLaneConfig;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Steam 上游请求调度器
+ * 按优先级划分独立通道，每个通道有各自的并发上限和等待队列，
+ * 后台追踪或批量扫描只会在自己的通道里排队，不会占用访客请求的并发名额
+ * 并发上限和队列长度读取「高级配置 - 上游请求通道」，修改后在下一个请求到达时生效，调大的并发名额也会分给已在排队的请求
+ */
+@Slf4j
+@Component
+public class SteamRequestDispatcher {
+
+    private final SteamSettingService settingService;
+    private final Map<RequestPriority, Lane> lanes = new EnumMap<>(RequestPriority.class);
+
+    public SteamRequestDispatcher(SteamSettingService settingService) {
+        this.settingService = settingService;
+        for (RequestPriority priority : RequestPriority.values()) {
+            lanes.put(priority, new Lane(priority));
+        }
+    }
+
+    /**
+     * 在调用方优先级对应的通道中执行上游请求
+     * 通道已满且队列已满时返回 RejectedExecutionException，由 Service 层降级到缓存数据
+     */
+    public <T> Mono<T> dispatch(Mono<T> call) {
+        return Mono.deferContextual(ctx -> {
+            Lane lane = lanes.get(RequestPriority.from(ctx));
+            return settingService.getRequestLaneConfig()
+                    .doOnNext(lane::configure)
+                    .then(lane.acquire())
+                    .flatMap(permit -> call.doFinally(signal -> permit.release()));
+        });
+    }
+
+    /**
+     * 仅在调用方通道有空闲并发时执行，不排队、不计入拒绝数，没有空闲并发时返回空
+     * 用于对冲等可有可无的额外请求，使其占用通道并发名额而不是绕过限制
+     */
+    public <T> Mono<T> tryDispatch(Mono<T> call) {
+        return Mono.deferContextual(ctx -> {
+            Permit permit = lanes.get(RequestPriority.from(ctx)).tryAcquire();
+            if (permit == null) {
+                return Mono.empty();
+            }
+            return call.doFinally(signal -> permit.release());
+        });
+    }
+
+    /**
+     * 获取各通道当前状态
+     */
+    public List<LaneStatus> getStatus() {
+        List<LaneStatus> result = new ArrayList<>();
+        for (Lane lane : lanes.values()) {
+            result.add(lane.status());
+        }
+        return result;
+    }
+
+    /**
+     * 通道状态
+     */
+    @Data
+    @AllArgsConstructor
+    public static class LaneStatus {
+        private RequestPriority priority;
+        private int maxConcurrency;
+        private int maxQueueSize;
+        private int active;
+        private int queued;
+        private long completed;
+        private long rejected;
+    }
+
+    /**
+     * 单个优先级通道：并发计数 + FIFO 等待队列
+     */
+    private static final class Lane {
+
+        private final RequestPriority priority;
+        private final Deque<Waiter> waiters = new ArrayDeque<>();
+        private int maxConcurrency;
+        private int maxQueueSize;
+        private int active;
+        private long completed;
+        private long rejected;
+
+        Lane(RequestPriority priority) {
+            this.priority = priority;
+            this.maxConcurrency = priority.getMaxConcurrency();
+            this.maxQueueSize = priority.getMaxQueueSize();
+        }
+
+        void configure(RequestLaneConfig config) {
+            synchronized (this) {
+                switch (priority) {
+                    case INTERACTIVE -> {
+                        maxConcurrency = config.getInteractiveConcurrency();
+                        maxQueueSize = config.getInteractiveQueueSize();
+                    }
+                    case PREFETCH -> {
+                        maxConcurrency = config.getPrefetchConcurrency();
+                        maxQueueSize = config.getPrefetchQueueSize();
+                    }
+                    case BACKGROUND -> {
+                        maxConcurrency = config.getBackgroundConcurrency();
+                        maxQueueSize = config.getBackgroundQueueSize();
+                    }
+                }
+            }
+            // 并发上限调大后，排队中的请求立即使用新增的名额
+            drain();
+        }
+
+        Mono<Permit> acquire() {
+            return Mono.<Permit>create(sink -> {
+                        Permit granted = null;
+                        Waiter waiter = null;
+                        synchronized (this) {
+                            // 有人排队时新请求也排到队尾，保持先到先得
+                            if (active < maxConcurrency && waiters.isEmpty()) {
+                                active++;
+                                granted = new Permit(this);
+                            } else if (waiters.size() < maxQueueSize) {
+                                waiter = new Waiter(sink);
+                                waiters.addLast(waiter);
+                            } else {
+                                rejected++;
+                            }
+                        }
+                        if (granted != null) {
+                            sink.success(granted);
+                        } else if (waiter != null) {
+                            Waiter queued = waiter;
+                            sink.onCancel(() -> abandon(queued));
+                            drain();
+                        } else {
+                            log.warn("上游请求队列已满，拒绝请求: priority={}", priority);
+                            sink.error(new RejectedExecutionException(
+                                    "Steam 上游请求队列已满: " + priority));
+                        }
+                    })
+                    // 许可移交与取消并发发生时，被丢弃的许可需要归还
+                    .doOnDiscard(Permit.class, Permit::release);
+        }
+
+        /**
+         * 有空闲并发且没有等待者时立即取得许可，否则返回 null
+         */
+        synchronized Permit tryAcquire() {
+            if (active < maxConcurrency && waiters.isEmpty()) {
+                active++;
+                return new Permit(this);
+            }
+            return null;
+        }
+
+        private void abandon(Waiter waiter) {
+            if (waiter.done.compareAndSet(false, true)) {
+                synchronized (this) {
+                    waiters.remove(waiter);
+                }
+            }
+        }
+
+        void release() {
+            synchronized (this) {
+                completed++;
+            }
+            while (true) {
+                Waiter next;
+                synchronized (this) {
+                    // 并发上限调小后先让正在执行的请求自然减少，不再移交许可
+                    next = active > maxConcurrency ? null : waiters.pollFirst();
+                    if (next == null) {
+                        active--;
+                        break;
+                    }
+                }
+                // 直接把许可移交给下一个等待者，active 计数不变
+                if (next.grant(new Permit(this))) {
+                    break;
+                }
+            }
+            drain();
+        }
+
+        /**
+         * 有空闲并发时按顺序放行排队的请求
+         */
+        private void drain() {
+            while (true) {
+                Waiter next;
+                synchronized (this) {
+                    if (active >= maxConcurrency) {
+                        return;
+                    }
+                    next = waiters.pollFirst();
+                    if (next == null) {
+                        return;
+                    }
+                    active++;
+                }
+                if (!next.grant(new Permit(this))) {
+                    // 等待者已取消，归还名额后继续
+                    synchronized (this) {
+                        active--;
+                    }
+                }
+            }
+        }
+
+        synchronized LaneStatus status() {
+            return new LaneStatus(priority, maxConcurrency, maxQueueSize,
+                    active, waiters.size(), completed, rejected);
+        }
+    }
+
+    private static final class Waiter {
+
+        private final MonoSink<Permit> sink;
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        Waiter(MonoSink<Permit> sink) {
+            this.sink = sink;
+        }
+
+        boolean grant(Permit permit) {
+            if (done.compareAndSet(false, true)) {
+                sink.success(permit);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private static final class Permit {
+
+        private final Lane lane;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        Permit(Lane lane) {
+            this.lane = lane;
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                lane.release();
+            }
+        }
+    }
+}
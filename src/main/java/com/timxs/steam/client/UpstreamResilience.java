@@ -0,0 +1,165 @@
+package com.timxs.steam.client;
+
+import com.timxs.steam.service.SteamSettingService;
+import com.timxs.steam.service.SteamSettingService.CircuitBreakerConfig;
+import com.timxs.steam.service.SteamSettingService.RetryConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.codec.CodecException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+import reactor.util.retry.RetryBackoffSpec;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * 上游请求容错：失败重试（指数退避 + 抖动）与按接口熔断
+ * 熔断期间请求立即失败，由 Service 层回退到过期缓存（getStale）
+ */
+@Slf4j
+@Component
+public class UpstreamResilience {
+
+    private static final double RETRY_JITTER = 0.5;
+
+    private final SteamSettingService settingService;
+    private final SteamRequestDispatcher dispatcher;
+    private final Map<SteamEndpoint, CircuitBreaker> breakers = new EnumMap<>(SteamEndpoint.class);
+
+    public UpstreamResilience(SteamSettingService settingService, SteamRequestDispatcher dispatcher) {
+        this.settingService = settingService;
+        this.dispatcher = dispatcher;
+        for (SteamEndpoint endpoint : SteamEndpoint.values()) {
+            breakers.put(endpoint, new CircuitBreaker(endpoint));
+        }
+    }
+
+    /**
+     * 以重试和熔断保护执行一次幂等的上游请求
+     * 访客通道的重试共用一个总期限：从首次请求开始计时，超过期限后不再重试，
+     * 进行中的重试也会在期限到达时取消，避免 (1 + 重试次数) × 超时 的累积等待
+     * 每次请求先在调用方的通道中取得许可再检查熔断：排队等待不会占住半开状态的探测名额，
+     * 队列已满的拒绝也不经过熔断器
+     * @param attempt 单次请求，每次重试都会重新订阅
+     * @param deadline 访客通道重试链的总期限，通常等于单次请求超时
+     */
+    public <T> Mono<T> execute(SteamEndpoint endpoint, Mono<T> attempt, Duration deadline) {
+        return Mono.zip(settingService.getRetryConfig(), settingService.getCircuitBreakerConfig())
+                .flatMap(tuple -> Mono.deferContextual(ctx -> {
+                    RetryConfig retryConfig = tuple.getT1();
+                    CircuitBreakerConfig breakerConfig = tuple.getT2();
+                    Mono<T> guarded = dispatcher.dispatch(Boolean.TRUE.equals(breakerConfig.getEnabled())
+                            ? guard(endpoint, attempt, breakerConfig)
+                            : attempt);
+                    if (retryConfig.getMaxRetries() <= 0) {
+                        return guarded;
+                    }
+                    if (RequestPriority.from(ctx) != RequestPriority.INTERACTIVE) {
+                        // 预取和后台请求没有访客等待，每次重试都有完整的单次超时
+                        return guarded.retryWhen(retrySpec(endpoint, retryConfig, e -> true));
+                    }
+                    return Mono.defer(() -> {
+                        long startedAt = System.nanoTime();
+                        AtomicInteger attempts = new AtomicInteger();
+                        Mono<T> budgeted = Mono.defer(() -> {
+                            if (attempts.getAndIncrement() == 0) {
+                                // 首次请求按自身超时完成，超时和失败都会计入熔断
+                                return guarded;
+                            }
+                            Duration remaining = remaining(startedAt, deadline);
+                            if (remaining.isZero()) {
+                                return Mono.error(new TimeoutException(
+                                        "Steam 请求重试超出总期限: " + endpoint.getDisplayName()));
+                            }
+                            return guarded.timeout(remaining);
+                        });
+                        return budgeted.retryWhen(retrySpec(endpoint, retryConfig,
+                                e -> !(e instanceof TimeoutException)
+                                        && !remaining(startedAt, deadline).isZero()));
+                    });
+                }));
+    }
+
+    private RetryBackoffSpec retrySpec(SteamEndpoint endpoint, RetryConfig config,
+                                       Predicate<Throwable> allowed) {
+        return Retry.backoff(config.getMaxRetries(), Duration.ofMillis(Math.max(1, config.getInitialBackoffMillis())))
+                .maxBackoff(Duration.ofMillis(Math.max(1, config.getMaxBackoffMillis())))
+                .jitter(RETRY_JITTER)
+                .filter(e -> isTransient(e) && allowed.test(e))
+                .doBeforeRetry(signal -> log.debug("重试 Steam 请求: endpoint={}, attempt={}, error={}",
+                        endpoint.getDisplayName(), signal.totalRetries() + 1,
+                        signal.failure().getMessage()))
+                // 重试耗尽后抛出原始异常，保持上层错误判断逻辑不变
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    }
+
+    private static Duration remaining(long startedAt, Duration deadline) {
+        Duration left = deadline.minusNanos(System.nanoTime() - startedAt);
+        return left.isNegative() ? Duration.ZERO : left;
+    }
+
+    private <T> Mono<T> guard(SteamEndpoint endpoint, Mono<T> attempt, CircuitBreakerConfig config) {
+        CircuitBreaker breaker = breakers.get(endpoint);
+        long openMillis = config.getOpenSeconds() * 1000L;
+        return Mono.defer(() -> {
+            if (!breaker.tryAcquire(openMillis)) {
+                return Mono.error(new CircuitBreakerOpenException(endpoint));
+            }
+            return attempt
+                    .doOnSuccess(value -> breaker.onSuccess())
+                    .doOnError(e -> {
+                        if (isTransient(e)) {
+                            breaker.onFailure(config.getFailureThreshold());
+                        } else if (isUpstreamResponse(e)) {
+                            // 4xx 等业务错误说明上游可达，不计入熔断
+                            breaker.onSuccess();
+                        } else {
+                            // 本地错误不能说明上游是否可达，只释放探测名额
+                            breaker.onCancel();
+                        }
+                    })
+                    .doOnCancel(breaker::onCancel);
+        });
+    }
+
+    /**
+     * 是否为上游暂时性故障：超时、连接错误、429 和 5xx
+     */
+    public static boolean isTransient(Throwable e) {
+        if (e instanceof WebClientResponseException responseException) {
+            int status = responseException.getStatusCode().value();
+            return status == 429 || status >= 500;
+        }
+        return e instanceof TimeoutException
+                || e instanceof WebClientRequestException
+                || e instanceof IOException;
+    }
+
+    /**
+     * 是否收到了上游的响应：4xx 等状态码，或响应体解码失败
+     */
+    private static boolean isUpstreamResponse(Throwable e) {
+        return e instanceof WebClientResponseException || e instanceof CodecException;
+    }
+
+    /**
+     * 获取各接口熔断器状态
+     */
+    public List<CircuitBreaker.Status> getBreakerStatus() {
+        List<CircuitBreaker.Status> result = new ArrayList<>();
+        for (CircuitBreaker breaker : breakers.values()) {
+            result.add(breaker.status());
+        }
+        return result;
+    }
+}
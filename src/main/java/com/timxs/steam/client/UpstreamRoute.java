@@ -0,0 +1,141 @@
+package com.timxs.steam.client;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 一条到 Steam 的上游线路（直连、HTTP 代理或反向代理地址）
+ * 持有该线路复用的 WebClient、延迟统计与健康状态
+ */
+public class UpstreamRoute {
+
+    /** 连续失败达到该次数后标记为不健康，等待健康检查或下一次成功恢复 */
+    private static final int UNHEALTHY_THRESHOLD = 2;
+
+    @Getter
+    private final String key;
+    @Getter
+    private final String name;
+    @Getter
+    private final int weight;
+    @Getter
+    private final WebClient apiClient;
+    @Getter
+    private final WebClient storeClient;
+    /** 线路整体耗时（含健康检查和被取消的请求），只用于线路排序 */
+    private final LatencyTracker latency = new LatencyTracker();
+    /** 按接口统计的完整请求耗时，用于计算对冲延迟 */
+    private final Map<SteamEndpoint, LatencyTracker> endpointLatency = new EnumMap<>(SteamEndpoint.class);
+
+    private boolean healthy = true;
+    private int consecutiveFailures;
+    private long successes;
+    private long failures;
+    private Instant lastCheckedAt;
+    private String lastError;
+
+    public UpstreamRoute(String key, String name, int weight, WebClient apiClient, WebClient storeClient) {
+        this.key = key;
+        this.name = name;
+        this.weight = Math.max(1, weight);
+        this.apiClient = apiClient;
+        this.storeClient = storeClient;
+        for (SteamEndpoint endpoint : SteamEndpoint.values()) {
+            endpointLatency.put(endpoint, new LatencyTracker());
+        }
+    }
+
+    /**
+     * 记录只影响线路排序的耗时，如健康检查、被对冲取代而取消的请求
+     */
+    public void recordLatency(long millis) {
+        latency.record(millis);
+    }
+
+    /**
+     * 记录一次完整的接口请求耗时
+     */
+    public void recordLatency(SteamEndpoint endpoint, long millis) {
+        latency.record(millis);
+        endpointLatency.get(endpoint).record(millis);
+    }
+
+    public int samples(SteamEndpoint endpoint) {
+        return endpointLatency.get(endpoint).size();
+    }
+
+    public long percentile(SteamEndpoint endpoint, double quantile) {
+        return endpointLatency.get(endpoint).percentile(quantile);
+    }
+
+    public synchronized void onSuccess() {
+        healthy = true;
+        consecutiveFailures = 0;
+        successes++;
+    }
+
+    public synchronized void onFailure(Throwable error) {
+        consecutiveFailures++;
+        failures++;
+        lastError = error.getMessage();
+        if (consecutiveFailures >= UNHEALTHY_THRESHOLD) {
+            healthy = false;
+        }
+    }
+
+    /**
+     * 记录一次健康检查结果
+     */
+    public synchronized void onHealthCheck(boolean ok, String error) {
+        lastCheckedAt = Instant.now();
+        if (ok) {
+            healthy = true;
+            consecutiveFailures = 0;
+        } else {
+            healthy = false;
+            lastError = error;
+        }
+    }
+
+    public synchronized boolean isHealthy() {
+        return healthy;
+    }
+
+    /**
+     * 线路评分，越小越优先：中位耗时除以权重；尚无样本的线路评分为 0，会被优先尝试以获得样本
+     */
+    public double score() {
+        long p50 = latency.percentile(0.5);
+        return p50 < 0 ? 0 : (double) p50 / weight;
+    }
+
+    public synchronized Status status() {
+        return new Status(name, weight, healthy, consecutiveFailures, successes, failures,
+                latency.size(), latency.percentile(0.5), latency.percentile(0.95), lastCheckedAt, lastError);
+    }
+
+    /**
+     * 线路状态
+     */
+    @Data
+    @AllArgsConstructor
+    public static class Status {
+        private String name;
+        private int weight;
+        private boolean healthy;
+        private int consecutiveFailures;
+        private long successes;
+        private long failures;
+        private int samples;
+        private long p50Millis;
+        private long p95Millis;
+        private Instant lastCheckedAt;
+        private String lastError;
+    }
+}
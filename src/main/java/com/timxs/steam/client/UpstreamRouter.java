@@ -0,0 +1,307 @@
+package com.timxs.steam.client;
+
+import com.timxs.steam.service.SteamSettingService;
+import com.timxs.steam.service.SteamSettingService.ApiProxyConfig;
+import com.timxs.steam.service.SteamSettingService.ApiRouteConfig;
+import com.timxs.steam.trace.TraceExchangeFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.transport.ProxyProvider;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 上游线路选择
+ * 根据 API 代理配置解析出一条或多条线路（直连、HTTP 代理、反向代理地址），
+ * 按健康状态和延迟评分排序，请求走最优线路；开启对冲后，首选线路超过该接口的 p95 耗时
+ * 仍未响应或已失败时，向第二条线路发出对冲请求，取先返回的结果。
+ * 对冲请求占用调用方通道的并发名额，通道没有空闲并发时不对冲
+ */
+@Slf4j
+@Component
+public class UpstreamRouter {
+
+    private static final String STEAM_API_BASE = "https://api.steampowered.com";
+    private static final String STEAM_STORE_API = "https://store.steampowered.com";
+    private static final String DEFAULT_ROUTE_NAME = "默认";
+
+    /** 首选线路样本数少于该值时不对冲，避免 p95 不准确导致过早发出第二个请求 */
+    private static final int HEDGE_MIN_SAMPLES = 20;
+
+    /** 健康检查接口，无需 API Key */
+    private static final String HEALTH_CHECK_PATH = "/ISteamWebAPIUtil/GetServerInfo/v1/";
+    private static final Duration HEALTH_CHECK_TIMEOUT = Duration.ofSeconds(5);
+
+    private final SteamSettingService settingService;
+    private final SteamRequestDispatcher dispatcher;
+
+    /** 按线路配置缓存，配置不变时复用 WebClient 和统计数据 */
+    private final Map<String, UpstreamRoute> routeCache = new ConcurrentHashMap<>();
+
+    public UpstreamRouter(SteamSettingService settingService, SteamRequestDispatcher dispatcher) {
+        this.settingService = settingService;
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * 在最优线路上执行请求
+     * @param endpoint 请求的接口，对冲延迟按线路和接口分别统计
+     * @param store true 表示 Store API，false 表示 Steam Web API
+     * @param request 基于线路 WebClient 构建的请求，可能被调用两次（对冲）
+     */
+    public <T> Mono<T> exchange(SteamEndpoint endpoint, boolean store, Function<WebClient, Mono<T>> request) {
+        return settingService.getApiProxyConfig()
+                .flatMap(config -> {
+                    List<UpstreamRoute> ranked = rank(resolveRoutes(config));
+                    UpstreamRoute primary = ranked.get(0);
+                    boolean hedge = Boolean.TRUE.equals(config.getHedgeEnabled())
+                            // 全量应用列表分页响应很大，对冲只会加倍带宽占用
+                            && endpoint != SteamEndpoint.APP_LIST
+                            && ranked.size() > 1
+                            && primary.samples(endpoint) >= HEDGE_MIN_SAMPLES;
+                    Mono<Outcome<T>> outcome = hedge
+                            ? hedged(primary, ranked.get(1), endpoint, store, request)
+                            : attempt(primary, endpoint, store, request);
+                    return outcome.flatMap(Outcome::unwrap);
+                });
+    }
+
+    /**
+     * 对所有线路执行一次健康检查（仅多线路模式）
+     */
+    public Mono<Void> checkHealth() {
+        return settingService.getApiProxyConfig()
+                .map(this::resolveRoutes)
+                .filter(routes -> routes.size() > 1)
+                .flatMapMany(Flux::fromIterable)
+                .flatMap(this::checkRoute)
+                .then();
+    }
+
+    /**
+     * 获取当前配置下各线路状态，按选择顺序排列
+     */
+    public Mono<List<UpstreamRoute.Status>> getStatus() {
+        return settingService.getApiProxyConfig()
+                .map(config -> {
+                    List<UpstreamRoute.Status> result = new ArrayList<>();
+                    for (UpstreamRoute route : rank(resolveRoutes(config))) {
+                        result.add(route.status());
+                    }
+                    return result;
+                });
+    }
+
+    private <T> Mono<Outcome<T>> attempt(UpstreamRoute route, SteamEndpoint endpoint, boolean store,
+                                         Function<WebClient, Mono<T>> request) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return request.apply(store ? route.getStoreClient() : route.getApiClient())
+                    .map(Outcome::of)
+                    .defaultIfEmpty(Outcome.empty())
+                    // 4xx、解析失败等说明线路可达，作为结果返回而不是触发对冲
+                    .onErrorResume(e -> !UpstreamResilience.isTransient(e), e -> Mono.just(Outcome.failed(e)))
+                    .doOnSuccess(outcome -> {
+                        route.recordLatency(endpoint, elapsedMillis(start));
+                        route.onSuccess();
+                    })
+                    .doOnError(route::onFailure)
+                    // 被对冲请求取代时已等待时长只是下限，仅计入线路排序，不参与对冲延迟计算
+                    .doOnCancel(() -> route.recordLatency(elapsedMillis(start)));
+        });
+    }
+
+    private <T> Mono<Outcome<T>> hedged(UpstreamRoute primary, UpstreamRoute secondary, SteamEndpoint endpoint,
+                                        boolean store, Function<WebClient, Mono<T>> request) {
+        return Mono.defer(() -> {
+            Sinks.Empty<Void> primaryFailed = Sinks.empty();
+            Duration delay = Duration.ofMillis(Math.max(1, primary.percentile(endpoint, 0.95)));
+            Mono<Outcome<T>> first = attempt(primary, endpoint, store, request)
+                    .doOnError(e -> primaryFailed.tryEmitEmpty());
+            // 对冲请求占用同一通道的一个空闲并发名额，拿不到时为空，只等待首选线路
+            Mono<Outcome<T>> second = Mono.firstWithSignal(Mono.delay(delay).then(), primaryFailed.asMono())
+                    .then(dispatcher.tryDispatch(Mono.defer(() -> {
+                        log.debug("线路 {} 未在 {}ms 内响应，对冲到线路 {}: {}",
+                                primary.getName(), delay.toMillis(), secondary.getName(), endpoint.getDisplayName());
+                        return attempt(secondary, endpoint, store, request);
+                    })));
+            return Mono.firstWithValue(first, second)
+                    .onErrorMap(NoSuchElementException.class, UpstreamRouter::firstCause);
+        });
+    }
+
+    private Mono<Void> checkRoute(UpstreamRoute route) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return route.getApiClient().get()
+                    .uri(HEALTH_CHECK_PATH)
+                    .retrieve()
+                    .toBodilessEntity()
+                    .timeout(HEALTH_CHECK_TIMEOUT)
+                    .doOnSuccess(response -> {
+                        route.recordLatency(elapsedMillis(start));
+                        route.onHealthCheck(true, null);
+                    })
+                    .doOnError(e -> {
+                        log.debug("线路健康检查失败: {}, {}", route.getName(), e.getMessage());
+                        route.onHealthCheck(false, e.getMessage());
+                    })
+                    .onErrorResume(e -> Mono.empty())
+                    .then();
+        });
+    }
+
+    /**
+     * 健康的线路优先，其次按评分；评分相同时保持配置顺序
+     */
+    private List<UpstreamRoute> rank(List<UpstreamRoute> routes) {
+        List<UpstreamRoute> ranked = new ArrayList<>(routes);
+        ranked.sort(Comparator.comparing((UpstreamRoute route) -> !route.isHealthy())
+                .thenComparingDouble(UpstreamRoute::score));
+        return ranked;
+    }
+
+    private List<UpstreamRoute> resolveRoutes(ApiProxyConfig config) {
+        List<UpstreamRoute> routes = new ArrayList<>();
+        boolean enabled = Boolean.TRUE.equals(config.getEnabled());
+        if (enabled && "routes".equals(config.getProxyType()) && config.getRoutes() != null) {
+            int index = 0;
+            for (ApiRouteConfig routeConfig : config.getRoutes()) {
+                index++;
+                String name = routeConfig.getName() != null && !routeConfig.getName().isBlank()
+                        ? routeConfig.getName() : "线路 " + index;
+                int weight = routeConfig.getWeight() != null ? routeConfig.getWeight() : 1;
+                UpstreamRoute route = route(name, weight, routeConfig.getType(),
+                        routeConfig.getHttpHost(), routeConfig.getHttpPort(), routeConfig.getCustomApiUrl());
+                if (route != null) {
+                    routes.add(route);
+                }
+            }
+        } else if (enabled) {
+            UpstreamRoute route = route(DEFAULT_ROUTE_NAME, 1, config.getProxyType(),
+                    config.getHttpHost(), config.getHttpPort(), config.getCustomApiUrl());
+            if (route != null) {
+                routes.add(route);
+            }
+        }
+        if (routes.isEmpty()) {
+            routes.add(route(DEFAULT_ROUTE_NAME, 1, "direct", null, null, null));
+        }
+        // 配置变更后清理不再使用的线路
+        if (routeCache.size() > routes.size()) {
+            routeCache.keySet().retainAll(routes.stream().map(UpstreamRoute::getKey).toList());
+        }
+        return routes;
+    }
+
+    /**
+     * 创建或复用一条线路，配置不完整时返回 null
+     */
+    private UpstreamRoute route(String name, int weight, String type, String httpHost, Integer httpPort,
+                                String customApiUrl) {
+        if ("http".equals(type)) {
+            if (httpHost == null || httpHost.isBlank() || httpPort == null) {
+                return null;
+            }
+            String key = String.join("|", "http", name, String.valueOf(weight), httpHost, httpPort.toString());
+            return routeCache.computeIfAbsent(key, k -> {
+                log.debug("创建上游线路 {}: HTTP 代理 {}:{}", name, httpHost, httpPort);
+                HttpClient httpClient = HttpClient.create()
+                        .proxy(proxy -> proxy
+                                .type(ProxyProvider.Proxy.HTTP)
+                                .host(httpHost)
+                                .port(httpPort));
+                ReactorClientHttpConnector connector = new ReactorClientHttpConnector(httpClient);
+                return new UpstreamRoute(k, name, weight,
+                        webClient(name, STEAM_API_BASE).clientConnector(connector).build(),
+                        webClient(name, STEAM_STORE_API).clientConnector(connector).build());
+            });
+        }
+        if ("custom".equals(type)) {
+            if (customApiUrl == null || customApiUrl.isBlank()) {
+                return null;
+            }
+            String baseUrl = customApiUrl.trim();
+            // 移除末尾斜杠
+            if (baseUrl.endsWith("/")) {
+                baseUrl = baseUrl.substring(0, baseUrl.length() - 1);
+            }
+            String url = baseUrl;
+            String key = String.join("|", "custom", name, String.valueOf(weight), url);
+            return routeCache.computeIfAbsent(key, k -> {
+                log.debug("创建上游线路 {}: 自定义地址 {}", name, url);
+                // 反向代理同时转发 Steam Web API 和 Store API
+                return new UpstreamRoute(k, name, weight,
+                        webClient(name, url).build(),
+                        webClient(name, url).build());
+            });
+        }
+        String key = String.join("|", "direct", name, String.valueOf(weight));
+        return routeCache.computeIfAbsent(key, k -> new UpstreamRoute(k, name, weight,
+                webClient(name, STEAM_API_BASE).build(),
+                webClient(name, STEAM_STORE_API).build()));
+    }
+
+    private static WebClient.Builder webClient(String routeName, String baseUrl) {
+        return WebClient.builder()
+                .baseUrl(baseUrl)
+                .filter(new TraceExchangeFilter(routeName));
+    }
+
+    private static Throwable firstCause(NoSuchElementException e) {
+        for (Throwable suppressed : e.getSuppressed()) {
+            List<Throwable> causes = Exceptions.unwrapMultiple(suppressed);
+            if (!causes.isEmpty()) {
+                return causes.get(0);
+            }
+        }
+        return e;
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    /**
+     * 单次线路请求的结果，非暂时性错误也作为结果返回
+     */
+    private static final class Outcome<T> {
+        private final T value;
+        private final Throwable error;
+
+        private Outcome(T value, Throwable error) {
+            this.value = value;
+            this.error = error;
+        }
+
+        static <T> Outcome<T> of(T value) {
+            return new Outcome<>(value, null);
+        }
+
+        static <T> Outcome<T> empty() {
+            return new Outcome<>(null, null);
+        }
+
+        static <T> Outcome<T> failed(Throwable error) {
+            return new Outcome<>(null, error);
+        }
+
+        Mono<T> unwrap() {
+            return error != null ? Mono.error(error) : Mono.justOrEmpty(value);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.timxs.steam.controller;
+
+import com.timxs.steam.catalog.AppCatalogService;
+import com.timxs.steam.catalog.CatalogSuggestions;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyExtractors;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import run.halo.app.core.extension.endpoint.CustomEndpoint;
+import run.halo.app.extension.GroupVersion;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.springdoc.core.fn.builders.apiresponse.Builder.responseBuilder;
+import static org.springdoc.core.fn.builders.parameter.Builder.parameterBuilder;
+
+/**
+ * Steam 应用目录 Console API（编辑器游戏卡片联想）
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogController implements CustomEndpoint {
+
+    private static final int MAX_KEYWORD_LENGTH = 100;
+
+    private final AppCatalogService catalogService;
+
+    @Override
+    public RouterFunction<ServerResponse> endpoint() {
+        var tag = "SteamV1alpha1Console";
+        return org.springdoc.webflux.core.fn.SpringdocRouteBuilder.route()
+                .GET("/catalog/suggest", this::suggest,
+                        builder -> builder.operationId("SuggestSteamApps")
+                                .description("按名称前缀或 App ID 联想 Steam 应用，拥有的游戏排在前面；目录首次使用时在后台下载")
+                                .tag(tag)
+                                .parameter(parameterBuilder().name("q").description("名称中任一单词的前缀或 App ID").required(true))
+                                .parameter(parameterBuilder().name("limit").description("最多返回数量，默认 10，最大 50").required(false))
+                                .response(responseBuilder().implementation(CatalogSuggestions.class)))
+                .POST("/catalog/refresh", this::refresh,
+                        builder -> builder.operationId("RefreshSteamCatalog")
+                                .description("增量刷新 Steam 应用目录（只拉取上次刷新后修改过的应用）")
+                                .tag(tag)
+                                .response(responseBuilder().implementation(SteamConsoleController.RefreshResponse.class)))
+                .POST("/catalog/import", this::importCatalog,
+                        builder -> builder.operationId("ImportSteamCatalog")
+                                .description("导入 GetAppList 格式的 JSON 文件（请求体），与现有目录合并")
+                                .tag(tag)
+                                .response(responseBuilder().implementation(SteamConsoleController.RefreshResponse.class)))
+                .build();
+    }
+
+    @Override
+    public GroupVersion groupVersion() {
+        return new GroupVersion("console.api.steam.timxs.com", "v1alpha1");
+    }
+
+    private Mono<ServerResponse> suggest(ServerRequest request) {
+        String keyword = request.queryParam("q").map(String::trim).orElse("");
+        if (keyword.isEmpty() || keyword.length() > MAX_KEYWORD_LENGTH) {
+            return ServerResponse.badRequest().build();
+        }
+        int limit = Math.min(50, Math.max(1, parseIntOrDefault(request.queryParam("limit").orElse(null), 10)));
+        return catalogService.suggest(keyword, limit)
+                .flatMap(result -> ServerResponse.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(result));
+    }
+
+    private Mono<ServerResponse> refresh(ServerRequest request) {
+        return catalogService.refresh()
+                .map(count -> new SteamConsoleController.RefreshResponse(true, "应用目录已刷新，共 " + count + " 个应用"))
+                .defaultIfEmpty(new SteamConsoleController.RefreshResponse(false, "应用目录正在刷新，请稍后再试"))
+                .onErrorResume(e -> Mono.just(new SteamConsoleController.RefreshResponse(false, "刷新失败：" + e.getMessage())))
+                .flatMap(result -> ServerResponse.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(result));
+    }
+
+    /**
+     * 导入目录：请求体先流式写入临时文件，再流式解析，文件大小不占用内存
+     */
+    private Mono<ServerResponse> importCatalog(ServerRequest request) {
+        Flux<DataBuffer> body = request.body(BodyExtractors.toDataBuffers());
+        return Mono.usingWhen(
+                        Mono.fromCallable(() -> Files.createTempFile("steam-catalog-", ".json"))
+                                .subscribeOn(Schedulers.boundedElastic()),
+                        temp -> DataBufferUtils.write(body, temp).then(catalogService.importFile(temp)),
+                        temp -> Mono.fromRunnable(() -> deleteQuietly(temp)).subscribeOn(Schedulers.boundedElastic()))
+                .map(count -> new SteamConsoleController.RefreshResponse(true, "导入完成，目录共 " + count + " 个应用"))
+                .onErrorResume(e -> Mono.just(new SteamConsoleController.RefreshResponse(false, "导入失败：" + e.getMessage())))
+                .flatMap(result -> ServerResponse.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(result));
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // 临时目录中的残留文件由系统清理
+        }
+    }
+
+    private int parseIntOrDefault(String value, int defaultValue) {
+        if (value == null) return defaultValue;
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
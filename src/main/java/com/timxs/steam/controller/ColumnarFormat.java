@@ -0,0 +1,140 @@
+package com.timxs.steam.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 列式 JSON（format=columnar）
+ * 把列表中的对象转成每个字段一个数组，属性名只出现一次；有重复值的字符串列改为共享字典中的下标。
+ * 外层的分页信息原样保留，例如：
+ * <pre>
+ * {"page":1,"size":20,"total":135,"format":"columnar","count":2,
+ *  "fields":["appid","name"],"columns":{"appid":[730,570],"name":[0,1]},
+ *  "strings":["name"],"dictionary":["Counter-Strike 2","Dota 2"]}
+ * </pre>
+ */
+final class ColumnarFormat {
+
+    static final String PARAM = "format";
+    static final String COLUMNAR = "columnar";
+
+    private static final String ITEMS = "items";
+
+    private ColumnarFormat() {
+    }
+
+    /**
+     * 是否请求列式格式
+     *
+     * @throws IllegalArgumentException 格式不支持
+     */
+    static boolean isRequested(String format) {
+        if (format == null || format.isBlank() || "json".equalsIgnoreCase(format.trim())) {
+            return false;
+        }
+        if (COLUMNAR.equalsIgnoreCase(format.trim())) {
+            return true;
+        }
+        throw new IllegalArgumentException("不支持的格式: " + format);
+    }
+
+    /**
+     * 转换序列化后的响应
+     *
+     * @param tree        响应体，列表或带 items 的分页对象
+     * @param rowProperty 行数据所在的属性（如时长记录的 spec），为 null 时整个元素就是一行
+     */
+    static JsonNode encode(JsonNode tree, String rowProperty) {
+        JsonNodeFactory nodes = JsonNodeFactory.instance;
+        ObjectNode result = nodes.objectNode();
+        JsonNode items;
+        if (tree.isArray()) {
+            items = tree;
+        } else if (tree.isObject() && tree.path(ITEMS).isArray()) {
+            items = tree.get(ITEMS);
+            tree.fields().forEachRemaining(entry -> {
+                if (!ITEMS.equals(entry.getKey())) {
+                    result.set(entry.getKey(), entry.getValue());
+                }
+            });
+        } else {
+            return tree;
+        }
+
+        List<JsonNode> rows = new ArrayList<>(items.size());
+        Set<String> fields = new LinkedHashSet<>();
+        for (JsonNode item : items) {
+            JsonNode row = rowProperty != null ? item.path(rowProperty) : item;
+            rows.add(row);
+            row.fieldNames().forEachRemaining(fields::add);
+        }
+
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        ObjectNode columns = nodes.objectNode();
+        ArrayNode strings = nodes.arrayNode();
+        for (String field : fields) {
+            ArrayNode column = nodes.arrayNode(rows.size());
+            if (isRepeatedStringColumn(rows, field)) {
+                strings.add(field);
+                for (JsonNode row : rows) {
+                    JsonNode value = row.get(field);
+                    if (value == null || value.isNull()) {
+                        column.addNull();
+                    } else {
+                        column.add(dictionary.computeIfAbsent(value.textValue(), key -> dictionary.size()));
+                    }
+                }
+            } else {
+                for (JsonNode row : rows) {
+                    JsonNode value = row.get(field);
+                    column.add(value != null ? value : nodes.nullNode());
+                }
+            }
+            columns.set(field, column);
+        }
+
+        ArrayNode dictionaryNode = nodes.arrayNode(dictionary.size());
+        dictionary.keySet().forEach(dictionaryNode::add);
+        ArrayNode fieldsNode = nodes.arrayNode(fields.size());
+        fields.forEach(fieldsNode::add);
+
+        result.put("format", COLUMNAR);
+        result.put("count", rows.size());
+        result.set("fields", fieldsNode);
+        result.set("columns", columns);
+        result.set("strings", strings);
+        result.set("dictionary", dictionaryNode);
+        return result;
+    }
+
+    /**
+     * 非空值全是字符串且有重复时才放入字典，值各不相同的列（如封面地址）保持原样
+     */
+    private static boolean isRepeatedStringColumn(List<JsonNode> rows, String field) {
+        Set<String> seen = new HashSet<>();
+        boolean repeated = false;
+        for (JsonNode row : rows) {
+            JsonNode value = row.get(field);
+            if (value == null || value.isNull()) {
+                continue;
+            }
+            if (!value.isTextual()) {
+                return false;
+            }
+            if (!seen.add(value.textValue())) {
+                repeated = true;
+            }
+        }
+        return repeated;
+    }
+}
@@ -0,0 +1,210 @@
+package com.timxs.steam.controller;
+
+import com.timxs.steam.cache.CacheService;
+import com.timxs.steam.cache.CacheVersion;
+import com.timxs.steam.service.SteamSettingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * HTTP 条件请求支持
+ * ETag 由数据版本与配置版本组成，命中 If-None-Match 时返回 304；
+ * Cache-Control 的 max-age 取缓存条目剩余有效期，stale-while-revalidate 取其 TTL，便于浏览器和 CDN 复用响应
+ */
+@Component
+@RequiredArgsConstructor
+public class ConditionalResponses {
+
+    /** 进程启动标识，重启后版本号从头计数，避免与重启前签发的 ETag 冲突 */
+    private static final String BOOT_ID = Long.toString(System.currentTimeMillis(), 36);
+
+    private final CacheService cacheService;
+    private final SteamSettingService settingService;
+    private final SerializedResponseCache responseCache;
+
+    /**
+     * 基于缓存条目生成校验信息，任一条目不存在时返回空
+     */
+    public Mono<Validator> forCacheKeys(String... keys) {
+        return Mono.zip(
+                settingService.getSettingsVersion(),
+                Flux.fromArray(keys).concatMap(cacheService::getVersion).collectList()
+        ).filter(tuple -> tuple.getT2().size() == keys.length)
+                .map(tuple -> {
+                    List<CacheVersion> versions = tuple.getT2();
+                    StringBuilder tag = new StringBuilder(BOOT_ID).append('-').append(tuple.getT1());
+                    long maxAge = Long.MAX_VALUE;
+                    long staleWhileRevalidate = Long.MAX_VALUE;
+                    for (CacheVersion version : versions) {
+                        tag.append('-').append(Long.toString(version.version(), 36));
+                        maxAge = Math.min(maxAge, version.remainingSeconds());
+                        staleWhileRevalidate = Math.min(staleWhileRevalidate, version.ttlSeconds());
+                    }
+                    return new Validator("W/\"" + tag + "\"", maxAge, staleWhileRevalidate);
+                });
+    }
+
+    /**
+     * 基于不经过缓存的数据版本生成校验信息，有效期固定
+     */
+    public Mono<Validator> forDataVersion(LongSupplier dataVersion, Duration maxAge, Duration staleWhileRevalidate) {
+        return settingService.getSettingsVersion()
+                .map(settingsVersion -> new Validator(
+                        "W/\"" + BOOT_ID + "-" + settingsVersion + "-" + Long.toString(dataVersion.getAsLong(), 36) + "\"",
+                        maxAge.toSeconds(), staleWhileRevalidate.toSeconds()));
+    }
+
+    /**
+     * 处理条件 GET：数据仍在有效期内且 ETag 匹配时直接返回 304，不计算响应体；
+     * 否则计算响应体后重新读取版本（可能刚刚写入缓存）并附加 ETag。body 为空时返回空
+     */
+    public <T> Mono<ServerResponse> respond(ServerRequest request, Mono<Validator> validator, Mono<T> body) {
+        return validator
+                .filter(v -> v.isFresh() && v.matches(request))
+                .flatMap(ConditionalResponses::notModified)
+                .switchIfEmpty(Mono.defer(() -> body.flatMap(value -> validator
+                        .flatMap(v -> v.matches(request)
+                                ? notModified(v)
+                                : ServerResponse.ok()
+                                        .eTag(v.etag())
+                                        .cacheControl(v.cacheControl())
+                                        .bodyValue(value))
+                        .switchIfEmpty(Mono.defer(() -> uncached(value))))));
+    }
+
+    /**
+     * 与 {@link #respond} 相同，但响应体经过序列化缓存：
+     * 同一接口、参数和数据版本的请求直接写出缓存的 JSON 字节，不调用业务方法，也不经过 Jackson
+     */
+    public <T> Mono<ServerResponse> respondSerialized(ServerRequest request, Mono<Validator> validator, Mono<T> body) {
+        return settingService.getResponseCacheConfig().flatMap(config -> {
+            if (!Boolean.TRUE.equals(config.getEnabled())) {
+                return respond(request, validator, body);
+            }
+            return validator
+                    .filter(Validator::isFresh)
+                    .flatMap(v -> {
+                        if (v.matches(request)) {
+                            return notModified(v);
+                        }
+                        SerializedResponseCache.Entry entry = responseCache.get(serializedKey(request, v));
+                        return entry != null ? writeSerialized(request, v, entry) : Mono.<ServerResponse>empty();
+                    })
+                    .switchIfEmpty(Mono.defer(() -> body.flatMap(value -> validator
+                            .flatMap(v -> v.matches(request)
+                                    ? notModified(v)
+                                    : Mono.fromCallable(() -> responseCache.put(serializedKey(request, v), value,
+                                                    Boolean.TRUE.equals(config.getGzip()), config.getMaxEntries()))
+                                            .flatMap(entry -> writeSerialized(request, v, entry)))
+                            .switchIfEmpty(Mono.defer(() -> uncached(value))))));
+        });
+    }
+
+    private static Mono<ServerResponse> notModified(Validator validator) {
+        return ServerResponse.status(HttpStatus.NOT_MODIFIED)
+                .eTag(validator.etag())
+                .cacheControl(validator.cacheControl())
+                .build();
+    }
+
+    private static Mono<ServerResponse> uncached(Object value) {
+        return ServerResponse.ok()
+                .cacheControl(CacheControl.noCache())
+                .bodyValue(value);
+    }
+
+    private static Mono<ServerResponse> writeSerialized(ServerRequest request, Validator validator,
+                                                        SerializedResponseCache.Entry entry) {
+        boolean gzip = entry.gzip() != null && acceptsGzip(request);
+        byte[] bytes = gzip ? entry.gzip() : entry.json();
+        var builder = ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .contentLength(bytes.length)
+                .eTag(validator.etag())
+                .cacheControl(validator.cacheControl())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        DataBufferFactory bufferFactory = request.exchange().getResponse().bufferFactory();
+        return builder.body(BodyInserters.fromDataBuffers(Mono.fromSupplier(() -> bufferFactory.wrap(bytes))));
+    }
+
+    /**
+     * 序列化缓存键：路径 + 查询参数 + ETag（已包含数据与配置版本）
+     */
+    private static String serializedKey(ServerRequest request, Validator validator) {
+        String query = request.uri().getRawQuery();
+        return request.path() + (query != null ? "?" + query : "") + "|" + validator.etag();
+    }
+
+    private static boolean acceptsGzip(ServerRequest request) {
+        for (String header : request.headers().header(HttpHeaders.ACCEPT_ENCODING)) {
+            for (String coding : header.split(",")) {
+                String[] parts = coding.trim().split(";");
+                if ("gzip".equalsIgnoreCase(parts[0].trim())
+                        && !(parts.length > 1 && parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 响应校验信息
+     *
+     * @param etag                 弱 ETag
+     * @param maxAgeSeconds        可直接复用的秒数
+     * @param staleWhileRevalidate 过期后仍可先返回旧响应、后台重新验证的秒数
+     */
+    public record Validator(String etag, long maxAgeSeconds, long staleWhileRevalidate) {
+
+        /**
+         * 数据是否仍在有效期内，过期数据需要先走一次业务方法触发刷新
+         */
+        public boolean isFresh() {
+            return maxAgeSeconds > 0;
+        }
+
+        /**
+         * If-None-Match 是否命中，按弱比较处理
+         */
+        public boolean matches(ServerRequest request) {
+            String expected = opaque(etag);
+            for (String header : request.headers().header(HttpHeaders.IF_NONE_MATCH)) {
+                for (String candidate : header.split(",")) {
+                    String value = candidate.trim();
+                    if ("*".equals(value) || opaque(value).equals(expected)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        public CacheControl cacheControl() {
+            return CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds))
+                    .cachePublic()
+                    .staleWhileRevalidate(Duration.ofSeconds(staleWhileRevalidate));
+        }
+
+        private static String opaque(String tag) {
+            return tag.startsWith("W/") ? tag.substring(2) : tag;
+        }
+    }
+}
@@ -14,6 +14,8 @@ import run.halo.app.core.extension.endpoint.CustomEndpoint;
 import run.halo.app.extension.GroupVersion;
 import run.halo.app.extension.ListResult;
 
+import java.time.Duration;
+
 import static org.springdoc.core.fn.builders.apiresponse.Builder.responseBuilder;
 import static org.springdoc.core.fn.builders.parameter.Builder.parameterBuilder;
 
@@ -24,8 +26,14 @@ import static org.springdoc.core.fn.builders.parameter.Builder.parameterBuilder;
 @RequiredArgsConstructor
 public class HeatmapController implements CustomEndpoint {
 
+    /** 时长记录每小时追踪一次，短时间内复用响应即可 */
+    private static final Duration RECORDS_MAX_AGE = Duration.ofMinutes(5);
+    private static final Duration RECORDS_STALE_WHILE_REVALIDATE = Duration.ofHours(1);
+
     private final PlaytimeTrackingService trackingService;
     private final SteamSettingService settingService;
+    private final ConditionalResponses conditional;
+    private final SparseFields sparseFields;
 
     @Override
     public RouterFunction<ServerResponse> endpoint() {
@@ -41,6 +49,8 @@ public class HeatmapController implements CustomEndpoint {
                                 .parameter(parameterBuilder().name("appId").description("游戏 ID（可选）").required(false))
                                 .parameter(parameterBuilder().name("page").description("页码").required(false))
                                 .parameter(parameterBuilder().name("size").description("每页大小").required(false))
+                                .parameter(parameterBuilder().name("fields").description("只返回 spec 中的这些字段，逗号分隔，如 date,appId,playtimeMinutes").required(false))
+                                .parameter(parameterBuilder().name("format").description("columnar 返回列式 JSON（每个字段一个数组，重复字符串放入共享字典）").required(false))
                                 .response(responseBuilder().implementation(ListResult.generateGenericClass(DailyPlaytimeRecord.class))))
                 .build();
     }
@@ -59,9 +69,17 @@ public class HeatmapController implements CustomEndpoint {
         Long appId = parseLongOrNull(request.queryParam("appId").orElse(null));
         int page = parseIntOrDefault(request.queryParam("page").orElse(null), 1);
         int size = parseIntOrDefault(request.queryParam("size").orElse(null), 365);
+        SparseFields.Selection fields;
+        try {
+            fields = sparseFields.parse(request, SparseFields.Target.DAILY_RECORD);
+        } catch (IllegalArgumentException e) {
+            return ServerResponse.badRequest().build();
+        }
 
-        return trackingService.queryDailyRecords(startDate, endDate, appId, page, size)
-                .flatMap(records -> ServerResponse.ok().bodyValue(records));
+        var validator = conditional.forDataVersion(trackingService::getDataVersion,
+                RECORDS_MAX_AGE, RECORDS_STALE_WHILE_REVALIDATE);
+        return conditional.respond(request, validator,
+                fields.apply(trackingService.queryDailyRecords(startDate, endDate, appId, page, size)));
     }
 
     private int parseIntOrDefault(String value, int defaultValue) {
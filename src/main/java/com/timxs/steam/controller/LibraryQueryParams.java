@@ -0,0 +1,92 @@
+package com.timxs.steam.controller;
+
+import com.timxs.steam.library.LibraryQuery;
+import org.springframework.web.reactive.function.server.ServerRequest;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+/**
+ * 游戏库查询参数解析，公开接口与后台接口共用
+ */
+final class LibraryQueryParams {
+
+    static final int DEFAULT_LIMIT = 20;
+    static final int MAX_LIMIT = 100;
+
+    private LibraryQueryParams() {
+    }
+
+    /**
+     * 从请求参数解析查询条件（不含可见范围）
+     *
+     * @throws IllegalArgumentException 参数格式错误
+     */
+    static LibraryQuery parse(ServerRequest request) {
+        LibraryQuery query = new LibraryQuery();
+        query.setMinPlaytime(parseInt(request, "minPlaytime"));
+        query.setMaxPlaytime(parseInt(request, "maxPlaytime"));
+        request.queryParam("lastPlayedFrom").filter(v -> !v.isBlank())
+                .ifPresent(v -> query.setLastPlayedFrom(startOfDay(parseDate(v))));
+        request.queryParam("lastPlayedTo").filter(v -> !v.isBlank())
+                .ifPresent(v -> query.setLastPlayedTo(startOfDay(parseDate(v).plusDays(1)) - 1));
+        request.queryParam("neverPlayed").filter(v -> !v.isBlank())
+                .ifPresent(v -> query.setNeverPlayed(Boolean.parseBoolean(v)));
+        request.queryParam("prefix").filter(v -> !v.isBlank())
+                .ifPresent(v -> query.setNamePrefix(v.trim()));
+        request.queryParam("sort").filter(v -> !v.isBlank())
+                .ifPresent(v -> query.setSort(LibraryQuery.parseSort(v)));
+        request.queryParam("after").filter(v -> !v.isBlank())
+                .ifPresent(v -> query.setAfter(parseLong("after", v)));
+        Integer limit = parseInt(request, "limit");
+        query.setLimit(Math.min(MAX_LIMIT, Math.max(1, limit != null ? limit : DEFAULT_LIMIT)));
+        return query;
+    }
+
+    /**
+     * 解析隐藏游戏的可见范围（visible、hidden、all）
+     */
+    static LibraryQuery.Visibility parseVisibility(ServerRequest request) {
+        String value = request.queryParam("visibility").orElse("visible");
+        try {
+            return LibraryQuery.Visibility.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("不支持的 visibility: " + value);
+        }
+    }
+
+    private static Integer parseInt(ServerRequest request, String name) {
+        return request.queryParam(name)
+                .filter(v -> !v.isBlank())
+                .map(v -> {
+                    try {
+                        return Integer.parseInt(v.trim());
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException(name + " 不是有效的整数: " + v);
+                    }
+                })
+                .orElse(null);
+    }
+
+    private static Long parseLong(String name, String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " 不是有效的整数: " + value);
+        }
+    }
+
+    private static LocalDate parseDate(String value) {
+        try {
+            return LocalDate.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("日期格式应为 yyyy-MM-dd: " + value);
+        }
+    }
+
+    private static long startOfDay(LocalDate date) {
+        return date.atStartOfDay(ZoneId.systemDefault()).toEpochSecond();
+    }
+}
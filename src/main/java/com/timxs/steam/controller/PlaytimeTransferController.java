@@ -0,0 +1,136 @@
+package com.timxs.steam.controller;
+
+import com.timxs.steam.transfer.ImportProgress;
+import com.timxs.steam.transfer.PlaytimeExporter;
+import com.timxs.steam.transfer.PlaytimeImporter;
+import com.timxs.steam.transfer.TransferFormat;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyExtractors;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import run.halo.app.core.extension.endpoint.CustomEndpoint;
+import run.halo.app.extension.GroupVersion;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+import static org.springdoc.core.fn.builders.apiresponse.Builder.responseBuilder;
+import static org.springdoc.core.fn.builders.parameter.Builder.parameterBuilder;
+
+/**
+ * 时长数据导入导出 Console API（备份、迁移或从其他工具导入历史数据）
+ */
+@Component
+@RequiredArgsConstructor
+public class PlaytimeTransferController implements CustomEndpoint {
+
+    /** 未指定开始日期时从最早的数据开始导出 */
+    private static final LocalDate EARLIEST = LocalDate.of(1970, 1, 1);
+
+    private final PlaytimeExporter exporter;
+    private final PlaytimeImporter importer;
+
+    @Override
+    public RouterFunction<ServerResponse> endpoint() {
+        var tag = "SteamV1alpha1Console";
+        return org.springdoc.webflux.core.fn.SpringdocRouteBuilder.route()
+                .GET("/heatmap/export", this::export,
+                        builder -> builder.operationId("ExportPlaytimeHistory")
+                                .description("流式导出日期范围内的每日时长记录或时长快照，边读边写，适合大量历史数据")
+                                .tag(tag)
+                                .parameter(parameterBuilder().name("type").description("records（每日记录，默认）或 snapshots（时长快照）").required(false))
+                                .parameter(parameterBuilder().name("format").description("ndjson（默认）或 csv").required(false))
+                                .parameter(parameterBuilder().name("startDate").description("开始日期 (yyyy-MM-dd)，默认不限").required(false))
+                                .parameter(parameterBuilder().name("endDate").description("结束日期 (yyyy-MM-dd)，默认今天").required(false)))
+                .POST("/heatmap/import", this::importRecords,
+                        builder -> builder.operationId("ImportPlaytimeHistory")
+                                .description("导入每日时长记录（请求体为 NDJSON 或 CSV 文件），与已有记录合并，重复导入不会改变数据；以 NDJSON 逐批返回进度")
+                                .tag(tag)
+                                .parameter(parameterBuilder().name("format").description("ndjson（默认）或 csv").required(false))
+                                .response(responseBuilder().implementationArray(ImportProgress.class)))
+                .build();
+    }
+
+    @Override
+    public GroupVersion groupVersion() {
+        return new GroupVersion("console.api.steam.timxs.com", "v1alpha1");
+    }
+
+    private Mono<ServerResponse> export(ServerRequest request) {
+        PlaytimeExporter.Kind kind;
+        TransferFormat format;
+        LocalDate startDate;
+        LocalDate endDate;
+        try {
+            kind = PlaytimeExporter.Kind.parse(request.queryParam("type").orElse(null));
+            format = TransferFormat.parse(request.queryParam("format").orElse(null));
+            startDate = parseDate(request.queryParam("startDate").orElse(null), EARLIEST);
+            endDate = parseDate(request.queryParam("endDate").orElse(null), LocalDate.now());
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ServerResponse.badRequest().build();
+        }
+        if (startDate.isAfter(endDate)) {
+            return ServerResponse.badRequest().build();
+        }
+
+        String fileName = "steam-" + kind.getFileName() + "-" + startDate + "-" + endDate + "." + format.getExtension();
+        Flux<DataBuffer> body = exporter.export(kind, format, startDate.toString(), endDate.toString())
+                .map(chunk -> DefaultDataBufferFactory.sharedInstance.wrap(chunk.getBytes(StandardCharsets.UTF_8)));
+        return ServerResponse.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(BodyInserters.fromDataBuffers(body));
+    }
+
+    /**
+     * 导入：请求体先流式写入临时文件，再逐行读取分批写入，导入结束后删除临时文件
+     */
+    private Mono<ServerResponse> importRecords(ServerRequest request) {
+        TransferFormat format;
+        try {
+            format = TransferFormat.parse(request.queryParam("format").orElse(null));
+        } catch (IllegalArgumentException e) {
+            return ServerResponse.badRequest().build();
+        }
+        Flux<DataBuffer> body = request.body(BodyExtractors.toDataBuffers());
+        Flux<ImportProgress> progress = Flux.usingWhen(
+                Mono.fromCallable(() -> Files.createTempFile("steam-playtime-", "." + format.getExtension()))
+                        .subscribeOn(Schedulers.boundedElastic()),
+                temp -> DataBufferUtils.write(body, temp).thenMany(importer.importDailyRecords(temp, format)),
+                temp -> Mono.fromRunnable(() -> deleteQuietly(temp)).subscribeOn(Schedulers.boundedElastic()));
+        return ServerResponse.ok()
+                .contentType(TransferFormat.NDJSON.getMediaType())
+                .body(progress, ImportProgress.class);
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // 临时目录中的残留文件由系统清理
+        }
+    }
+
+    private static LocalDate parseDate(String value, LocalDate defaultValue) {
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        return LocalDate.parse(value.trim());
+    }
+}
@@ -0,0 +1,83 @@
+package com.timxs.steam.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 响应序列化缓存
+ * 按接口、参数和数据版本缓存编码后的 JSON 字节（以及 gzip 版本），命中时直接写出，跳过业务方法和 Jackson 序列化。
+ * 数据版本是键的一部分，旧版本的条目不会再被命中，按最近最少使用淘汰
+ */
+@Component
+public class SerializedResponseCache {
+
+    /** 小于该字节数的响应不压缩，gzip 头开销反而更大 */
+    private static final int GZIP_MIN_BYTES = 1024;
+
+    private final ObjectMapper objectMapper;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+
+    public SerializedResponseCache(ObjectProvider<ObjectMapper> objectMapper) {
+        this.objectMapper = objectMapper.getIfAvailable(() -> Jackson2ObjectMapperBuilder.json().build());
+    }
+
+    public Entry get(String key) {
+        synchronized (entries) {
+            return entries.get(key);
+        }
+    }
+
+    /**
+     * 序列化并缓存响应体
+     */
+    public Entry put(String key, Object value, boolean gzip, int maxEntries) {
+        Entry entry = encode(value, gzip);
+        synchronized (entries) {
+            entries.put(key, entry);
+            var iterator = entries.entrySet().iterator();
+            while (entries.size() > maxEntries && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+        return entry;
+    }
+
+    private Entry encode(Object value, boolean gzip) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("响应序列化失败", e);
+        }
+        if (!gzip || json.length < GZIP_MIN_BYTES) {
+            return new Entry(json, null);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+            gzipOut.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new Entry(json, out.toByteArray());
+    }
+
+    /**
+     * 缓存的响应体
+     *
+     * @param json 原始 JSON
+     * @param gzip gzip 压缩后的 JSON，未启用或响应过小时为 null
+     */
+    public record Entry(byte[] json, byte[] gzip) {
+    }
+}
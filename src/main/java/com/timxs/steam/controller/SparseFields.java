@@ -0,0 +1,200 @@
+package com.timxs.steam.controller;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.databind.util.RawValue;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.timxs.steam.model.DailyPlaytimeRecord;
+import com.timxs.steam.model.OwnedGame;
+import com.timxs.steam.model.RecentGame;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 稀疏字段集（fields 查询参数）与列式格式（format=columnar）
+ * 只序列化请求的属性，包括 headerImageUrl 这类计算属性。每个目标类型与字段集组合对应一个预先建立的 ObjectWriter，
+ * 属性序列化器由 Jackson 缓存，请求时只按属性名查表，不做反射。列表、分页等外层结构保持不变。
+ * 请求列式格式时在此基础上转为每个字段一个数组，见 {@link ColumnarFormat}。
+ */
+@Component
+public class SparseFields {
+
+    public static final String PARAM = "fields";
+
+    private static final String FILTER_ID = "steamSparseFields";
+
+    /** 一次最多选择的字段数 */
+    private static final int MAX_FIELDS = 32;
+
+    /** 缓存的 ObjectWriter 数量上限 */
+    private static final int MAX_WRITERS = 64;
+
+    private final ObjectMapper objectMapper;
+    /** 不过滤任何属性的 ObjectWriter，用于未指定 fields 的列式响应 */
+    private final ObjectWriter allFieldsWriter;
+    private final Map<Target, Set<String>> knownFields = new ConcurrentHashMap<>();
+    private final Map<String, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    public SparseFields(ObjectProvider<ObjectMapper> objectMapper) {
+        this.objectMapper = objectMapper.getIfAvailable(() -> Jackson2ObjectMapperBuilder.json().build())
+                .copy()
+                .addMixIn(OwnedGame.class, Filtered.class)
+                .addMixIn(RecentGame.class, Filtered.class)
+                .addMixIn(DailyPlaytimeRecord.class, Filtered.class)
+                .addMixIn(DailyPlaytimeRecord.DailyPlaytimeRecordSpec.class, Filtered.class);
+        this.allFieldsWriter = this.objectMapper.writer(new SimpleFilterProvider()
+                .addFilter(FILTER_ID, SimpleBeanPropertyFilter.serializeAll()));
+    }
+
+    /**
+     * 解析请求中的 fields 与 format 参数
+     *
+     * @return 都未指定时按原样输出
+     * @throws IllegalArgumentException 字段不存在、数量过多或格式不支持
+     */
+    public Selection parse(ServerRequest request, Target target) {
+        boolean columnar = ColumnarFormat.isRequested(request.queryParam(ColumnarFormat.PARAM).orElse(null));
+        String value = request.queryParam(PARAM).map(String::trim).orElse("");
+        if (value.isEmpty()) {
+            return columnar ? new Selection(allFieldsWriter, target, true) : Selection.ALL;
+        }
+        Set<String> fields = Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .collect(Collectors.toCollection(TreeSet::new));
+        if (fields.size() > MAX_FIELDS) {
+            throw new IllegalArgumentException("字段数量不能超过 " + MAX_FIELDS);
+        }
+        Set<String> known = knownFields.computeIfAbsent(target, this::introspect);
+        for (String field : fields) {
+            if (!known.contains(field)) {
+                throw new IllegalArgumentException("未知字段: " + field);
+            }
+        }
+        String key = target.name() + ":" + String.join(",", fields);
+        ObjectWriter writer = writers.get(key);
+        if (writer == null) {
+            if (writers.size() >= MAX_WRITERS) {
+                writers.clear();
+            }
+            writer = writers.computeIfAbsent(key, k -> writerFor(target, fields));
+        }
+        return new Selection(writer, target, columnar);
+    }
+
+    private Set<String> introspect(Target target) {
+        var description = objectMapper.getSerializationConfig()
+                .introspect(objectMapper.constructType(target.fieldsOf));
+        return description.findProperties().stream()
+                .filter(BeanPropertyDefinition::couldSerialize)
+                .map(BeanPropertyDefinition::getName)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    private ObjectWriter writerFor(Target target, Set<String> fields) {
+        Set<String> selected = Set.copyOf(fields);
+        return objectMapper.writer(new SimpleFilterProvider()
+                .addFilter(FILTER_ID, new SimpleBeanPropertyFilter() {
+                    @Override
+                    public void serializeAsField(Object pojo, JsonGenerator gen, SerializerProvider provider,
+                                                 PropertyWriter writer) throws Exception {
+                        if (includes(pojo, writer.getName())) {
+                            writer.serializeAsField(pojo, gen, provider);
+                        } else if (!gen.canOmitFields()) {
+                            writer.serializeAsOmittedField(pojo, gen, provider);
+                        }
+                    }
+
+                    private boolean includes(Object pojo, String name) {
+                        if (target.fieldsOf.isInstance(pojo)) {
+                            return selected.contains(name);
+                        }
+                        // 外层对象（如时长记录）只保留包含所选字段的属性
+                        return target.wrapper == null || name.equals(target.wrapper);
+                    }
+                }));
+    }
+
+    /**
+     * 可选择字段的目标类型
+     */
+    public enum Target {
+        OWNED_GAME(OwnedGame.class, null),
+        RECENT_GAME(RecentGame.class, null),
+        /** 时长记录只能选择 spec 中的字段，其余外层属性（metadata 等）不输出 */
+        DAILY_RECORD(DailyPlaytimeRecord.DailyPlaytimeRecordSpec.class, "spec");
+
+        private final Class<?> fieldsOf;
+        private final String wrapper;
+
+        Target(Class<?> fieldsOf, String wrapper) {
+            this.fieldsOf = fieldsOf;
+            this.wrapper = wrapper;
+        }
+    }
+
+    /**
+     * 一次请求选择的字段和格式
+     */
+    public static final class Selection {
+
+        /** 未指定 fields 和 format，按原样输出 */
+        public static final Selection ALL = new Selection(null, null, false);
+
+        private final ObjectWriter writer;
+        private final Target target;
+        private final boolean columnar;
+
+        private Selection(ObjectWriter writer, Target target, boolean columnar) {
+            this.writer = writer;
+            this.target = target;
+            this.columnar = columnar;
+        }
+
+        /**
+         * 按所选字段和格式序列化响应体
+         * 普通格式的结果作为原始 JSON 交给响应编码器写出，列式格式返回转换后的 JSON 树
+         */
+        public Mono<Object> apply(Mono<?> body) {
+            if (writer == null) {
+                return body.cast(Object.class);
+            }
+            return body.map(value -> {
+                try {
+                    if (!columnar) {
+                        return new RawValue(writer.writeValueAsString(value));
+                    }
+                    TokenBuffer buffer = new TokenBuffer(writer.getFactory().getCodec(), false);
+                    writer.writeValue(buffer, value);
+                    JsonNode tree = buffer.asParser().readValueAsTree();
+                    return ColumnarFormat.encode(tree, target.wrapper);
+                } catch (IOException e) {
+                    throw new IllegalStateException("响应序列化失败", e);
+                }
+            });
+        }
+    }
+
+    @JsonFilter(FILTER_ID)
+    private interface Filtered {
+    }
+}
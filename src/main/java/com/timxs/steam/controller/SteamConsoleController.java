@@ -1,6 +1,13 @@
 package com.timxs.steam.controller;
 
+import com.timxs.steam.client.AdaptiveTimeouts;
+import com.timxs.steam.client.SteamRequestDispatcher;
+import com.timxs.steam.client.UpstreamResilience;
+import com.timxs.steam.client.UpstreamRouter;
 import com.timxs.steam.controller.dto.HeatmapResult;
+import com.timxs.steam.controller.dto.UpstreamStatus;
+import com.timxs.steam.library.LibraryPage;
+import com.timxs.steam.library.LibraryQuery;
 import com.timxs.steam.service.SteamService;
 import com.timxs.steam.service.PlaytimeTrackingService;
 import com.timxs.steam.service.SteamSettingService;
@@ -27,6 +34,10 @@ public class SteamConsoleController implements CustomEndpoint {
     private final SteamService steamService;
     private final PlaytimeTrackingService trackingService;
     private final SteamSettingService settingService;
+    private final SteamRequestDispatcher dispatcher;
+    private final UpstreamResilience resilience;
+    private final AdaptiveTimeouts timeouts;
+    private final UpstreamRouter router;
 
     @Override
     public RouterFunction<ServerResponse> endpoint() {
@@ -58,6 +69,18 @@ public class SteamConsoleController implements CustomEndpoint {
                                 .tag(tag)
                                 .response(responseBuilder()
                                         .implementation(HeatmapResult.class)))
+                .GET("/games/query", this::queryGames,
+                        builder -> builder.operationId("QuerySteamGamesConsole")
+                                .description("按条件查询游戏库，参数同公开接口，另支持 visibility（visible、hidden、all），不受游戏库总数量限制")
+                                .tag(tag)
+                                .response(responseBuilder()
+                                        .implementation(LibraryPage.class)))
+                .GET("/upstream/status", this::upstreamStatus,
+                        builder -> builder.operationId("GetUpstreamStatus")
+                                .description("查看 Steam 上游请求调度、熔断、超时与线路状态")
+                                .tag(tag)
+                                .response(responseBuilder()
+                                        .implementation(UpstreamStatus.class)))
                 .build();
     }
 
@@ -128,6 +151,25 @@ public class SteamConsoleController implements CustomEndpoint {
         private String message;
     }
 
+    /**
+     * 查询游戏库（可查看隐藏的游戏）
+     */
+    private Mono<ServerResponse> queryGames(ServerRequest request) {
+        LibraryQuery query;
+        try {
+            query = LibraryQueryParams.parse(request);
+            query.setVisibility(LibraryQueryParams.parseVisibility(request));
+        } catch (IllegalArgumentException e) {
+            return createProblemResponse(400, "查询参数错误", e.getMessage());
+        }
+        return steamService.queryLibrary(query, false)
+                .flatMap(page -> ServerResponse.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(page))
+                .onErrorResume(IllegalArgumentException.class,
+                        e -> createProblemResponse(400, "查询参数错误", e.getMessage()));
+    }
+
     /**
      * 刷新缓存
      */
@@ -195,4 +237,15 @@ public class SteamConsoleController implements CustomEndpoint {
                             .bodyValue(new HeatmapResult(false, 0, "清理失败：" + e.getMessage())));
             });
     }
+
+    /**
+     * 查看上游请求调度、熔断、超时与线路状态
+     */
+    private Mono<ServerResponse> upstreamStatus(ServerRequest request) {
+        return Mono.zip(timeouts.getStatus(), router.getStatus())
+                .flatMap(tuple -> ServerResponse.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(new UpstreamStatus(dispatcher.getStatus(), resilience.getBreakerStatus(),
+                                tuple.getT1(), tuple.getT2())));
+    }
 }
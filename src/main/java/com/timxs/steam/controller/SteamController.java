@@ -1,14 +1,21 @@
 package com.timxs.steam.controller;
 
+import com.timxs.steam.cache.CacheKeys;
+import com.timxs.steam.library.LibraryPage;
+import com.timxs.steam.library.LibraryQuery;
 import com.timxs.steam.model.AchievementProgress;
 import com.timxs.steam.model.BadgeInfo;
 import com.timxs.steam.model.GameDetail;
 import com.timxs.steam.model.OwnedGame;
 import com.timxs.steam.model.RecentGame;
+import com.timxs.steam.model.SteamBundle;
 import com.timxs.steam.model.SteamProfile;
 import com.timxs.steam.model.SteamStats;
+import com.timxs.steam.service.SteamBundleService;
 import com.timxs.steam.service.SteamService;
+import com.timxs.steam.service.SteamSettingService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.server.RouterFunction;
 import org.springframework.web.reactive.function.server.ServerRequest;
@@ -18,6 +25,8 @@ import run.halo.app.core.extension.endpoint.CustomEndpoint;
 import run.halo.app.extension.GroupVersion;
 import run.halo.app.extension.ListResult;
 
+import java.time.Duration;
+
 import static org.springdoc.core.fn.builders.apiresponse.Builder.responseBuilder;
 import static org.springdoc.core.fn.builders.parameter.Builder.parameterBuilder;
 
@@ -28,7 +37,23 @@ import static org.springdoc.core.fn.builders.parameter.Builder.parameterBuilder;
 @RequiredArgsConstructor
 public class SteamController implements CustomEndpoint {
 
+    /** 成就进度不经过缓存，只给出较短的共享缓存时间 */
+    private static final Duration ACHIEVEMENTS_MAX_AGE = Duration.ofMinutes(1);
+
+    /** 游戏库前几页使用响应序列化缓存 */
+    private static final int SERIALIZED_GAMES_PAGES = 3;
+
+    private static final int MAX_SEARCH_KEYWORD_LENGTH = 100;
+
+    private static final int DEFAULT_BUNDLE_TIMEOUT_MILLIS = 1500;
+    private static final int MIN_BUNDLE_TIMEOUT_MILLIS = 100;
+    private static final int MAX_BUNDLE_TIMEOUT_MILLIS = 8000;
+
     private final SteamService steamService;
+    private final SteamBundleService bundleService;
+    private final SteamSettingService settingService;
+    private final ConditionalResponses conditional;
+    private final SparseFields sparseFields;
 
     @Override
     public RouterFunction<ServerResponse> endpoint() {
@@ -46,12 +71,41 @@ public class SteamController implements CustomEndpoint {
                                 .parameter(parameterBuilder().name("page").description("页码").required(false))
                                 .parameter(parameterBuilder().name("size").description("每页数量").required(false))
                                 .parameter(parameterBuilder().name("sortBy").description("排序字段: playtime_forever(默认), name").required(false))
+                                .parameter(parameterBuilder().name("fields").description("只返回这些字段，逗号分隔，如 appid,name,playtime_forever").required(false))
+                                .parameter(parameterBuilder().name("format").description("columnar 返回列式 JSON（每个字段一个数组，重复字符串放入共享字典）").required(false))
                                 .response(responseBuilder().implementation(ListResult.generateGenericClass(OwnedGame.class))))
+                .GET("/games/query", this::queryGames,
+                        builder -> builder.operationId("QuerySteamGames")
+                                .description("按条件查询游戏库，支持范围过滤、多键排序与游标分页，隐藏的游戏不会返回")
+                                .tag(tag)
+                                .parameter(parameterBuilder().name("minPlaytime").description("最少游玩时长（分钟）").required(false))
+                                .parameter(parameterBuilder().name("maxPlaytime").description("最多游玩时长（分钟）").required(false))
+                                .parameter(parameterBuilder().name("lastPlayedFrom").description("最后游玩日期下限 yyyy-MM-dd").required(false))
+                                .parameter(parameterBuilder().name("lastPlayedTo").description("最后游玩日期上限 yyyy-MM-dd").required(false))
+                                .parameter(parameterBuilder().name("neverPlayed").description("true 只返回未玩过的游戏，false 只返回玩过的游戏").required(false))
+                                .parameter(parameterBuilder().name("prefix").description("名称前缀，不区分大小写").required(false))
+                                .parameter(parameterBuilder().name("sort").description("排序键，逗号分隔，- 表示降序: playtime, last_played, name, appid，默认 -playtime").required(false))
+                                .parameter(parameterBuilder().name("after").description("游标，上一页返回的 nextCursor").required(false))
+                                .parameter(parameterBuilder().name("limit").description("每页数量，默认 20，最大 100").required(false))
+                                .parameter(parameterBuilder().name("fields").description("只返回这些字段，逗号分隔，如 appid,name,playtime_forever").required(false))
+                                .parameter(parameterBuilder().name("format").description("columnar 返回列式 JSON（每个字段一个数组，重复字符串放入共享字典）").required(false))
+                                .response(responseBuilder().implementation(LibraryPage.class)))
+                .GET("/games/search", this::searchGames,
+                        builder -> builder.operationId("SearchSteamGames")
+                                .description("按名称搜索游戏库，容忍个别错字，支持中文，按相关度排序")
+                                .tag(tag)
+                                .parameter(parameterBuilder().name("q").description("搜索词").required(true))
+                                .parameter(parameterBuilder().name("limit").description("最多返回数量，默认 10，最大 50").required(false))
+                                .parameter(parameterBuilder().name("fields").description("只返回这些字段，逗号分隔，如 appid,name,playtime_forever").required(false))
+                                .parameter(parameterBuilder().name("format").description("columnar 返回列式 JSON（每个字段一个数组，重复字符串放入共享字典）").required(false))
+                                .response(responseBuilder().implementationArray(OwnedGame.class)))
                 .GET("/recent", this::getRecentGames,
                         builder -> builder.operationId("GetRecentGames")
                                 .description("获取最近游玩的游戏")
                                 .tag(tag)
                                 .parameter(parameterBuilder().name("limit").description("返回数量").required(false))
+                                .parameter(parameterBuilder().name("fields").description("只返回这些字段，逗号分隔，如 appid,name,playtime_forever").required(false))
+                                .parameter(parameterBuilder().name("format").description("columnar 返回列式 JSON（每个字段一个数组，重复字符串放入共享字典）").required(false))
                                 .response(responseBuilder().implementationArray(RecentGame.class)))
                 .GET("/stats", this::getStats,
                         builder -> builder.operationId("GetSteamStats")
@@ -75,6 +129,16 @@ public class SteamController implements CustomEndpoint {
                                 .tag(tag)
                                 .parameter(parameterBuilder().name("appId").description("游戏 ID").required(true))
                                 .response(responseBuilder().implementation(GameDetail.class)))
+                .GET("/bundle", this::getBundle,
+                        builder -> builder.operationId("GetSteamBundle")
+                                .description("一次获取资料、统计、最近游玩、徽章、游戏库首页和热力图记录，各部分并行加载并共享截止时间")
+                                .tag(tag)
+                                .parameter(parameterBuilder().name("recentLimit").description("最近游玩数量，默认 5").required(false))
+                                .parameter(parameterBuilder().name("page").description("游戏库页码，默认 1").required(false))
+                                .parameter(parameterBuilder().name("size").description("游戏库每页数量，默认 20").required(false))
+                                .parameter(parameterBuilder().name("heatmapDays").description("热力图天数，默认使用配置值").required(false))
+                                .parameter(parameterBuilder().name("timeout").description("截止时间（毫秒），默认 1500，范围 100-8000").required(false))
+                                .response(responseBuilder().implementation(SteamBundle.class)))
                 .build();
     }
 
@@ -84,8 +148,7 @@ public class SteamController implements CustomEndpoint {
     }
 
     private Mono<ServerResponse> getProfile(ServerRequest request) {
-        return steamService.getProfile()
-                .flatMap(profile -> ServerResponse.ok().bodyValue(profile))
+        return conditional.respondSerialized(request, conditional.forCacheKeys(CacheKeys.PROFILE), steamService.getProfile())
                 .switchIfEmpty(ServerResponse.notFound().build());
     }
 
@@ -93,21 +156,70 @@ public class SteamController implements CustomEndpoint {
         int page = Math.max(1, parseIntOrDefault(request.queryParam("page").orElse(null), 1));
         int size = Math.min(100, Math.max(1, parseIntOrDefault(request.queryParam("size").orElse(null), 20)));
         String sortBy = request.queryParam("sortBy").orElse("playtime_forever");
+        SparseFields.Selection fields;
+        try {
+            fields = sparseFields.parse(request, SparseFields.Target.OWNED_GAME);
+        } catch (IllegalArgumentException e) {
+            return ServerResponse.badRequest().build();
+        }
+
+        var validator = conditional.forCacheKeys(CacheKeys.GAMES);
+        var games = fields.apply(steamService.getOwnedGames(page, size, sortBy));
+        // 只有前几页访问频繁，值得缓存序列化结果
+        return page <= SERIALIZED_GAMES_PAGES
+                ? conditional.respondSerialized(request, validator, games)
+                : conditional.respond(request, validator, games);
+    }
+
+    private Mono<ServerResponse> queryGames(ServerRequest request) {
+        LibraryQuery query;
+        SparseFields.Selection fields;
+        try {
+            query = LibraryQueryParams.parse(request);
+            // 公开接口只返回未隐藏的游戏
+            query.setVisibility(LibraryQuery.Visibility.VISIBLE);
+            fields = sparseFields.parse(request, SparseFields.Target.OWNED_GAME);
+        } catch (IllegalArgumentException e) {
+            return ServerResponse.badRequest().build();
+        }
+        return conditional.respond(request, conditional.forCacheKeys(CacheKeys.GAMES),
+                        fields.apply(steamService.queryLibrary(query, true)))
+                .onErrorResume(IllegalArgumentException.class, e -> ServerResponse.badRequest().build());
+    }
+
+    private Mono<ServerResponse> searchGames(ServerRequest request) {
+        String keyword = request.queryParam("q").map(String::trim).orElse("");
+        if (keyword.isEmpty() || keyword.length() > MAX_SEARCH_KEYWORD_LENGTH) {
+            return ServerResponse.badRequest().build();
+        }
+        int limit = Math.min(50, Math.max(1, parseIntOrDefault(request.queryParam("limit").orElse(null), 10)));
+        SparseFields.Selection fields;
+        try {
+            fields = sparseFields.parse(request, SparseFields.Target.OWNED_GAME);
+        } catch (IllegalArgumentException e) {
+            return ServerResponse.badRequest().build();
+        }
 
-        return steamService.getOwnedGames(page, size, sortBy)
-                .flatMap(games -> ServerResponse.ok().bodyValue(games));
+        return conditional.respond(request, conditional.forCacheKeys(CacheKeys.GAMES),
+                fields.apply(steamService.searchGames(keyword, limit)));
     }
 
     private Mono<ServerResponse> getRecentGames(ServerRequest request) {
         int limit = Math.min(20, Math.max(1, parseIntOrDefault(request.queryParam("limit").orElse(null), 5)));
+        SparseFields.Selection fields;
+        try {
+            fields = sparseFields.parse(request, SparseFields.Target.RECENT_GAME);
+        } catch (IllegalArgumentException e) {
+            return ServerResponse.badRequest().build();
+        }
 
-        return steamService.getRecentGames(limit)
-                .flatMap(games -> ServerResponse.ok().bodyValue(games));
+        return conditional.respondSerialized(request, conditional.forCacheKeys(CacheKeys.RECENT),
+                fields.apply(steamService.getRecentGames(limit)));
     }
 
     private Mono<ServerResponse> getStats(ServerRequest request) {
-        return steamService.getFullStats()
-                .flatMap(stats -> ServerResponse.ok().bodyValue(stats))
+        return conditional.respondSerialized(request, conditional.forCacheKeys(CacheKeys.GAMES, CacheKeys.RECENT),
+                        steamService.getFullStats())
                 .switchIfEmpty(ServerResponse.notFound().build());
     }
 
@@ -117,12 +229,13 @@ public class SteamController implements CustomEndpoint {
             return ServerResponse.badRequest().build();
         }
         return steamService.getAchievementProgress(appId)
-                .flatMap(progress -> ServerResponse.ok().bodyValue(progress));
+                .flatMap(progress -> ServerResponse.ok()
+                        .cacheControl(CacheControl.maxAge(ACHIEVEMENTS_MAX_AGE).cachePublic())
+                        .bodyValue(progress));
     }
 
     private Mono<ServerResponse> getBadges(ServerRequest request) {
-        return steamService.getBadges()
-                .flatMap(badges -> ServerResponse.ok().bodyValue(badges))
+        return conditional.respondSerialized(request, conditional.forCacheKeys(CacheKeys.BADGES), steamService.getBadges())
                 .switchIfEmpty(ServerResponse.notFound().build());
     }
 
@@ -132,11 +245,27 @@ public class SteamController implements CustomEndpoint {
             return ServerResponse.badRequest().build();
         }
         String lang = request.queryParam("lang").orElse(null);
-        return steamService.getGameDetail(appId, lang)
-                .flatMap(detail -> ServerResponse.ok().bodyValue(detail))
+        var validator = settingService.resolveStoreLanguage(lang)
+                .flatMap(language -> conditional.forCacheKeys(
+                        CacheKeys.gameDetailParts(appId, language, SteamSettingService.getCountryCode(language))));
+        return conditional.respond(request, validator, steamService.getGameDetail(appId, lang))
                 .switchIfEmpty(ServerResponse.notFound().build());
     }
 
+    private Mono<ServerResponse> getBundle(ServerRequest request) {
+        int recentLimit = Math.min(20, Math.max(1, parseIntOrDefault(request.queryParam("recentLimit").orElse(null), 5)));
+        int page = Math.max(1, parseIntOrDefault(request.queryParam("page").orElse(null), 1));
+        int size = Math.min(100, Math.max(1, parseIntOrDefault(request.queryParam("size").orElse(null), 20)));
+        int heatmapDays = parseIntOrDefault(request.queryParam("heatmapDays").orElse(null), 0);
+        int timeout = Math.min(MAX_BUNDLE_TIMEOUT_MILLIS, Math.max(MIN_BUNDLE_TIMEOUT_MILLIS,
+                parseIntOrDefault(request.queryParam("timeout").orElse(null), DEFAULT_BUNDLE_TIMEOUT_MILLIS)));
+
+        return bundleService.getBundle(recentLimit, page, size, heatmapDays, Duration.ofMillis(timeout))
+                .flatMap(bundle -> ServerResponse.ok()
+                        .cacheControl(CacheControl.noCache())
+                        .bodyValue(bundle));
+    }
+
     private int parseIntOrDefault(String value, int defaultValue) {
         if (value == null) return defaultValue;
         try {
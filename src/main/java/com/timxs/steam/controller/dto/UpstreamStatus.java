@@ -0,0 +1,26 @@
+package com.timxs.steam.controller.dto;
+
+import com.timxs.steam.client.AdaptiveTimeouts;
+import com.timxs.steam.client.CircuitBreaker;
+import com.timxs.steam.client.SteamRequestDispatcher;
+import com.timxs.steam.client.UpstreamRoute;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Steam 上游请求状态 DTO
+ */
+@Data
+@AllArgsConstructor
+public class UpstreamStatus {
+    /** 各优先级通道的并发与排队情况 */
+    private List<SteamRequestDispatcher.LaneStatus> lanes;
+    /** 各 Steam 接口的熔断器状态 */
+    private List<CircuitBreaker.Status> breakers;
+    /** 各 Steam 接口的延迟分位数与当前超时 */
+    private List<AdaptiveTimeouts.TimeoutStatus> timeouts;
+    /** 各 API 线路的健康状态与延迟，按当前选择顺序排列 */
+    private List<UpstreamRoute.Status> routes;
+}
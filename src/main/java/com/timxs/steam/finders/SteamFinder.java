@@ -3,6 +3,7 @@ package com.timxs.steam.finders;
 import com.timxs.steam.model.BadgeInfo;
 import com.timxs.steam.model.OwnedGame;
 import com.timxs.steam.model.RecentGame;
+import com.timxs.steam.model.SteamBundle;
 import com.timxs.steam.model.SteamProfile;
 import com.timxs.steam.model.SteamStats;
 import reactor.core.publisher.Mono;
@@ -40,6 +41,14 @@ public interface SteamFinder {
      */
     Mono<ListResult<OwnedGame>> getOwnedGames(int page, int size);
 
+    /**
+     * 按名称搜索游戏库（不返回隐藏的游戏）
+     * @param keyword 搜索词，容忍个别错字，支持中文
+     * @param limit 最多返回数量
+     * @return 按相关度排列的游戏，失败返回 null，没有结果返回空列表
+     */
+    Mono<List<OwnedGame>> searchGames(String keyword, int limit);
+
     /**
      * 获取统计数据
      * @return 统计数据，失败返回 null
@@ -51,4 +60,20 @@ public interface SteamFinder {
      * @return 徽章信息，失败返回 null，没徽章返回空 BadgeInfo
      */
     Mono<BadgeInfo> getBadges();
+
+    /**
+     * 一次获取页面所需的全部数据（资料、统计、最近游玩、徽章、游戏库首页、热力图记录）
+     * 各部分并行加载，2 秒内未完成的部分返回上一次的数据或 null，状态见各部分的 status
+     * @return 聚合数据，最近游玩数量与每页数量使用插件配置
+     */
+    Mono<SteamBundle> getBundle();
+
+    /**
+     * 一次获取页面所需的全部数据
+     * @param recentLimit 最近游玩数量
+     * @param gamesPage 游戏库页码（从1开始）
+     * @param gamesSize 游戏库每页数量
+     * @return 聚合数据
+     */
+    Mono<SteamBundle> getBundle(int recentLimit, int gamesPage, int gamesSize);
 }
@@ -0,0 +1,51 @@
+package com.timxs.steam.finders.impl;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Finder 调用结果的短时记忆
+ * 一次页面渲染中页头、侧栏和正文往往多次调用同一个 Finder 方法，
+ * Halo 调用 Finder 时拿不到当前请求的 Reactor Context，因此按方法与参数在很短的时间窗口内共享同一个结果，
+ * 窗口内的重复调用不再读取配置、查询缓存或处理列表
+ */
+class FinderMemo {
+
+    /** 超过该数量时清理已过期的记录 */
+    private static final int CLEANUP_THRESHOLD = 64;
+
+    private final Duration window;
+    private final Map<String, Memo> memos = new ConcurrentHashMap<>();
+
+    FinderMemo(Duration window) {
+        this.window = window;
+    }
+
+    /**
+     * 获取记忆的结果，不存在或已过期时调用 loader 加载
+     *
+     * @param key    方法与参数，如 games:1:20
+     * @param loader 加载逻辑，窗口内只调用一次
+     */
+    @SuppressWarnings("unchecked")
+    <T> Mono<T> get(String key, Supplier<Mono<T>> loader) {
+        long now = System.nanoTime();
+        if (memos.size() > CLEANUP_THRESHOLD) {
+            memos.values().removeIf(memo -> memo.isExpired(now));
+        }
+        Memo memo = memos.compute(key, (k, existing) -> existing != null && !existing.isExpired(now)
+                ? existing
+                : new Memo(Mono.defer(loader).cache(), now + window.toNanos()));
+        return (Mono<T>) memo.result();
+    }
+
+    private record Memo(Mono<?> result, long expiresAtNanos) {
+        boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+}
@@ -4,9 +4,15 @@ import com.timxs.steam.finders.SteamFinder;
 import com.timxs.steam.model.BadgeInfo;
 import com.timxs.steam.model.OwnedGame;
 import com.timxs.steam.model.RecentGame;
+import com.timxs.steam.model.SteamBundle;
+import com.timxs.steam.model.SteamBundle.SectionStatus;
 import com.timxs.steam.model.SteamProfile;
 import com.timxs.steam.model.SteamStats;
+import com.timxs.steam.service.LastKnownResults;
+import com.timxs.steam.service.SteamBundleService;
 import com.timxs.steam.service.SteamService;
+import com.timxs.steam.service.SteamSettingService;
+import com.timxs.steam.service.SteamSettingService.RenderBudgetConfig;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Mono;
@@ -15,6 +21,7 @@ import run.halo.app.theme.finders.Finder;
 
 import java.time.Duration;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * Steam Finder 实现，供主题模板使用
@@ -26,6 +33,8 @@ import java.util.List;
  * 
  * 注意：Finder 层固定 9 秒超时，比 Halo 框架的 10 秒 blocking read 超时更短，
  * 确保在框架超时前返回结果，避免抛出异常导致页面渲染失败。
+ * 同一方法、同一参数在 2 秒内的重复调用共享结果，见 {@link FinderMemo}。
+ * 启用渲染预算后，超过预算时间先返回上一次获取到的数据，需要区分新旧数据的主题可使用 getBundle()。
  */
 @Slf4j
 @Finder("steamFinder")
@@ -38,54 +47,103 @@ public class SteamFinderImpl implements SteamFinder {
      */
     private static final Duration FINDER_TIMEOUT = Duration.ofSeconds(9);
 
+    /**
+     * 聚合数据的截止时间，未完成的部分先返回旧数据
+     */
+    private static final Duration BUNDLE_DEADLINE = Duration.ofSeconds(2);
+
+    /**
+     * 同一方法、同一参数的调用结果共享时长，覆盖一次页面渲染
+     */
+    private static final Duration RENDER_MEMO_WINDOW = Duration.ofSeconds(2);
+
     private final SteamService steamService;
+    private final SteamBundleService bundleService;
+    private final SteamSettingService settingService;
+    private final LastKnownResults lastKnown;
+    private final FinderMemo memo = new FinderMemo(RENDER_MEMO_WINDOW);
 
     @Override
     public Mono<SteamProfile> getProfile() {
-        return steamService.getProfile()
-                .timeout(FINDER_TIMEOUT)
-                .onErrorResume(e -> {
-                    log.warn("获取 Steam 资料失败: {}", e.getMessage());
-                    return Mono.empty();
-                });
+        return load("profile", "Steam 资料", steamService::getProfile);
     }
 
     @Override
     public Mono<List<RecentGame>> getRecentGames(int limit) {
-        return steamService.getRecentGames(limit)
-                .timeout(FINDER_TIMEOUT)
-                .onErrorResume(e -> {
-                    log.warn("获取最近游玩失败: {}", e.getMessage());
-                    return Mono.empty();
-                });
+        return load("recent:" + limit, "最近游玩", () -> steamService.getRecentGames(limit));
     }
 
     @Override
     public Mono<ListResult<OwnedGame>> getOwnedGames(int page, int size) {
-        return steamService.getOwnedGames(page, size, "playtime_forever")
-                .timeout(FINDER_TIMEOUT)
-                .onErrorResume(e -> {
-                    log.warn("获取游戏库失败: {}", e.getMessage());
-                    return Mono.empty();
-                });
+        return load("games:" + page + ":" + size, "游戏库",
+                () -> steamService.getOwnedGames(page, size, "playtime_forever"));
+    }
+
+    @Override
+    public Mono<List<OwnedGame>> searchGames(String keyword, int limit) {
+        int actualLimit = Math.min(50, Math.max(1, limit));
+        return load("search:" + actualLimit + ":" + keyword, "游戏搜索结果",
+                () -> steamService.searchGames(keyword, actualLimit));
     }
 
     @Override
     public Mono<SteamStats> getStats() {
-        return steamService.getFullStats()
-                .timeout(FINDER_TIMEOUT)
-                .onErrorResume(e -> {
-                    log.warn("获取统计数据失败: {}", e.getMessage());
-                    return Mono.empty();
-                });
+        return load("stats", "统计数据", steamService::getFullStats);
     }
 
     @Override
     public Mono<BadgeInfo> getBadges() {
-        return steamService.getBadges()
+        return load("badges", "徽章", steamService::getBadges);
+    }
+
+    @Override
+    public Mono<SteamBundle> getBundle() {
+        return Mono.zip(settingService.getRecentGamesLimit(), settingService.getPageSize())
+                .flatMap(tuple -> getBundle(tuple.getT1(), 1, tuple.getT2()));
+    }
+
+    @Override
+    public Mono<SteamBundle> getBundle(int recentLimit, int gamesPage, int gamesSize) {
+        int page = Math.max(1, gamesPage);
+        return memo.get("bundle:" + recentLimit + ":" + page + ":" + gamesSize, () ->
+                bundleService.getBundle(recentLimit, page, gamesSize, 0, BUNDLE_DEADLINE)
+                        .timeout(FINDER_TIMEOUT)
+                        .onErrorResume(e -> {
+                            log.warn("获取聚合数据失败: {}", e.getMessage());
+                            return Mono.empty();
+                        }));
+    }
+
+    /**
+     * 加载数据，启用渲染预算时最多等待预算时间，超时先返回上一次的结果（没有则返回空），
+     * 加载在后台继续完成并写入缓存，下次渲染即可拿到最新数据；窗口内的重复调用直接共享结果
+     */
+    private <T> Mono<T> load(String key, String label, Supplier<Mono<T>> source) {
+        return memo.get(key, () -> loadWithBudget(key, label, source.get()));
+    }
+
+    private <T> Mono<T> loadWithBudget(String key, String label, Mono<T> source) {
+        return settingService.getRenderBudgetConfig()
+                .onErrorResume(e -> Mono.just(new RenderBudgetConfig()))
+                .flatMap(budget -> {
+                    if (!budget.getEnabled()) {
+                        return lastKnown.remembering(key, source);
+                    }
+                    return lastKnown.await(key, source, Duration.ofMillis(budget.getBudgetMillis()))
+                            .flatMap(section -> {
+                                if (section.getStatus() == SectionStatus.STALE) {
+                                    log.debug("{}未在渲染预算 {}ms 内返回，使用上一次的数据", label,
+                                            budget.getBudgetMillis());
+                                } else if (section.getStatus() == SectionStatus.MISSING) {
+                                    log.debug("{}未在渲染预算 {}ms 内返回，且没有上一次的数据", label,
+                                            budget.getBudgetMillis());
+                                }
+                                return Mono.justOrEmpty(section.getData());
+                            });
+                })
                 .timeout(FINDER_TIMEOUT)
                 .onErrorResume(e -> {
-                    log.warn("获取徽章失败: {}", e.getMessage());
+                    log.warn("获取{}失败: {}", label, e.getMessage());
                     return Mono.empty();
                 });
     }
@@ -0,0 +1,201 @@
+package com.timxs.steam.library;
+
+import com.timxs.steam.model.OwnedGame;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按列存储的游戏库
+ * appId、游玩时长和最后游玩时间保存为基本类型数组，名称与图片 hash 放在去重的字符串表中，
+ * 每行只保存字符串编号。行按 appId 升序排列，可二分查找。
+ * 需要 {@link OwnedGame} 时通过 {@link #view(int)} 按需生成，视图是新对象，可以放心设置 URL 模板。
+ */
+public final class LibraryColumns {
+
+    private static final LibraryColumns EMPTY = of(List.of());
+
+    /** 字符串编号为该值表示 null */
+    private static final int NO_STRING = -1;
+
+    private final int size;
+    /** 数值列在包内共享给 {@link LibraryIndex}，不得修改 */
+    final long[] appIds;
+    final int[] playtimes;
+    final long[] lastPlayed;
+    private final int[] nameRefs;
+    private final int[] iconRefs;
+    private final int[] logoRefs;
+    private final StringTable strings;
+
+    private LibraryColumns(int size, long[] appIds, int[] playtimes, long[] lastPlayed,
+                           int[] nameRefs, int[] iconRefs, int[] logoRefs, StringTable strings) {
+        this.size = size;
+        this.appIds = appIds;
+        this.playtimes = playtimes;
+        this.lastPlayed = lastPlayed;
+        this.nameRefs = nameRefs;
+        this.iconRefs = iconRefs;
+        this.logoRefs = logoRefs;
+        this.strings = strings;
+    }
+
+    public static LibraryColumns empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 从游戏列表建立列存储，没有 appId 的游戏会被忽略，appId 重复时保留先出现的
+     */
+    public static LibraryColumns of(List<? extends OwnedGame> games) {
+        OwnedGame[] rows = games == null ? new OwnedGame[0] : games.stream()
+                .filter(game -> game != null && game.getAppId() != null)
+                .sorted(Comparator.comparingLong(OwnedGame::getAppId))
+                .toArray(OwnedGame[]::new);
+
+        long[] appIds = new long[rows.length];
+        int[] playtimes = new int[rows.length];
+        long[] lastPlayed = new long[rows.length];
+        int[] nameRefs = new int[rows.length];
+        int[] iconRefs = new int[rows.length];
+        int[] logoRefs = new int[rows.length];
+        StringTable.Builder strings = new StringTable.Builder();
+
+        int size = 0;
+        for (OwnedGame game : rows) {
+            if (size > 0 && appIds[size - 1] == game.getAppId()) {
+                continue;
+            }
+            appIds[size] = game.getAppId();
+            playtimes[size] = game.getPlaytimeForever() != null ? game.getPlaytimeForever() : 0;
+            lastPlayed[size] = game.getRtimeLastPlayed() != null ? game.getRtimeLastPlayed() : 0L;
+            nameRefs[size] = strings.add(game.getName());
+            iconRefs[size] = strings.add(game.getImgIconUrl());
+            logoRefs[size] = strings.add(game.getImgLogoUrl());
+            size++;
+        }
+        return new LibraryColumns(size,
+                Arrays.copyOf(appIds, size), Arrays.copyOf(playtimes, size), Arrays.copyOf(lastPlayed, size),
+                Arrays.copyOf(nameRefs, size), Arrays.copyOf(iconRefs, size), Arrays.copyOf(logoRefs, size),
+                strings.build());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long appId(int row) {
+        return appIds[row];
+    }
+
+    public int playtime(int row) {
+        return playtimes[row];
+    }
+
+    public long lastPlayed(int row) {
+        return lastPlayed[row];
+    }
+
+    public String name(int row) {
+        return strings.get(nameRefs[row]);
+    }
+
+    /**
+     * 按 appId 查找行号
+     *
+     * @return 行号，不在游戏库中时返回 -1
+     */
+    public int find(long appId) {
+        int row = Arrays.binarySearch(appIds, 0, size, appId);
+        return row >= 0 ? row : -1;
+    }
+
+    /**
+     * 全部游戏的总游玩时长（分钟）
+     */
+    public long totalPlaytime() {
+        long total = 0;
+        for (int row = 0; row < size; row++) {
+            total += playtimes[row];
+        }
+        return total;
+    }
+
+    /**
+     * 生成某一行的游戏对象
+     */
+    public OwnedGame view(int row) {
+        OwnedGame game = new OwnedGame();
+        game.setAppId(appIds[row]);
+        game.setName(strings.get(nameRefs[row]));
+        game.setPlaytimeForever(playtimes[row]);
+        game.setImgIconUrl(strings.get(iconRefs[row]));
+        game.setImgLogoUrl(strings.get(logoRefs[row]));
+        game.setRtimeLastPlayed(lastPlayed[row]);
+        return game;
+    }
+
+    /**
+     * 各列及字符串表占用的字节数（不含对象头），用于日志和基准对比
+     */
+    public long estimatedBytes() {
+        return (long) size * (Long.BYTES * 2 + Integer.BYTES * 4) + strings.estimatedBytes();
+    }
+
+    /**
+     * 去重的字符串表：所有不同的字符串按 UTF-8 连续存放在一个字节数组中，按编号取出
+     */
+    private static final class StringTable {
+
+        private final byte[] bytes;
+        /** 第 i 个字符串位于 [offsets[i], offsets[i + 1]) */
+        private final int[] offsets;
+
+        private StringTable(byte[] bytes, int[] offsets) {
+            this.bytes = bytes;
+            this.offsets = offsets;
+        }
+
+        String get(int ref) {
+            if (ref == NO_STRING) {
+                return null;
+            }
+            return new String(bytes, offsets[ref], offsets[ref + 1] - offsets[ref], StandardCharsets.UTF_8);
+        }
+
+        long estimatedBytes() {
+            return bytes.length + (long) offsets.length * Integer.BYTES;
+        }
+
+        private static final class Builder {
+            private final Map<String, Integer> refs = new HashMap<>();
+            private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            private int[] offsets = new int[16];
+            private int count;
+
+            int add(String value) {
+                if (value == null) {
+                    return NO_STRING;
+                }
+                return refs.computeIfAbsent(value, key -> {
+                    byte[] encoded = key.getBytes(StandardCharsets.UTF_8);
+                    bytes.write(encoded, 0, encoded.length);
+                    if (count + 2 > offsets.length) {
+                        offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                    }
+                    offsets[++count] = bytes.size();
+                    return count - 1;
+                });
+            }
+
+            StringTable build() {
+                return new StringTable(bytes.toByteArray(), Arrays.copyOf(offsets, count + 1));
+            }
+        }
+    }
+}
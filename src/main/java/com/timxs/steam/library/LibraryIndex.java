@@ -0,0 +1,428 @@
+package com.timxs.steam.library;
+
+import com.timxs.steam.library.LibraryQuery.SortKey;
+import com.timxs.steam.library.LibraryQuery.Visibility;
+import com.timxs.steam.model.OwnedGame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * 游戏库索引
+ * 基于 {@link LibraryColumns} 建立，游戏库刷新时整体重建，之后只读。每个过滤维度保存按值排序的位置数组和对应的值数组，
+ * 范围条件通过二分查找定位区间，只访问命中的游戏；各条件的结果以 BitSet 求交。
+ * 排序结果按排序键缓存，查询时按缓存的顺序扫描并跳过不符合条件的游戏。
+ */
+public final class LibraryIndex {
+
+    /** 按排序键缓存的顺序数量上限 */
+    private static final int MAX_CACHED_ORDERS = 32;
+
+    private final LibraryColumns columns;
+    private final int size;
+
+    private final long[] appIds;
+    private final int[] playtimes;
+    private final long[] lastPlayed;
+    private final String[] names;
+
+    /** 按游玩时长升序的位置及对应的值 */
+    private final int[] byPlaytime;
+    private final int[] sortedPlaytimes;
+    /** 按最后游玩时间升序的位置及对应的值 */
+    private final int[] byLastPlayed;
+    private final long[] sortedLastPlayed;
+    /** 按名称（小写）升序的位置及对应的值，没有名称的游戏排在最后 */
+    private final int[] byName;
+    private final String[] sortedNames;
+    /** 有名称的游戏数，sortedNames 中此后都是 null */
+    private final int namedCount;
+
+    /** 各字段的密集排名，值相同的游戏排名相同，用于多键排序 */
+    private final int[] playtimeRanks;
+    private final int[] lastPlayedRanks;
+    private final int[] nameRanks;
+
+    private final Map<List<SortKey>, Order> orders = new ConcurrentHashMap<>();
+
+    /** 全部 appId，首次使用时建立 */
+    private volatile Set<Long> appIdSet;
+
+    /** 名称搜索索引，首次搜索时建立 */
+    private volatile NameSearchIndex nameSearchIndex;
+
+    private LibraryIndex(LibraryColumns columns) {
+        this.columns = columns;
+        this.size = columns.size();
+        // 数值列直接共用列存储中的数组，位置即行号
+        this.appIds = columns.appIds;
+        this.playtimes = columns.playtimes;
+        this.lastPlayed = columns.lastPlayed;
+        this.names = new String[size];
+        for (int i = 0; i < size; i++) {
+            String name = columns.name(i);
+            names[i] = name != null ? name.toLowerCase(Locale.ROOT) : null;
+        }
+
+        this.byPlaytime = sortPositions(Comparator.<Integer>comparingInt(i -> playtimes[i]).thenComparingLong(i -> appIds[i]));
+        this.sortedPlaytimes = new int[size];
+        this.byLastPlayed = sortPositions(Comparator.<Integer>comparingLong(i -> lastPlayed[i]).thenComparingLong(i -> appIds[i]));
+        this.sortedLastPlayed = new long[size];
+        this.byName = sortPositions(Comparator.<Integer, String>comparing(i -> names[i],
+                Comparator.nullsLast(Comparator.naturalOrder())).thenComparingLong(i -> appIds[i]));
+        this.sortedNames = new String[size];
+        int named = 0;
+        for (int k = 0; k < size; k++) {
+            sortedPlaytimes[k] = playtimes[byPlaytime[k]];
+            sortedLastPlayed[k] = lastPlayed[byLastPlayed[k]];
+            sortedNames[k] = names[byName[k]];
+            if (sortedNames[k] != null) {
+                named++;
+            }
+        }
+        this.namedCount = named;
+
+        this.playtimeRanks = new int[size];
+        this.lastPlayedRanks = new int[size];
+        this.nameRanks = new int[size];
+        for (int k = 0; k < size; k++) {
+            playtimeRanks[byPlaytime[k]] = k > 0 && sortedPlaytimes[k] == sortedPlaytimes[k - 1]
+                    ? playtimeRanks[byPlaytime[k - 1]] : k;
+            lastPlayedRanks[byLastPlayed[k]] = k > 0 && sortedLastPlayed[k] == sortedLastPlayed[k - 1]
+                    ? lastPlayedRanks[byLastPlayed[k - 1]] : k;
+            nameRanks[byName[k]] = k > 0 && Objects.equals(sortedNames[k], sortedNames[k - 1])
+                    ? nameRanks[byName[k - 1]] : k;
+        }
+    }
+
+    /**
+     * 为游戏库建立索引
+     */
+    public static LibraryIndex build(LibraryColumns columns) {
+        return new LibraryIndex(columns != null ? columns : LibraryColumns.empty());
+    }
+
+    /**
+     * 索引是否基于这份游戏库建立（游戏库刷新后缓存中是新的列存储对象）
+     */
+    public boolean isBuiltFrom(LibraryColumns columns) {
+        return this.columns == columns;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 游戏库中的全部 appId（包括隐藏的游戏）
+     */
+    public Set<Long> appIdSet() {
+        Set<Long> result = appIdSet;
+        if (result == null) {
+            result = Arrays.stream(appIds).boxed().collect(Collectors.toUnmodifiableSet());
+            appIdSet = result;
+        }
+        return result;
+    }
+
+    /**
+     * 执行查询
+     *
+     * @param query        查询条件
+     * @param hiddenAppIds 隐藏的游戏
+     * @param topLimit     只在未隐藏游戏中游玩时长最长的前 N 个里查询，0 表示不限制
+     * @throws IllegalArgumentException 游标指向的游戏不在游戏库中
+     */
+    public LibraryPage query(LibraryQuery query, Set<Long> hiddenAppIds, int topLimit) {
+        BitSet hidden = positionsOf(hiddenAppIds);
+        BitSet matches = new BitSet(size);
+        matches.set(0, size);
+
+        if (query.getVisibility() == Visibility.VISIBLE) {
+            matches.andNot(hidden);
+        } else if (query.getVisibility() == Visibility.HIDDEN) {
+            matches.and(hidden);
+        }
+        if (topLimit > 0) {
+            matches.and(topByPlaytime(topLimit, hidden));
+        }
+        if (query.getMinPlaytime() != null || query.getMaxPlaytime() != null) {
+            matches.and(playtimeRange(
+                    query.getMinPlaytime() != null ? query.getMinPlaytime() : Integer.MIN_VALUE,
+                    query.getMaxPlaytime() != null ? query.getMaxPlaytime() : Integer.MAX_VALUE));
+        }
+        if (Boolean.TRUE.equals(query.getNeverPlayed())) {
+            matches.and(playtimeRange(Integer.MIN_VALUE, 0));
+        } else if (Boolean.FALSE.equals(query.getNeverPlayed())) {
+            matches.and(playtimeRange(1, Integer.MAX_VALUE));
+        }
+        if (query.getLastPlayedFrom() != null || query.getLastPlayedTo() != null) {
+            matches.and(lastPlayedRange(
+                    query.getLastPlayedFrom() != null ? query.getLastPlayedFrom() : Long.MIN_VALUE,
+                    query.getLastPlayedTo() != null ? query.getLastPlayedTo() : Long.MAX_VALUE));
+        }
+        if (query.getNamePrefix() != null && !query.getNamePrefix().isEmpty()) {
+            matches.and(namePrefix(query.getNamePrefix().toLowerCase(Locale.ROOT)));
+        }
+
+        Order order = orderFor(query.getSort());
+        int start = 0;
+        if (query.getAfter() != null) {
+            int position = positionOf(query.getAfter());
+            if (position < 0) {
+                throw new IllegalArgumentException("游标指向的游戏不在游戏库中: " + query.getAfter());
+            }
+            start = order.rankOf[position] + 1;
+        }
+
+        int limit = Math.max(1, query.getLimit());
+        List<OwnedGame> items = new ArrayList<>(Math.min(limit, size));
+        int last = -1;
+        boolean hasMore = false;
+        for (int k = start; k < size; k++) {
+            int position = order.positions[k];
+            if (!matches.get(position)) {
+                continue;
+            }
+            if (items.size() == limit) {
+                hasMore = true;
+                break;
+            }
+            items.add(columns.view(position));
+            last = position;
+        }
+        return new LibraryPage(items, matches.cardinality(), hasMore ? appIds[last] : null);
+    }
+
+    /**
+     * 按名称搜索未隐藏的游戏，容忍个别错字，支持中日韩文字
+     *
+     * @param keyword      搜索词
+     * @param limit        最多返回数量
+     * @param hiddenAppIds 隐藏的游戏
+     * @param topLimit     只在未隐藏游戏中游玩时长最长的前 N 个里搜索，0 表示不限制
+     * @return 按相关度排列的游戏
+     */
+    public List<OwnedGame> search(String keyword, int limit, Set<Long> hiddenAppIds, int topLimit) {
+        BitSet hidden = positionsOf(hiddenAppIds);
+        BitSet top = topLimit > 0 ? topByPlaytime(topLimit, hidden) : null;
+        int[] positions = nameSearchIndex().search(keyword, Math.max(1, limit),
+                position -> !hidden.get(position) && (top == null || top.get(position)));
+        List<OwnedGame> result = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            result.add(columns.view(position));
+        }
+        return result;
+    }
+
+    /**
+     * 按名称或游玩时长排序分页，隐藏的游戏不计入总数
+     *
+     * @param sortBy       name 按名称升序，其他值按游玩时长降序
+     * @param page         页码，从 1 开始
+     * @param pageSize     每页数量
+     * @param hiddenAppIds 隐藏的游戏
+     * @param gamesLimit   排序后只保留前 N 个，0 表示不限制
+     * @return 当前页的游戏及总数，不带游标
+     */
+    public LibraryPage page(String sortBy, int page, int pageSize, Set<Long> hiddenAppIds, int gamesLimit) {
+        BitSet hidden = positionsOf(hiddenAppIds);
+        Order order = orderFor("name".equalsIgnoreCase(sortBy)
+                ? List.of(new SortKey(LibraryQuery.SortField.NAME, false))
+                : List.of(new SortKey(LibraryQuery.SortField.PLAYTIME, true)));
+        int visible = size - hidden.cardinality();
+        int total = gamesLimit > 0 ? Math.min(gamesLimit, visible) : visible;
+        long from = (long) (Math.max(1, page) - 1) * pageSize;
+        long to = Math.min(from + pageSize, total);
+
+        List<OwnedGame> items = new ArrayList<>((int) Math.max(0, to - from));
+        int seen = 0;
+        for (int k = 0; k < size && seen < to; k++) {
+            int position = order.positions[k];
+            if (hidden.get(position)) {
+                continue;
+            }
+            if (seen >= from) {
+                items.add(columns.view(position));
+            }
+            seen++;
+        }
+        return new LibraryPage(items, total, null);
+    }
+
+    private NameSearchIndex nameSearchIndex() {
+        NameSearchIndex index = nameSearchIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = nameSearchIndex;
+                if (index == null) {
+                    String[] rawNames = new String[size];
+                    for (int i = 0; i < size; i++) {
+                        rawNames[i] = columns.name(i);
+                    }
+                    index = new NameSearchIndex(rawNames);
+                    nameSearchIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    private BitSet positionsOf(Set<Long> appIdSet) {
+        BitSet result = new BitSet(size);
+        if (appIdSet == null) {
+            return result;
+        }
+        for (Long appId : appIdSet) {
+            int position = appId != null ? positionOf(appId) : -1;
+            if (position >= 0) {
+                result.set(position);
+            }
+        }
+        return result;
+    }
+
+    private int positionOf(long appId) {
+        return columns.find(appId);
+    }
+
+    private BitSet topByPlaytime(int limit, BitSet hidden) {
+        BitSet result = new BitSet(size);
+        int taken = 0;
+        for (int k = size - 1; k >= 0 && taken < limit; k--) {
+            int position = byPlaytime[k];
+            if (!hidden.get(position)) {
+                result.set(position);
+                taken++;
+            }
+        }
+        return result;
+    }
+
+    private BitSet playtimeRange(int min, int max) {
+        BitSet result = new BitSet(size);
+        int from = lowerBound(sortedPlaytimes, min);
+        for (int k = from; k < size && sortedPlaytimes[k] <= max; k++) {
+            result.set(byPlaytime[k]);
+        }
+        return result;
+    }
+
+    private BitSet lastPlayedRange(long from, long to) {
+        BitSet result = new BitSet(size);
+        int start = lowerBound(sortedLastPlayed, from);
+        for (int k = start; k < size && sortedLastPlayed[k] <= to; k++) {
+            result.set(byLastPlayed[k]);
+        }
+        return result;
+    }
+
+    private BitSet namePrefix(String prefix) {
+        BitSet result = new BitSet(size);
+        int start = lowerBound(sortedNames, namedCount, prefix);
+        for (int k = start; k < namedCount && sortedNames[k].startsWith(prefix); k++) {
+            result.set(byName[k]);
+        }
+        return result;
+    }
+
+    private Order orderFor(List<SortKey> sort) {
+        List<SortKey> keys = sort != null ? List.copyOf(sort) : List.of();
+        Order order = orders.get(keys);
+        if (order != null) {
+            return order;
+        }
+        if (orders.size() >= MAX_CACHED_ORDERS) {
+            orders.clear();
+        }
+        return orders.computeIfAbsent(keys, this::buildOrder);
+    }
+
+    private Order buildOrder(List<SortKey> keys) {
+        Comparator<Integer> comparator = (a, b) -> 0;
+        for (SortKey key : keys) {
+            Comparator<Integer> byKey = switch (key.field()) {
+                case PLAYTIME -> Comparator.comparingInt(i -> playtimeRanks[i]);
+                case LAST_PLAYED -> Comparator.comparingInt(i -> lastPlayedRanks[i]);
+                case NAME -> Comparator.comparingInt(i -> nameRanks[i]);
+                case APP_ID -> Comparator.comparingLong(i -> appIds[i]);
+            };
+            if (key.field() == LibraryQuery.SortField.NAME) {
+                // 没有名称的游戏无论升序降序都排在最后
+                comparator = comparator.thenComparing(i -> names[i] == null);
+            }
+            comparator = comparator.thenComparing(key.descending() ? byKey.reversed() : byKey);
+        }
+        int[] positions = sortPositions(comparator.thenComparingLong(i -> appIds[i]));
+        int[] rankOf = new int[size];
+        for (int k = 0; k < size; k++) {
+            rankOf[positions[k]] = k;
+        }
+        return new Order(positions, rankOf);
+    }
+
+    private int[] sortPositions(Comparator<Integer> comparator) {
+        return IntStream.range(0, size).boxed().sorted(comparator).mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int lowerBound(int[] values, int key) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int lowerBound(long[] values, long key) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int lowerBound(String[] values, int end, String key) {
+        int low = 0;
+        int high = end;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 按某组排序键排好的顺序
+     *
+     * @param positions 排序后的位置
+     * @param rankOf    每个位置在顺序中的下标，用于从游标处继续
+     */
+    private record Order(int[] positions, int[] rankOf) {
+    }
+}
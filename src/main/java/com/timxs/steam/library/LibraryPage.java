@@ -0,0 +1,26 @@
+package com.timxs.steam.library;
+
+import com.timxs.steam.model.OwnedGame;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 游戏库查询结果（游标分页）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LibraryPage {
+
+    /** 本页游戏 */
+    private List<OwnedGame> items;
+
+    /** 符合条件的游戏总数 */
+    private int total;
+
+    /** 下一页游标（本页最后一个游戏的 appId），没有下一页时为 null */
+    private Long nextCursor;
+}
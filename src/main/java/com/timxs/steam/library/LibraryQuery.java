@@ -0,0 +1,122 @@
+package com.timxs.steam.library;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 游戏库查询条件
+ * 所有条件可选，未设置的条件不参与过滤；范围条件均为闭区间
+ */
+@Data
+public class LibraryQuery {
+
+    /** 最少游玩时长（分钟） */
+    private Integer minPlaytime;
+
+    /** 最多游玩时长（分钟） */
+    private Integer maxPlaytime;
+
+    /** 最后游玩时间下限（Unix 秒） */
+    private Long lastPlayedFrom;
+
+    /** 最后游玩时间上限（Unix 秒） */
+    private Long lastPlayedTo;
+
+    /** true 只返回从未游玩的游戏，false 只返回玩过的游戏 */
+    private Boolean neverPlayed;
+
+    /** 名称前缀，不区分大小写 */
+    private String namePrefix;
+
+    /** 隐藏游戏的可见范围 */
+    private Visibility visibility = Visibility.VISIBLE;
+
+    /** 排序键，依次比较，最后总是按 appId 升序保证顺序稳定 */
+    private List<SortKey> sort = List.of(new SortKey(SortField.PLAYTIME, true));
+
+    /** 上一页最后一个游戏的 appId，为空表示第一页 */
+    private Long after;
+
+    /** 每页数量 */
+    private int limit = 20;
+
+    /**
+     * 隐藏游戏的可见范围
+     */
+    public enum Visibility {
+        /** 只返回未隐藏的游戏 */
+        VISIBLE,
+        /** 只返回隐藏的游戏 */
+        HIDDEN,
+        /** 全部返回 */
+        ALL
+    }
+
+    /**
+     * 可排序字段
+     */
+    public enum SortField {
+        PLAYTIME("playtime"),
+        LAST_PLAYED("last_played"),
+        NAME("name"),
+        APP_ID("appid");
+
+        private final String param;
+
+        SortField(String param) {
+            this.param = param;
+        }
+
+        public String getParam() {
+            return param;
+        }
+    }
+
+    /**
+     * 排序键
+     *
+     * @param field      排序字段
+     * @param descending 是否降序
+     */
+    public record SortKey(SortField field, boolean descending) {
+    }
+
+    /**
+     * 解析排序参数，如 -playtime,name 表示先按游玩时长降序、再按名称升序
+     *
+     * @throws IllegalArgumentException 字段不存在或重复
+     */
+    public static List<SortKey> parseSort(String value) {
+        List<SortKey> keys = new ArrayList<>();
+        if (value == null || value.isBlank()) {
+            return keys;
+        }
+        for (String part : value.split(",")) {
+            String token = part.trim().toLowerCase(Locale.ROOT);
+            if (token.isEmpty()) {
+                continue;
+            }
+            boolean descending = token.startsWith("-");
+            String name = descending || token.startsWith("+") ? token.substring(1) : token;
+            SortField field = null;
+            for (SortField candidate : SortField.values()) {
+                if (candidate.getParam().equals(name)) {
+                    field = candidate;
+                }
+            }
+            if (field == null) {
+                throw new IllegalArgumentException("不支持的排序字段: " + name);
+            }
+            for (SortKey key : keys) {
+                if (key.field() == field) {
+                    throw new IllegalArgumentException("排序字段重复: " + name);
+                }
+            }
+            keys.add(new SortKey(field, descending));
+        }
+        return keys;
+    }
+}
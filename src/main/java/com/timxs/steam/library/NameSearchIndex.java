@@ -0,0 +1,195 @@
+package com.timxs.steam.library;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntPredicate;
+
+/**
+ * 游戏名称 n-gram 倒排索引
+ * 名称先做 NFKC 规范化（全角转半角）并转小写，再按字符类型切分：
+ * 拉丁字母与数字按词取首尾补位的三元组，中日韩文字按连续片段取二元组和单字。
+ * 查询取同样的 n-gram，按与名称共有的 n-gram 数计算 Dice 相似度，
+ * 再对完全相同、前缀与包含匹配加分，因此能容忍个别错字和词序差异。
+ */
+final class NameSearchIndex {
+
+    /** Dice 相似度低于该值且不包含查询词的结果不返回 */
+    private static final double MIN_SCORE = 0.3;
+
+    private final String[] names;
+    private final int[] gramCounts;
+    private final Map<String, int[]> postings;
+
+    NameSearchIndex(String[] rawNames) {
+        int size = rawNames.length;
+        this.names = new String[size];
+        this.gramCounts = new int[size];
+        Map<String, IntList> building = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            names[i] = normalize(rawNames[i]);
+            Set<String> grams = grams(names[i]);
+            gramCounts[i] = grams.size();
+            for (String gram : grams) {
+                building.computeIfAbsent(gram, k -> new IntList()).add(i);
+            }
+        }
+        this.postings = new HashMap<>(building.size() * 2);
+        building.forEach((gram, list) -> postings.put(gram, list.toArray()));
+    }
+
+    /**
+     * 搜索名称
+     *
+     * @param keyword 搜索词
+     * @param limit   最多返回数量
+     * @param allowed 允许返回的位置
+     * @return 按得分从高到低排列的位置
+     */
+    int[] search(String keyword, int limit, IntPredicate allowed) {
+        String query = normalize(keyword);
+        Set<String> queryGrams = grams(query);
+        if (queryGrams.isEmpty()) {
+            return new int[0];
+        }
+
+        int[] shared = new int[names.length];
+        IntList touched = new IntList();
+        for (String gram : queryGrams) {
+            int[] positions = postings.get(gram);
+            if (positions == null) {
+                continue;
+            }
+            for (int position : positions) {
+                if (shared[position]++ == 0) {
+                    touched.add(position);
+                }
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>();
+        for (int k = 0; k < touched.size; k++) {
+            int position = touched.values[k];
+            if (!allowed.test(position)) {
+                continue;
+            }
+            String name = names[position];
+            double score = 2.0 * shared[position] / (queryGrams.size() + gramCounts[position]);
+            boolean contains = name.contains(query);
+            if (score < MIN_SCORE && !contains) {
+                continue;
+            }
+            if (name.equals(query)) {
+                score += 2;
+            } else if (name.startsWith(query)) {
+                score += 1;
+            } else if (contains) {
+                score += 0.5;
+            }
+            hits.add(new Hit(position, score));
+        }
+        hits.sort((a, b) -> a.score != b.score
+                ? Double.compare(b.score, a.score)
+                : Integer.compare(names[a.position].length(), names[b.position].length()));
+
+        int count = Math.min(limit, hits.size());
+        int[] result = new int[count];
+        for (int k = 0; k < count; k++) {
+            result[k] = hits.get(k).position;
+        }
+        return result;
+    }
+
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        return Normalizer.normalize(value, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT).trim();
+    }
+
+    /**
+     * 提取 n-gram：拉丁字母与数字按词取三元组，中日韩文字取二元组和单字，其余字符作为分隔
+     */
+    static Set<String> grams(String text) {
+        Set<String> grams = new LinkedHashSet<>();
+        int i = 0;
+        int length = text.length();
+        while (i < length) {
+            int codePoint = text.codePointAt(i);
+            if (isCjk(codePoint)) {
+                int start = i;
+                while (i < length && isCjk(text.codePointAt(i))) {
+                    i += Character.charCount(text.codePointAt(i));
+                }
+                addCjkGrams(text.substring(start, i), grams);
+            } else if (Character.isLetterOrDigit(codePoint)) {
+                int start = i;
+                while (i < length && Character.isLetterOrDigit(text.codePointAt(i))
+                        && !isCjk(text.codePointAt(i))) {
+                    i += Character.charCount(text.codePointAt(i));
+                }
+                addWordGrams(text.substring(start, i), grams);
+            } else {
+                i += Character.charCount(codePoint);
+            }
+        }
+        return grams;
+    }
+
+    private static void addWordGrams(String word, Set<String> grams) {
+        String padded = "^" + word + "$";
+        if (padded.length() <= 3) {
+            grams.add(padded);
+            return;
+        }
+        for (int k = 0; k + 3 <= padded.length(); k++) {
+            grams.add(padded.substring(k, k + 3));
+        }
+    }
+
+    private static void addCjkGrams(String run, Set<String> grams) {
+        int[] codePoints = run.codePoints().toArray();
+        for (int k = 0; k < codePoints.length; k++) {
+            grams.add(new String(codePoints, k, 1));
+            if (k + 1 < codePoints.length) {
+                grams.add(new String(codePoints, k, 2));
+            }
+        }
+    }
+
+    private static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+
+    private record Hit(int position, double score) {
+    }
+
+    /**
+     * 只追加的 int 列表，避免建索引时装箱
+     */
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.timxs.steam.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Steam 应用列表的一页（IStoreService/GetAppList）
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class AppListPage {
+
+    private List<App> apps;
+
+    /** 是否还有下一页 */
+    @JsonProperty("have_more_results")
+    private boolean haveMoreResults;
+
+    /** 本页最后一个应用的 ID，作为下一页的起点 */
+    @JsonProperty("last_appid")
+    private Long lastAppId;
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class App {
+
+        @JsonProperty("appid")
+        private Long appId;
+
+        private String name;
+
+        /** 应用信息最后修改时间（Unix 秒） */
+        @JsonProperty("last_modified")
+        private Long lastModified;
+    }
+}
@@ -0,0 +1,66 @@
+package com.timxs.steam.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import run.halo.app.extension.AbstractExtension;
+import run.halo.app.extension.GVK;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * 持久化的游戏元数据
+ * 每个 appId 一条（名称为 app-{appId}），保存 Store 中与访客语言和地区无关的基础信息，
+ * 文本按 Store 的默认语言（english）保存。重启和缓存过期后仍然可用，由后台任务定期刷新。
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@GVK(group = "steam.timxs.com", version = "v1alpha1",
+    kind = "GameMetadata", plural = "gamemetadatas",
+    singular = "gamemetadata")
+public class GameMetadata extends AbstractExtension {
+
+    /** 保存元数据时使用的 Store 语言 */
+    public static final String LANGUAGE = "english";
+
+    @Schema(requiredMode = Schema.RequiredMode.REQUIRED)
+    private GameMetadataSpec spec;
+
+    public static String nameOf(Long appId) {
+        return "app-" + appId;
+    }
+
+    @Data
+    public static class GameMetadataSpec {
+        @Schema(requiredMode = Schema.RequiredMode.REQUIRED, description = "游戏 ID")
+        private Long appId;
+
+        @Schema(description = "游戏名称（english）")
+        private String name;
+
+        @Schema(description = "封面图")
+        private String headerImage;
+
+        @Schema(description = "简短描述（english）")
+        private String shortDescription;
+
+        @Schema(description = "开发商")
+        private List<String> developers;
+
+        @Schema(description = "发行商")
+        private List<String> publishers;
+
+        @Schema(description = "类型标签（english）")
+        private List<String> genres;
+
+        @Schema(description = "发售日期（english）")
+        private String releaseDate;
+
+        @Schema(description = "是否免费")
+        private Boolean isFree;
+
+        @Schema(requiredMode = Schema.RequiredMode.REQUIRED, description = "最后一次从 Store 刷新的时间")
+        private Instant refreshedAt;
+    }
+}
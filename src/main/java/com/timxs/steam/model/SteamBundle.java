@@ -0,0 +1,55 @@
+package com.timxs.steam.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import run.halo.app.extension.ListResult;
+
+import java.util.List;
+
+/**
+ * 页面数据聚合结果
+ * 一次请求返回资料、统计、最近游玩、徽章、游戏库首页和热力图记录，各部分独立标注状态
+ */
+@Data
+public class SteamBundle {
+
+    private Section<SteamProfile> profile;
+    private Section<SteamStats> stats;
+    private Section<List<RecentGame>> recent;
+    private Section<BadgeInfo> badges;
+    private Section<ListResult<OwnedGame>> games;
+    private Section<List<DailyPlaytimeRecord>> heatmap;
+
+    /** 聚合总耗时（毫秒） */
+    private long elapsedMillis;
+
+    /**
+     * 聚合结果中的一个部分
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Section<T> {
+        /** 状态 */
+        private SectionStatus status;
+        /** 数据，MISSING 与 DISABLED 时为 null */
+        private T data;
+        /** 未能及时获取最新数据的原因：timeout 或错误信息 */
+        private String reason;
+    }
+
+    /**
+     * 部分状态
+     */
+    public enum SectionStatus {
+        /** 在截止时间内获取到数据 */
+        OK,
+        /** 超时或失败，返回上一次获取到的数据 */
+        STALE,
+        /** 超时或失败，且没有可用的旧数据 */
+        MISSING,
+        /** 功能未启用 */
+        DISABLED
+    }
+}
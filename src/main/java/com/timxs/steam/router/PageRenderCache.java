@@ -0,0 +1,54 @@
+package com.timxs.steam.router;
+
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+
+/**
+ * 页面渲染缓存
+ * 保存渲染完成的 HTML 字节，键包含页码、模板名、主题与数据/配置版本，按最近最少使用淘汰
+ */
+@Component
+public class PageRenderCache {
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * 读取未超过最长缓存时间的页面
+     */
+    public Entry get(String key, long maxAgeMillis) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (System.currentTimeMillis() - entry.renderedAt() > maxAgeMillis) {
+                entries.remove(key);
+                return null;
+            }
+            return entry;
+        }
+    }
+
+    public void put(String key, Entry entry, int maxEntries) {
+        synchronized (entries) {
+            entries.put(key, entry);
+            var iterator = entries.entrySet().iterator();
+            while (entries.size() > maxEntries && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * 缓存的页面
+     *
+     * @param body        HTML 字节
+     * @param contentType 响应类型
+     * @param renderedAt  渲染时间（毫秒）
+     */
+    public record Entry(byte[] body, MediaType contentType, long renderedAt) {
+    }
+}
@@ -0,0 +1,182 @@
+package com.timxs.steam.router;
+
+import com.timxs.steam.cache.CacheKeys;
+import com.timxs.steam.controller.ConditionalResponses;
+import com.timxs.steam.controller.ConditionalResponses.Validator;
+import com.timxs.steam.service.SteamSettingService;
+import com.timxs.steam.service.SteamSettingService.PageCacheConfig;
+import lombok.RequiredArgsConstructor;
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import run.halo.app.security.AdditionalWebFilter;
+import run.halo.app.theme.TemplateNameResolver;
+
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * /steam 页面渲染缓存
+ * 匿名访客请求且数据仍在有效期内时直接写出缓存的 HTML；否则照常渲染，并在写出时保存渲染结果。
+ * 缓存键包含页面路径、模板名、访客语言（主题模板的国际化文本）、系统设置版本（主题切换）
+ * 以及页面所用 Steam 缓存条目和插件配置的版本，任一变化都会重新渲染
+ */
+@Component
+@RequiredArgsConstructor
+public class SteamPageCacheFilter implements AdditionalWebFilter {
+
+    private static final Pattern PAGE_PATH = Pattern.compile("^/steam(/page/\\d+)?/?$");
+
+    /** 页面模板用到的 Steam 数据 */
+    private static final String[] PAGE_CACHE_KEYS = {
+            CacheKeys.PROFILE, CacheKeys.GAMES, CacheKeys.RECENT, CacheKeys.BADGES
+    };
+
+    /** 带有这些 Cookie 的请求可能已登录，不使用缓存 */
+    private static final String[] SESSION_COOKIES = {"SESSION", "remember-me"};
+
+    private static final String CACHE_HEADER = "X-Steam-Page-Cache";
+
+    private final PageRenderCache pageCache;
+    private final SteamSettingService settingService;
+    private final ConditionalResponses conditional;
+    private final TemplateNameResolver templateNameResolver;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (request.getMethod() != HttpMethod.GET
+                || !PAGE_PATH.matcher(request.getPath().value()).matches()
+                || !request.getQueryParams().isEmpty()
+                || request.getHeaders().containsKey(HttpHeaders.AUTHORIZATION)
+                || hasSessionCookie(request)) {
+            return chain.filter(exchange);
+        }
+        return settingService.getPageCacheConfig()
+                .flatMap(config -> {
+                    if (!Boolean.TRUE.equals(config.getEnabled())) {
+                        return chain.filter(exchange);
+                    }
+                    return isAnonymous().flatMap(anonymous -> anonymous
+                            ? cached(exchange, chain, config)
+                            : chain.filter(exchange));
+                });
+    }
+
+    private Mono<Void> cached(ServerWebExchange exchange, WebFilterChain chain, PageCacheConfig config) {
+        Mono<Validator> validator = conditional.forCacheKeys(PAGE_CACHE_KEYS);
+        return Mono.zip(
+                templateNameResolver.resolveTemplateNameOrDefault(exchange, "steam"),
+                settingService.getSystemConfigVersion(),
+                validator.map(Optional::of).defaultIfEmpty(Optional.empty())
+        ).flatMap(tuple -> {
+            String prefix = exchange.getRequest().getPath().value() + "|" + tuple.getT1() + "|"
+                    + localeTag(exchange) + "|" + tuple.getT2() + "|";
+            Optional<Validator> before = tuple.getT3();
+            PageRenderCache.Entry entry = before
+                    .filter(Validator::isFresh)
+                    .map(v -> pageCache.get(prefix + v.etag(), config.getMaxAgeSeconds() * 1000L))
+                    .orElse(null);
+            return entry != null
+                    ? writeCached(exchange.getResponse(), entry)
+                    : renderAndStore(exchange, chain, prefix, before.map(Validator::etag).orElse(null), validator, config);
+        });
+    }
+
+    /**
+     * 主题模板按访客语言（Accept-Language 或 language Cookie）渲染国际化文本
+     */
+    private static String localeTag(ServerWebExchange exchange) {
+        Locale locale = exchange.getLocaleContext().getLocale();
+        return locale != null ? locale.toLanguageTag() : "-";
+    }
+
+    private Mono<Void> writeCached(ServerHttpResponse response, PageRenderCache.Entry entry) {
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().setContentType(entry.contentType());
+        response.getHeaders().setContentLength(entry.body().length);
+        response.getHeaders().set(CACHE_HEADER, "HIT");
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(entry.body())));
+    }
+
+    /**
+     * 渲染并保存结果
+     * 只有渲染前后版本一致（或渲染前缓存为空、由本次渲染填充）时才保存：
+     * 渲染期间发生刷新时，页面由旧数据渲染，不能存到新版本的键下
+     * @param etagBefore 渲染前的版本，页面数据尚未缓存时为 null
+     */
+    private Mono<Void> renderAndStore(ServerWebExchange exchange, WebFilterChain chain, String prefix,
+                                      String etagBefore, Mono<Validator> validator,
+                                      PageCacheConfig config) {
+        ServerHttpResponse original = exchange.getResponse();
+        original.getHeaders().set(CACHE_HEADER, "MISS");
+        ServerHttpResponseDecorator decorated = new ServerHttpResponseDecorator(original) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                if (!isCacheable(getDelegate())) {
+                    return super.writeWith(body);
+                }
+                MediaType contentType = getDelegate().getHeaders().getContentType();
+                return DataBufferUtils.join(Flux.from(body))
+                        .flatMap(joined -> {
+                            byte[] bytes = new byte[joined.readableByteCount()];
+                            joined.read(bytes);
+                            DataBufferUtils.release(joined);
+                            return validator
+                                    .filter(after -> etagBefore == null || etagBefore.equals(after.etag()))
+                                    .doOnNext(v -> pageCache.put(prefix + v.etag(),
+                                            new PageRenderCache.Entry(bytes, contentType, System.currentTimeMillis()),
+                                            config.getMaxEntries()))
+                                    .then(super.writeWith(Mono.fromSupplier(() -> bufferFactory().wrap(bytes))));
+                        });
+            }
+        };
+        return chain.filter(exchange.mutate().response(decorated).build());
+    }
+
+    /**
+     * 只缓存正常渲染的 HTML，带 Set-Cookie 的响应与访客相关，不缓存
+     */
+    private static boolean isCacheable(ServerHttpResponse response) {
+        HttpStatus status = response.getStatusCode() != null
+                ? HttpStatus.resolve(response.getStatusCode().value()) : HttpStatus.OK;
+        MediaType contentType = response.getHeaders().getContentType();
+        return status == HttpStatus.OK
+                && contentType != null && MediaType.TEXT_HTML.isCompatibleWith(contentType)
+                && response.getCookies().isEmpty()
+                && !response.getHeaders().containsKey(HttpHeaders.SET_COOKIE);
+    }
+
+    private static boolean hasSessionCookie(ServerHttpRequest request) {
+        for (String name : SESSION_COOKIES) {
+            if (request.getCookies().containsKey(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Mono<Boolean> isAnonymous() {
+        return ReactiveSecurityContextHolder.getContext()
+                .mapNotNull(SecurityContext::getAuthentication)
+                .map(authentication -> authentication instanceof AnonymousAuthenticationToken
+                        || !authentication.isAuthenticated())
+                .defaultIfEmpty(true);
+    }
+}
@@ -0,0 +1,42 @@
+package com.timxs.steam.scheduler;
+
+import com.timxs.steam.service.GameMetadataService;
+import com.timxs.steam.service.SteamSettingService;
+import com.timxs.steam.trace.SteamTracer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * 游戏元数据刷新定时任务
+ * 每 30 分钟刷新一小批超过刷新间隔的元数据，请求走后台通道并逐个间隔进行
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GameMetadataRefreshScheduler {
+
+    private final GameMetadataService metadataService;
+    private final SteamSettingService settingService;
+
+    @Scheduled(fixedDelay = 30 * 60_000, initialDelay = 5 * 60_000)
+    public void refreshStaleMetadata() {
+        settingService.getGameMetadataConfig()
+            .filter(config -> config.getEnabled())
+            .flatMap(config -> metadataService.refreshStale(
+                Duration.ofDays(config.getMaxAgeDays()), config.getBatchSize()))
+            .doOnSuccess(count -> {
+                if (count != null && count > 0) {
+                    log.info("游戏元数据刷新完成，更新了 {} 款游戏", count);
+                }
+            })
+            .doOnError(error -> log.warn("游戏元数据刷新失败", error))
+            .onErrorResume(e -> Mono.empty())
+            .transform(mono -> SteamTracer.traced("定时任务 refreshStaleMetadata", mono))
+            .subscribe();
+    }
+}
@@ -2,6 +2,7 @@ package com.timxs.steam.scheduler;
 
 import com.timxs.steam.service.PlaytimeTrackingService;
 import com.timxs.steam.service.SteamSettingService;
+import com.timxs.steam.trace.SteamTracer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -43,6 +44,7 @@ public class PlaytimeTrackingScheduler {
             })
             .doOnError(error -> log.error("游戏时长追踪失败", error))
             .onErrorResume(e -> Mono.empty())
+            .transform(mono -> SteamTracer.traced("定时任务 trackPlaytime", mono))
             .subscribe();
     }
 
@@ -68,6 +70,7 @@ public class PlaytimeTrackingScheduler {
             })
             .doOnError(error -> log.error("过期数据清理失败", error))
             .onErrorResume(e -> Mono.empty())
+            .transform(mono -> SteamTracer.traced("定时任务 cleanupExpiredData", mono))
             .subscribe();
     }
 }
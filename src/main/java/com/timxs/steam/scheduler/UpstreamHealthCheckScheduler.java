@@ -0,0 +1,28 @@
+package com.timxs.steam.scheduler;
+
+import com.timxs.steam.client.UpstreamRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Steam API 多线路健康检查定时任务
+ * 每分钟探测一次各线路，更新健康状态和延迟评分；未配置多线路时不发出请求
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UpstreamHealthCheckScheduler {
+
+    private final UpstreamRouter router;
+
+    @Scheduled(fixedDelay = 60_000, initialDelay = 10_000)
+    public void checkRoutes() {
+        router.checkHealth()
+            .doOnError(error -> log.warn("线路健康检查失败", error))
+            .onErrorResume(e -> Mono.empty())
+            .subscribe();
+    }
+}
@@ -0,0 +1,178 @@
+package com.timxs.steam.service;
+
+import com.timxs.steam.model.DailyPlaytimeRecord;
+import com.timxs.steam.model.PlaytimeSnapshot;
+import com.timxs.steam.trace.SteamTracer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import run.halo.app.extension.ListOptions;
+import run.halo.app.extension.ListResult;
+import run.halo.app.extension.PageRequestImpl;
+import run.halo.app.extension.ReactiveExtensionClient;
+import run.halo.app.extension.router.selector.FieldSelector;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+import static run.halo.app.extension.index.query.QueryFactory.*;
+
+/**
+ * 基于 Halo Extension 的时长存储
+ */
+@Component
+@RequiredArgsConstructor
+public class ExtensionPlaytimeStore implements PlaytimeStore {
+
+    private final ReactiveExtensionClient client;
+    private final SteamTracer tracer;
+
+    private final AtomicLong dailyVersion = new AtomicLong();
+
+    @Override
+    public Mono<PlaytimeSnapshot> findLatestSnapshot(String steamId, Long appId) {
+        var listOptions = new ListOptions();
+        listOptions.setFieldSelector(FieldSelector.of(
+            and(
+                equal("spec.steamId", steamId),
+                equal("spec.appId", appId.toString())
+            )
+        ));
+        return tracer.span(SteamTracer.STORE, "findLatestSnapshot", client.listAll(PlaytimeSnapshot.class, listOptions,
+                Sort.by(Sort.Order.desc("spec.snapshotTime")))
+            .next());
+    }
+
+    @Override
+    public Mono<Void> createSnapshot(PlaytimeSnapshot snapshot) {
+        return tracer.span(SteamTracer.STORE, "createSnapshot", client.create(snapshot).then());
+    }
+
+    @Override
+    public Mono<Void> updateSnapshot(PlaytimeSnapshot snapshot) {
+        return tracer.span(SteamTracer.STORE, "updateSnapshot", client.update(snapshot).then());
+    }
+
+    @Override
+    public Mono<DailyPlaytimeRecord> findDailyRecord(String steamId, String date, Long appId) {
+        var listOptions = new ListOptions();
+        listOptions.setFieldSelector(FieldSelector.of(
+            and(
+                equal("spec.steamId", steamId),
+                equal("spec.date", date),
+                equal("spec.appId", appId.toString())
+            )
+        ));
+        return tracer.span(SteamTracer.STORE, "findDailyRecord", client.listAll(DailyPlaytimeRecord.class, listOptions, null)
+            .next());
+    }
+
+    @Override
+    public Mono<Void> createDailyRecord(DailyPlaytimeRecord record) {
+        return tracer.span(SteamTracer.STORE, "createDailyRecord", client.create(record).then())
+            .doOnSuccess(v -> dailyVersion.incrementAndGet());
+    }
+
+    @Override
+    public Mono<Void> updateDailyRecord(DailyPlaytimeRecord record) {
+        return tracer.span(SteamTracer.STORE, "updateDailyRecord", client.update(record).then())
+            .doOnSuccess(v -> dailyVersion.incrementAndGet());
+    }
+
+    @Override
+    public Mono<ListResult<DailyPlaytimeRecord>> listDailyRecords(String steamId, String startDate,
+                                                                  String endDate, Long appId,
+                                                                  int page, int size) {
+        // 构建查询条件
+        var query = appId != null ?
+            and(
+                equal("spec.steamId", steamId),
+                greaterThanOrEqual("spec.date", startDate),
+                lessThanOrEqual("spec.date", endDate),
+                equal("spec.appId", appId.toString())
+            ) :
+            and(
+                equal("spec.steamId", steamId),
+                greaterThanOrEqual("spec.date", startDate),
+                lessThanOrEqual("spec.date", endDate)
+            );
+
+        var listOptions = new ListOptions();
+        listOptions.setFieldSelector(FieldSelector.of(query));
+
+        // 使用 Halo 的分页 API
+        var pageRequest = PageRequestImpl.of(page, size, Sort.by(Sort.Order.desc("spec.date")));
+
+        return tracer.span(SteamTracer.STORE, "listDailyRecords", client.listBy(DailyPlaytimeRecord.class, listOptions, pageRequest)
+            .map(listResult -> new ListResult<>(
+                listResult.getPage(),
+                listResult.getSize(),
+                listResult.getTotal(),
+                listResult.getItems()
+            )));
+    }
+
+    @Override
+    public Flux<DailyPlaytimeRecord> streamDailyRecords(String steamId, String startDate, String endDate,
+                                                        int pageSize) {
+        var listOptions = new ListOptions();
+        listOptions.setFieldSelector(FieldSelector.of(and(
+            equal("spec.steamId", steamId),
+            greaterThanOrEqual("spec.date", startDate),
+            lessThanOrEqual("spec.date", endDate)
+        )));
+        var sort = Sort.by(Sort.Order.asc("spec.date"), Sort.Order.asc("metadata.name"));
+        return pages(page -> tracer.span(SteamTracer.STORE, "streamDailyRecords",
+            client.listBy(DailyPlaytimeRecord.class, listOptions, PageRequestImpl.of(page, pageSize, sort))));
+    }
+
+    @Override
+    public Flux<PlaytimeSnapshot> streamSnapshots(String steamId, Instant from, Instant to, int pageSize) {
+        // 索引值是 Instant.toString()，秒以下为 0 时省略小数部分（10:00:05Z 与 10:00:05.5Z），
+        // 同一秒内的字符串顺序与时间顺序不一致。索引范围两端各放宽 1 秒，再按 Instant 精确过滤
+        var listOptions = new ListOptions();
+        listOptions.setFieldSelector(FieldSelector.of(and(
+            equal("spec.steamId", steamId),
+            greaterThanOrEqual("spec.snapshotTime", from.minusSeconds(1).toString()),
+            lessThan("spec.snapshotTime", to.plusSeconds(1).toString())
+        )));
+        var sort = Sort.by(Sort.Order.asc("spec.snapshotTime"), Sort.Order.asc("metadata.name"));
+        return pages(page -> tracer.span(SteamTracer.STORE, "streamSnapshots",
+            client.listBy(PlaytimeSnapshot.class, listOptions, PageRequestImpl.of(page, pageSize, sort))))
+            .filter(snapshot -> {
+                Instant time = snapshot.getSpec().getSnapshotTime();
+                return !time.isBefore(from) && time.isBefore(to);
+            });
+    }
+
+    /**
+     * 逐页读取：concatMap 只预取一页，下游消费完当前页才读取下一页，最后一页之后停止
+     */
+    private static <T> Flux<T> pages(IntFunction<Mono<ListResult<T>>> fetchPage) {
+        return Flux.range(1, Integer.MAX_VALUE)
+            .concatMap(fetchPage::apply, 1)
+            .takeUntil(result -> !result.hasNext() || result.getItems().isEmpty())
+            .concatMapIterable(ListResult::getItems);
+    }
+
+    @Override
+    public Flux<DailyPlaytimeRecord> listDailyRecordsBefore(String cutoffDate) {
+        var listOptions = new ListOptions();
+        listOptions.setFieldSelector(FieldSelector.of(lessThan("spec.date", cutoffDate)));
+        return tracer.span(SteamTracer.STORE, "listDailyRecordsBefore", client.listAll(DailyPlaytimeRecord.class, listOptions, null));
+    }
+
+    @Override
+    public Mono<Void> deleteDailyRecord(DailyPlaytimeRecord record) {
+        return tracer.span(SteamTracer.STORE, "deleteDailyRecord", client.delete(record).then())
+            .doOnSuccess(v -> dailyVersion.incrementAndGet());
+    }
+
+    @Override
+    public long dailyRecordsVersion() {
+        return dailyVersion.get();
+    }
+}
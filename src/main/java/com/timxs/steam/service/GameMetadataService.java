@@ -0,0 +1,30 @@
+package com.timxs.steam.service;
+
+import com.timxs.steam.model.GameMetadata;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * 游戏元数据服务
+ * 元数据保存为 {@link GameMetadata} 扩展，位于 Store API 之前：已保存的直接使用，缺失时才请求 Store
+ */
+public interface GameMetadataService {
+
+    /**
+     * 获取游戏元数据，未保存过时从 Store 获取并保存
+     * 已保存的元数据即使超过刷新间隔也直接返回，由后台任务刷新
+     *
+     * @return 元数据，Store 中不存在该游戏或获取失败时返回空
+     */
+    Mono<GameMetadata.GameMetadataSpec> getMetadata(Long appId);
+
+    /**
+     * 刷新超过指定时间未更新的元数据，按最后刷新时间从旧到新逐个进行
+     *
+     * @param maxAge 刷新间隔
+     * @param limit  本轮最多刷新的数量
+     * @return 成功刷新的数量
+     */
+    Mono<Integer> refreshStale(Duration maxAge, int limit);
+}
@@ -0,0 +1,106 @@
+package com.timxs.steam.service;
+
+import com.timxs.steam.client.RequestPriority;
+import com.timxs.steam.client.SteamApiClient;
+import com.timxs.steam.model.GameMetadata;
+import com.timxs.steam.trace.SteamTracer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import run.halo.app.extension.ListOptions;
+import run.halo.app.extension.ListResult;
+import run.halo.app.extension.Metadata;
+import run.halo.app.extension.PageRequestImpl;
+import run.halo.app.extension.ReactiveExtensionClient;
+import run.halo.app.extension.router.selector.FieldSelector;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static run.halo.app.extension.index.query.QueryFactory.lessThan;
+
+/**
+ * 基于 Halo Extension 的游戏元数据服务
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GameMetadataServiceImpl implements GameMetadataService {
+
+    /** 后台刷新时两次 Store 请求之间的间隔，避免触发 Store 的频率限制 */
+    private static final Duration REFRESH_PAUSE = Duration.ofSeconds(3);
+
+    private final ReactiveExtensionClient client;
+    private final SteamApiClient steamApiClient;
+    private final SteamTracer tracer;
+
+    /** 同一游戏并发缺失时只请求一次 Store */
+    private final ConcurrentHashMap<Long, Mono<GameMetadata.GameMetadataSpec>> inflight = new ConcurrentHashMap<>();
+
+    @Override
+    public Mono<GameMetadata.GameMetadataSpec> getMetadata(Long appId) {
+        return tracer.span(SteamTracer.STORE, "getGameMetadata",
+                client.fetch(GameMetadata.class, GameMetadata.nameOf(appId)))
+            .map(GameMetadata::getSpec)
+            .switchIfEmpty(Mono.defer(() -> inflight.computeIfAbsent(appId,
+                id -> fetchAndCreate(id)
+                    .doFinally(s -> inflight.remove(id))
+                    .cache())));
+    }
+
+    private Mono<GameMetadata.GameMetadataSpec> fetchAndCreate(Long appId) {
+        return steamApiClient.getGameMetadata(appId)
+            .flatMap(spec -> {
+                spec.setRefreshedAt(Instant.now());
+                GameMetadata metadata = new GameMetadata();
+                metadata.setMetadata(new Metadata());
+                metadata.getMetadata().setName(GameMetadata.nameOf(appId));
+                metadata.setSpec(spec);
+                return tracer.span(SteamTracer.STORE, "createGameMetadata", client.create(metadata))
+                    .map(GameMetadata::getSpec)
+                    .onErrorResume(e -> {
+                        // 其他实例或请求已先保存，本次获取的数据照常使用
+                        log.debug("保存游戏元数据失败: appId={}: {}", appId, e.getMessage());
+                        return Mono.just(spec);
+                    });
+            })
+            .onErrorResume(e -> Mono.empty());
+    }
+
+    @Override
+    public Mono<Integer> refreshStale(Duration maxAge, int limit) {
+        var listOptions = new ListOptions();
+        listOptions.setFieldSelector(FieldSelector.of(
+            lessThan("spec.refreshedAt", Instant.now().minus(maxAge).toString())
+        ));
+        var pageRequest = PageRequestImpl.of(1, limit, Sort.by(Sort.Order.asc("spec.refreshedAt")));
+        return client.listBy(GameMetadata.class, listOptions, pageRequest)
+            .flatMapIterable(ListResult::getItems)
+            .concatMap(metadata -> Mono.delay(REFRESH_PAUSE).then(refresh(metadata)))
+            .count()
+            .map(Long::intValue)
+            .contextWrite(RequestPriority.BACKGROUND.context());
+    }
+
+    /**
+     * 刷新一条元数据；游戏已从 Store 下架时保留原有数据，只更新刷新时间
+     */
+    private Mono<Boolean> refresh(GameMetadata metadata) {
+        Long appId = metadata.getSpec().getAppId();
+        return steamApiClient.getGameMetadata(appId)
+            .defaultIfEmpty(metadata.getSpec())
+            .flatMap(spec -> {
+                spec.setRefreshedAt(Instant.now());
+                metadata.setSpec(spec);
+                return tracer.span(SteamTracer.STORE, "updateGameMetadata", client.update(metadata));
+            })
+            .thenReturn(true)
+            .onErrorResume(e -> {
+                log.debug("刷新游戏元数据失败: appId={}: {}", appId, e.getMessage());
+                return Mono.empty();
+            });
+    }
+}
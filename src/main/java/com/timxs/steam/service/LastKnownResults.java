@@ -0,0 +1,71 @@
+package com.timxs.steam.service;
+
+import com.timxs.steam.model.SteamBundle.Section;
+import com.timxs.steam.model.SteamBundle.SectionStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 最近一次成功获取的结果
+ * 数据未能在截止时间内返回时，先给出上一次的结果；加载经 cache() 共享，等待方超时不会取消加载，
+ * 加载完成后写入业务缓存并更新这里保存的结果
+ */
+@Slf4j
+@Component
+public class LastKnownResults {
+
+    /** 最多保留的结果数（按数据类型与参数区分） */
+    private static final int MAX_ENTRIES = 256;
+
+    private final Map<String, Object> values = new ConcurrentHashMap<>();
+
+    /**
+     * 在截止时间内等待数据，超时或失败时退回上一次的结果
+     *
+     * @param key      数据类型与参数，如 games:1:20
+     * @param source   数据加载
+     * @param deadline 截止时间
+     */
+    public <T> Mono<Section<T>> await(String key, Mono<T> source, Duration deadline) {
+        Mono<T> shared = remembering(key, source).cache();
+        return shared
+                .map(value -> new Section<>(SectionStatus.OK, value, null))
+                .timeout(deadline)
+                .onErrorResume(e -> {
+                    String reason = e instanceof TimeoutException ? "timeout" : e.getMessage();
+                    if (!(e instanceof TimeoutException)) {
+                        log.warn("获取 {} 失败: {}", key, e.getMessage());
+                    }
+                    return Mono.just(this.<T>fallback(key, reason));
+                })
+                .switchIfEmpty(Mono.fromSupplier(() -> this.<T>fallback(key, "empty")));
+    }
+
+    /**
+     * 只记录结果，不限制等待时间
+     */
+    public <T> Mono<T> remembering(String key, Mono<T> source) {
+        return source.doOnNext(value -> remember(key, value));
+    }
+
+    private void remember(String key, Object value) {
+        if (values.size() >= MAX_ENTRIES && !values.containsKey(key)) {
+            values.clear();
+        }
+        values.put(key, value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Section<T> fallback(String key, String reason) {
+        T value = (T) values.get(key);
+        return value != null
+                ? new Section<>(SectionStatus.STALE, value, reason)
+                : new Section<>(SectionStatus.MISSING, null, reason);
+    }
+}
@@ -0,0 +1,65 @@
+package com.timxs.steam.service;
+
+import com.timxs.steam.model.DailyPlaytimeRecord;
+import com.timxs.steam.model.PlaytimeSnapshot;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import run.halo.app.extension.ListResult;
+
+import java.time.Instant;
+
+/**
+ * 游戏时长快照与每日记录的存储
+ */
+public interface PlaytimeStore {
+
+    /**
+     * 查找某款游戏最新的快照
+     */
+    Mono<PlaytimeSnapshot> findLatestSnapshot(String steamId, Long appId);
+
+    Mono<Void> createSnapshot(PlaytimeSnapshot snapshot);
+
+    Mono<Void> updateSnapshot(PlaytimeSnapshot snapshot);
+
+    /**
+     * 查找某款游戏某一天的记录
+     * @param date yyyy-MM-dd
+     */
+    Mono<DailyPlaytimeRecord> findDailyRecord(String steamId, String date, Long appId);
+
+    Mono<Void> createDailyRecord(DailyPlaytimeRecord record);
+
+    Mono<Void> updateDailyRecord(DailyPlaytimeRecord record);
+
+    /**
+     * 分页查询日期范围内的记录，按日期倒序
+     * @param appId 为 null 时查询所有游戏
+     */
+    Mono<ListResult<DailyPlaytimeRecord>> listDailyRecords(String steamId, String startDate, String endDate,
+                                                           Long appId, int page, int size);
+
+    /**
+     * 按日期升序逐页读取日期范围内的全部记录，下游请求更多数据时才读取下一页
+     * @param pageSize 每次从存储读取的数量
+     */
+    Flux<DailyPlaytimeRecord> streamDailyRecords(String steamId, String startDate, String endDate, int pageSize);
+
+    /**
+     * 按快照时间升序逐页读取 [from, to) 内的全部快照，下游请求更多数据时才读取下一页
+     * @param pageSize 每次从存储读取的数量
+     */
+    Flux<PlaytimeSnapshot> streamSnapshots(String steamId, Instant from, Instant to, int pageSize);
+
+    /**
+     * 列出早于指定日期的记录
+     */
+    Flux<DailyPlaytimeRecord> listDailyRecordsBefore(String cutoffDate);
+
+    Mono<Void> deleteDailyRecord(DailyPlaytimeRecord record);
+
+    /**
+     * 每日记录的数据版本，创建、更新或删除每日记录后递增
+     */
+    long dailyRecordsVersion();
+}
@@ -1,6 +1,8 @@
 package com.timxs.steam.service;
 
 import com.timxs.steam.model.DailyPlaytimeRecord;
+import com.timxs.steam.model.PlaytimeSnapshot;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import run.halo.app.extension.ListResult;
 
@@ -34,10 +36,31 @@ public interface PlaytimeTrackingService {
         int size
     );
 
+    /**
+     * 按日期升序流式读取日期范围内的全部每日记录，用于导出
+     *
+     * @param startDate 开始日期 (yyyy-MM-dd)
+     * @param endDate 结束日期 (yyyy-MM-dd)
+     */
+    Flux<DailyPlaytimeRecord> streamDailyRecords(String startDate, String endDate);
+
+    /**
+     * 按快照时间升序流式读取日期范围内（按服务器时区）的全部快照，用于导出
+     *
+     * @param startDate 开始日期 (yyyy-MM-dd)
+     * @param endDate 结束日期 (yyyy-MM-dd)
+     */
+    Flux<PlaytimeSnapshot> streamSnapshots(String startDate, String endDate);
+
     /**
      * 清理过期数据
      * 
      * @return 清理的记录数量
      */
     Mono<Integer> cleanupExpiredData();
+
+    /**
+     * 每日记录的数据版本，记录写入或删除后递增，用于生成 ETag
+     */
+    long getDataVersion();
 }
@@ -1,40 +1,55 @@
 package com.timxs.steam.service;
 
+import com.timxs.steam.client.RequestPriority;
 import com.timxs.steam.client.SteamApiClient;
 import com.timxs.steam.model.DailyPlaytimeRecord;
 import com.timxs.steam.model.OwnedGame;
 import com.timxs.steam.model.PlaytimeSnapshot;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import run.halo.app.extension.ListResult;
-import run.halo.app.extension.ReactiveExtensionClient;
-import run.halo.app.extension.router.selector.FieldSelector;
 
+import java.time.Clock;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 
-import static run.halo.app.extension.index.query.QueryFactory.*;
-
 /**
  * 游戏时长追踪服务实现
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class PlaytimeTrackingServiceImpl implements PlaytimeTrackingService {
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-    private static final ZoneId ZONE_ID = ZoneId.systemDefault();
 
-    private final ReactiveExtensionClient client;
+    /** 流式读取时每次从存储读取的数量 */
+    private static final int STREAM_PAGE_SIZE = 200;
+
+    private final PlaytimeStore store;
     private final SteamApiClient steamApiClient;
     private final SteamSettingService settingService;
+    /** 当前时间与时区来源，模拟测试中可替换为虚拟时钟 */
+    private final Clock clock;
+
+    @Autowired
+    public PlaytimeTrackingServiceImpl(PlaytimeStore store, SteamApiClient steamApiClient,
+                                       SteamSettingService settingService) {
+        this(store, steamApiClient, settingService, Clock.systemDefaultZone());
+    }
+
+    PlaytimeTrackingServiceImpl(PlaytimeStore store, SteamApiClient steamApiClient,
+                                SteamSettingService settingService, Clock clock) {
+        this.store = store;
+        this.steamApiClient = steamApiClient;
+        this.settingService = settingService;
+        this.clock = clock;
+    }
 
     @Override
     public Mono<Integer> trackAllGames() {
@@ -76,7 +91,9 @@ public class PlaytimeTrackingServiceImpl implements PlaytimeTrackingService {
             .onErrorResume(e -> {
                 log.warn("追踪游戏时长失败: {}", e.getMessage());
                 return Mono.error(e);  // 直接传递原始异常,不再包装
-            });
+            })
+            // 后台任务走低优先级通道，不占用访客请求的上游并发
+            .contextWrite(RequestPriority.BACKGROUND.context());
     }
 
     /**
@@ -92,7 +109,7 @@ public class PlaytimeTrackingServiceImpl implements PlaytimeTrackingService {
             return Mono.just(0);  // 返回 0 表示跳过
         }
 
-        return findLatestSnapshot(steamId, appId)
+        return store.findLatestSnapshot(steamId, appId)
             .flatMap(snapshot -> {
                 // 找到历史快照，计算差值
                 Integer lastPlaytime = snapshot.getSpec().getPlaytimeForever();
@@ -101,11 +118,11 @@ public class PlaytimeTrackingServiceImpl implements PlaytimeTrackingService {
                 if (delta > 0) {
                     // 有新增时长，创建每日记录
                     return createDailyRecords(steamId, game, delta, snapshot.getSpec().getSnapshotTime())
-                        .then(updateSnapshot(snapshot, currentPlaytime, Instant.now()))
+                        .then(updateSnapshot(snapshot, currentPlaytime, clock.instant()))
                         .thenReturn(1);  // 返回 1 表示处理成功
                 } else {
                     // 无变化，只更新快照时间
-                    return updateSnapshot(snapshot, currentPlaytime, Instant.now())
+                    return updateSnapshot(snapshot, currentPlaytime, clock.instant())
                         .thenReturn(1);  // 返回 1 表示处理成功
                 }
             })
@@ -117,27 +134,6 @@ public class PlaytimeTrackingServiceImpl implements PlaytimeTrackingService {
             }));
     }
 
-    /**
-     * 查找最新的快照
-     */
-    private Mono<PlaytimeSnapshot> findLatestSnapshot(String steamId, Long appId) {
-        var fieldSelector = FieldSelector.of(
-            and(
-                equal("spec.steamId", steamId),
-                equal("spec.appId", appId.toString())
-            )
-        );
-        
-        var listOptions = new run.halo.app.extension.ListOptions();
-        listOptions.setFieldSelector(fieldSelector);
-        
-        return client.listAll(PlaytimeSnapshot.class, listOptions, 
-                org.springframework.data.domain.Sort.by(
-                    org.springframework.data.domain.Sort.Order.desc("spec.snapshotTime")
-                ))
-            .next();
-    }
-
     /**
      * 创建初始快照
      */
@@ -154,10 +150,10 @@ public class PlaytimeTrackingServiceImpl implements PlaytimeTrackingService {
         spec.setAppId(game.getAppId());
         spec.setGameName(game.getName());
         spec.setPlaytimeForever(game.getPlaytimeForever());
-        spec.setSnapshotTime(Instant.now());
+        spec.setSnapshotTime(clock.instant());
         snapshot.setSpec(spec);
         
-        return client.create(snapshot).then();
+        return store.createSnapshot(snapshot);
     }
 
     /**
@@ -166,16 +162,17 @@ public class PlaytimeTrackingServiceImpl implements PlaytimeTrackingService {
     private Mono<Void> updateSnapshot(PlaytimeSnapshot snapshot, Integer newPlaytime, Instant newTime) {
         snapshot.getSpec().setPlaytimeForever(newPlaytime);
         snapshot.getSpec().setSnapshotTime(newTime);
-        return client.update(snapshot).then();
+        return store.updateSnapshot(snapshot);
     }
 
     /**
      * 创建每日记录（处理跨天情况）
      */
     private Mono<Void> createDailyRecords(String steamId, OwnedGame game, int deltaMinutes, Instant lastSnapshotTime) {
-        Instant now = Instant.now();
-        LocalDate lastDate = LocalDate.ofInstant(lastSnapshotTime, ZONE_ID);
-        LocalDate currentDate = LocalDate.ofInstant(now, ZONE_ID);
+        Instant now = clock.instant();
+        ZoneId zone = clock.getZone();
+        LocalDate lastDate = LocalDate.ofInstant(lastSnapshotTime, zone);
+        LocalDate currentDate = LocalDate.ofInstant(now, zone);
         
         if (lastDate.equals(currentDate)) {
             // 同一天，直接创建记录
@@ -211,17 +208,42 @@ public class PlaytimeTrackingServiceImpl implements PlaytimeTrackingService {
             return Mono.empty();
         }
 
+        // 3. 按覆盖比例分配到每一天
         List<Mono<Void>> saveTasks = new java.util.ArrayList<>();
+        for (DayAllocation allocation : allocateAcrossDays(totalMinutes, startTime, endTime, startDate, endDate,
+                clock.getZone())) {
+            saveTasks.add(createOrUpdateDailyRecord(
+                steamId,
+                game,
+                allocation.date(),
+                allocation.minutes(),
+                allocation.start(),
+                allocation.end()
+            ));
+        }
+
+        // 4. 串行执行所有保存操作，避免数据库并发压力
+        return Flux.concat(saveTasks).then();
+    }
+
+    /**
+     * 按每天与时间窗口的重叠比例分配时长（纯计算，不访问存储）
+     * 最后一天取剩余时长，保证各天之和等于 totalMinutes；只返回分配到时长的天
+     */
+    static List<DayAllocation> allocateAcrossDays(int totalMinutes, Instant startTime, Instant endTime,
+                                                  LocalDate startDate, LocalDate endDate, ZoneId zone) {
+        long totalWindowSeconds = java.time.Duration.between(startTime, endTime).getSeconds();
+        List<DayAllocation> allocations = new java.util.ArrayList<>();
         int allocatedMinutes = 0; // 记录已分配的分钟数，用于最后一天兜底
 
-        // 3. 遍历从开始日期到结束日期的每一天
+        // 遍历从开始日期到结束日期的每一天
         LocalDate currentDate = startDate;
         while (!currentDate.isAfter(endDate)) {
             // 计算当前天 00:00 和 24:00 的 Instant
-            Instant dayStart = currentDate.atStartOfDay(ZONE_ID).toInstant();
-            Instant nextDayStart = currentDate.plusDays(1).atStartOfDay(ZONE_ID).toInstant();
+            Instant dayStart = currentDate.atStartOfDay(zone).toInstant();
+            Instant nextDayStart = currentDate.plusDays(1).atStartOfDay(zone).toInstant();
 
-            // 4. 计算当前天与总时间窗口的 [交集] 时长
+            // 计算当前天与总时间窗口的 [交集] 时长
             // 交集开始时间 = max(总窗口开始, 当天开始)
             Instant overlapStart = (dayStart.isBefore(startTime)) ? startTime : dayStart;
             // 交集结束时间 = min(总窗口结束, 当天结束)
@@ -233,7 +255,6 @@ public class PlaytimeTrackingServiceImpl implements PlaytimeTrackingService {
             if (overlapSeconds > 0) {
                 int minutesForCurrentDay;
 
-                // 5. 分配时长
                 if (currentDate.equals(endDate)) {
                     // 【关键步骤】最后一天：使用剩余的所有时长，确保总和守恒
                     minutesForCurrentDay = totalMinutes - allocatedMinutes;
@@ -247,25 +268,21 @@ public class PlaytimeTrackingServiceImpl implements PlaytimeTrackingService {
                     allocatedMinutes += minutesForCurrentDay;
                 }
 
-                // 6. 记录任务
                 if (minutesForCurrentDay > 0) {
-                    saveTasks.add(createOrUpdateDailyRecord(
-                        steamId,
-                        game,
-                        currentDate,
-                        minutesForCurrentDay,
-                        overlapStart,
-                        overlapEnd
-                    ));
+                    allocations.add(new DayAllocation(currentDate, minutesForCurrentDay, overlapStart, overlapEnd));
                 }
             }
 
             // 移动到下一天
             currentDate = currentDate.plusDays(1);
         }
+        return allocations;
+    }
 
-        // 7. 串行执行所有保存操作，避免数据库并发压力
-        return Flux.concat(saveTasks).then();
+    /**
+     * 单日时长分配结果
+     */
+    record DayAllocation(LocalDate date, int minutes, Instant start, Instant end) {
     }
 
     /**
@@ -280,26 +297,14 @@ public class PlaytimeTrackingServiceImpl implements PlaytimeTrackingService {
         String dateStr = date.format(DATE_FORMATTER);
         
         // 查找是否已存在该日期该游戏的记录
-        var fieldSelector = FieldSelector.of(
-            and(
-                equal("spec.steamId", steamId),
-                equal("spec.date", dateStr),
-                equal("spec.appId", game.getAppId().toString())
-            )
-        );
-        
-        var listOptions = new run.halo.app.extension.ListOptions();
-        listOptions.setFieldSelector(fieldSelector);
-        
-        return client.listAll(DailyPlaytimeRecord.class, listOptions, null)
-            .next()
+        return store.findDailyRecord(steamId, dateStr, game.getAppId())
             .flatMap(existing -> {
                 // 已存在，累加时长
                 existing.getSpec().setPlaytimeMinutes(
                     existing.getSpec().getPlaytimeMinutes() + minutes
                 );
                 existing.getSpec().setEndTime(endTime);
-                return client.update(existing);
+                return store.updateDailyRecord(existing).thenReturn(existing);
             })
             .switchIfEmpty(Mono.defer(() -> {
                 // 不存在，创建新记录
@@ -318,7 +323,7 @@ public class PlaytimeTrackingServiceImpl implements PlaytimeTrackingService {
                 spec.setEndTime(endTime);
                 record.setSpec(spec);
                 
-                return client.create(record);
+                return store.createDailyRecord(record).thenReturn(record);
             }))
             .then();
     }
@@ -327,44 +332,21 @@ public class PlaytimeTrackingServiceImpl implements PlaytimeTrackingService {
     public Mono<ListResult<DailyPlaytimeRecord>> queryDailyRecords(String startDate, String endDate,
                                                                     Long appId, int page, int size) {
         return settingService.getConfig()
-            .flatMap(config -> {
-                String steamId = config.getSteamId();
-                
-                // 构建查询条件
-                var query = appId != null ?
-                    and(
-                        equal("spec.steamId", steamId),
-                        greaterThanOrEqual("spec.date", startDate),
-                        lessThanOrEqual("spec.date", endDate),
-                        equal("spec.appId", appId.toString())
-                    ) :
-                    and(
-                        equal("spec.steamId", steamId),
-                        greaterThanOrEqual("spec.date", startDate),
-                        lessThanOrEqual("spec.date", endDate)
-                    );
-                
-                var fieldSelector = FieldSelector.of(query);
-                var listOptions = new run.halo.app.extension.ListOptions();
-                listOptions.setFieldSelector(fieldSelector);
-                
-                // 使用 Halo 的分页 API
-                var pageRequest = run.halo.app.extension.PageRequestImpl.of(
-                    page, 
-                    size,
-                    org.springframework.data.domain.Sort.by(
-                        org.springframework.data.domain.Sort.Order.desc("spec.date")
-                    )
-                );
-                
-                return client.listBy(DailyPlaytimeRecord.class, listOptions, pageRequest)
-                    .map(listResult -> new ListResult<>(
-                        listResult.getPage(),
-                        listResult.getSize(),
-                        listResult.getTotal(),
-                        listResult.getItems()
-                    ));
-            });
+            .flatMap(config -> store.listDailyRecords(config.getSteamId(), startDate, endDate, appId, page, size));
+    }
+
+    @Override
+    public Flux<DailyPlaytimeRecord> streamDailyRecords(String startDate, String endDate) {
+        return settingService.getConfig()
+            .flatMapMany(config -> store.streamDailyRecords(config.getSteamId(), startDate, endDate, STREAM_PAGE_SIZE));
+    }
+
+    @Override
+    public Flux<PlaytimeSnapshot> streamSnapshots(String startDate, String endDate) {
+        Instant from = LocalDate.parse(startDate, DATE_FORMATTER).atStartOfDay(clock.getZone()).toInstant();
+        Instant to = LocalDate.parse(endDate, DATE_FORMATTER).plusDays(1).atStartOfDay(clock.getZone()).toInstant();
+        return settingService.getConfig()
+            .flatMapMany(config -> store.streamSnapshots(config.getSteamId(), from, to, STREAM_PAGE_SIZE));
     }
 
     @Override
@@ -372,20 +354,13 @@ public class PlaytimeTrackingServiceImpl implements PlaytimeTrackingService {
         return settingService.getHeatmapRetentionDays()
             .defaultIfEmpty(365)
             .flatMap(retentionDays -> {
-                LocalDate cutoffDate = LocalDate.now().minusDays(retentionDays);
+                LocalDate cutoffDate = LocalDate.now(clock).minusDays(retentionDays);
                 String cutoffDateStr = cutoffDate.format(DATE_FORMATTER);
                 
                 log.debug("清理过期数据: cutoffDate={}, retentionDays={}", cutoffDateStr, retentionDays);
                 
-                var fieldSelector = FieldSelector.of(
-                    lessThan("spec.date", cutoffDateStr)
-                );
-                
-                var listOptions = new run.halo.app.extension.ListOptions();
-                listOptions.setFieldSelector(fieldSelector);
-                
-                return client.listAll(DailyPlaytimeRecord.class, listOptions, null)
-                    .flatMap(record -> client.delete(record)
+                return store.listDailyRecordsBefore(cutoffDateStr)
+                    .flatMap(record -> store.deleteDailyRecord(record)
                         .onErrorResume(e -> {
                             log.warn("删除记录失败: name={}, error={}", 
                                 record.getMetadata().getName(), e.getMessage());
@@ -408,4 +383,9 @@ public class PlaytimeTrackingServiceImpl implements PlaytimeTrackingService {
                 return Mono.just(0);
             });
     }
+
+    @Override
+    public long getDataVersion() {
+        return store.dailyRecordsVersion();
+    }
 }
@@ -0,0 +1,25 @@
+package com.timxs.steam.service;
+
+import com.timxs.steam.model.SteamBundle;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * 页面数据聚合服务
+ */
+public interface SteamBundleService {
+
+    /**
+     * 并行获取页面所需的全部数据
+     * 所有部分共享一个截止时间，未按时完成的部分返回上一次的数据或 null，并在状态中标注；
+     * 未完成的加载继续在后台执行并写入缓存
+     *
+     * @param recentLimit 最近游玩数量
+     * @param gamesPage   游戏库页码
+     * @param gamesSize   游戏库每页数量
+     * @param heatmapDays 热力图天数，小于等于 0 时使用配置值
+     * @param deadline    截止时间
+     */
+    Mono<SteamBundle> getBundle(int recentLimit, int gamesPage, int gamesSize, int heatmapDays, Duration deadline);
+}
@@ -0,0 +1,87 @@
+package com.timxs.steam.service;
+
+import com.timxs.steam.model.DailyPlaytimeRecord;
+import com.timxs.steam.model.SteamBundle;
+import com.timxs.steam.model.SteamBundle.Section;
+import com.timxs.steam.model.SteamBundle.SectionStatus;
+import com.timxs.steam.trace.SteamTracer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import run.halo.app.extension.ListResult;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * 页面数据聚合服务实现
+ * 截止时间到达后不再等待，但加载本身不会被取消，完成后写入业务缓存并更新上一次结果，见 {@link LastKnownResults}
+ */
+@Service
+@RequiredArgsConstructor
+public class SteamBundleServiceImpl implements SteamBundleService {
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    /** 热力图最多返回的记录数 */
+    private static final int MAX_HEATMAP_RECORDS = 5000;
+
+    private final SteamService steamService;
+    private final PlaytimeTrackingService trackingService;
+    private final SteamSettingService settingService;
+    private final SteamTracer tracer;
+    private final LastKnownResults lastKnown;
+
+    @Override
+    public Mono<SteamBundle> getBundle(int recentLimit, int gamesPage, int gamesSize, int heatmapDays,
+                                       Duration deadline) {
+        return tracer.span(SteamTracer.SERVICE, "getBundle", Mono.defer(() -> {
+            long start = System.nanoTime();
+            return Mono.zip(
+                    section("profile", steamService.getProfile(), deadline),
+                    section("stats", steamService.getFullStats(), deadline),
+                    section("recent:" + recentLimit, steamService.getRecentGames(recentLimit), deadline),
+                    section("badges", steamService.getBadges(), deadline),
+                    section("games:" + gamesPage + ":" + gamesSize,
+                            steamService.getOwnedGames(gamesPage, gamesSize, "playtime_forever"), deadline),
+                    heatmapSection(heatmapDays, deadline)
+            ).map(tuple -> {
+                SteamBundle bundle = new SteamBundle();
+                bundle.setProfile(tuple.getT1());
+                bundle.setStats(tuple.getT2());
+                bundle.setRecent(tuple.getT3());
+                bundle.setBadges(tuple.getT4());
+                bundle.setGames(tuple.getT5());
+                bundle.setHeatmap(tuple.getT6());
+                bundle.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+                return bundle;
+            });
+        }));
+    }
+
+    private Mono<Section<List<DailyPlaytimeRecord>>> heatmapSection(int days, Duration deadline) {
+        return Mono.zip(
+                settingService.isHeatmapEnabled(),
+                settingService.isShowHeatmap(),
+                settingService.getHeatmapDisplayDays()
+        ).flatMap(tuple -> {
+            if (!tuple.getT1() || !tuple.getT2()) {
+                return Mono.just(new Section<List<DailyPlaytimeRecord>>(SectionStatus.DISABLED, null, null));
+            }
+            int actualDays = days > 0 ? Math.min(days, 366) : tuple.getT3();
+            LocalDate endDate = LocalDate.now();
+            LocalDate startDate = endDate.minusDays(actualDays - 1L);
+            return section("heatmap:" + actualDays,
+                    trackingService.queryDailyRecords(startDate.format(DATE_FORMATTER), endDate.format(DATE_FORMATTER),
+                                    null, 1, MAX_HEATMAP_RECORDS)
+                            .map(ListResult::getItems),
+                    deadline);
+        });
+    }
+
+    private <T> Mono<Section<T>> section(String key, Mono<T> source, Duration deadline) {
+        return lastKnown.await(key, source, deadline);
+    }
+}
@@ -1,5 +1,7 @@
 package com.timxs.steam.service;
 
+import com.timxs.steam.library.LibraryPage;
+import com.timxs.steam.library.LibraryQuery;
 import com.timxs.steam.model.AchievementProgress;
 import com.timxs.steam.model.BadgeInfo;
 import com.timxs.steam.model.GameDetail;
@@ -12,6 +14,7 @@ import reactor.core.publisher.Mono;
 import run.halo.app.extension.ListResult;
 
 import java.util.List;
+import java.util.Set;
 
 /**
  * Steam 业务服务接口
@@ -31,6 +34,25 @@ public interface SteamService {
      */
     Mono<ListResult<OwnedGame>> getOwnedGames(int page, int size, String sortBy);
 
+    /**
+     * 按条件查询游戏库（过滤、多键排序、游标分页）
+     * @param query 查询条件，不会被修改；公开查询由调用方把 visibility 设为 VISIBLE
+     * @param publicView 是否为公开查询：只在游戏库总数量限制内查询
+     */
+    Mono<LibraryPage> queryLibrary(LibraryQuery query, boolean publicView);
+
+    /**
+     * 按名称搜索游戏库（不返回隐藏的游戏，只在游戏库总数量限制内搜索）
+     * @param keyword 搜索词，容忍个别错字，支持中文
+     * @param limit 最多返回数量
+     */
+    Mono<List<OwnedGame>> searchGames(String keyword, int limit);
+
+    /**
+     * 获取拥有的全部游戏 ID（包括隐藏的游戏，供后台使用）
+     */
+    Mono<Set<Long>> getOwnedAppIds();
+
     /**
      * 获取最近游玩的游戏
      * @param limit 返回数量限制
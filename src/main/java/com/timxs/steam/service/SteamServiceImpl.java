@@ -1,18 +1,25 @@
 package com.timxs.steam.service;
 
+import com.timxs.steam.cache.CacheKeys;
 import com.timxs.steam.cache.CacheService;
 import com.timxs.steam.client.SteamApiClient;
+import com.timxs.steam.library.LibraryColumns;
+import com.timxs.steam.library.LibraryIndex;
+import com.timxs.steam.library.LibraryPage;
+import com.timxs.steam.library.LibraryQuery;
 import com.timxs.steam.model.*;
+import com.timxs.steam.trace.SteamTracer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 import run.halo.app.extension.ListResult;
 
-import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -23,38 +30,40 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class SteamServiceImpl implements SteamService {
 
-    private static final String CACHE_KEY_PROFILE = "steam:profile";
-    private static final String CACHE_KEY_GAMES = "steam:games";
-    private static final String CACHE_KEY_RECENT = "steam:recent";
-    private static final String CACHE_KEY_BADGES = "steam:badges";
-    private static final String CACHE_KEY_GAME_DETAIL_PREFIX = "steam:game-detail:";
+    /** 游戏详情中元数据和本地化文本的缓存时间（分钟），二者很少变化；价格与成就使用全局缓存时间 */
+    private static final int PART_TTL_MINUTES = 24 * 60;
 
     private final SteamApiClient steamApiClient;
     private final CacheService cacheService;
     private final SteamSettingService settingService;
+    private final SteamTracer tracer;
+    private final GameMetadataService metadataService;
     
     // Singleflight: 防止并发请求重复调用 Steam API
     private final ConcurrentHashMap<String, Mono<?>> inflightRequests = new ConcurrentHashMap<>();
 
+    // 游戏库索引：缓存中的游戏列表变化（刷新）后重建
+    private volatile LibraryIndex libraryIndex = LibraryIndex.build(LibraryColumns.empty());
+
     @Override
     public Mono<SteamProfile> getProfile() {
-        return settingService.getConfig()
+        return tracer.span(SteamTracer.SERVICE, "getProfile", settingService.getConfig()
                 .flatMap(config -> {
                     int ttl = config.getCacheTtlMinutes() != null ? config.getCacheTtlMinutes() : 10;
                     String steamId = config.getSteamId();
 
                     // 尝试从缓存获取
-                    return cacheService.get(CACHE_KEY_PROFILE, SteamProfile.class)
+                    return cacheService.get(CacheKeys.PROFILE, SteamProfile.class)
                             .switchIfEmpty(fetchAndCacheProfile(steamId, ttl))
                             .onErrorResume(e -> {
                                 log.warn("获取资料失败，尝试返回缓存数据", e);
-                                return cacheService.getStale(CACHE_KEY_PROFILE, SteamProfile.class);
+                                return cacheService.getStale(CacheKeys.PROFILE, SteamProfile.class);
                             });
-                });
+                }));
     }
 
     private Mono<SteamProfile> fetchAndCacheProfile(String steamId, int ttl) {
-        return singleflight(CACHE_KEY_PROFILE, Mono.defer(() -> {
+        return singleflight(CacheKeys.PROFILE, Mono.defer(() -> {
             log.debug("从 Steam API 获取用户资料: steamId={}", steamId);
             return Mono.zip(
                     steamApiClient.getPlayerSummary(steamId),
@@ -66,7 +75,7 @@ public class SteamServiceImpl implements SteamService {
                 log.debug("用户资料获取成功: {}", profile.getSummary().getPersonaName());
                 return profile;
             }).flatMap(profile ->
-                    cacheService.put(CACHE_KEY_PROFILE, profile, ttl)
+                    cacheService.put(CacheKeys.PROFILE, profile, ttl)
                             .thenReturn(profile)
             );
         }));
@@ -74,22 +83,28 @@ public class SteamServiceImpl implements SteamService {
     
     /**
      * Singleflight: 对同一个 key 的并发请求只执行一次，其他请求共享结果
+     * 上游调用的 span 挂在首个请求下，跟随的请求只记录等待耗时（joined=true）
      */
     @SuppressWarnings("unchecked")
     private <T> Mono<T> singleflight(String key, Mono<T> fetcher) {
-        return Mono.defer(() -> {
+        return tracer.span(SteamTracer.SERVICE, "singleflight", span -> Mono.defer(() -> {
+            boolean[] leader = {false};
             Mono<T> cached = (Mono<T>) inflightRequests.computeIfAbsent(key,
-                    k -> fetcher
-                            .doFinally(s -> inflightRequests.remove(k))
-                            .cache()
+                    k -> {
+                        leader[0] = true;
+                        return fetcher
+                                .doFinally(s -> inflightRequests.remove(k))
+                                .cache();
+                    }
             );
+            span.tag("key", key).tag("joined", !leader[0]);
             return cached;
-        });
+        }));
     }
 
     @Override
     public Mono<ListResult<OwnedGame>> getOwnedGames(int page, int size, String sortBy) {
-        return Mono.zip(
+        return tracer.span(SteamTracer.SERVICE, "getOwnedGames", Mono.zip(
                 settingService.getConfig(),
                 settingService.getGamesLimit(),
                 settingService.getHeaderImageTemplate(),
@@ -104,27 +119,105 @@ public class SteamServiceImpl implements SteamService {
             int ttl = config.getCacheTtlMinutes() != null ? config.getCacheTtlMinutes() : 10;
             String steamId = config.getSteamId();
 
-            return cacheService.get(CACHE_KEY_GAMES, GamesList.class)
+            return cacheService.get(CacheKeys.GAMES, GamesList.class)
                     .switchIfEmpty(fetchAndCacheGames(steamId, ttl))
-                    .map(gamesList -> {
-                        // 为每个游戏设置 URL 模板
-                        applyTemplates(gamesList.getGames(), headerTemplate, iconTemplate);
-                        // 过滤隐藏的游戏
-                        List<OwnedGame> filteredGames = filterHiddenGames(gamesList.getGames(), hiddenGameIds);
-                        return paginateAndSort(filteredGames, page, size, sortBy, gamesLimit);
-                    })
+                    .map(gamesList -> pageOf(gamesList, page, size, sortBy, hiddenGameIds, gamesLimit,
+                            headerTemplate, iconTemplate))
                     .onErrorResume(e -> {
                         log.warn("获取游戏库失败，尝试返回缓存数据", e);
-                        return cacheService.getStale(CACHE_KEY_GAMES, GamesList.class)
-                                .map(gamesList -> {
-                                    applyTemplates(gamesList.getGames(), headerTemplate, iconTemplate);
-                                    List<OwnedGame> filteredGames = filterHiddenGames(gamesList.getGames(), hiddenGameIds);
-                                    return paginateAndSort(filteredGames, page, size, sortBy, gamesLimit);
-                                });
+                        return cacheService.getStale(CacheKeys.GAMES, GamesList.class)
+                                .map(gamesList -> pageOf(gamesList, page, size, sortBy, hiddenGameIds, gamesLimit,
+                                        headerTemplate, iconTemplate));
                     });
-        });
+        }));
+    }
+
+    /**
+     * 在游戏库索引上排序分页，只为当前页生成游戏对象并设置 URL 模板
+     */
+    private ListResult<OwnedGame> pageOf(GamesList gamesList, int page, int size, String sortBy,
+                                         Set<Long> hiddenGameIds, int gamesLimit,
+                                         String headerTemplate, String iconTemplate) {
+        LibraryPage result = libraryIndexOf(gamesList.getColumns())
+                .page(sortBy, page, size, hiddenGameIds, gamesLimit);
+        applyTemplates(result.getItems(), headerTemplate, iconTemplate);
+        return new ListResult<>(page, size, result.getTotal(), result.getItems());
     }
     
+    @Override
+    public Mono<LibraryPage> queryLibrary(LibraryQuery query, boolean publicView) {
+        return tracer.span(SteamTracer.SERVICE, "queryLibrary", withLibraryIndex((index, hiddenGameIds, gamesLimit) ->
+                index.query(query, hiddenGameIds, publicView ? gamesLimit : 0), LibraryPage::getItems));
+    }
+
+    @Override
+    public Mono<List<OwnedGame>> searchGames(String keyword, int limit) {
+        if (keyword == null || keyword.isBlank()) {
+            return Mono.just(List.of());
+        }
+        return tracer.span(SteamTracer.SERVICE, "searchGames", withLibraryIndex((index, hiddenGameIds, gamesLimit) ->
+                index.search(keyword, limit, hiddenGameIds, gamesLimit), games -> games));
+    }
+
+    @Override
+    public Mono<Set<Long>> getOwnedAppIds() {
+        return withLibraryIndex((index, hiddenGameIds, gamesLimit) -> index.appIdSet(), appIds -> List.of());
+    }
+
+    /**
+     * 在游戏库索引上执行操作，游戏库获取失败时使用过期缓存
+     *
+     * @param itemsOf 结果中需要设置 URL 模板的游戏
+     */
+    private <T> Mono<T> withLibraryIndex(LibraryOperation<T> operation,
+                                         Function<T, List<? extends OwnedGame>> itemsOf) {
+        return Mono.zip(
+                settingService.getConfig(),
+                settingService.getGamesLimit(),
+                settingService.getHeaderImageTemplate(),
+                settingService.getIconImageTemplate(),
+                settingService.getHiddenGameIds()
+        ).flatMap(tuple -> {
+            var config = tuple.getT1();
+            int gamesLimit = tuple.getT2();
+            String headerTemplate = tuple.getT3();
+            String iconTemplate = tuple.getT4();
+            var hiddenGameIds = tuple.getT5();
+            int ttl = config.getCacheTtlMinutes() != null ? config.getCacheTtlMinutes() : 10;
+
+            return cacheService.get(CacheKeys.GAMES, GamesList.class)
+                    .switchIfEmpty(fetchAndCacheGames(config.getSteamId(), ttl))
+                    .onErrorResume(e -> {
+                        log.warn("获取游戏库失败，尝试使用缓存数据查询", e);
+                        return cacheService.getStale(CacheKeys.GAMES, GamesList.class);
+                    })
+                    .map(gamesList -> {
+                        T result = operation.apply(libraryIndexOf(gamesList.getColumns()), hiddenGameIds, gamesLimit);
+                        applyTemplates(itemsOf.apply(result), headerTemplate, iconTemplate);
+                        return result;
+                    });
+        });
+    }
+
+    @FunctionalInterface
+    private interface LibraryOperation<T> {
+        T apply(LibraryIndex index, Set<Long> hiddenGameIds, int gamesLimit);
+    }
+
+    /**
+     * 获取游戏库对应的索引，游戏库已刷新时重建
+     */
+    private LibraryIndex libraryIndexOf(LibraryColumns columns) {
+        LibraryIndex index = libraryIndex;
+        if (!index.isBuiltFrom(columns)) {
+            long start = System.nanoTime();
+            index = LibraryIndex.build(columns);
+            libraryIndex = index;
+            log.debug("游戏库索引已重建: {} 款游戏，耗时 {}ms", index.size(), (System.nanoTime() - start) / 1_000_000);
+        }
+        return index;
+    }
+
     /**
      * 为游戏列表设置 URL 模板
      */
@@ -138,83 +231,24 @@ public class SteamServiceImpl implements SteamService {
     }
 
     private Mono<GamesList> fetchAndCacheGames(String steamId, int ttl) {
-        return singleflight(CACHE_KEY_GAMES, Mono.defer(() -> {
+        return singleflight(CacheKeys.GAMES, Mono.defer(() -> {
             log.debug("从 Steam API 获取游戏库: steamId={}", steamId);
             return settingService.isIncludeFreeGames()
                     .flatMap(includeFreeGames -> steamApiClient.getOwnedGames(steamId, true, includeFreeGames))
                     .map(games -> {
-                        log.debug("游戏库获取成功: {} 款游戏", games.size());
+                        LibraryColumns columns = LibraryColumns.of(games);
+                        log.debug("游戏库获取成功: {} 款游戏，列存储约 {} KB", columns.size(), columns.estimatedBytes() / 1024);
                         GamesList gamesList = new GamesList();
-                        gamesList.setGames(games);
+                        gamesList.setColumns(columns);
                         return gamesList;
                     })
                     .flatMap(gamesList ->
-                            cacheService.put(CACHE_KEY_GAMES, gamesList, ttl)
+                            cacheService.put(CacheKeys.GAMES, gamesList, ttl)
                                     .thenReturn(gamesList)
                     );
         }));
     }
 
-    private ListResult<OwnedGame> paginateAndSort(List<OwnedGame> allGames, int page, int size, String sortBy, int gamesLimit) {
-        // 排序
-        List<OwnedGame> sortedGames = sortGames(allGames, sortBy);
-        
-        // 应用 gamesLimit 限制（0 表示不限制）
-        if (gamesLimit > 0 && sortedGames.size() > gamesLimit) {
-            sortedGames = sortedGames.subList(0, gamesLimit);
-        }
-
-        // 分页
-        int totalCount = sortedGames.size();
-        int fromIndex = (page - 1) * size;
-        int toIndex = Math.min(fromIndex + size, totalCount);
-
-        List<OwnedGame> pagedList;
-        if (fromIndex >= totalCount) {
-            pagedList = List.of();
-        } else {
-            pagedList = sortedGames.subList(fromIndex, toIndex);
-        }
-
-        return new ListResult<>(page, size, totalCount, pagedList);
-    }
-
-    private List<OwnedGame> sortGames(List<OwnedGame> games, String sortBy) {
-        if (games == null || games.isEmpty()) {
-            return List.of();
-        }
-
-        Comparator<OwnedGame> comparator;
-        if ("name".equalsIgnoreCase(sortBy)) {
-            comparator = Comparator.comparing(
-                    OwnedGame::getName,
-                    Comparator.nullsLast(String::compareToIgnoreCase)
-            );
-        } else {
-            // 默认按游玩时长降序
-            comparator = Comparator.comparing(
-                    OwnedGame::getPlaytimeForever,
-                    Comparator.nullsLast(Comparator.reverseOrder())
-            );
-        }
-
-        return games.stream()
-                .sorted(comparator)
-                .collect(Collectors.toList());
-    }
-
-    /**
-     * 过滤隐藏的游戏
-     */
-    private List<OwnedGame> filterHiddenGames(List<OwnedGame> games, Set<Long> hiddenGameIds) {
-        if (games == null || games.isEmpty() || hiddenGameIds == null || hiddenGameIds.isEmpty()) {
-            return games != null ? games : List.of();
-        }
-        return games.stream()
-                .filter(game -> game.getAppId() == null || !hiddenGameIds.contains(game.getAppId()))
-                .collect(Collectors.toList());
-    }
-
     /**
      * 过滤隐藏的最近游玩游戏
      */
@@ -229,7 +263,7 @@ public class SteamServiceImpl implements SteamService {
 
     @Override
     public Mono<List<RecentGame>> getRecentGames(int limit) {
-        return Mono.zip(
+        return tracer.span(SteamTracer.SERVICE, "getRecentGames", Mono.zip(
                 settingService.getConfig(),
                 settingService.getRecentGamesLimit(),
                 settingService.getHeaderImageTemplate(),
@@ -247,7 +281,7 @@ public class SteamServiceImpl implements SteamService {
             String steamId = config.getSteamId();
             int actualLimit = limit > 0 ? limit : configLimit;
 
-            return cacheService.get(CACHE_KEY_RECENT, RecentGamesList.class)
+            return cacheService.get(CacheKeys.RECENT, RecentGamesList.class)
                     .map(RecentGamesList::getGames)
                     .switchIfEmpty(fetchAndCacheRecentGames(steamId, ttl))
                     .map(games -> {
@@ -266,7 +300,7 @@ public class SteamServiceImpl implements SteamService {
                     })
                     .onErrorResume(e -> {
                         log.warn("获取最近游玩失败，尝试返回缓存数据", e);
-                        return cacheService.getStale(CACHE_KEY_RECENT, RecentGamesList.class)
+                        return cacheService.getStale(CacheKeys.RECENT, RecentGamesList.class)
                                 .map(RecentGamesList::getGames)
                                 .map(games -> {
                                     applyTemplates(games, headerTemplate, iconTemplate);
@@ -274,7 +308,7 @@ public class SteamServiceImpl implements SteamService {
                                     return filteredGames.stream().limit(actualLimit).collect(Collectors.toList());
                                 });
                     });
-        });
+        }));
     }
 
     /**
@@ -286,6 +320,8 @@ public class SteamServiceImpl implements SteamService {
         }
         
         log.debug("开始获取 {} 款游戏的成就进度", games.size());
+        // 访客正在等待成就数据，沿用调用方优先级（默认访客通道），
+        // 不降到并发较低的预取通道，否则 20 款游戏会被拆成多批排队
         List<Mono<RecentGame>> enrichedGames = games.stream()
                 .map(game -> steamApiClient.getPlayerAchievements(steamId, game.getAppId())
                         .map(progress -> {
@@ -314,7 +350,7 @@ public class SteamServiceImpl implements SteamService {
     }
 
     private Mono<List<RecentGame>> fetchAndCacheRecentGames(String steamId, int ttl) {
-        return singleflight(CACHE_KEY_RECENT, Mono.defer(() -> {
+        return singleflight(CacheKeys.RECENT, Mono.defer(() -> {
             log.debug("从 Steam API 获取最近游玩: steamId={}", steamId);
             // 请求全部最近游玩的游戏（不限制数量），显示时再截取
             return steamApiClient.getRecentlyPlayedGames(steamId, 0)
@@ -322,7 +358,7 @@ public class SteamServiceImpl implements SteamService {
                         log.debug("最近游玩获取成功: {} 款游戏", games.size());
                         RecentGamesList gamesList = new RecentGamesList();
                         gamesList.setGames(games);
-                        return cacheService.put(CACHE_KEY_RECENT, gamesList, ttl)
+                        return cacheService.put(CacheKeys.RECENT, gamesList, ttl)
                                 .thenReturn(games);
                     });
         }));
@@ -330,13 +366,13 @@ public class SteamServiceImpl implements SteamService {
 
     @Override
     public Mono<Void> refreshCache() {
-        return cacheService.evictAll()
-                .doOnSuccess(v -> log.info("Steam 缓存已刷新"));
+        return tracer.span(SteamTracer.SERVICE, "refreshCache", cacheService.evictAll()
+                .doOnSuccess(v -> log.info("Steam 缓存已刷新")));
     }
 
     @Override
     public Mono<SteamStats> getFullStats() {
-        return Mono.zip(
+        return tracer.span(SteamTracer.SERVICE, "getFullStats", Mono.zip(
                 settingService.getConfig(),
                 settingService.getHeaderImageTemplate(),
                 settingService.getIconImageTemplate()
@@ -348,35 +384,32 @@ public class SteamServiceImpl implements SteamService {
             String steamId = config.getSteamId();
 
             // 获取全量游戏数据（必须）
-            Mono<GamesList> gamesMono = cacheService.get(CACHE_KEY_GAMES, GamesList.class)
+            Mono<GamesList> gamesMono = cacheService.get(CacheKeys.GAMES, GamesList.class)
                     .switchIfEmpty(fetchAndCacheGames(steamId, ttl))
-                    .doOnNext(gamesList -> applyTemplates(gamesList.getGames(), headerTemplate, iconTemplate))
                     .onErrorResume(e -> {
                         log.warn("获取游戏库失败: {}", e.getMessage());
-                        return cacheService.getStale(CACHE_KEY_GAMES, GamesList.class)
+                        return cacheService.getStale(CacheKeys.GAMES, GamesList.class)
                                 .defaultIfEmpty(new GamesList());
                     });
 
             // 获取最近游玩数据（可选，失败返回空列表）
-            Mono<List<RecentGame>> recentMono = cacheService.get(CACHE_KEY_RECENT, RecentGamesList.class)
+            Mono<List<RecentGame>> recentMono = cacheService.get(CacheKeys.RECENT, RecentGamesList.class)
                     .map(RecentGamesList::getGames)
                     .switchIfEmpty(fetchAndCacheRecentGames(steamId, ttl))
                     .doOnNext(games -> applyTemplates(games, headerTemplate, iconTemplate))
                     .onErrorResume(e -> {
                         log.warn("获取最近游玩失败，统计中跳过: {}", e.getMessage());
-                        return cacheService.getStale(CACHE_KEY_RECENT, RecentGamesList.class)
+                        return cacheService.getStale(CacheKeys.RECENT, RecentGamesList.class)
                                 .map(RecentGamesList::getGames)
                                 .defaultIfEmpty(List.of());
                     });
 
             return Mono.zip(gamesMono, recentMono).map(data -> {
-                var allGames = data.getT1().getGames();
+                LibraryColumns allGames = data.getT1().getColumns();
                 var recentGames = data.getT2();
 
                 int totalGames = allGames != null ? allGames.size() : 0;
-                int totalPlaytime = allGames != null ? allGames.stream()
-                        .mapToInt(g -> g.getPlaytimeForever() != null ? g.getPlaytimeForever() : 0)
-                        .sum() : 0;
+                int totalPlaytime = allGames != null ? (int) allGames.totalPlaytime() : 0;
                 int recentPlaytime = recentGames != null ? recentGames.stream()
                         .mapToInt(g -> g.getPlaytime2Weeks() != null ? g.getPlaytime2Weeks() : 0)
                         .sum() : 0;
@@ -394,17 +427,17 @@ public class SteamServiceImpl implements SteamService {
                     .totalPlaytimeMinutes(0)
                     .recentPlaytimeMinutes(0)
                     .build());
-        });
+        }));
     }
 
     @Override
     public Mono<ValidationResult> validateApiKey(String apiKey, String steamId) {
-        return steamApiClient.validateApiKey(apiKey, steamId);
+        return tracer.span(SteamTracer.SERVICE, "validateApiKey", steamApiClient.validateApiKey(apiKey, steamId));
     }
 
     @Override
     public Mono<AchievementProgress> getAchievementProgress(Long appId) {
-        return settingService.getConfig()
+        return tracer.span(SteamTracer.SERVICE, "getAchievementProgress", settingService.getConfig()
                 .flatMap(config -> {
                     String steamId = config.getSteamId();
                     return steamApiClient.getPlayerAchievements(steamId, appId);
@@ -416,12 +449,12 @@ public class SteamServiceImpl implements SteamService {
                             .achievedCount(0)
                             .totalAchievements(0)
                             .build());
-                });
+                }));
     }
 
     @Override
     public Mono<BadgeInfo> getBadges() {
-        return Mono.zip(
+        return tracer.span(SteamTracer.SERVICE, "getBadges", Mono.zip(
                 settingService.getConfig(),
                 settingService.getBadgeConfig()
         ).flatMap(tuple -> {
@@ -430,7 +463,7 @@ public class SteamServiceImpl implements SteamService {
             int ttl = config.getCacheTtlMinutes() != null ? config.getCacheTtlMinutes() : 10;
             String steamId = config.getSteamId();
 
-            return cacheService.get(CACHE_KEY_BADGES, BadgeInfo.class)
+            return cacheService.get(CacheKeys.BADGES, BadgeInfo.class)
                     .switchIfEmpty(fetchAndCacheBadges(steamId, ttl))
                     .map(badges -> {
                         enrichBadgesWithImageUrl(badges, badgeConfig);
@@ -438,13 +471,13 @@ public class SteamServiceImpl implements SteamService {
                     })
                     .onErrorResume(e -> {
                         log.warn("获取徽章失败，尝试返回缓存数据", e);
-                        return cacheService.getStale(CACHE_KEY_BADGES, BadgeInfo.class)
+                        return cacheService.getStale(CacheKeys.BADGES, BadgeInfo.class)
                                 .map(badges -> {
                                     enrichBadgesWithImageUrl(badges, badgeConfig);
                                     return badges;
                                 });
                     });
-        });
+        }));
     }
 
     /**
@@ -474,12 +507,12 @@ public class SteamServiceImpl implements SteamService {
     }
 
     private Mono<BadgeInfo> fetchAndCacheBadges(String steamId, int ttl) {
-        return singleflight(CACHE_KEY_BADGES, Mono.defer(() -> {
+        return singleflight(CacheKeys.BADGES, Mono.defer(() -> {
             log.debug("从 Steam API 获取徽章: steamId={}", steamId);
             return steamApiClient.getBadges(steamId)
                     .doOnNext(badges -> log.debug("徽章获取成功: {} 个徽章", badges.getTotalBadges()))
                     .flatMap(badges ->
-                            cacheService.put(CACHE_KEY_BADGES, badges, ttl)
+                            cacheService.put(CacheKeys.BADGES, badges, ttl)
                                     .thenReturn(badges)
                     );
         }));
@@ -488,7 +521,7 @@ public class SteamServiceImpl implements SteamService {
     // 用于缓存的包装类
     @lombok.Data
     private static class GamesList {
-        private List<OwnedGame> games;
+        private LibraryColumns columns = LibraryColumns.empty();
     }
 
     @lombok.Data
@@ -496,61 +529,190 @@ public class SteamServiceImpl implements SteamService {
         private List<RecentGame> games;
     }
 
+    /** 游戏详情的本地化文本 */
+    @lombok.Data
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    private static class LocalizedText {
+        private String name;
+        private String shortDescription;
+        private String genres;
+        private String releaseDate;
+
+        /** 元数据本身就是 english 文本 */
+        static LocalizedText of(GameMetadata.GameMetadataSpec core) {
+            return new LocalizedText(core.getName(), core.getShortDescription(),
+                    joined(core.getGenres()), core.getReleaseDate());
+        }
+
+        /** Store 返回的本地化文本，缺少的字段用元数据补齐 */
+        static LocalizedText of(GameDetail delta, GameMetadata.GameMetadataSpec core) {
+            LocalizedText fallback = of(core);
+            return new LocalizedText(
+                    delta.getName() != null ? delta.getName() : fallback.getName(),
+                    delta.getShortDescription() != null ? delta.getShortDescription() : fallback.getShortDescription(),
+                    delta.getGenres() != null ? delta.getGenres() : fallback.getGenres(),
+                    delta.getReleaseDate() != null ? delta.getReleaseDate() : fallback.getReleaseDate());
+        }
+    }
+
+    /** 游戏详情的价格，按地区缓存；免费或未在售时为空 */
+    @lombok.Data
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    private static class StorePrice {
+        private String priceFormatted;
+    }
+
+    private record LocalizedParts(LocalizedText text, StorePrice price) {
+    }
+
+    /**
+     * 游戏详情由三部分在读取时组成：
+     * 与语言无关的元数据（所有语言共享）、按语言缓存的文本和按地区缓存的价格（缺失时才请求 Store）、
+     * 以及从游戏库计算的个人数据（拥有状态、时长、成就）。个人数据不写入详情缓存。
+     */
     @Override
     public Mono<GameDetail> getGameDetail(Long appId, String language) {
-        return Mono.zip(settingService.getConfig(), settingService.getEditorConfig())
+        return tracer.span(SteamTracer.SERVICE, "getGameDetail", Mono.zip(settingService.getConfig(), settingService.resolveStoreLanguage(language))
                 .flatMap(tuple -> {
                     var config = tuple.getT1();
-                    var editorConfig = tuple.getT2();
+                    String resolvedLanguage = tuple.getT2();
                     int ttl = config.getCacheTtlMinutes() != null ? config.getCacheTtlMinutes() : 10;
                     String steamId = config.getSteamId();
 
-                    // 解析最终语言：非 auto 用配置值，auto 用前端传来的语言
-                    String storeLanguage = editorConfig.getStoreLanguage() != null
-                            ? editorConfig.getStoreLanguage() : "auto";
-                    String resolvedLanguage = "auto".equals(storeLanguage)
-                            ? (language != null && !language.isBlank() ? language : "english")
-                            : storeLanguage;
+                    return gameCore(appId, resolvedLanguage, ttl)
+                            .flatMap(core -> localizedParts(core, resolvedLanguage, ttl)
+                                    .map(parts -> compose(core, parts, resolvedLanguage)))
+                            .flatMap(this::applyCdnIfConfigured)
+                            .flatMap(detail -> withOwnerOverlay(detail, steamId, ttl));
+                }));
+    }
 
-                    String cacheKey = CACHE_KEY_GAME_DETAIL_PREFIX + appId + ":" + resolvedLanguage;
-                    return cacheService.get(cacheKey, GameDetail.class)
-                            .switchIfEmpty(fetchAndCacheGameDetail(appId, steamId, ttl, cacheKey, resolvedLanguage));
-                });
+    /**
+     * 与语言无关的元数据：优先内存缓存，其次持久化的元数据（关闭持久化时直接请求 Store）
+     */
+    private Mono<GameMetadata.GameMetadataSpec> gameCore(Long appId, String language, int ttl) {
+        String cacheKey = CacheKeys.gameCore(appId);
+        return cacheService.get(cacheKey, GameMetadata.GameMetadataSpec.class)
+                .switchIfEmpty(singleflight(cacheKey, Mono.defer(() -> settingService.getGameMetadataConfig()
+                        .flatMap(metadataConfig -> metadataConfig.getEnabled()
+                                ? metadataService.getMetadata(appId)
+                                : fetchAllParts(appId, language, ttl))
+                        .flatMap(core -> cacheService.put(cacheKey, core, PART_TTL_MINUTES).thenReturn(core)))));
     }
 
-    private Mono<GameDetail> fetchAndCacheGameDetail(Long appId, String steamId, int ttl, String cacheKey, String language) {
-        return singleflight(cacheKey, Mono.defer(() -> {
-            log.debug("从 Steam API 获取游戏详情: appId={}", appId);
+    /**
+     * 未开启持久化时，以访客语言请求一次完整的 appdetails，拆分为元数据、本地化文本和价格
+     * 文本和价格直接写入各自的缓存，随后的 localizedParts 不会再请求 Store；
+     * 非 english 时元数据中的文本不是 english，去掉后再作为共享的元数据缓存
+     */
+    private Mono<GameMetadata.GameMetadataSpec> fetchAllParts(Long appId, String language, int ttl) {
+        return steamApiClient.getGameDetailWithMetadata(appId, language)
+                .flatMap(fetched -> {
+                    GameMetadata.GameMetadataSpec core = fetched.getT1();
+                    GameDetail detail = fetched.getT2();
+                    Mono<Void> writes = Mono.empty();
+                    if (!GameMetadata.LANGUAGE.equals(language)) {
+                        writes = cacheService.put(CacheKeys.gameText(appId, language),
+                                LocalizedText.of(detail, core), PART_TTL_MINUTES);
+                        core.setName(null);
+                        core.setShortDescription(null);
+                        core.setGenres(null);
+                        core.setReleaseDate(null);
+                    }
+                    String priceKey = CacheKeys.gamePrice(appId, SteamSettingService.getCountryCode(language));
+                    StorePrice price = new StorePrice(Boolean.TRUE.equals(core.getIsFree()) ? null : detail.getPriceFormatted());
+                    return writes.then(cacheService.put(priceKey, price, ttl)).thenReturn(core);
+                })
+                .onErrorResume(e -> Mono.empty());
+    }
 
-            // 1. 获取 Store API 基础数据
-            Mono<GameDetail> detailMono = steamApiClient.getGameDetail(appId, language);
+    /**
+     * 本地化文本和价格，只请求缓存中缺少的部分
+     * english 文本直接取自元数据，免费游戏不需要价格，两者都不请求 Store
+     */
+    private Mono<LocalizedParts> localizedParts(GameMetadata.GameMetadataSpec core, String language, int ttl) {
+        Long appId = core.getAppId();
+        String textKey = CacheKeys.gameText(appId, language);
+        String priceKey = CacheKeys.gamePrice(appId, SteamSettingService.getCountryCode(language));
+        return Mono.zip(
+                cacheService.get(textKey, LocalizedText.class).map(Optional::of).defaultIfEmpty(Optional.empty()),
+                cacheService.get(priceKey, StorePrice.class).map(Optional::of).defaultIfEmpty(Optional.empty())
+        ).flatMap(cached -> {
+            if (cached.getT1().isPresent() && cached.getT2().isPresent()) {
+                return Mono.just(new LocalizedParts(cached.getT1().get(), cached.getT2().get()));
+            }
+            return singleflight(textKey + "|" + priceKey, Mono.defer(() -> fetchLocalizedParts(core, language,
+                    textKey, priceKey, cached.getT1().orElse(null), cached.getT2().orElse(null), ttl)));
+        });
+    }
 
-            // 2. 获取拥有的游戏列表（复用缓存）
-            Mono<List<OwnedGame>> gamesMono = cacheService.get(CACHE_KEY_GAMES, GamesList.class)
-                    .map(GamesList::getGames)
-                    .switchIfEmpty(
-                        steamApiClient.getOwnedGames(steamId, true, true)
-                    )
-                    .onErrorResume(e -> {
-                        log.debug("获取游戏库失败，跳过个人数据: {}", e.getMessage());
-                        return Mono.just(List.of());
-                    });
+    private Mono<LocalizedParts> fetchLocalizedParts(GameMetadata.GameMetadataSpec core, String language,
+                                                     String textKey, String priceKey,
+                                                     LocalizedText cachedText, StorePrice cachedPrice, int ttl) {
+        // 元数据由非 english 的请求拆分而来时不含文本，english 也需要请求
+        boolean textInCore = GameMetadata.LANGUAGE.equals(language) && core.getName() != null;
+        boolean free = Boolean.TRUE.equals(core.getIsFree());
+        boolean needText = cachedText == null && !textInCore;
+        boolean needPrice = cachedPrice == null && !free;
+
+        Mono<Optional<GameDetail>> delta = needText || needPrice
+                ? steamApiClient.getGameDetailDelta(core.getAppId(), language, needText)
+                        .map(Optional::of)
+                        .onErrorResume(e -> Mono.empty())
+                        .defaultIfEmpty(Optional.empty())
+                : Mono.just(Optional.empty());
+
+        return delta.flatMap(fetched -> {
+            Mono<Void> writes = Mono.empty();
+
+            LocalizedText text = cachedText;
+            if (text == null) {
+                if (textInCore || fetched.isPresent()) {
+                    text = textInCore ? LocalizedText.of(core) : LocalizedText.of(fetched.get(), core);
+                    writes = writes.then(cacheService.put(textKey, text, PART_TTL_MINUTES));
+                } else {
+                    // Store 请求失败，暂用元数据中的文本，不缓存以便下次重试
+                    text = LocalizedText.of(core);
+                }
+            }
 
-            // 3. 组合 detail 和 games，然后应用 CDN 替换
-            return Mono.zip(detailMono, gamesMono)
-                    .flatMap(tuple -> {
-                        GameDetail detail = tuple.getT1();
-                        List<OwnedGame> ownedGames = tuple.getT2();
+            StorePrice price = cachedPrice;
+            if (fetched.isPresent() && !free) {
+                price = new StorePrice(fetched.get().getPriceFormatted());
+                writes = writes.then(cacheService.put(priceKey, price, ttl));
+            } else if (price == null) {
+                price = new StorePrice(null);
+                if (free) {
+                    writes = writes.then(cacheService.put(priceKey, price, ttl));
+                }
+            }
+            return writes.thenReturn(new LocalizedParts(text, price));
+        });
+    }
 
-                        // 应用图片 CDN 域名替换（可选操作）
-                        return applyCdnIfConfigured(detail)
-                                .flatMap(detailWithCdn -> enrichWithOwnedData(detailWithCdn, ownedGames, steamId, appId));
-                    })
-                    .flatMap(detail ->
-                            cacheService.put(cacheKey, detail, ttl)
-                                    .thenReturn(detail)
-                    );
-        }));
+    private static GameDetail compose(GameMetadata.GameMetadataSpec core, LocalizedParts parts, String language) {
+        boolean isFree = Boolean.TRUE.equals(core.getIsFree());
+        LocalizedText text = parts.text();
+        return GameDetail.builder()
+                .appId(core.getAppId())
+                .name(text.getName())
+                .headerImage(core.getHeaderImage())
+                .shortDescription(text.getShortDescription())
+                .developers(joined(core.getDevelopers()))
+                .publishers(joined(core.getPublishers()))
+                .genres(text.getGenres())
+                .isFree(isFree)
+                .priceFormatted(isFree ? SteamSettingService.getFreeText(language) : parts.price().getPriceFormatted())
+                .releaseDate(text.getReleaseDate())
+                .storeUrl("https://store.steampowered.com/app/" + core.getAppId())
+                .owned(false)
+                .build();
+    }
+
+    private static String joined(List<String> values) {
+        return values == null || values.isEmpty() ? null : String.join(", ", values);
     }
 
     /**
@@ -568,37 +730,46 @@ public class SteamServiceImpl implements SteamService {
     }
 
     /**
-     * 补充拥有状态和成就数据
+     * 补充个人数据：拥有状态和时长每次从游戏库的列存储中查找，成就进度单独缓存
      */
-    private Mono<GameDetail> enrichWithOwnedData(GameDetail detail, List<OwnedGame> ownedGames, String steamId, Long appId) {
-        // 检查是否拥有该游戏
-        OwnedGame ownedGame = ownedGames.stream()
-                .filter(g -> appId.equals(g.getAppId()))
-                .findFirst()
-                .orElse(null);
-
-        if (ownedGame != null) {
-            detail.setOwned(true);
-            detail.setPlaytimeForever(ownedGame.getPlaytimeForever());
-            detail.setPlaytimeFormatted(OwnedGame.formatPlaytime(
-                    ownedGame.getPlaytimeForever() != null ? ownedGame.getPlaytimeForever() : 0));
-            detail.setRtimeLastPlayed(ownedGame.getRtimeLastPlayed());
-            detail.setLastPlayedFormatted(ownedGame.getLastPlayedFormatted());
-
-            // 获取成就数据
-            return steamApiClient.getPlayerAchievements(steamId, appId)
-                    .map(progress -> {
-                        detail.setAchievedCount(progress.getAchievedCount());
-                        detail.setTotalAchievements(progress.getTotalAchievements());
-                        detail.setAchievementProgress(progress.getProgressText());
-                        return detail;
-                    })
-                    .onErrorResume(e -> {
-                        log.debug("获取游戏 {} 成就失败: {}", appId, e.getMessage());
-                        return Mono.just(detail);
-                    });
-        }
+    private Mono<GameDetail> withOwnerOverlay(GameDetail detail, String steamId, int ttl) {
+        Long appId = detail.getAppId();
+        return cacheService.get(CacheKeys.GAMES, GamesList.class)
+                .switchIfEmpty(fetchAndCacheGames(steamId, ttl))
+                .onErrorResume(e -> {
+                    log.debug("获取游戏库失败，尝试使用缓存数据: {}", e.getMessage());
+                    return cacheService.getStale(CacheKeys.GAMES, GamesList.class);
+                })
+                .map(GamesList::getColumns)
+                .filter(columns -> columns.find(appId) >= 0)
+                .flatMap(columns -> {
+                    OwnedGame ownedGame = columns.view(columns.find(appId));
+                    detail.setOwned(true);
+                    detail.setPlaytimeForever(ownedGame.getPlaytimeForever());
+                    detail.setPlaytimeFormatted(OwnedGame.formatPlaytime(
+                            ownedGame.getPlaytimeForever() != null ? ownedGame.getPlaytimeForever() : 0));
+                    detail.setRtimeLastPlayed(ownedGame.getRtimeLastPlayed());
+                    detail.setLastPlayedFormatted(ownedGame.getLastPlayedFormatted());
+                    return achievements(steamId, appId, ttl)
+                            .map(progress -> {
+                                detail.setAchievedCount(progress.getAchievedCount());
+                                detail.setTotalAchievements(progress.getTotalAchievements());
+                                detail.setAchievementProgress(progress.getProgressText());
+                                return detail;
+                            })
+                            .defaultIfEmpty(detail);
+                })
+                .defaultIfEmpty(detail);
+    }
 
-        return Mono.just(detail);
+    private Mono<AchievementProgress> achievements(String steamId, Long appId, int ttl) {
+        String cacheKey = CacheKeys.gameAchievements(appId);
+        return cacheService.get(cacheKey, AchievementProgress.class)
+                .switchIfEmpty(singleflight(cacheKey, Mono.defer(() -> steamApiClient.getPlayerAchievements(steamId, appId)
+                        .flatMap(progress -> cacheService.put(cacheKey, progress, ttl).thenReturn(progress))
+                        .onErrorResume(e -> {
+                            log.debug("获取游戏 {} 成就失败: {}", appId, e.getMessage());
+                            return Mono.empty();
+                        }))));
     }
 }
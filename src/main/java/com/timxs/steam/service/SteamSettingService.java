@@ -1,10 +1,16 @@
 package com.timxs.steam.service;
 
+import com.timxs.steam.trace.SteamTracer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
+import run.halo.app.extension.ConfigMap;
+import run.halo.app.extension.ReactiveExtensionClient;
 import run.halo.app.plugin.ReactiveSettingFetcher;
 
+import java.time.Duration;
+import java.util.List;
+
 /**
  * Steam 配置服务 - 从 ConfigMap 读取配置
  */
@@ -18,18 +24,61 @@ public class SteamSettingService {
     private static final String GROUP_BADGE = "badge";
     private static final String GROUP_STATS = "stats";
     private static final String GROUP_EDITOR = "editor";
+    private static final String GROUP_ADVANCED = "advanced";
+    private static final String CONFIG_MAP_NAME = "steam-configmap";
+    private static final String SYSTEM_CONFIG_MAP_NAME = "system";
     
     // 图片 URL 模板常量（公开供其他类使用）
     public static final String DEFAULT_HEADER_TEMPLATE = "https://cdn.cloudflare.steamstatic.com/steam/apps/{appid}/header.jpg";
     public static final String DEFAULT_ICON_TEMPLATE = "https://media.steampowered.com/steamcommunity/public/images/apps/{appid}/{hash}.jpg";
 
     private final ReactiveSettingFetcher settingFetcher;
+    private final ReactiveExtensionClient client;
+    private final SteamTracer tracer;
+
+    /**
+     * 插件 ConfigMap 的版本号，短时间内复用，配置修改后最多延迟该时长生效
+     */
+    private final Mono<Long> settingsVersion = configMapVersion(CONFIG_MAP_NAME);
+
+    /**
+     * Halo 系统设置（含当前主题）的版本号，缓存方式同上
+     */
+    private final Mono<Long> systemConfigVersion = configMapVersion(SYSTEM_CONFIG_MAP_NAME);
+
+    private Mono<Long> configMapVersion(String name) {
+        return Mono.defer(() -> client.fetch(ConfigMap.class, name))
+                .map(configMap -> configMap.getMetadata().getVersion() != null ? configMap.getMetadata().getVersion() : 0L)
+                .defaultIfEmpty(0L)
+                .cache(Duration.ofSeconds(5));
+    }
+
+    /**
+     * 读取一个配置分组，每次读取记录为一个追踪 span
+     */
+    private <T> Mono<T> fetch(String group, Class<T> type) {
+        return tracer.span(SteamTracer.SETTINGS, group, settingFetcher.fetch(group, type));
+    }
+
+    /**
+     * 获取配置版本号，配置保存后递增，用于生成 ETag
+     */
+    public Mono<Long> getSettingsVersion() {
+        return settingsVersion;
+    }
+
+    /**
+     * 获取 Halo 系统设置版本号，切换主题等操作后递增
+     */
+    public Mono<Long> getSystemConfigVersion() {
+        return systemConfigVersion;
+    }
 
     /**
      * 获取基本配置
      */
     public Mono<SteamConfig> getConfig() {
-        return settingFetcher.fetch(GROUP_BASIC, SteamConfig.class)
+        return fetch(GROUP_BASIC, SteamConfig.class)
                 .switchIfEmpty(Mono.just(new SteamConfig()));
     }
 
@@ -37,7 +86,7 @@ public class SteamSettingService {
      * 获取页面配置
      */
     public Mono<PageConfig> getPageConfig() {
-        return settingFetcher.fetch(GROUP_PAGE, PageConfig.class)
+        return fetch(GROUP_PAGE, PageConfig.class)
                 .switchIfEmpty(Mono.just(new PageConfig()));
     }
 
@@ -262,17 +311,37 @@ public class SteamSettingService {
     @lombok.AllArgsConstructor
     public static class ApiProxyConfig {
         private Boolean enabled = false;
-        private String proxyType = "http";  // http 或 custom
+        private String proxyType = "http";  // http、custom 或 routes（多线路）
         private String httpHost;
         private Integer httpPort;
         private String customApiUrl;
+        /** 多线路列表（proxyType 为 routes 时生效） */
+        private List<ApiRouteConfig> routes;
+        /** 首选线路超过该接口 p95 耗时仍未响应时，是否向第二条线路发出对冲请求 */
+        private Boolean hedgeEnabled = false;
+    }
+
+    /**
+     * 单条 API 线路配置
+     */
+    @lombok.Data
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    public static class ApiRouteConfig {
+        private String name;
+        private String type = "direct";  // direct、http 或 custom
+        private String httpHost;
+        private Integer httpPort;
+        private String customApiUrl;
+        /** 权重，耗时相近时优先选择权重高的线路 */
+        private Integer weight = 1;
     }
 
     /**
      * 获取代理配置
      */
     public Mono<ProxyConfig> getProxyConfig() {
-        return settingFetcher.fetch(GROUP_PROXY, ProxyConfig.class)
+        return fetch(GROUP_PROXY, ProxyConfig.class)
                 .switchIfEmpty(Mono.just(new ProxyConfig()));
     }
 
@@ -357,7 +426,7 @@ public class SteamSettingService {
      * 获取徽章配置
      */
     public Mono<BadgeConfig> getBadgeConfig() {
-        return settingFetcher.fetch(GROUP_BADGE, BadgeConfig.class)
+        return fetch(GROUP_BADGE, BadgeConfig.class)
                 .switchIfEmpty(Mono.just(new BadgeConfig()));
     }
 
@@ -490,7 +559,7 @@ public class SteamSettingService {
      * 获取统计配置
      */
     public Mono<StatsConfig> getStatsConfig() {
-        return settingFetcher.fetch(GROUP_STATS, StatsConfig.class)
+        return fetch(GROUP_STATS, StatsConfig.class)
                 .switchIfEmpty(Mono.just(new StatsConfig()));
     }
 
@@ -617,10 +686,25 @@ public class SteamSettingService {
      * 获取编辑器配置
      */
     public Mono<EditorConfig> getEditorConfig() {
-        return settingFetcher.fetch(GROUP_EDITOR, EditorConfig.class)
+        return fetch(GROUP_EDITOR, EditorConfig.class)
                 .switchIfEmpty(Mono.just(new EditorConfig()));
     }
 
+    /**
+     * 解析 Store 语言：非 auto 用配置值，auto 用前端传来的语言，未传时默认英文
+     */
+    public Mono<String> resolveStoreLanguage(String requested) {
+        return getEditorConfig()
+                .map(config -> {
+                    String storeLanguage = config.getStoreLanguage() != null
+                            ? config.getStoreLanguage() : "auto";
+                    if (!"auto".equals(storeLanguage)) {
+                        return storeLanguage;
+                    }
+                    return requested != null && !requested.isBlank() ? requested : "english";
+                });
+    }
+
     /**
      * 获取暗色模式选择器
      */
@@ -631,4 +715,339 @@ public class SteamSettingService {
                         : "html.dark");
     }
 
+    /**
+     * 高级配置类
+     */
+    @lombok.Data
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    public static class AdvancedConfig {
+        /** 失败重试配置组 */
+        private RetryConfig retry;
+        /** 熔断配置组 */
+        private CircuitBreakerConfig circuitBreaker;
+        /** 自适应超时配置组 */
+        private AdaptiveTimeoutConfig adaptiveTimeout;
+        /** 响应序列化缓存配置组 */
+        private ResponseCacheConfig responseCache;
+        /** 页面渲染缓存配置组 */
+        private PageCacheConfig pageCache;
+        /** 模板渲染预算配置组 */
+        private RenderBudgetConfig renderBudget;
+        /** 游戏元数据配置组 */
+        private GameMetadataConfig gameMetadata;
+        /** 上游请求通道配置组 */
+        private RequestLaneConfig requestLanes;
+    }
+
+    /**
+     * 失败重试配置类（仅对幂等的 GET 请求生效）
+     */
+    @lombok.Data
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    public static class RetryConfig {
+        /** 最大重试次数，0 表示不重试 */
+        private Integer maxRetries = 2;
+        /** 首次重试等待时间（毫秒），之后指数增长 */
+        private Integer initialBackoffMillis = 200;
+        /** 最大重试等待时间（毫秒） */
+        private Integer maxBackoffMillis = 2000;
+    }
+
+    /**
+     * 熔断配置类（按 Steam 接口分别熔断）
+     */
+    @lombok.Data
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    public static class CircuitBreakerConfig {
+        /** 是否启用熔断 */
+        private Boolean enabled = true;
+        /** 连续失败多少次后熔断 */
+        private Integer failureThreshold = 5;
+        /** 熔断持续时间（秒），之后放行一个探测请求 */
+        private Integer openSeconds = 30;
+    }
+
+    /**
+     * 自适应超时配置类（按接口根据历史耗时计算超时）
+     */
+    @lombok.Data
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    public static class AdaptiveTimeoutConfig {
+        /** 是否启用自适应超时 */
+        private Boolean enabled = false;
+        /** 超时 = p99 耗时 × 系数 */
+        private Double factor = 2.0;
+        /** 超时下限（毫秒） */
+        private Integer minMillis = 1000;
+        /** 超时上限（秒） */
+        private Integer maxSeconds = 30;
+    }
+
+    /**
+     * 响应序列化缓存配置类（缓存热门公开接口编码后的 JSON）
+     */
+    @lombok.Data
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    public static class ResponseCacheConfig {
+        /** 是否启用 */
+        private Boolean enabled = true;
+        /** 是否同时缓存 gzip 压缩版本 */
+        private Boolean gzip = true;
+        /** 最多缓存的响应数 */
+        private Integer maxEntries = 256;
+    }
+
+    /**
+     * 页面渲染缓存配置类（缓存匿名访客看到的 /steam 页面 HTML）
+     */
+    @lombok.Data
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    public static class PageCacheConfig {
+        /** 是否启用 */
+        private Boolean enabled = false;
+        /** 页面最长缓存时间（秒），兜底主题设置、菜单等插件无法感知的变化 */
+        private Integer maxAgeSeconds = 300;
+        /** 最多缓存的页面数 */
+        private Integer maxEntries = 64;
+    }
+
+    /**
+     * 模板渲染预算配置类（Finder 等待数据的上限，超时先返回上一次的结果）
+     */
+    @lombok.Data
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    public static class RenderBudgetConfig {
+        /** 是否启用 */
+        private Boolean enabled = false;
+        /** 每个 Finder 调用最多等待的时间（毫秒） */
+        private Integer budgetMillis = 300;
+    }
+
+    /**
+     * 游戏元数据配置类（持久化 Store 中与语言无关的游戏信息，后台定期刷新）
+     */
+    @lombok.Data
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    public static class GameMetadataConfig {
+        /** 是否启用 */
+        private Boolean enabled = true;
+        /** 元数据超过多少天后在后台刷新 */
+        private Integer maxAgeDays = 30;
+        /** 每轮最多刷新的游戏数 */
+        private Integer batchSize = 20;
+    }
+
+    /**
+     * 上游请求通道配置类（按优先级分别限制并发和排队数）
+     */
+    @lombok.Data
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    public static class RequestLaneConfig {
+        /** 访客请求最大并发数 */
+        private Integer interactiveConcurrency = 8;
+        /** 访客请求最大排队数 */
+        private Integer interactiveQueueSize = 200;
+        /** 预取请求最大并发数 */
+        private Integer prefetchConcurrency = 4;
+        /** 预取请求最大排队数 */
+        private Integer prefetchQueueSize = 100;
+        /** 后台请求最大并发数 */
+        private Integer backgroundConcurrency = 2;
+        /** 后台请求最大排队数 */
+        private Integer backgroundQueueSize = 1000;
+    }
+
+    /**
+     * 获取高级配置
+     */
+    public Mono<AdvancedConfig> getAdvancedConfig() {
+        return fetch(GROUP_ADVANCED, AdvancedConfig.class)
+                .switchIfEmpty(Mono.just(new AdvancedConfig()));
+    }
+
+    /**
+     * 获取失败重试配置
+     */
+    public Mono<RetryConfig> getRetryConfig() {
+        return getAdvancedConfig()
+                .map(config -> {
+                    RetryConfig retry = config.getRetry() != null ? config.getRetry() : new RetryConfig();
+                    if (retry.getMaxRetries() == null) {
+                        retry.setMaxRetries(2);
+                    }
+                    if (retry.getInitialBackoffMillis() == null) {
+                        retry.setInitialBackoffMillis(200);
+                    }
+                    if (retry.getMaxBackoffMillis() == null) {
+                        retry.setMaxBackoffMillis(2000);
+                    }
+                    return retry;
+                });
+    }
+
+    /**
+     * 获取熔断配置
+     */
+    public Mono<CircuitBreakerConfig> getCircuitBreakerConfig() {
+        return getAdvancedConfig()
+                .map(config -> {
+                    CircuitBreakerConfig breaker = config.getCircuitBreaker() != null
+                            ? config.getCircuitBreaker() : new CircuitBreakerConfig();
+                    if (breaker.getEnabled() == null) {
+                        breaker.setEnabled(true);
+                    }
+                    if (breaker.getFailureThreshold() == null) {
+                        breaker.setFailureThreshold(5);
+                    }
+                    if (breaker.getOpenSeconds() == null) {
+                        breaker.setOpenSeconds(30);
+                    }
+                    return breaker;
+                });
+    }
+
+    /**
+     * 获取自适应超时配置
+     */
+    public Mono<AdaptiveTimeoutConfig> getAdaptiveTimeoutConfig() {
+        return getAdvancedConfig()
+                .map(config -> {
+                    AdaptiveTimeoutConfig timeout = config.getAdaptiveTimeout() != null
+                            ? config.getAdaptiveTimeout() : new AdaptiveTimeoutConfig();
+                    if (timeout.getEnabled() == null) {
+                        timeout.setEnabled(false);
+                    }
+                    if (timeout.getFactor() == null || timeout.getFactor() <= 0) {
+                        timeout.setFactor(2.0);
+                    }
+                    if (timeout.getMinMillis() == null) {
+                        timeout.setMinMillis(1000);
+                    }
+                    if (timeout.getMaxSeconds() == null) {
+                        timeout.setMaxSeconds(30);
+                    }
+                    return timeout;
+                });
+    }
+
+    /**
+     * 获取响应序列化缓存配置
+     */
+    public Mono<ResponseCacheConfig> getResponseCacheConfig() {
+        return getAdvancedConfig()
+                .map(config -> {
+                    ResponseCacheConfig cache = config.getResponseCache() != null
+                            ? config.getResponseCache() : new ResponseCacheConfig();
+                    if (cache.getEnabled() == null) {
+                        cache.setEnabled(true);
+                    }
+                    if (cache.getGzip() == null) {
+                        cache.setGzip(true);
+                    }
+                    if (cache.getMaxEntries() == null || cache.getMaxEntries() < 1) {
+                        cache.setMaxEntries(256);
+                    }
+                    return cache;
+                });
+    }
+
+    /**
+     * 获取页面渲染缓存配置
+     */
+    public Mono<PageCacheConfig> getPageCacheConfig() {
+        return getAdvancedConfig()
+                .map(config -> {
+                    PageCacheConfig cache = config.getPageCache() != null
+                            ? config.getPageCache() : new PageCacheConfig();
+                    if (cache.getEnabled() == null) {
+                        cache.setEnabled(false);
+                    }
+                    if (cache.getMaxAgeSeconds() == null || cache.getMaxAgeSeconds() < 1) {
+                        cache.setMaxAgeSeconds(300);
+                    }
+                    if (cache.getMaxEntries() == null || cache.getMaxEntries() < 1) {
+                        cache.setMaxEntries(64);
+                    }
+                    return cache;
+                });
+    }
+
+    /**
+     * 获取模板渲染预算配置
+     */
+    public Mono<RenderBudgetConfig> getRenderBudgetConfig() {
+        return getAdvancedConfig()
+                .map(config -> {
+                    RenderBudgetConfig budget = config.getRenderBudget() != null
+                            ? config.getRenderBudget() : new RenderBudgetConfig();
+                    if (budget.getEnabled() == null) {
+                        budget.setEnabled(false);
+                    }
+                    if (budget.getBudgetMillis() == null || budget.getBudgetMillis() < 50) {
+                        budget.setBudgetMillis(300);
+                    }
+                    return budget;
+                });
+    }
+
+    /**
+     * 获取游戏元数据配置
+     */
+    public Mono<GameMetadataConfig> getGameMetadataConfig() {
+        return getAdvancedConfig()
+                .map(config -> {
+                    GameMetadataConfig metadata = config.getGameMetadata() != null
+                            ? config.getGameMetadata() : new GameMetadataConfig();
+                    if (metadata.getEnabled() == null) {
+                        metadata.setEnabled(true);
+                    }
+                    if (metadata.getMaxAgeDays() == null || metadata.getMaxAgeDays() < 1) {
+                        metadata.setMaxAgeDays(30);
+                    }
+                    if (metadata.getBatchSize() == null || metadata.getBatchSize() < 1) {
+                        metadata.setBatchSize(20);
+                    }
+                    return metadata;
+                });
+    }
+
+    /**
+     * 获取上游请求通道配置
+     */
+    public Mono<RequestLaneConfig> getRequestLaneConfig() {
+        return getAdvancedConfig()
+                .map(config -> {
+                    RequestLaneConfig lanes = config.getRequestLanes() != null
+                            ? config.getRequestLanes() : new RequestLaneConfig();
+                    if (lanes.getInteractiveConcurrency() == null || lanes.getInteractiveConcurrency() < 1) {
+                        lanes.setInteractiveConcurrency(8);
+                    }
+                    if (lanes.getInteractiveQueueSize() == null || lanes.getInteractiveQueueSize() < 0) {
+                        lanes.setInteractiveQueueSize(200);
+                    }
+                    if (lanes.getPrefetchConcurrency() == null || lanes.getPrefetchConcurrency() < 1) {
+                        lanes.setPrefetchConcurrency(4);
+                    }
+                    if (lanes.getPrefetchQueueSize() == null || lanes.getPrefetchQueueSize() < 0) {
+                        lanes.setPrefetchQueueSize(100);
+                    }
+                    if (lanes.getBackgroundConcurrency() == null || lanes.getBackgroundConcurrency() < 1) {
+                        lanes.setBackgroundConcurrency(2);
+                    }
+                    if (lanes.getBackgroundQueueSize() == null || lanes.getBackgroundQueueSize() < 0) {
+                        lanes.setBackgroundQueueSize(1000);
+                    }
+                    return lanes;
+                });
+    }
+
 }
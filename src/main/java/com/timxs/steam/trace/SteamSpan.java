@@ -0,0 +1,105 @@
+package com.timxs.steam.trace;
+
+import io.micrometer.observation.Observation;
+import lombok.Getter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 一次被追踪的操作
+ * 通过 Reactor Context 传递给子操作，用于建立父子关系并补充标签
+ */
+@Getter
+public class SteamSpan {
+
+    public static final String CONTEXT_KEY = SteamSpan.class.getName();
+
+    /**
+     * 未启用追踪时使用，所有标签写入都会被忽略
+     */
+    public static final SteamSpan NOOP = new SteamSpan("noop", "noop", null, null, null);
+
+    private final String name;
+    private final String operation;
+    private final int depth;
+    private final long startNanos;
+    private final SteamTrace trace;
+    private final Observation observation;
+    private final Map<String, String> tags = new LinkedHashMap<>();
+    private final AtomicBoolean finished = new AtomicBoolean();
+
+    private volatile long durationNanos = -1;
+    private volatile String outcome;
+
+    SteamSpan(String name, String operation, SteamSpan parent, SteamTrace trace, Observation observation) {
+        this.name = name;
+        this.operation = operation;
+        this.depth = parent != null && parent != NOOP ? parent.depth + 1 : 0;
+        this.startNanos = System.nanoTime();
+        this.trace = trace;
+        this.observation = observation;
+    }
+
+    /**
+     * 添加高基数标签（缓存键、字节数等），只出现在 span 上
+     */
+    public SteamSpan tag(String key, Object value) {
+        if (this == NOOP || value == null) {
+            return this;
+        }
+        String text = String.valueOf(value);
+        synchronized (tags) {
+            tags.put(key, text);
+        }
+        if (observation != null) {
+            observation.highCardinalityKeyValue(key, text);
+        }
+        return this;
+    }
+
+    /**
+     * 添加低基数标签（端点、结果等），同时作为指标维度
+     */
+    public SteamSpan label(String key, Object value) {
+        if (this == NOOP || value == null) {
+            return this;
+        }
+        String text = String.valueOf(value);
+        synchronized (tags) {
+            tags.put(key, text);
+        }
+        if (observation != null) {
+            observation.lowCardinalityKeyValue(key, text);
+        }
+        return this;
+    }
+
+    /**
+     * 结束 span，重复调用只生效一次
+     */
+    void finish(String outcome, Throwable error) {
+        if (this == NOOP || !finished.compareAndSet(false, true)) {
+            return;
+        }
+        this.durationNanos = System.nanoTime() - startNanos;
+        this.outcome = outcome;
+        if (observation != null) {
+            observation.lowCardinalityKeyValue("outcome", outcome);
+            if (error != null) {
+                observation.error(error);
+            }
+            observation.stop();
+        }
+        if (trace != null) {
+            trace.record(this);
+        }
+    }
+
+    Map<String, String> tagsSnapshot() {
+        synchronized (tags) {
+            return new LinkedHashMap<>(tags);
+        }
+    }
+}
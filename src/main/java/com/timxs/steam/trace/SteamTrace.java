@@ -0,0 +1,126 @@
+package com.timxs.steam.trace;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 单个请求的 span 收集器，请求结束时以瀑布图形式输出到 debug 日志
+ * 仅在 {@code com.timxs.steam.trace} 开启 DEBUG 日志时创建
+ */
+@Slf4j
+public class SteamTrace {
+
+    public static final String CONTEXT_KEY = SteamTrace.class.getName();
+
+    /** 单个请求最多记录的 span 数，防止异常请求撑爆内存 */
+    private static final int MAX_SPANS = 512;
+
+    private static final int BAR_WIDTH = 30;
+
+    private final String title;
+    private final long startNanos = System.nanoTime();
+    private final List<SteamSpan> spans = new ArrayList<>();
+    private int dropped;
+
+    public SteamTrace(String title) {
+        this.title = title;
+    }
+
+    /**
+     * 是否需要输出瀑布图
+     */
+    public static boolean isLogEnabled() {
+        return log.isDebugEnabled();
+    }
+
+    void record(SteamSpan span) {
+        synchronized (spans) {
+            if (spans.size() < MAX_SPANS) {
+                spans.add(span);
+            } else {
+                dropped++;
+            }
+        }
+    }
+
+    /**
+     * 输出瀑布图，请求结束时调用
+     */
+    public void log() {
+        if (log.isDebugEnabled()) {
+            log.debug(render(System.nanoTime() - startNanos));
+        }
+    }
+
+    String render(long totalNanos) {
+        List<SteamSpan> snapshot;
+        int droppedCount;
+        synchronized (spans) {
+            snapshot = new ArrayList<>(spans);
+            droppedCount = dropped;
+        }
+        snapshot.sort(Comparator.comparingLong(SteamSpan::getStartNanos));
+
+        long total = Math.max(1, totalNanos);
+        StringBuilder sb = new StringBuilder();
+        sb.append("Steam 请求耗时瀑布图: ").append(title)
+                .append("，共 ").append(millis(totalNanos)).append("ms，")
+                .append(snapshot.size()).append(" 个 span");
+        if (droppedCount > 0) {
+            sb.append("（另有 ").append(droppedCount).append(" 个未记录）");
+        }
+        for (SteamSpan span : snapshot) {
+            long offset = span.getStartNanos() - startNanos;
+            int barStart = (int) Math.min(BAR_WIDTH - 1, offset * BAR_WIDTH / total);
+            int barLength = (int) Math.max(1, Math.min(BAR_WIDTH - barStart, span.getDurationNanos() * BAR_WIDTH / total));
+            sb.append('\n')
+                    .append(String.format("%7s %7s ", "+" + millis(offset) + "ms", millis(span.getDurationNanos()) + "ms"))
+                    .append('|').append(" ".repeat(barStart)).append("#".repeat(barLength))
+                    .append(" ".repeat(BAR_WIDTH - barStart - barLength)).append("| ")
+                    .append("  ".repeat(span.getDepth()))
+                    .append(span.getName()).append(' ').append(span.getOperation());
+            for (Map.Entry<String, String> tag : span.tagsSnapshot().entrySet()) {
+                sb.append(' ').append(tag.getKey()).append('=').append(tag.getValue());
+            }
+            if (!"success".equals(span.getOutcome())) {
+                sb.append(" [").append(span.getOutcome()).append(']');
+            }
+        }
+        long uncovered = totalNanos - coveredNanos(snapshot);
+        sb.append('\n').append("未被 span 覆盖的耗时（模板渲染、Halo 处理等）: ")
+                .append(millis(Math.max(0, uncovered))).append("ms");
+        return sb.toString();
+    }
+
+    /**
+     * 顶层 span 覆盖的时间并集，并行执行的 span 不重复计算
+     */
+    private static long coveredNanos(List<SteamSpan> sorted) {
+        long covered = 0;
+        long currentStart = -1;
+        long currentEnd = -1;
+        for (SteamSpan span : sorted) {
+            if (span.getDepth() != 0) {
+                continue;
+            }
+            long start = span.getStartNanos();
+            long end = start + span.getDurationNanos();
+            if (start > currentEnd) {
+                covered += currentEnd - currentStart;
+                currentStart = start;
+                currentEnd = end;
+            } else {
+                currentEnd = Math.max(currentEnd, end);
+            }
+        }
+        return covered + (currentEnd - currentStart);
+    }
+
+    private static long millis(long nanos) {
+        return nanos / 1_000_000;
+    }
+}
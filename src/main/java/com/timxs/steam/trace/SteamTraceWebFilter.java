@@ -0,0 +1,47 @@
+package com.timxs.steam.trace;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import run.halo.app.security.AdditionalWebFilter;
+
+/**
+ * 为插件的页面与 API 请求建立追踪根节点
+ * 过滤器包住整个处理链，瀑布图的总耗时包含模板渲染与响应写出
+ */
+@Component
+public class SteamTraceWebFilter implements AdditionalWebFilter {
+
+    private static final String PAGE_PATH = "/steam";
+
+    private static final String[] PATH_PREFIXES = {
+            PAGE_PATH + "/",
+            "/apis/api.steam.timxs.com/",
+            "/apis/console.api.steam.timxs.com/"
+    };
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!SteamTrace.isLogEnabled()) {
+            return chain.filter(exchange);
+        }
+        String path = exchange.getRequest().getPath().value();
+        if (!matches(path)) {
+            return chain.filter(exchange);
+        }
+        return SteamTracer.traced(exchange.getRequest().getMethod() + " " + path, chain.filter(exchange));
+    }
+
+    private static boolean matches(String path) {
+        if (PAGE_PATH.equals(path)) {
+            return true;
+        }
+        for (String prefix : PATH_PREFIXES) {
+            if (path.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,153 @@
+package com.timxs.steam.trace;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 请求级追踪
+ * span 通过 Reactor Context 传递父子关系，宿主提供 ObservationRegistry 时同时导出到 Micrometer Tracing，
+ * 开启 DEBUG 日志时记录到当前请求的 {@link SteamTrace} 中。两者都未启用时直接返回原始 Mono，不产生额外开销
+ */
+@Component
+public class SteamTracer {
+
+    public static final String SERVICE = "steam.service";
+    public static final String CACHE = "steam.cache";
+    public static final String UPSTREAM = "steam.upstream";
+    public static final String STORE = "steam.store";
+    public static final String SETTINGS = "steam.settings";
+
+    /**
+     * 与 ObservationThreadLocalAccessor.KEY 一致，WebFlux 服务端观测写入的父 Observation 在此键下
+     */
+    static final String OBSERVATION_KEY = "micrometer.observation";
+
+    private final ObservationRegistry registry;
+
+    @Autowired
+    public SteamTracer(ObjectProvider<ObservationRegistry> registry) {
+        this(registry.getIfAvailable(() -> ObservationRegistry.NOOP));
+    }
+
+    public SteamTracer(ObservationRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * 不导出也不记录的追踪器，供测试和独立运行的工具使用
+     */
+    public static SteamTracer noop() {
+        return new SteamTracer(ObservationRegistry.NOOP);
+    }
+
+    /**
+     * 以 source 为一次完整请求记录瀑布图，结束时输出到 debug 日志
+     * 未开启 DEBUG 日志时原样返回
+     */
+    public static <T> Mono<T> traced(String title, Mono<T> source) {
+        if (!SteamTrace.isLogEnabled()) {
+            return source;
+        }
+        return Mono.defer(() -> {
+            SteamTrace trace = new SteamTrace(title);
+            return source
+                    .doFinally(signal -> trace.log())
+                    .contextWrite(ctx -> ctx.put(SteamTrace.CONTEXT_KEY, trace));
+        });
+    }
+
+    /**
+     * 追踪一个 Mono
+     */
+    public <T> Mono<T> span(String name, String operation, Mono<T> source) {
+        return span(name, operation, span -> source);
+    }
+
+    /**
+     * 追踪一个 Mono，body 可以向 span 补充标签
+     */
+    public <T> Mono<T> span(String name, String operation, Function<SteamSpan, Mono<T>> body) {
+        if (!isEnabled()) {
+            return Mono.defer(() -> body.apply(SteamSpan.NOOP));
+        }
+        return Mono.deferContextual(ctx -> {
+            SteamSpan span = start(name, operation, ctx);
+            if (span == SteamSpan.NOOP) {
+                return body.apply(SteamSpan.NOOP);
+            }
+            return body.apply(span)
+                    .doOnSuccess(value -> span.finish(value != null ? "success" : "empty", null))
+                    .doOnError(e -> span.finish("error", e))
+                    .doOnCancel(() -> span.finish("cancelled", null))
+                    .contextWrite(c -> bind(c, span));
+        });
+    }
+
+    /**
+     * 追踪一个 Flux，完成时记录元素数量
+     */
+    public <T> Flux<T> span(String name, String operation, Flux<T> source) {
+        if (!isEnabled()) {
+            return source;
+        }
+        return Flux.deferContextual(ctx -> {
+            SteamSpan span = start(name, operation, ctx);
+            if (span == SteamSpan.NOOP) {
+                return source;
+            }
+            AtomicLong count = new AtomicLong();
+            return source
+                    .doOnNext(item -> count.incrementAndGet())
+                    .doOnComplete(() -> span.tag("items", count.get()).finish("success", null))
+                    .doOnError(e -> span.finish("error", e))
+                    .doOnCancel(() -> span.tag("items", count.get()).finish("cancelled", null))
+                    .contextWrite(c -> bind(c, span));
+        });
+    }
+
+    private boolean isEnabled() {
+        return !registry.isNoop() || SteamTrace.isLogEnabled();
+    }
+
+    private SteamSpan start(String name, String operation, ContextView ctx) {
+        SteamTrace trace = ctx.getOrDefault(SteamTrace.CONTEXT_KEY, null);
+        boolean observe = !registry.isNoop();
+        if (trace == null && !observe) {
+            return SteamSpan.NOOP;
+        }
+        Observation observation = null;
+        if (observe) {
+            observation = Observation.createNotStarted(name, registry)
+                    .contextualName(name + " " + operation)
+                    .lowCardinalityKeyValue("operation", operation)
+                    .parentObservation(ctx.getOrDefault(OBSERVATION_KEY, null))
+                    .start();
+        }
+        return new SteamSpan(name, operation, ctx.getOrDefault(SteamSpan.CONTEXT_KEY, null), trace, observation);
+    }
+
+    private static Context bind(Context context, SteamSpan span) {
+        Context result = context.put(SteamSpan.CONTEXT_KEY, span);
+        if (span.getObservation() != null) {
+            result = result.put(OBSERVATION_KEY, span.getObservation());
+        }
+        return result;
+    }
+
+    /**
+     * 读取当前 span，未在追踪中时返回 {@link SteamSpan#NOOP}
+     */
+    public static SteamSpan current(ContextView context) {
+        return context.getOrDefault(SteamSpan.CONTEXT_KEY, SteamSpan.NOOP);
+    }
+}
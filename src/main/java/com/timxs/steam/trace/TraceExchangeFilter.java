@@ -0,0 +1,41 @@
+package com.timxs.steam.trace;
+
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * WebClient 过滤器：向当前上游 span 补充线路、HTTP 状态码和响应字节数
+ */
+public class TraceExchangeFilter implements ExchangeFilterFunction {
+
+    private final String route;
+
+    public TraceExchangeFilter(String route) {
+        this.route = route;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return Mono.deferContextual(ctx -> {
+            SteamSpan span = SteamTracer.current(ctx);
+            if (span == SteamSpan.NOOP) {
+                return next.exchange(request);
+            }
+            span.tag("route", route);
+            return next.exchange(request).map(response -> {
+                span.label("status", response.statusCode().value());
+                AtomicLong bytes = new AtomicLong();
+                return response.mutate()
+                        .body(body -> body
+                                .doOnNext(buffer -> bytes.addAndGet(buffer.readableByteCount()))
+                                .doOnComplete(() -> span.tag("bytes", bytes.get())))
+                        .build();
+            });
+        });
+    }
+}
@@ -0,0 +1,19 @@
+package com.timxs.steam.transfer;
+
+import java.util.List;
+
+/**
+ * 导入进度，每写完一批输出一次，最后一次 done 为 true
+ *
+ * @param processed 已读取的数据行数
+ * @param created   新建的记录数
+ * @param updated   与已有记录合并后更新的记录数
+ * @param unchanged 已有记录已包含该数据、无需写入的记录数（重复导入同一文件时全部计入这里）
+ * @param merged    与同一批中此前同一天同一游戏的行合并的行数，合并结果随该记录计入上面三项之一
+ * @param invalid   校验失败或写入失败而跳过的行数
+ * @param errors    前若干条错误说明
+ * @param done      是否已结束
+ */
+public record ImportProgress(long processed, long created, long updated, long unchanged, long merged,
+                             long invalid, List<String> errors, boolean done) {
+}
@@ -0,0 +1,106 @@
+package com.timxs.steam.transfer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.timxs.steam.service.PlaytimeTrackingService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 时长数据导出
+ * 从存储逐页读取并逐块编码，下游（响应写出）消费完一块才继续读取，内存占用与数据总量无关
+ */
+@Component
+public class PlaytimeExporter {
+
+    /** 每块包含的行数，避免为每一行单独写出一个缓冲区 */
+    private static final int CHUNK_ROWS = 200;
+
+    private final PlaytimeTrackingService trackingService;
+    private final ObjectWriter objectWriter;
+
+    public PlaytimeExporter(PlaytimeTrackingService trackingService, ObjectProvider<ObjectMapper> objectMapper) {
+        this.trackingService = trackingService;
+        // 时间固定写成 ISO-8601 字符串，与 CSV 一致，导入时才能读回；不依赖注入的 ObjectMapper 的日期配置
+        this.objectWriter = objectMapper.getIfAvailable(() -> Jackson2ObjectMapperBuilder.json().build())
+                .writer()
+                .without(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    /**
+     * 导出日期范围内的数据
+     *
+     * @param kind      数据类型
+     * @param format    文件格式
+     * @param startDate 开始日期 (yyyy-MM-dd)
+     * @param endDate   结束日期 (yyyy-MM-dd)
+     * @return 按顺序写出的文本块，CSV 以表头开始
+     */
+    public Flux<String> export(Kind kind, TransferFormat format, String startDate, String endDate) {
+        Flux<String> lines = switch (kind) {
+            case RECORDS -> trackingService.streamDailyRecords(startDate, endDate)
+                    .map(record -> format == TransferFormat.CSV
+                            ? PlaytimeRows.csvLine(record.getSpec())
+                            : jsonLine(record.getSpec()));
+            case SNAPSHOTS -> trackingService.streamSnapshots(startDate, endDate)
+                    .map(snapshot -> format == TransferFormat.CSV
+                            ? PlaytimeRows.csvLine(snapshot.getSpec())
+                            : jsonLine(snapshot.getSpec()));
+        };
+        Flux<String> chunks = lines.buffer(CHUNK_ROWS).map(chunk -> String.join("", chunk));
+        return format == TransferFormat.CSV
+                ? chunks.startWith(PlaytimeRows.csvHeader(kind.columns))
+                : chunks;
+    }
+
+    private String jsonLine(Object spec) {
+        try {
+            return objectWriter.writeValueAsString(spec) + "\n";
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("导出序列化失败", e);
+        }
+    }
+
+    /**
+     * 导出的数据类型
+     */
+    public enum Kind {
+        RECORDS("daily-records", PlaytimeRows.RECORD_COLUMNS),
+        SNAPSHOTS("snapshots", PlaytimeRows.SNAPSHOT_COLUMNS);
+
+        private final String fileName;
+        private final List<String> columns;
+
+        Kind(String fileName, List<String> columns) {
+            this.fileName = fileName;
+            this.columns = columns;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        /**
+         * 解析类型参数，为空时导出每日记录
+         *
+         * @throws IllegalArgumentException 类型不支持
+         */
+        public static Kind parse(String value) {
+            if (value == null || value.isBlank()) {
+                return RECORDS;
+            }
+            return switch (value.trim().toLowerCase(Locale.ROOT)) {
+                case "records" -> RECORDS;
+                case "snapshots" -> SNAPSHOTS;
+                default -> throw new IllegalArgumentException("不支持的导出类型: " + value);
+            };
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package com.timxs.steam.transfer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.timxs.steam.model.DailyPlaytimeRecord;
+import com.timxs.steam.model.DailyPlaytimeRecord.DailyPlaytimeRecordSpec;
+import com.timxs.steam.service.PlaytimeStore;
+import com.timxs.steam.service.SteamSettingService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+import run.halo.app.extension.Metadata;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 每日时长记录导入
+ * 逐行读取上传的文件并校验，按批合并写入：同一天同一游戏的记录取时长较大者、时间范围取并集，
+ * 与已有记录合并的结果相同时不写入，因此重复导入同一文件不会改变数据。
+ * 批与批之间串行，批内以有限并发写入，存储的写入压力和内存占用都与文件大小无关。
+ */
+@Slf4j
+@Component
+public class PlaytimeImporter {
+
+    /** 每批合并写入的行数 */
+    private static final int BATCH_SIZE = 200;
+
+    /** 批内同时进行的写入数 */
+    private static final int WRITE_CONCURRENCY = 4;
+
+    /** 进度中保留的错误说明条数 */
+    private static final int MAX_ERRORS = 20;
+
+    private final PlaytimeStore store;
+    private final SteamSettingService settingService;
+    private final ObjectMapper objectMapper;
+
+    public PlaytimeImporter(PlaytimeStore store, SteamSettingService settingService,
+                            ObjectProvider<ObjectMapper> objectMapper) {
+        this.store = store;
+        this.settingService = settingService;
+        this.objectMapper = objectMapper.getIfAvailable(() -> Jackson2ObjectMapperBuilder.json().build());
+    }
+
+    /**
+     * 导入文件中的每日记录
+     * 没有 steamId 的行归入当前配置的账号，属于其他账号的行跳过
+     *
+     * @param file   上传的文件
+     * @param format 文件格式
+     * @return 每批写完后的进度，最后一项 done 为 true；整体失败（如 CSV 表头缺少必填列）时也以 done 结束
+     */
+    public Flux<ImportProgress> importDailyRecords(Path file, TransferFormat format) {
+        Tally tally = new Tally();
+        return settingService.getSteamId()
+                .switchIfEmpty(Mono.error(new IllegalStateException("请先配置 Steam ID")))
+                .flatMapMany(steamId -> rows(file, format)
+                        .buffer(BATCH_SIZE)
+                        .concatMap(batch -> writeBatch(steamId, batch, tally), 1))
+                .map(v -> tally.snapshot(false))
+                .concatWith(Mono.fromSupplier(() -> tally.snapshot(true)))
+                .onErrorResume(e -> {
+                    tally.error("导入中止: " + e.getMessage());
+                    return Mono.just(tally.snapshot(true));
+                })
+                .doOnComplete(() -> log.info("每日时长记录导入结束: 读取 {} 行，新建 {}，更新 {}，未变化 {}，文件内合并 {}，跳过 {}",
+                        tally.processed, tally.created, tally.updated, tally.unchanged, tally.merged, tally.invalid));
+    }
+
+    /**
+     * 逐行读取并校验，读取在 boundedElastic 线程上按下游需求进行
+     */
+    private Flux<Row> rows(Path file, TransferFormat format) {
+        LocalDate today = LocalDate.now();
+        return Flux.using(
+                        () -> Files.newBufferedReader(file, StandardCharsets.UTF_8),
+                        reader -> format == TransferFormat.CSV ? csvRows(reader, today) : ndjsonRows(reader, today),
+                        PlaytimeImporter::closeQuietly)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private Flux<Row> ndjsonRows(BufferedReader reader, LocalDate today) {
+        long[] lineNumber = {0};
+        return Flux.generate(sink -> {
+            try {
+                String line;
+                do {
+                    line = reader.readLine();
+                    lineNumber[0]++;
+                } while (line != null && stripBom(line).isBlank());
+                if (line == null) {
+                    sink.complete();
+                    return;
+                }
+                long number = lineNumber[0];
+                try {
+                    JsonNode node = objectMapper.readTree(stripBom(line));
+                    if (!node.isObject()) {
+                        sink.next(Row.invalid(number, "不是 JSON 对象"));
+                        return;
+                    }
+                    sink.next(Row.valid(number, PlaytimeRows.parseDailyRecord(column -> text(node.get(column)), today)));
+                } catch (JsonProcessingException e) {
+                    sink.next(Row.invalid(number, "JSON 格式错误"));
+                } catch (IllegalArgumentException e) {
+                    sink.next(Row.invalid(number, e.getMessage()));
+                }
+            } catch (IOException e) {
+                sink.error(e);
+            }
+        });
+    }
+
+    private Flux<Row> csvRows(BufferedReader reader, LocalDate today) {
+        Map<String, Integer> header = new HashMap<>();
+        long[] rowNumber = {0};
+        return Flux.generate(sink -> {
+            try {
+                if (header.isEmpty()) {
+                    List<String> names = PlaytimeRows.readCsvRecord(reader);
+                    if (names == null) {
+                        sink.complete();
+                        return;
+                    }
+                    for (int i = 0; i < names.size(); i++) {
+                        header.putIfAbsent(stripBom(names.get(i)).trim(), i);
+                    }
+                    List<String> missing = PlaytimeRows.REQUIRED_RECORD_COLUMNS.stream()
+                            .filter(column -> !header.containsKey(column))
+                            .toList();
+                    if (!missing.isEmpty()) {
+                        sink.error(new IllegalArgumentException("CSV 表头缺少列: " + String.join(", ", missing)));
+                        return;
+                    }
+                }
+                List<String> fields;
+                do {
+                    fields = PlaytimeRows.readCsvRecord(reader);
+                    rowNumber[0]++;
+                } while (fields != null && fields.size() == 1 && fields.get(0).isBlank());
+                if (fields == null) {
+                    sink.complete();
+                    return;
+                }
+                List<String> values = fields;
+                long number = rowNumber[0];
+                try {
+                    sink.next(Row.valid(number, PlaytimeRows.parseDailyRecord(column -> {
+                        Integer index = header.get(column);
+                        return index != null && index < values.size() ? blankToNull(values.get(index)) : null;
+                    }, today)));
+                } catch (IllegalArgumentException e) {
+                    sink.next(Row.invalid(number, e.getMessage()));
+                }
+            } catch (IOException e) {
+                sink.error(e);
+            }
+        });
+    }
+
+    /**
+     * 写入一批：先在批内合并同一天同一游戏的行，再逐条与存储中的记录合并
+     */
+    private Mono<Void> writeBatch(String steamId, List<Row> batch, Tally tally) {
+        Map<String, DailyPlaytimeRecordSpec> merged = new LinkedHashMap<>();
+        for (Row row : batch) {
+            tally.processed.incrementAndGet();
+            if (row.error() != null) {
+                tally.reject(row.number(), row.error());
+                continue;
+            }
+            DailyPlaytimeRecordSpec spec = row.spec();
+            if (spec.getSteamId() == null) {
+                spec.setSteamId(steamId);
+            } else if (!spec.getSteamId().equals(steamId)) {
+                tally.reject(row.number(), "steamId 与当前配置的账号不一致");
+                continue;
+            }
+            DailyPlaytimeRecordSpec previous = merged.putIfAbsent(spec.getDate() + "/" + spec.getAppId(), spec);
+            if (previous != null) {
+                // 合并后的值随该记录写入，这一行本身单独计数，不算作未变化
+                merge(previous, spec);
+                tally.merged.incrementAndGet();
+            }
+        }
+        return Flux.fromIterable(merged.values())
+                .flatMap(spec -> upsert(spec)
+                        .doOnNext(outcome -> outcome.count(tally).incrementAndGet())
+                        .onErrorResume(e -> {
+                            tally.reject(0, spec.getDate() + " / " + spec.getAppId() + " 写入失败: " + e.getMessage());
+                            return Mono.empty();
+                        }), WRITE_CONCURRENCY)
+                .then();
+    }
+
+    /**
+     * 与存储中同一天同一游戏的记录合并；并发更新冲突时重新读取后再合并
+     */
+    private Mono<Outcome> upsert(DailyPlaytimeRecordSpec imported) {
+        return Mono.defer(() -> store.findDailyRecord(imported.getSteamId(), imported.getDate(), imported.getAppId())
+                        .flatMap(existing -> merge(existing.getSpec(), imported)
+                                ? store.updateDailyRecord(existing).thenReturn(Outcome.UPDATED)
+                                : Mono.just(Outcome.UNCHANGED))
+                        .switchIfEmpty(Mono.defer(() -> {
+                            DailyPlaytimeRecord record = new DailyPlaytimeRecord();
+                            record.setMetadata(new Metadata());
+                            record.getMetadata().setGenerateName("daily-");
+                            record.setSpec(copy(imported));
+                            return store.createDailyRecord(record).thenReturn(Outcome.CREATED);
+                        })))
+                .retryWhen(Retry.max(2).filter(OptimisticLockingFailureException.class::isInstance));
+    }
+
+    /**
+     * 把 source 合并到 target：时长取较大者，时间范围取并集，缺少的名称补上
+     *
+     * @return target 是否有变化
+     */
+    static boolean merge(DailyPlaytimeRecordSpec target, DailyPlaytimeRecordSpec source) {
+        boolean changed = false;
+        int minutes = target.getPlaytimeMinutes() != null ? target.getPlaytimeMinutes() : 0;
+        if (source.getPlaytimeMinutes() != null && source.getPlaytimeMinutes() > minutes) {
+            target.setPlaytimeMinutes(source.getPlaytimeMinutes());
+            changed = true;
+        }
+        if (source.getStartTime() != null
+                && (target.getStartTime() == null || source.getStartTime().isBefore(target.getStartTime()))) {
+            target.setStartTime(source.getStartTime());
+            changed = true;
+        }
+        if (source.getEndTime() != null
+                && (target.getEndTime() == null || source.getEndTime().isAfter(target.getEndTime()))) {
+            target.setEndTime(source.getEndTime());
+            changed = true;
+        }
+        if ((target.getGameName() == null || target.getGameName().isBlank()) && source.getGameName() != null
+                && !Objects.equals(target.getGameName(), source.getGameName())) {
+            target.setGameName(source.getGameName());
+            changed = true;
+        }
+        return changed;
+    }
+
+    private static DailyPlaytimeRecordSpec copy(DailyPlaytimeRecordSpec source) {
+        DailyPlaytimeRecordSpec spec = new DailyPlaytimeRecordSpec();
+        spec.setSteamId(source.getSteamId());
+        spec.setDate(source.getDate());
+        spec.setAppId(source.getAppId());
+        spec.setGameName(source.getGameName());
+        spec.setPlaytimeMinutes(source.getPlaytimeMinutes());
+        spec.setStartTime(source.getStartTime());
+        spec.setEndTime(source.getEndTime());
+        return spec;
+    }
+
+    private static String text(JsonNode node) {
+        return node == null || node.isNull() ? null : blankToNull(node.asText());
+    }
+
+    private static String blankToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    /**
+     * Excel 等工具保存的 UTF-8 文件以 BOM 开头
+     */
+    private static String stripBom(String value) {
+        return !value.isEmpty() && value.charAt(0) == '\uFEFF' ? value.substring(1) : value;
+    }
+
+    private static void closeQuietly(BufferedReader reader) {
+        try {
+            reader.close();
+        } catch (IOException ignored) {
+            // 只读文件，关闭失败不影响结果
+        }
+    }
+
+    /**
+     * 读取到的一行，校验失败时 spec 为 null
+     */
+    private record Row(long number, DailyPlaytimeRecordSpec spec, String error) {
+
+        static Row valid(long number, DailyPlaytimeRecordSpec spec) {
+            return new Row(number, spec, null);
+        }
+
+        static Row invalid(long number, String error) {
+            return new Row(number, null, error);
+        }
+    }
+
+    private enum Outcome {
+        CREATED, UPDATED, UNCHANGED;
+
+        AtomicLong count(Tally tally) {
+            return switch (this) {
+                case CREATED -> tally.created;
+                case UPDATED -> tally.updated;
+                case UNCHANGED -> tally.unchanged;
+            };
+        }
+    }
+
+    /**
+     * 导入过程中的计数，批内写入并发更新
+     */
+    private static final class Tally {
+        final AtomicLong processed = new AtomicLong();
+        final AtomicLong created = new AtomicLong();
+        final AtomicLong updated = new AtomicLong();
+        final AtomicLong unchanged = new AtomicLong();
+        final AtomicLong merged = new AtomicLong();
+        final AtomicLong invalid = new AtomicLong();
+        private final List<String> errors = new ArrayList<>();
+
+        void reject(long rowNumber, String message) {
+            invalid.incrementAndGet();
+            error(rowNumber > 0 ? "第 " + rowNumber + " 行: " + message : message);
+        }
+
+        synchronized void error(String message) {
+            if (errors.size() < MAX_ERRORS) {
+                errors.add(message);
+            }
+        }
+
+        synchronized ImportProgress snapshot(boolean done) {
+            return new ImportProgress(processed.get(), created.get(), updated.get(), unchanged.get(),
+                    merged.get(), invalid.get(), List.copyOf(errors), done);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.timxs.steam.transfer;
+
+import com.timxs.steam.model.DailyPlaytimeRecord.DailyPlaytimeRecordSpec;
+import com.timxs.steam.model.PlaytimeSnapshot.PlaytimeSnapshotSpec;
+
+import java.io.IOException;
+import java.io.BufferedReader;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 导入导出文件中的行：列名与 NDJSON 的属性名一致，都取自各资源的 spec
+ * 导出与导入使用同一套列名和转义规则，导出的文件可以原样导入
+ */
+public final class PlaytimeRows {
+
+    public static final List<String> RECORD_COLUMNS = List.of(
+            "steamId", "date", "appId", "gameName", "playtimeMinutes", "startTime", "endTime");
+
+    /** 导入每日记录时必须提供的列，steamId 缺省为当前账号，起止时间可选 */
+    public static final List<String> REQUIRED_RECORD_COLUMNS = List.of(
+            "date", "appId", "gameName", "playtimeMinutes");
+
+    public static final List<String> SNAPSHOT_COLUMNS = List.of(
+            "steamId", "appId", "gameName", "playtimeForever", "snapshotTime");
+
+    /** 单日时长上限（分钟） */
+    private static final int MAX_MINUTES_PER_DAY = 24 * 60;
+
+    private static final int MAX_GAME_NAME_LENGTH = 256;
+
+    private PlaytimeRows() {
+    }
+
+    /**
+     * 校验并转换导入的一行每日记录
+     *
+     * @param value 按列名取值，缺失或空白时返回 null
+     * @param today 日期上限，允许比它晚一天以容纳时区差异
+     * @throws IllegalArgumentException 缺少必填列或取值不合法
+     */
+    static DailyPlaytimeRecordSpec parseDailyRecord(Function<String, String> value, LocalDate today) {
+        DailyPlaytimeRecordSpec spec = new DailyPlaytimeRecordSpec();
+        spec.setSteamId(value.apply("steamId"));
+
+        String date = required(value, "date");
+        try {
+            LocalDate parsed = LocalDate.parse(date);
+            if (parsed.isAfter(today.plusDays(1))) {
+                throw new IllegalArgumentException("date 不能晚于今天: " + date);
+            }
+            spec.setDate(parsed.toString());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("date 格式应为 yyyy-MM-dd: " + date);
+        }
+
+        long appId = parseLong(required(value, "appId"), "appId");
+        if (appId <= 0) {
+            throw new IllegalArgumentException("appId 必须为正数: " + appId);
+        }
+        spec.setAppId(appId);
+
+        String gameName = required(value, "gameName");
+        if (gameName.length() > MAX_GAME_NAME_LENGTH) {
+            throw new IllegalArgumentException("gameName 超过 " + MAX_GAME_NAME_LENGTH + " 个字符");
+        }
+        spec.setGameName(gameName);
+
+        long minutes = parseLong(required(value, "playtimeMinutes"), "playtimeMinutes");
+        if (minutes <= 0 || minutes > MAX_MINUTES_PER_DAY) {
+            throw new IllegalArgumentException("playtimeMinutes 应在 1 到 " + MAX_MINUTES_PER_DAY + " 之间: " + minutes);
+        }
+        spec.setPlaytimeMinutes((int) minutes);
+
+        spec.setStartTime(parseInstant(value.apply("startTime"), "startTime"));
+        spec.setEndTime(parseInstant(value.apply("endTime"), "endTime"));
+        if (spec.getStartTime() != null && spec.getEndTime() != null
+                && spec.getEndTime().isBefore(spec.getStartTime())) {
+            throw new IllegalArgumentException("endTime 早于 startTime");
+        }
+        return spec;
+    }
+
+    private static String required(Function<String, String> value, String column) {
+        String text = value.apply(column);
+        if (text == null) {
+            throw new IllegalArgumentException("缺少 " + column);
+        }
+        return text;
+    }
+
+    private static long parseLong(String text, String column) {
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " 不是整数: " + text);
+        }
+    }
+
+    private static Instant parseInstant(String text, String column) {
+        if (text == null) {
+            return null;
+        }
+        try {
+            return Instant.parse(text);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(column + " 应为 ISO-8601 时间: " + text);
+        }
+    }
+
+    /**
+     * 读取一条 CSV 记录，引号内的逗号和换行属于字段内容
+     *
+     * @return 各字段的值，文件结束时返回 null
+     */
+    static List<String> readCsvRecord(BufferedReader reader) throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (c != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (next != -1) {
+                            reader.reset();
+                        }
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    static String csvLine(DailyPlaytimeRecordSpec spec) {
+        return csvLine(spec.getSteamId(), spec.getDate(), spec.getAppId(), spec.getGameName(),
+                spec.getPlaytimeMinutes(), spec.getStartTime(), spec.getEndTime());
+    }
+
+    static String csvLine(PlaytimeSnapshotSpec spec) {
+        return csvLine(spec.getSteamId(), spec.getAppId(), spec.getGameName(),
+                spec.getPlaytimeForever(), spec.getSnapshotTime());
+    }
+
+    static String csvHeader(List<String> columns) {
+        return csvLine(columns.toArray());
+    }
+
+    private static String csvLine(Object... values) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            Object value = values[i];
+            if (value == null) {
+                continue;
+            }
+            String text = value instanceof Instant instant ? instant.toString() : value.toString();
+            line.append(escape(text));
+        }
+        return line.append('\n').toString();
+    }
+
+    /**
+     * 包含逗号、引号、换行或首尾空白时加引号，引号本身双写
+     */
+    static String escape(String text) {
+        boolean quote = text.indexOf(',') >= 0 || text.indexOf('"') >= 0
+                || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0
+                || (!text.isEmpty() && (Character.isWhitespace(text.charAt(0))
+                        || Character.isWhitespace(text.charAt(text.length() - 1))));
+        if (!quote) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,48 @@
+package com.timxs.steam.transfer;
+
+import org.springframework.http.MediaType;
+
+import java.util.Locale;
+
+/**
+ * 时长数据导入导出的文件格式
+ */
+public enum TransferFormat {
+
+    /** 每行一个 JSON 对象 */
+    NDJSON("ndjson", MediaType.parseMediaType("application/x-ndjson")),
+    /** 带表头的 CSV，RFC 4180 转义 */
+    CSV("csv", MediaType.parseMediaType("text/csv;charset=UTF-8"));
+
+    private final String extension;
+    private final MediaType mediaType;
+
+    TransferFormat(String extension, MediaType mediaType) {
+        this.extension = extension;
+        this.mediaType = mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * 解析格式参数，为空时使用 NDJSON
+     *
+     * @throws IllegalArgumentException 格式不支持
+     */
+    public static TransferFormat parse(String value) {
+        if (value == null || value.isBlank()) {
+            return NDJSON;
+        }
+        return switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "ndjson", "jsonl" -> NDJSON;
+            case "csv" -> CSV;
+            default -> throw new IllegalArgumentException("不支持的格式: " + value);
+        };
+    }
+}
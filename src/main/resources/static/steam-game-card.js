@@ -372,4 +372,37 @@
   }
 
   customElements.define('steam-game-card', SteamGameCard);
+
+  /**
+   * 还原 format=columnar 的响应：按列和共享字典重建对象数组，放回 items，其余分页字段保持不变。
+   * 普通 JSON 原样返回。主题中可用 window.SteamColumnar.decode(await resp.json())
+   */
+  function decodeColumnar(data) {
+    if (!data || data.format !== 'columnar') return data;
+    var fields = data.fields || [];
+    var columns = data.columns || {};
+    var dictionary = data.dictionary || [];
+    var encoded = {};
+    (data.strings || []).forEach(function (field) { encoded[field] = true; });
+    var items = new Array(data.count || 0);
+    for (var i = 0; i < items.length; i++) {
+      var item = {};
+      for (var f = 0; f < fields.length; f++) {
+        var name = fields[f];
+        var value = columns[name][i];
+        item[name] = value !== null && encoded[name] ? dictionary[value] : value;
+      }
+      items[i] = item;
+    }
+    var result = {};
+    Object.keys(data).forEach(function (key) {
+      if (['format', 'count', 'fields', 'columns', 'strings', 'dictionary'].indexOf(key) === -1) {
+        result[key] = data[key];
+      }
+    });
+    result.items = items;
+    return result;
+  }
+
+  window.SteamColumnar = { decode: decodeColumnar };
 })();
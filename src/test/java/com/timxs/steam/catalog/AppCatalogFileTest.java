@@ -0,0 +1,163 @@
+package com.timxs.steam.catalog;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * AppCatalogFile 写入、映射与前缀扫描的往返测试
+ */
+class AppCatalogFileTest {
+
+    private static final long LARGE_APP_ID = 3_000_000_000L;
+
+    private static final long[] APP_IDS = {1, 5, 10, 20, 30, 40, 50, 60, 70, LARGE_APP_ID};
+    private static final String[] NAMES = {
+            "A",
+            "Ab",
+            "Portal",
+            "Portal 2",
+            "Go Go Go",
+            "Golf With Your Friends",
+            "黑神话：悟空",
+            "悟空传",
+            "Half-Life: Portal Stories",
+            "ＰＡＣ－ＭＡＮ"
+    };
+
+    @TempDir
+    Path dir;
+
+    private AppCatalogFile catalog;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Path path = dir.resolve("catalog.bin");
+        AppCatalogFile.write(path, APP_IDS, NAMES, 1_700_000_000L);
+        catalog = AppCatalogFile.open(path);
+    }
+
+    @Test
+    void roundTripsAppsAndHeader() {
+        assertEquals(APP_IDS.length, catalog.appCount());
+        assertEquals(1_700_000_000L, catalog.lastModified());
+
+        List<Long> appIds = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        catalog.forEach((appId, name) -> {
+            appIds.add(appId);
+            names.add(name);
+        });
+        assertEquals(Arrays.stream(APP_IDS).boxed().toList(), appIds);
+        // 原名称原样保存，规范化只影响检索
+        assertEquals(List.of(NAMES), names);
+        assertEquals(1, catalog.normalizedLength(0));
+    }
+
+    @Test
+    void findsFirstAndLastApps() {
+        assertEquals(0, catalog.findApp(1));
+        assertEquals(APP_IDS.length - 1, catalog.findApp(LARGE_APP_ID));
+        assertEquals(LARGE_APP_ID, catalog.appIdAt(APP_IDS.length - 1));
+        assertEquals(6, catalog.findApp(50));
+
+        assertEquals(-1, catalog.findApp(0));
+        assertEquals(-1, catalog.findApp(15));
+        assertEquals(-1, catalog.findApp(LARGE_APP_ID + 1));
+    }
+
+    @Test
+    void scansOneBytePrefixes() {
+        assertEquals(List.of(1L, 5L), scan("a", 10));
+        // 名称中间的单词（全角规范化后的 pac-man）同样可以匹配
+        assertEquals(List.of(LARGE_APP_ID, 10L, 20L, 70L), scan("p", 10));
+        assertEquals(List.of(LARGE_APP_ID), scan("m", 10));
+    }
+
+    @Test
+    void scansTwoByteAndLongerPrefixes() {
+        assertEquals(List.of(5L), scan("ab", 10));
+        assertEquals(List.of(10L, 20L, 70L), scan("po", 10));
+        assertEquals(List.of(20L, 70L), scan("portal ", 10));
+        assertEquals(List.of(70L), scan("stories", 10));
+        assertEquals(List.of(), scan("abc", 10));
+        assertEquals(List.of(), scan("zz", 10));
+    }
+
+    @Test
+    void scansPrefixesWithHighBytes() {
+        assertEquals(List.of(50L, 60L), scan("悟空", 10));
+        assertEquals(List.of(50L), scan("黑神", 10));
+        // 只有首字节（0xE6 / 0xE9），落在单字节前缀对应的整段桶中
+        assertEquals(List.of(50L, 60L), scanBytes(new byte[]{(byte) 0xE6}, 10));
+        assertEquals(List.of(50L), scanBytes(new byte[]{(byte) 0xE9}, 10));
+        assertEquals(List.of(50L, 60L), scanBytes(new byte[]{(byte) 0xE6, (byte) 0x82}, 10));
+        // 词中间的汉字不是单词起点
+        assertEquals(List.of(), scan("传", 10));
+    }
+
+    @Test
+    void countsEachAppOnceWhenItHasSeveralMatchingKeys() {
+        assertEquals(List.of(30L, 40L), scan("go", 2));
+        assertEquals(List.of(30L), scan("go", 1));
+        assertEquals(List.of(30L), scan("go go", 10));
+    }
+
+    @Test
+    void appliesIncludeFilter() {
+        int excluded = catalog.findApp(50);
+        int[] apps = catalog.scanPrefix(bytes("悟空"), 10, app -> app != excluded);
+        assertArrayEquals(new int[]{catalog.findApp(60)}, apps);
+    }
+
+    @Test
+    void matchesWordPrefixesWithinName() {
+        int app = catalog.findApp(70);
+        assertTrue(catalog.matchesPrefix(app, bytes("portal")));
+        assertTrue(catalog.matchesPrefix(app, bytes("stories")));
+        assertFalse(catalog.matchesPrefix(app, bytes("ories")));
+        assertTrue(catalog.startsWith(app, bytes("half")));
+        assertFalse(catalog.startsWith(app, bytes("portal")));
+        assertTrue(catalog.matchesPrefix(catalog.findApp(50), bytes("悟")));
+        assertTrue(catalog.matchesPrefix(catalog.findApp(1), bytes("a")));
+        assertFalse(catalog.matchesPrefix(catalog.findApp(1), bytes("ab")));
+    }
+
+    @Test
+    void writesEmptyCatalog() throws IOException {
+        Path path = dir.resolve("empty.bin");
+        AppCatalogFile.write(path, new long[0], new String[0], 0);
+        AppCatalogFile empty = AppCatalogFile.open(path);
+
+        assertEquals(0, empty.appCount());
+        assertEquals(-1, empty.findApp(1));
+        assertArrayEquals(new int[0], empty.scanPrefix(bytes("a"), 10, app -> true));
+    }
+
+    private List<Long> scan(String prefix, int max) {
+        return scanBytes(bytes(prefix), max);
+    }
+
+    private List<Long> scanBytes(byte[] prefix, int max) {
+        return Arrays.stream(catalog.scanPrefix(prefix, max, app -> true))
+                .mapToObj(catalog::appIdAt)
+                .toList();
+    }
+
+    /** 前缀已是规范化形式；不调用 normalize，以保留末尾空格 */
+    private static byte[] bytes(String prefix) {
+        return prefix.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,83 @@
+package com.timxs.steam.client;
+
+import com.timxs.steam.client.CircuitBreaker.State;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * CircuitBreaker 状态流转测试
+ */
+class CircuitBreakerTest {
+
+    private static final long LONG_OPEN = 60_000;
+
+    private final CircuitBreaker breaker = new CircuitBreaker(SteamEndpoint.OWNED_GAMES);
+
+    @Test
+    void opensAfterConsecutiveFailures() {
+        breaker.onFailure(3);
+        breaker.onFailure(3);
+        assertEquals(State.CLOSED, breaker.status().getState());
+
+        breaker.onFailure(3);
+        assertEquals(State.OPEN, breaker.status().getState());
+        assertFalse(breaker.tryAcquire(LONG_OPEN));
+        assertEquals(1, breaker.status().getRejected());
+    }
+
+    @Test
+    void successResetsFailureCount() {
+        breaker.onFailure(3);
+        breaker.onFailure(3);
+        breaker.onSuccess();
+        breaker.onFailure(3);
+
+        assertEquals(State.CLOSED, breaker.status().getState());
+        assertEquals(1, breaker.status().getConsecutiveFailures());
+    }
+
+    @Test
+    void halfOpenTrialClosesOnSuccess() {
+        breaker.onFailure(1);
+
+        assertTrue(breaker.tryAcquire(0));
+        assertEquals(State.HALF_OPEN, breaker.status().getState());
+        // 探测期间只放行一个请求
+        assertFalse(breaker.tryAcquire(0));
+
+        breaker.onSuccess();
+        assertEquals(State.CLOSED, breaker.status().getState());
+        assertNull(breaker.status().getOpenedAt());
+        assertTrue(breaker.tryAcquire(0));
+    }
+
+    @Test
+    void halfOpenTrialReopensOnFailure() {
+        breaker.onFailure(5);
+        breaker.onFailure(5);
+        breaker.onFailure(5);
+        breaker.onFailure(5);
+        breaker.onFailure(5);
+        assertTrue(breaker.tryAcquire(0));
+
+        // 探测失败立即重新熔断，不需要再累计到阈值
+        breaker.onFailure(5);
+        assertEquals(State.OPEN, breaker.status().getState());
+        assertFalse(breaker.tryAcquire(LONG_OPEN));
+    }
+
+    @Test
+    void cancelledTrialFreesProbeSlot() {
+        breaker.onFailure(1);
+        assertTrue(breaker.tryAcquire(0));
+        assertFalse(breaker.tryAcquire(0));
+
+        breaker.onCancel();
+        assertEquals(State.HALF_OPEN, breaker.status().getState());
+        assertTrue(breaker.tryAcquire(0));
+    }
+}
@@ -0,0 +1,149 @@
+package com.timxs.steam.client;
+
+import com.timxs.steam.mock.MockSteamServer;
+import com.timxs.steam.model.BadgeInfo;
+import com.timxs.steam.model.GameDetail;
+import com.timxs.steam.model.GameMetadata;
+import com.timxs.steam.model.OwnedGame;
+import com.timxs.steam.model.PlayerSummary;
+import com.timxs.steam.service.SteamSettingService;
+import com.timxs.steam.service.SteamSettingService.AdaptiveTimeoutConfig;
+import com.timxs.steam.service.SteamSettingService.ApiProxyConfig;
+import com.timxs.steam.service.SteamSettingService.CircuitBreakerConfig;
+import com.timxs.steam.service.SteamSettingService.RequestLaneConfig;
+import com.timxs.steam.service.SteamSettingService.RetryConfig;
+import com.timxs.steam.trace.SteamTracer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * SteamApiClientImpl 对接模拟 Steam 服务的集成测试
+ */
+class SteamApiClientImplTest {
+
+    private static final Duration BLOCK_TIMEOUT = Duration.ofSeconds(10);
+
+    private MockSteamServer server;
+    private SteamSettingService settingService;
+    private SteamApiClientImpl client;
+
+    @BeforeEach
+    void setUp() {
+        server = new MockSteamServer().librarySize(250).start();
+
+        settingService = mock(SteamSettingService.class);
+        ApiProxyConfig proxyConfig = new ApiProxyConfig();
+        proxyConfig.setEnabled(true);
+        proxyConfig.setProxyType("custom");
+        proxyConfig.setCustomApiUrl(server.baseUrl());
+        lenient().when(settingService.getApiKey()).thenReturn(Mono.just("test-key"));
+        lenient().when(settingService.getApiTimeoutSeconds()).thenReturn(Mono.just(5));
+        lenient().when(settingService.getApiProxyConfig()).thenReturn(Mono.just(proxyConfig));
+        lenient().when(settingService.getAdaptiveTimeoutConfig()).thenReturn(Mono.just(new AdaptiveTimeoutConfig()));
+        lenient().when(settingService.getRetryConfig()).thenReturn(Mono.just(new RetryConfig(2, 10, 50)));
+        lenient().when(settingService.getCircuitBreakerConfig()).thenReturn(Mono.just(new CircuitBreakerConfig()));
+        lenient().when(settingService.getRequestLaneConfig()).thenReturn(Mono.just(new RequestLaneConfig()));
+
+        SteamRequestDispatcher dispatcher = new SteamRequestDispatcher(settingService);
+        client = new SteamApiClientImpl(settingService, dispatcher,
+                new UpstreamResilience(settingService, dispatcher), new AdaptiveTimeouts(settingService),
+                new UpstreamRouter(settingService, dispatcher), SteamTracer.noop());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void fetchesLibraryAndProfile() {
+        List<OwnedGame> games = client.getOwnedGames(MockSteamServer.STEAM_ID, true, true).block(BLOCK_TIMEOUT);
+        assertNotNull(games);
+        assertEquals(250, games.size());
+        assertEquals(server.library().get(0).get("appid"), games.get(0).getAppId());
+
+        PlayerSummary summary = client.getPlayerSummary(MockSteamServer.STEAM_ID).block(BLOCK_TIMEOUT);
+        assertNotNull(summary);
+        assertEquals(MockSteamServer.STEAM_ID, summary.getSteamId());
+
+        assertEquals(42, client.getSteamLevel(MockSteamServer.STEAM_ID).block(BLOCK_TIMEOUT));
+
+        BadgeInfo badges = client.getBadges(MockSteamServer.STEAM_ID).block(BLOCK_TIMEOUT);
+        assertNotNull(badges);
+        assertEquals(20, badges.getBadges().size());
+    }
+
+    @Test
+    void parsesStoreDetail() {
+        GameDetail detail = client.getGameDetail(20L, "schinese").block(BLOCK_TIMEOUT);
+        assertNotNull(detail);
+        assertEquals("Game 20", detail.getName());
+        assertEquals("Mock Publisher, Mock Distribution", detail.getPublishers());
+        assertEquals("Action, Adventure", detail.getGenres());
+    }
+
+    @Test
+    void parsesStoreMetadata() {
+        GameMetadata.GameMetadataSpec metadata = client.getGameMetadata(20L).block(BLOCK_TIMEOUT);
+        assertNotNull(metadata);
+        assertEquals(20L, metadata.getAppId());
+        assertEquals("Game 20", metadata.getName());
+        assertEquals(List.of("Mock Publisher", "Mock Distribution"), metadata.getPublishers());
+        assertEquals(List.of("Action", "Adventure"), metadata.getGenres());
+        assertNull(metadata.getRefreshedAt());
+    }
+
+    @Test
+    void parsesMetadataAndDetailFromOneRequest() {
+        var fetched = client.getGameDetailWithMetadata(20L, "schinese").block(BLOCK_TIMEOUT);
+        assertNotNull(fetched);
+        assertEquals(List.of("Mock Publisher", "Mock Distribution"), fetched.getT1().getPublishers());
+        assertEquals("Mock Publisher, Mock Distribution", fetched.getT2().getPublishers());
+        assertEquals(fetched.getT1().getName(), fetched.getT2().getName());
+        assertEquals(1, server.requestCount("appdetails"));
+    }
+
+    @Test
+    void retriesTransientFailures() {
+        server.failNext(2, 503);
+        List<OwnedGame> games = client.getOwnedGames(MockSteamServer.STEAM_ID, true, true).block(BLOCK_TIMEOUT);
+        assertNotNull(games);
+        assertEquals(250, games.size());
+        assertEquals(3, server.requestCount("GetOwnedGames"));
+    }
+
+    @Test
+    void doesNotRetryClientErrors() {
+        assertThrows(WebClientResponseException.BadRequest.class,
+                () -> client.getPlayerAchievements(MockSteamServer.STEAM_ID, 70L).block(BLOCK_TIMEOUT));
+        assertEquals(1, server.requestCount("GetPlayerAchievements"));
+    }
+
+    @Test
+    void timesOutOnSlowBody() {
+        when(settingService.getApiTimeoutSeconds()).thenReturn(Mono.just(1));
+        when(settingService.getRetryConfig()).thenReturn(Mono.just(new RetryConfig(0, 10, 50)));
+        server.slowBody(Duration.ofMillis(500));
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> client.getSteamLevel(MockSteamServer.STEAM_ID).block(BLOCK_TIMEOUT));
+        assertInstanceOf(TimeoutException.class, Exceptions.unwrap(e));
+    }
+}
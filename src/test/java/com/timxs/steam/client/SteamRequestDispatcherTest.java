@@ -0,0 +1,172 @@
+package com.timxs.steam.client;
+
+import com.timxs.steam.client.SteamRequestDispatcher.LaneStatus;
+import com.timxs.steam.service.SteamSettingService;
+import com.timxs.steam.service.SteamSettingService.RequestLaneConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * SteamRequestDispatcher 通道排队、拒绝与取消测试
+ */
+class SteamRequestDispatcherTest {
+
+    private RequestLaneConfig laneConfig;
+    private SteamRequestDispatcher dispatcher;
+    private final List<String> started = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        laneConfig = new RequestLaneConfig(2, 1, 1, 1, 1, 0);
+        SteamSettingService settingService = mock(SteamSettingService.class);
+        when(settingService.getRequestLaneConfig()).thenAnswer(invocation -> Mono.just(laneConfig));
+        dispatcher = new SteamRequestDispatcher(settingService);
+    }
+
+    @Test
+    void queuesBeyondConcurrencyAndRunsInOrder() {
+        Sinks.One<String> first = Sinks.one();
+        Sinks.One<String> second = Sinks.one();
+        Sinks.One<String> third = Sinks.one();
+        AtomicReference<String> thirdResult = new AtomicReference<>();
+
+        dispatch("first", first, RequestPriority.INTERACTIVE).subscribe();
+        dispatch("second", second, RequestPriority.INTERACTIVE).subscribe();
+        dispatch("third", third, RequestPriority.INTERACTIVE).subscribe(thirdResult::set);
+
+        assertEquals(List.of("first", "second"), started);
+        assertLane(RequestPriority.INTERACTIVE, 2, 1, 0);
+
+        first.tryEmitValue("ok");
+        assertEquals(List.of("first", "second", "third"), started);
+        assertLane(RequestPriority.INTERACTIVE, 2, 0, 1);
+
+        third.tryEmitValue("done");
+        second.tryEmitValue("ok");
+        assertEquals("done", thirdResult.get());
+        assertLane(RequestPriority.INTERACTIVE, 0, 0, 3);
+    }
+
+    @Test
+    void rejectsWhenQueueIsFull() {
+        AtomicReference<Throwable> error = new AtomicReference<>();
+
+        dispatch("running", Sinks.one(), RequestPriority.PREFETCH).subscribe();
+        dispatch("queued", Sinks.one(), RequestPriority.PREFETCH).subscribe();
+        dispatch("rejected", Sinks.one(), RequestPriority.PREFETCH).subscribe(value -> { }, error::set);
+
+        assertInstanceOf(RejectedExecutionException.class, error.get());
+        assertEquals(List.of("running"), started);
+        assertEquals(1, status(RequestPriority.PREFETCH).getRejected());
+        // 其他通道不受影响
+        dispatch("interactive", Sinks.one(), RequestPriority.INTERACTIVE).subscribe();
+        assertEquals(List.of("running", "interactive"), started);
+    }
+
+    @Test
+    void cancelledWaiterLeavesQueueWithoutTakingPermit() {
+        Sinks.One<String> running = Sinks.one();
+        dispatch("running", running, RequestPriority.PREFETCH).subscribe();
+        Disposable queued = dispatch("queued", Sinks.one(), RequestPriority.PREFETCH).subscribe();
+        assertLane(RequestPriority.PREFETCH, 1, 1, 0);
+
+        queued.dispose();
+        assertLane(RequestPriority.PREFETCH, 1, 0, 0);
+
+        running.tryEmitValue("ok");
+        assertEquals(List.of("running"), started);
+        assertLane(RequestPriority.PREFETCH, 0, 0, 1);
+    }
+
+    @Test
+    void cancelledRunningCallReleasesPermit() {
+        Disposable running = dispatch("running", Sinks.one(), RequestPriority.BACKGROUND).subscribe();
+        assertLane(RequestPriority.BACKGROUND, 1, 0, 0);
+
+        running.dispose();
+        assertLane(RequestPriority.BACKGROUND, 0, 0, 1);
+
+        dispatch("next", Sinks.one(), RequestPriority.BACKGROUND).subscribe();
+        assertEquals(List.of("running", "next"), started);
+    }
+
+    @Test
+    void appliesUpdatedLimitsToNewRequests() {
+        laneConfig.setBackgroundQueueSize(3);
+        dispatch("running", Sinks.one(), RequestPriority.BACKGROUND).subscribe();
+        dispatch("queued1", Sinks.one(), RequestPriority.BACKGROUND).subscribe();
+        dispatch("queued2", Sinks.one(), RequestPriority.BACKGROUND).subscribe();
+        assertEquals(List.of("running"), started);
+
+        laneConfig.setBackgroundConcurrency(3);
+        dispatch("next", Sinks.one(), RequestPriority.BACKGROUND).subscribe();
+
+        // 新增的名额先给排队中的请求，后到的请求排在队尾
+        assertEquals(List.of("running", "queued1", "queued2"), started);
+        assertEquals(3, status(RequestPriority.BACKGROUND).getMaxConcurrency());
+        assertLane(RequestPriority.BACKGROUND, 3, 1, 0);
+    }
+
+    @Test
+    void tryDispatchUsesFreePermitOnlyWithoutQueueing() {
+        Sinks.One<String> running = Sinks.one();
+        dispatch("running", running, RequestPriority.INTERACTIVE).subscribe();
+
+        // 通道还有一个空闲名额，对冲请求占用它
+        Disposable hedge = dispatcher.tryDispatch(Mono.defer(() -> {
+                    started.add("hedge");
+                    return Sinks.<String>one().asMono();
+                }))
+                .contextWrite(RequestPriority.INTERACTIVE.context())
+                .subscribe();
+        assertLane(RequestPriority.INTERACTIVE, 2, 0, 0);
+
+        // 通道已满时不排队，直接返回空
+        AtomicReference<String> skipped = new AtomicReference<>("pending");
+        dispatcher.tryDispatch(Mono.just("extra"))
+                .contextWrite(RequestPriority.INTERACTIVE.context())
+                .subscribe(skipped::set, e -> skipped.set("error"), () -> skipped.compareAndSet("pending", "empty"));
+        assertEquals("empty", skipped.get());
+        assertEquals(0, status(RequestPriority.INTERACTIVE).getRejected());
+
+        hedge.dispose();
+        running.tryEmitValue("ok");
+        assertEquals(List.of("running", "hedge"), started);
+        assertLane(RequestPriority.INTERACTIVE, 0, 0, 2);
+    }
+
+    private Mono<String> dispatch(String name, Sinks.One<String> result, RequestPriority priority) {
+        return dispatcher.dispatch(Mono.defer(() -> {
+                    started.add(name);
+                    return result.asMono();
+                }))
+                .contextWrite(priority.context());
+    }
+
+    private void assertLane(RequestPriority priority, int active, int queued, long completed) {
+        LaneStatus status = status(priority);
+        assertEquals(active, status.getActive(), "active");
+        assertEquals(queued, status.getQueued(), "queued");
+        assertEquals(completed, status.getCompleted(), "completed");
+    }
+
+    private LaneStatus status(RequestPriority priority) {
+        return dispatcher.getStatus().stream()
+                .filter(status -> status.getPriority() == priority)
+                .findFirst()
+                .orElseThrow();
+    }
+}
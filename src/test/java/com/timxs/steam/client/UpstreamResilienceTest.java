@@ -0,0 +1,170 @@
+package com.timxs.steam.client;
+
+import com.timxs.steam.client.CircuitBreaker.State;
+import com.timxs.steam.service.SteamSettingService;
+import com.timxs.steam.service.SteamSettingService.CircuitBreakerConfig;
+import com.timxs.steam.service.SteamSettingService.RequestLaneConfig;
+import com.timxs.steam.service.SteamSettingService.RetryConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * UpstreamResilience 重试期限与熔断计数测试
+ */
+class UpstreamResilienceTest {
+
+    private static final Duration BLOCK_TIMEOUT = Duration.ofSeconds(10);
+    private static final SteamEndpoint ENDPOINT = SteamEndpoint.OWNED_GAMES;
+
+    private SteamSettingService settingService;
+    private SteamRequestDispatcher dispatcher;
+    private UpstreamResilience resilience;
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        settingService = mock(SteamSettingService.class);
+        when(settingService.getRetryConfig()).thenReturn(Mono.just(new RetryConfig(3, 1, 5)));
+        when(settingService.getCircuitBreakerConfig()).thenReturn(Mono.just(new CircuitBreakerConfig(true, 10, 60)));
+        when(settingService.getRequestLaneConfig()).thenReturn(Mono.just(new RequestLaneConfig()));
+        dispatcher = new SteamRequestDispatcher(settingService);
+        resilience = new UpstreamResilience(settingService, dispatcher);
+    }
+
+    @Test
+    void clientErrorsDoNotOpenBreaker() {
+        for (int i = 0; i < 5; i++) {
+            assertThrows(WebClientResponseException.class,
+                    () -> execute(Mono.error(status(400)), RequestPriority.INTERACTIVE, Duration.ofSeconds(5)));
+        }
+
+        assertEquals(5, attempts.get());
+        CircuitBreaker.Status status = breakerStatus();
+        assertEquals(State.CLOSED, status.getState());
+        assertEquals(0, status.getTotalFailures());
+    }
+
+    @Test
+    void serverErrorsOpenBreaker() {
+        when(settingService.getRetryConfig()).thenReturn(Mono.just(new RetryConfig(0, 1, 5)));
+        when(settingService.getCircuitBreakerConfig()).thenReturn(Mono.just(new CircuitBreakerConfig(true, 2, 60)));
+
+        assertThrows(WebClientResponseException.class,
+                () -> execute(Mono.error(status(503)), RequestPriority.INTERACTIVE, Duration.ofSeconds(5)));
+        assertThrows(WebClientResponseException.class,
+                () -> execute(Mono.error(status(503)), RequestPriority.INTERACTIVE, Duration.ofSeconds(5)));
+        assertThrows(CircuitBreakerOpenException.class,
+                () -> execute(Mono.error(status(503)), RequestPriority.INTERACTIVE, Duration.ofSeconds(5)));
+
+        assertEquals(2, attempts.get());
+        assertEquals(State.OPEN, breakerStatus().getState());
+    }
+
+    @Test
+    void interactiveTimeoutIsNotRetried() {
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> execute(Mono.error(new TimeoutException()), RequestPriority.INTERACTIVE, Duration.ofSeconds(5)));
+
+        assertInstanceOf(TimeoutException.class, Exceptions.unwrap(e));
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void backgroundTimeoutIsRetried() {
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> execute(Mono.error(new TimeoutException()), RequestPriority.BACKGROUND, Duration.ofSeconds(5)));
+
+        assertInstanceOf(TimeoutException.class, Exceptions.unwrap(e));
+        assertEquals(4, attempts.get());
+    }
+
+    @Test
+    void interactiveRetriesShareOneDeadline() {
+        // 首次快速失败，之后的重试一直挂起，只能由总期限结束
+        Mono<String> firstFailsThenHangs = Mono.defer(() -> attempts.get() == 1
+                ? Mono.error(status(503))
+                : Mono.never());
+        long startedAt = System.nanoTime();
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> execute(firstFailsThenHangs, RequestPriority.INTERACTIVE, Duration.ofMillis(300)));
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - startedAt);
+        assertInstanceOf(TimeoutException.class, Exceptions.unwrap(e));
+        assertEquals(2, attempts.get());
+        assertTrue(elapsed.compareTo(Duration.ofSeconds(2)) < 0, "elapsed " + elapsed);
+        // 被总期限取消的重试不计为失败，也不会占住探测名额
+        assertEquals(1, breakerStatus().getTotalFailures());
+    }
+
+    @Test
+    void localErrorsLeaveBreakerOpen() {
+        when(settingService.getRetryConfig()).thenReturn(Mono.just(new RetryConfig(0, 1, 5)));
+        // 熔断持续 0 秒：下一次通过熔断检查的请求即为半开探测
+        when(settingService.getCircuitBreakerConfig()).thenReturn(Mono.just(new CircuitBreakerConfig(true, 1, 0)));
+        assertThrows(WebClientResponseException.class,
+                () -> execute(Mono.error(status(503)), RequestPriority.INTERACTIVE, Duration.ofSeconds(5)));
+        assertEquals(State.OPEN, breakerStatus().getState());
+
+        // 通道占满，队列已满的拒绝发生在熔断检查之前，不会关闭熔断器
+        when(settingService.getRequestLaneConfig()).thenReturn(Mono.just(new RequestLaneConfig(1, 0, 1, 0, 1, 0)));
+        Disposable busy = dispatcher.dispatch(Mono.never())
+                .contextWrite(RequestPriority.INTERACTIVE.context())
+                .subscribe();
+        assertThrows(RejectedExecutionException.class,
+                () -> execute(Mono.just("ok"), RequestPriority.INTERACTIVE, Duration.ofSeconds(5)));
+        assertEquals(State.OPEN, breakerStatus().getState());
+        busy.dispose();
+
+        // 探测请求遇到本地错误：保持半开并释放探测名额
+        assertThrows(IllegalStateException.class,
+                () -> execute(Mono.error(new IllegalStateException("local")), RequestPriority.INTERACTIVE,
+                        Duration.ofSeconds(5)));
+        CircuitBreaker.Status status = breakerStatus();
+        assertEquals(State.HALF_OPEN, status.getState());
+        assertEquals(1, status.getConsecutiveFailures());
+
+        // 下一个探测仍被放行，上游故障使熔断器重新打开
+        assertThrows(WebClientResponseException.class,
+                () -> execute(Mono.error(status(503)), RequestPriority.INTERACTIVE, Duration.ofSeconds(5)));
+        assertEquals(State.OPEN, breakerStatus().getState());
+        assertEquals(3, attempts.get());
+    }
+
+    private String execute(Mono<String> attempt, RequestPriority priority, Duration deadline) {
+        Mono<String> counted = Mono.defer(() -> {
+            attempts.incrementAndGet();
+            return attempt;
+        });
+        return resilience.execute(ENDPOINT, counted, deadline)
+                .contextWrite(priority.context())
+                .block(BLOCK_TIMEOUT);
+    }
+
+    private CircuitBreaker.Status breakerStatus() {
+        return resilience.getBreakerStatus().stream()
+                .filter(status -> status.getEndpoint() == ENDPOINT)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static WebClientResponseException status(int code) {
+        return WebClientResponseException.create(code, "status " + code, null, null, null);
+    }
+}
@@ -0,0 +1,105 @@
+package com.timxs.steam.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ColumnarFormat 列式编码测试
+ */
+class ColumnarFormatTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void encodesPagedResultIntoColumns() throws Exception {
+        JsonNode tree = mapper.readTree("""
+                {"page":1,"size":20,"total":135,"items":[
+                  {"appid":730,"name":"Counter-Strike 2","genre":"Action","icon":"a.jpg"},
+                  {"appid":570,"name":"Dota 2","genre":"Strategy","icon":"b.jpg","hours":12.5},
+                  {"appid":440,"name":"Team Fortress 2","genre":"Action","icon":"c.jpg"},
+                  {"appid":220,"name":"Half-Life 2","genre":null,"icon":"d.jpg"}
+                ]}""");
+
+        JsonNode encoded = ColumnarFormat.encode(tree, null);
+
+        assertEquals(1, encoded.get("page").asInt());
+        assertEquals(20, encoded.get("size").asInt());
+        assertEquals(135, encoded.get("total").asInt());
+        assertFalse(encoded.has("items"));
+        assertEquals("columnar", encoded.get("format").asText());
+        assertEquals(4, encoded.get("count").asInt());
+        assertEquals(List.of("appid", "name", "genre", "icon", "hours"), texts(encoded.get("fields")));
+
+        // 只有重复的字符串列进字典，空值保持为 null
+        assertEquals(List.of("genre"), texts(encoded.get("strings")));
+        assertEquals(List.of("Action", "Strategy"), texts(encoded.get("dictionary")));
+        assertEquals(mapper.readTree("[0,1,0,null]"), encoded.at("/columns/genre"));
+
+        // 其余列原样保存，缺失的字段补 null
+        assertEquals(mapper.readTree("[730,570,440,220]"), encoded.at("/columns/appid"));
+        assertEquals(mapper.readTree("[\"Counter-Strike 2\",\"Dota 2\",\"Team Fortress 2\",\"Half-Life 2\"]"),
+                encoded.at("/columns/name"));
+        assertEquals(mapper.readTree("[\"a.jpg\",\"b.jpg\",\"c.jpg\",\"d.jpg\"]"), encoded.at("/columns/icon"));
+        assertEquals(mapper.readTree("[null,12.5,null,null]"), encoded.at("/columns/hours"));
+    }
+
+    @Test
+    void encodesTopLevelArray() throws Exception {
+        JsonNode tree = mapper.readTree("""
+                [{"date":"2024-01-05","minutes":90},{"date":"2024-01-05","minutes":15}]""");
+
+        JsonNode encoded = ColumnarFormat.encode(tree, null);
+
+        assertEquals(2, encoded.get("count").asInt());
+        assertEquals(List.of("format", "count", "fields", "columns", "strings", "dictionary"),
+                names(encoded));
+        assertEquals(List.of("date"), texts(encoded.get("strings")));
+        assertEquals(mapper.readTree("[0,0]"), encoded.at("/columns/date"));
+        assertEquals(mapper.readTree("[90,15]"), encoded.at("/columns/minutes"));
+    }
+
+    @Test
+    void readsRowsFromRowProperty() throws Exception {
+        JsonNode tree = mapper.readTree("""
+                {"items":[
+                  {"metadata":{"name":"r1"},"spec":{"appId":730,"gameName":"Counter-Strike 2"}},
+                  {"metadata":{"name":"r2"},"spec":{"appId":730,"gameName":"Counter-Strike 2"}}
+                ]}""");
+
+        JsonNode encoded = ColumnarFormat.encode(tree, "spec");
+
+        assertEquals(List.of("appId", "gameName"), texts(encoded.get("fields")));
+        assertEquals(mapper.readTree("[730,730]"), encoded.at("/columns/appId"));
+        assertEquals(List.of("gameName"), texts(encoded.get("strings")));
+        assertEquals(List.of("Counter-Strike 2"), texts(encoded.get("dictionary")));
+        assertTrue(encoded.at("/columns/metadata").isMissingNode());
+    }
+
+    @Test
+    void leavesNonListResponseUnchanged() throws Exception {
+        JsonNode tree = mapper.readTree("{\"steamId\":\"76561198000000000\",\"level\":42}");
+
+        assertSame(tree, ColumnarFormat.encode(tree, null));
+    }
+
+    private static List<String> texts(JsonNode array) {
+        List<String> values = new ArrayList<>();
+        array.forEach(node -> values.add(node.asText()));
+        return values;
+    }
+
+    private static List<String> names(JsonNode object) {
+        List<String> values = new ArrayList<>();
+        object.fieldNames().forEachRemaining(values::add);
+        return values;
+    }
+}
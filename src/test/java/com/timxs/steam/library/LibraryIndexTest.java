@@ -0,0 +1,194 @@
+package com.timxs.steam.library;
+
+import com.timxs.steam.library.LibraryQuery.Visibility;
+import com.timxs.steam.model.OwnedGame;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * LibraryIndex 过滤、排序与游标分页测试
+ */
+class LibraryIndexTest {
+
+    /** appId、名称、游玩时长、最后游玩时间；时长和时间都有并列 */
+    private final LibraryIndex index = LibraryIndex.build(LibraryColumns.of(List.of(
+            game(10, "Portal", 100, 1000),
+            game(20, "Portal 2", 100, 2000),
+            game(30, "Half-Life", 300, 2000),
+            game(40, "Half-Life 2", 50, 3000),
+            game(50, "Dota 2", 0, 0),
+            game(60, "Counter-Strike", 300, 1500),
+            game(70, "portal knights", 100, 1000),
+            game(80, "Hades", 20, 500))));
+
+    @Test
+    void cursorPagingWalksTiesWithoutGapsOrRepeats() {
+        LibraryQuery query = query("-playtime");
+        query.setVisibility(Visibility.ALL);
+        query.setLimit(2);
+
+        List<Long> seen = new ArrayList<>();
+        List<Long> cursors = new ArrayList<>();
+        LibraryPage page;
+        do {
+            page = index.query(query, Set.of(), 0);
+            assertEquals(8, page.getTotal());
+            seen.addAll(ids(page));
+            cursors.add(page.getNextCursor());
+            query.setAfter(page.getNextCursor());
+        } while (page.getNextCursor() != null);
+
+        // 时长相同时按 appId 升序，游标停在并列组中间也能从下一个继续
+        assertEquals(List.of(30L, 60L, 10L, 20L, 70L, 40L, 80L, 50L), seen);
+        assertEquals(List.of(60L, 20L, 40L), cursors.subList(0, 3));
+        assertNull(cursors.get(3));
+    }
+
+    @Test
+    void laterSortKeysBreakTies() {
+        assertEquals(List.of(30L, 60L, 20L, 10L, 70L, 40L, 80L, 50L),
+                ids(index.query(all("-playtime,-last_played"), Set.of(), 0)));
+        assertEquals(List.of(50L, 80L, 70L, 10L, 60L, 20L, 30L, 40L),
+                ids(index.query(all("last_played,-name"), Set.of(), 0)));
+        assertEquals(List.of(60L, 50L, 80L, 30L, 40L, 10L, 20L, 70L),
+                ids(index.query(all("name"), Set.of(), 0)));
+    }
+
+    @Test
+    void cursorFromMultiKeyOrderResumesAfterThatGame() {
+        LibraryQuery query = all("-playtime,-last_played");
+        query.setAfter(20L);
+        query.setLimit(3);
+
+        LibraryPage page = index.query(query, Set.of(), 0);
+
+        assertEquals(List.of(10L, 70L, 40L), ids(page));
+        assertEquals(40L, page.getNextCursor());
+    }
+
+    @Test
+    void visibilityAndTopLimit() {
+        Set<Long> hidden = Set.of(30L, 80L);
+
+        LibraryPage visible = index.query(query("-playtime"), hidden, 0);
+        assertEquals(List.of(60L, 10L, 20L, 70L, 40L, 50L), ids(visible));
+        assertEquals(6, visible.getTotal());
+
+        LibraryQuery hiddenOnly = query("-playtime");
+        hiddenOnly.setVisibility(Visibility.HIDDEN);
+        assertEquals(List.of(30L, 80L), ids(index.query(hiddenOnly, hidden, 0)));
+
+        // 前 N 名只在未隐藏的游戏中计算，时长并列时 appId 大的排名靠前
+        LibraryPage top = index.query(query("-playtime"), hidden, 2);
+        assertEquals(List.of(60L, 70L), ids(top));
+        assertEquals(2, top.getTotal());
+    }
+
+    @Test
+    void playtimeAndLastPlayedRangesAreInclusive() {
+        LibraryQuery playtime = all("appid");
+        playtime.setMinPlaytime(50);
+        playtime.setMaxPlaytime(100);
+        assertEquals(List.of(10L, 20L, 40L, 70L), ids(index.query(playtime, Set.of(), 0)));
+
+        LibraryQuery minOnly = all("appid");
+        minOnly.setMinPlaytime(300);
+        assertEquals(List.of(30L, 60L), ids(index.query(minOnly, Set.of(), 0)));
+
+        LibraryQuery lastPlayed = all("appid");
+        lastPlayed.setLastPlayedFrom(1000L);
+        lastPlayed.setLastPlayedTo(2000L);
+        assertEquals(List.of(10L, 20L, 30L, 60L, 70L), ids(index.query(lastPlayed, Set.of(), 0)));
+
+        LibraryQuery combined = all("appid");
+        combined.setMinPlaytime(100);
+        combined.setLastPlayedTo(1500L);
+        LibraryPage page = index.query(combined, Set.of(), 0);
+        assertEquals(List.of(10L, 60L, 70L), ids(page));
+        assertEquals(3, page.getTotal());
+    }
+
+    @Test
+    void neverPlayedFilter() {
+        LibraryQuery never = all("appid");
+        never.setNeverPlayed(true);
+        assertEquals(List.of(50L), ids(index.query(never, Set.of(), 0)));
+
+        LibraryQuery played = all("appid");
+        played.setNeverPlayed(false);
+        assertEquals(7, index.query(played, Set.of(), 0).getTotal());
+    }
+
+    @Test
+    void namePrefixIgnoresCase() {
+        LibraryQuery portal = all("name");
+        portal.setNamePrefix("PORTAL");
+        assertEquals(List.of(10L, 20L, 70L), ids(index.query(portal, Set.of(), 0)));
+
+        LibraryQuery portalSpace = all("name");
+        portalSpace.setNamePrefix("portal ");
+        assertEquals(List.of(20L, 70L), ids(index.query(portalSpace, Set.of(), 0)));
+
+        LibraryQuery none = all("name");
+        none.setNamePrefix("zelda");
+        LibraryPage page = index.query(none, Set.of(), 0);
+        assertEquals(List.of(), ids(page));
+        assertEquals(0, page.getTotal());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void gamesWithoutNameSortLast() {
+        LibraryIndex withNameless = LibraryIndex.build(LibraryColumns.of(List.of(
+                game(1, null, 10, 0),
+                game(2, "Portal", 20, 0),
+                game(3, "hades", 30, 0))));
+
+        assertEquals(List.of(3L, 2L, 1L), ids(withNameless.page("name", 1, 10, Set.of(), 0)));
+        assertEquals(List.of(3L, 2L, 1L), ids(withNameless.query(all("name"), Set.of(), 0)));
+        assertEquals(List.of(2L, 3L, 1L), ids(withNameless.query(all("-name"), Set.of(), 0)));
+        LibraryQuery prefixed = all("name");
+        prefixed.setNamePrefix("h");
+        assertEquals(List.of(3L), ids(withNameless.query(prefixed, Set.of(), 0)));
+    }
+
+    @Test
+    void rejectsUnknownCursor() {
+        LibraryQuery query = query("-playtime");
+        query.setAfter(999L);
+        assertThrows(IllegalArgumentException.class, () -> index.query(query, Set.of(), 0));
+    }
+
+    private static LibraryQuery query(String sort) {
+        LibraryQuery query = new LibraryQuery();
+        query.setSort(LibraryQuery.parseSort(sort));
+        return query;
+    }
+
+    private static LibraryQuery all(String sort) {
+        LibraryQuery query = query(sort);
+        query.setVisibility(Visibility.ALL);
+        query.setLimit(100);
+        return query;
+    }
+
+    private static List<Long> ids(LibraryPage page) {
+        return page.getItems().stream().map(OwnedGame::getAppId).toList();
+    }
+
+    private static OwnedGame game(long appId, String name, int playtime, long lastPlayed) {
+        OwnedGame game = new OwnedGame();
+        game.setAppId(appId);
+        game.setName(name);
+        game.setPlaytimeForever(playtime);
+        game.setRtimeLastPlayed(lastPlayed);
+        return game;
+    }
+}
@@ -0,0 +1,74 @@
+package com.timxs.steam.library;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * NameSearchIndex 中日韩文字、错字与排序测试
+ */
+class NameSearchIndexTest {
+
+    private static final String[] NAMES = {
+            "Counter-Strike 2",
+            "The Witcher 3: Wild Hunt",
+            "黑神话：悟空",
+            "原神",
+            "ファイナルファンタジーXIV",
+            "Stardew Valley",
+            "Ｈａｌｆ－Ｌｉｆｅ",
+            "Half-Life 2",
+            null
+    };
+
+    private final NameSearchIndex index = new NameSearchIndex(NAMES);
+
+    @Test
+    void findsChineseBySubstring() {
+        assertArrayEquals(new int[]{2}, search("悟空"));
+        assertArrayEquals(new int[]{3, 2}, search("神"));
+    }
+
+    @Test
+    void toleratesSkippedChineseCharacters() {
+        assertEquals(2, search("黑神悟空")[0]);
+    }
+
+    @Test
+    void findsKatakanaMixedWithLatin() {
+        assertArrayEquals(new int[]{4}, search("ファイナルファンタジー"));
+        assertArrayEquals(new int[]{4}, search("ファンタジー xiv"));
+    }
+
+    @Test
+    void toleratesTyposAndWordOrder() {
+        assertArrayEquals(new int[]{5}, search("stardew vallye"));
+        assertArrayEquals(new int[]{5}, search("valley stardew"));
+        assertEquals(1, search("witcher")[0]);
+    }
+
+    @Test
+    void normalizesFullWidthAndRanksExactMatchFirst() {
+        // 全角名称规范化后与查询完全相同，排在前缀匹配之前
+        assertArrayEquals(new int[]{6, 7}, search("half-life"));
+        assertArrayEquals(new int[]{6, 7}, search("ＨＡＬＦ　ＬＩＦＥ"));
+    }
+
+    @Test
+    void respectsFilterAndLimit() {
+        assertArrayEquals(new int[]{7}, index.search("half-life", 10, position -> position != 6));
+        assertArrayEquals(new int[]{6}, index.search("half-life", 1, position -> true));
+    }
+
+    @Test
+    void returnsNothingForUnrelatedOrEmptyQueries() {
+        assertArrayEquals(new int[0], search("zelda"));
+        assertArrayEquals(new int[0], search("  ：- "));
+        assertArrayEquals(new int[0], search(null));
+    }
+
+    private int[] search(String keyword) {
+        return index.search(keyword, 10, position -> true);
+    }
+}
@@ -0,0 +1,420 @@
+package com.timxs.steam.mock;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 本地模拟的 Steam Web API 与 Store API 服务
+ * 按固定种子生成游戏库、徽章、成就和商店详情数据，支持注入延迟、429/5xx 错误和慢速响应体，
+ * 将插件的「自定义 API 地址」指向 {@link #baseUrl()} 即可在无网络环境下做端到端和性能测试
+ *
+ * <pre>
+ * try (MockSteamServer server = new MockSteamServer().librarySize(5000).start()) {
+ *     server.latency(Duration.ofMillis(200));
+ *     server.failNext(2, 503);
+ *     ...
+ * }
+ * </pre>
+ *
+ * 也可以通过 {@link #main(String[])} 单独运行，供本地 Halo 实例使用
+ */
+public class MockSteamServer implements AutoCloseable {
+
+    public static final String STEAM_ID = "76561198000000000";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final int SLOW_BODY_CHUNKS = 8;
+
+    private int librarySize = 100;
+    private int recentCount = 5;
+    private long seed = 42;
+
+    private volatile Duration latency = Duration.ZERO;
+    private volatile Duration chunkDelay = Duration.ZERO;
+    private volatile double errorRate;
+    private volatile int errorStatus = 503;
+    private final AtomicInteger pendingFailures = new AtomicInteger();
+    private volatile int pendingFailureStatus = 503;
+
+    private final Map<String, AtomicLong> requestCounts = new ConcurrentHashMap<>();
+    private List<Map<String, Object>> library = List.of();
+    private DisposableServer server;
+
+    /**
+     * 游戏库大小，需在 start 前设置
+     */
+    public MockSteamServer librarySize(int librarySize) {
+        this.librarySize = librarySize;
+        return this;
+    }
+
+    /**
+     * 最近游玩数量，需在 start 前设置
+     */
+    public MockSteamServer recentCount(int recentCount) {
+        this.recentCount = recentCount;
+        return this;
+    }
+
+    /**
+     * 数据生成种子，需在 start 前设置
+     */
+    public MockSteamServer seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * 每个请求在返回响应头前的固定延迟，可在运行中修改
+     */
+    public MockSteamServer latency(Duration latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    /**
+     * 响应体分块发送，每块之间的延迟，用于模拟慢速响应体，可在运行中修改
+     */
+    public MockSteamServer slowBody(Duration chunkDelay) {
+        this.chunkDelay = chunkDelay;
+        return this;
+    }
+
+    /**
+     * 按比例随机返回错误状态码（如 429、503），可在运行中修改
+     */
+    public MockSteamServer errorRate(double errorRate, int status) {
+        this.errorRate = errorRate;
+        this.errorStatus = status;
+        return this;
+    }
+
+    /**
+     * 接下来的 count 个请求返回指定错误状态码
+     */
+    public MockSteamServer failNext(int count, int status) {
+        this.pendingFailureStatus = status;
+        this.pendingFailures.set(count);
+        return this;
+    }
+
+    public MockSteamServer start() {
+        return start(0);
+    }
+
+    public MockSteamServer start(int port) {
+        library = generateLibrary();
+        server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(port)
+                .route(routes -> routes
+                        .get("/ISteamUser/GetPlayerSummaries/v2/",
+                                (req, res) -> handle("GetPlayerSummaries", req, res, this::playerSummaries))
+                        .get("/IPlayerService/GetOwnedGames/v1/",
+                                (req, res) -> handle("GetOwnedGames", req, res, this::ownedGames))
+                        .get("/IPlayerService/GetRecentlyPlayedGames/v1/",
+                                (req, res) -> handle("GetRecentlyPlayedGames", req, res, this::recentGames))
+                        .get("/IPlayerService/GetSteamLevel/v1/",
+                                (req, res) -> handle("GetSteamLevel", req, res, this::steamLevel))
+                        .get("/IPlayerService/GetBadges/v1/",
+                                (req, res) -> handle("GetBadges", req, res, this::badges))
+                        .get("/ISteamUserStats/GetPlayerAchievements/v1/",
+                                (req, res) -> handle("GetPlayerAchievements", req, res, this::achievements))
+                        .get("/ISteamWebAPIUtil/GetServerInfo/v1/",
+                                (req, res) -> handle("GetServerInfo", req, res, this::serverInfo))
+                        .get("/api/appdetails",
+                                (req, res) -> handle("appdetails", req, res, this::appDetails)))
+                .bindNow();
+        return this;
+    }
+
+    /**
+     * 用于「自定义 API 地址」的基础地址
+     */
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.port();
+    }
+
+    /**
+     * 某个接口收到的请求数，如 GetOwnedGames、appdetails
+     */
+    public long requestCount(String endpoint) {
+        AtomicLong count = requestCounts.get(endpoint);
+        return count != null ? count.get() : 0;
+    }
+
+    /**
+     * 所有接口收到的请求总数
+     */
+    public long totalRequests() {
+        return requestCounts.values().stream().mapToLong(AtomicLong::get).sum();
+    }
+
+    public void resetCounts() {
+        requestCounts.clear();
+    }
+
+    /**
+     * 生成的游戏库（appid、name、playtime_forever 等字段与 GetOwnedGames 一致）
+     */
+    public List<Map<String, Object>> library() {
+        return library;
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.disposeNow();
+        }
+    }
+
+    private Publisher<Void> handle(String endpoint, HttpServerRequest request, HttpServerResponse response,
+                                   Function<Map<String, String>, Reply> handler) {
+        requestCounts.computeIfAbsent(endpoint, k -> new AtomicLong()).incrementAndGet();
+        Map<String, String> params = new LinkedHashMap<>();
+        new QueryStringDecoder(request.uri()).parameters()
+                .forEach((name, values) -> params.put(name, values.isEmpty() ? "" : values.get(0)));
+
+        Mono<Void> delay = latency.isZero() ? Mono.empty() : Mono.delay(latency).then();
+        return delay.then(Mono.defer(() -> {
+            Reply reply = injectedFailure();
+            if (reply == null) {
+                reply = handler.apply(params);
+            }
+            byte[] body = toJson(reply.body());
+            response.status(reply.status())
+                    .header("Content-Type", "application/json; charset=utf-8");
+            if (chunkDelay.isZero()) {
+                return response.sendByteArray(Mono.just(body)).then();
+            }
+            return response.sendByteArray(Flux.fromIterable(split(body)).delayElements(chunkDelay)).then();
+        }));
+    }
+
+    private Reply injectedFailure() {
+        if (pendingFailures.getAndUpdate(n -> n > 0 ? n - 1 : 0) > 0) {
+            return new Reply(pendingFailureStatus, Map.of());
+        }
+        if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            return new Reply(errorStatus, Map.of());
+        }
+        return null;
+    }
+
+    private Reply checkKey(Map<String, String> params) {
+        String key = params.get("key");
+        if (key == null || key.isBlank()) {
+            return new Reply(403, Map.of("error", "Forbidden"));
+        }
+        return null;
+    }
+
+    private Reply playerSummaries(Map<String, String> params) {
+        Reply forbidden = checkKey(params);
+        if (forbidden != null) {
+            return forbidden;
+        }
+        List<Object> players = new ArrayList<>();
+        String steamIds = params.getOrDefault("steamids", "");
+        for (String steamId : steamIds.split(",")) {
+            if (steamId.isBlank()) {
+                continue;
+            }
+            Map<String, Object> player = new LinkedHashMap<>();
+            player.put("steamid", steamId);
+            player.put("personaname", "Mock Player");
+            player.put("profileurl", "https://steamcommunity.com/profiles/" + steamId + "/");
+            player.put("avatar", "https://avatars.steamstatic.com/mock.jpg");
+            player.put("avatarmedium", "https://avatars.steamstatic.com/mock_medium.jpg");
+            player.put("avatarfull", "https://avatars.steamstatic.com/mock_full.jpg");
+            player.put("personastate", 1);
+            player.put("lastlogoff", 1700000000L);
+            players.add(player);
+        }
+        return ok(Map.of("response", Map.of("players", players)));
+    }
+
+    private Reply ownedGames(Map<String, String> params) {
+        Reply forbidden = checkKey(params);
+        if (forbidden != null) {
+            return forbidden;
+        }
+        return ok(Map.of("response", Map.of("game_count", library.size(), "games", library)));
+    }
+
+    private Reply recentGames(Map<String, String> params) {
+        Reply forbidden = checkKey(params);
+        if (forbidden != null) {
+            return forbidden;
+        }
+        int count = Math.min(recentCount, library.size());
+        if (params.containsKey("count")) {
+            count = Math.min(count, Integer.parseInt(params.get("count")));
+        }
+        List<Object> games = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> game = new LinkedHashMap<>(library.get(i));
+            game.put("playtime_2weeks", 60 * (count - i));
+            games.add(game);
+        }
+        return ok(Map.of("response", Map.of("total_count", games.size(), "games", games)));
+    }
+
+    private Reply steamLevel(Map<String, String> params) {
+        Reply forbidden = checkKey(params);
+        if (forbidden != null) {
+            return forbidden;
+        }
+        return ok(Map.of("response", Map.of("player_level", 42)));
+    }
+
+    private Reply badges(Map<String, String> params) {
+        Reply forbidden = checkKey(params);
+        if (forbidden != null) {
+            return forbidden;
+        }
+        List<Object> badges = new ArrayList<>();
+        for (int i = 0; i < Math.min(20, library.size()); i++) {
+            Map<String, Object> badge = new LinkedHashMap<>();
+            badge.put("badgeid", 1);
+            badge.put("appid", library.get(i).get("appid"));
+            badge.put("level", 1 + i % 5);
+            badge.put("completion_time", 1600000000L + i * 86400L);
+            badge.put("xp", 100);
+            badge.put("scarcity", 1000 + i);
+            badges.add(badge);
+        }
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("badges", badges);
+        response.put("player_xp", 12345);
+        response.put("player_level", 42);
+        response.put("player_xp_needed_to_level_up", 55);
+        response.put("player_xp_needed_current_level", 12300);
+        return ok(Map.of("response", response));
+    }
+
+    private Reply achievements(Map<String, String> params) {
+        Reply forbidden = checkKey(params);
+        if (forbidden != null) {
+            return forbidden;
+        }
+        long appId = Long.parseLong(params.getOrDefault("appid", "0"));
+        // 与 Steam 一致：无成就的游戏返回 400
+        if (appId % 7 == 0) {
+            return new Reply(400, Map.of("playerstats",
+                    Map.of("error", "Requested app has no stats", "success", false)));
+        }
+        int total = (int) (appId % 50) + 5;
+        List<Object> items = new ArrayList<>();
+        for (int i = 0; i < total; i++) {
+            items.add(Map.of("apiname", "ACH_" + i, "achieved", i % 3 == 0 ? 1 : 0, "unlocktime", 0));
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("steamID", params.get("steamid"));
+        stats.put("gameName", "Game " + appId);
+        stats.put("achievements", items);
+        stats.put("success", true);
+        return ok(Map.of("playerstats", stats));
+    }
+
+    private Reply serverInfo(Map<String, String> params) {
+        return ok(Map.of("servertime", System.currentTimeMillis() / 1000, "servertimestring", ""));
+    }
+
+    private Reply appDetails(Map<String, String> params) {
+        String appId = params.getOrDefault("appids", "0");
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("type", "game");
+        data.put("name", "Game " + appId);
+        data.put("steam_appid", Long.parseLong(appId));
+        data.put("is_free", Long.parseLong(appId) % 5 == 0);
+        data.put("short_description", "Synthetic store entry for app " + appId + " (" + params.get("l") + ")");
+        data.put("header_image", "https://shared.akamai.steamstatic.com/store_item_assets/steam/apps/"
+                + appId + "/header.jpg");
+        data.put("developers", List.of("Mock Studio"));
+        data.put("publishers", List.of("Mock Publisher", "Mock Distribution"));
+        data.put("genres", List.of(Map.of("id", "1", "description", "Action"),
+                Map.of("id", "25", "description", "Adventure")));
+        data.put("price_overview", Map.of("currency", "CNY", "initial", 9800, "final", 4900,
+                "discount_percent", 50, "final_formatted", "¥ 49.00"));
+        data.put("release_date", Map.of("coming_soon", false, "date", "2020 年 1 月 1 日"));
+        return ok(Map.of(appId, Map.of("success", true, "data", data)));
+    }
+
+    private List<Map<String, Object>> generateLibrary() {
+        Random random = new Random(seed);
+        List<Map<String, Object>> games = new ArrayList<>(librarySize);
+        long now = System.currentTimeMillis() / 1000;
+        for (int i = 0; i < librarySize; i++) {
+            Map<String, Object> game = new LinkedHashMap<>();
+            long appId = 10L + i * 10L;
+            game.put("appid", appId);
+            game.put("name", "Game " + appId);
+            // 少量游戏从未游玩
+            int playtime = random.nextInt(10) == 0 ? 0 : random.nextInt(100_000);
+            game.put("playtime_forever", playtime);
+            game.put("img_icon_url", Long.toHexString(random.nextLong()));
+            game.put("rtime_last_played", playtime == 0 ? 0 : now - random.nextInt(365 * 86400));
+            games.add(game);
+        }
+        return games;
+    }
+
+    private static Reply ok(Object body) {
+        return new Reply(200, body);
+    }
+
+    private static byte[] toJson(Object body) {
+        try {
+            return OBJECT_MAPPER.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            return "{}".getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private static List<byte[]> split(byte[] body) {
+        List<byte[]> chunks = new ArrayList<>(SLOW_BODY_CHUNKS);
+        int size = Math.max(1, (body.length + SLOW_BODY_CHUNKS - 1) / SLOW_BODY_CHUNKS);
+        for (int from = 0; from < body.length; from += size) {
+            chunks.add(Arrays.copyOfRange(body, from, Math.min(body.length, from + size)));
+        }
+        return chunks;
+    }
+
+    private record Reply(int status, Object body) {
+    }
+
+    /**
+     * 单独运行：参数依次为端口（默认 18080）和游戏库大小（默认 500）
+     */
+    public static void main(String[] args) {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 18080;
+        int size = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        MockSteamServer server = new MockSteamServer().librarySize(size).start(port);
+        System.out.println("Mock Steam server listening on " + server.baseUrl()
+                + ", library size " + size + ", steamid " + STEAM_ID);
+        server.server.onDispose().block();
+    }
+}
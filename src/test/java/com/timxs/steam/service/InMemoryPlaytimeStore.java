@@ -0,0 +1,196 @@
+package com.timxs.steam.service;
+
+import com.timxs.steam.model.DailyPlaytimeRecord;
+import com.timxs.steam.model.PlaytimeSnapshot;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import run.halo.app.extension.ListResult;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 内存中的时长存储，统计读写次数，供追踪模拟使用
+ * 查询语义与 ExtensionPlaytimeStore 一致：快照按 steamId + appId、每日记录按 steamId + date + appId 定位
+ */
+public class InMemoryPlaytimeStore implements PlaytimeStore {
+
+    private final Map<String, PlaytimeSnapshot> snapshots = new ConcurrentHashMap<>();
+    private final Map<String, DailyPlaytimeRecord> dailyRecords = new ConcurrentHashMap<>();
+    /** 每款游戏创建初始快照时的总时长，初始快照之前的时长不会进入每日记录 */
+    private final Map<Long, Integer> initialPlaytime = new ConcurrentHashMap<>();
+    /** 被清理任务删除的分钟数 */
+    private final Map<Long, Long> deletedMinutes = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong reads = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong dailyVersion = new AtomicLong();
+
+    @Override
+    public Mono<PlaytimeSnapshot> findLatestSnapshot(String steamId, Long appId) {
+        return Mono.fromSupplier(() -> {
+            reads.incrementAndGet();
+            return snapshots.get(steamId + "/" + appId);
+        });
+    }
+
+    @Override
+    public Mono<Void> createSnapshot(PlaytimeSnapshot snapshot) {
+        return Mono.fromRunnable(() -> {
+            writes.incrementAndGet();
+            snapshot.getMetadata().setName("snapshot-" + sequence.incrementAndGet());
+            var spec = snapshot.getSpec();
+            snapshots.put(spec.getSteamId() + "/" + spec.getAppId(), snapshot);
+            initialPlaytime.put(spec.getAppId(), spec.getPlaytimeForever());
+        });
+    }
+
+    @Override
+    public Mono<Void> updateSnapshot(PlaytimeSnapshot snapshot) {
+        return Mono.fromRunnable(writes::incrementAndGet);
+    }
+
+    @Override
+    public Mono<DailyPlaytimeRecord> findDailyRecord(String steamId, String date, Long appId) {
+        return Mono.fromSupplier(() -> {
+            reads.incrementAndGet();
+            return dailyRecords.get(dailyKey(steamId, date, appId));
+        });
+    }
+
+    @Override
+    public Mono<Void> createDailyRecord(DailyPlaytimeRecord record) {
+        return Mono.fromRunnable(() -> {
+            writes.incrementAndGet();
+            dailyVersion.incrementAndGet();
+            record.getMetadata().setName("daily-" + sequence.incrementAndGet());
+            var spec = record.getSpec();
+            dailyRecords.put(dailyKey(spec.getSteamId(), spec.getDate(), spec.getAppId()), record);
+        });
+    }
+
+    @Override
+    public Mono<Void> updateDailyRecord(DailyPlaytimeRecord record) {
+        return Mono.fromRunnable(() -> {
+            writes.incrementAndGet();
+            dailyVersion.incrementAndGet();
+        });
+    }
+
+    @Override
+    public Mono<ListResult<DailyPlaytimeRecord>> listDailyRecords(String steamId, String startDate, String endDate,
+                                                                  Long appId, int page, int size) {
+        return Mono.fromSupplier(() -> {
+            reads.incrementAndGet();
+            List<DailyPlaytimeRecord> matched = new ArrayList<>();
+            for (DailyPlaytimeRecord record : dailyRecords.values()) {
+                var spec = record.getSpec();
+                if (spec.getSteamId().equals(steamId)
+                        && spec.getDate().compareTo(startDate) >= 0
+                        && spec.getDate().compareTo(endDate) <= 0
+                        && (appId == null || appId.equals(spec.getAppId()))) {
+                    matched.add(record);
+                }
+            }
+            matched.sort(Comparator.comparing((DailyPlaytimeRecord r) -> r.getSpec().getDate()).reversed());
+            int from = Math.min(matched.size(), Math.max(0, (page - 1) * size));
+            int to = Math.min(matched.size(), from + size);
+            return new ListResult<>(page, size, matched.size(), matched.subList(from, to));
+        });
+    }
+
+    @Override
+    public Flux<DailyPlaytimeRecord> streamDailyRecords(String steamId, String startDate, String endDate,
+                                                        int pageSize) {
+        return Flux.defer(() -> {
+            reads.incrementAndGet();
+            return Flux.fromIterable(dailyRecords.values().stream()
+                    .filter(record -> record.getSpec().getSteamId().equals(steamId)
+                            && record.getSpec().getDate().compareTo(startDate) >= 0
+                            && record.getSpec().getDate().compareTo(endDate) <= 0)
+                    .sorted(Comparator.comparing((DailyPlaytimeRecord r) -> r.getSpec().getDate()))
+                    .toList());
+        });
+    }
+
+    @Override
+    public Flux<PlaytimeSnapshot> streamSnapshots(String steamId, Instant from, Instant to, int pageSize) {
+        return Flux.defer(() -> {
+            reads.incrementAndGet();
+            return Flux.fromIterable(snapshots.values().stream()
+                    .filter(snapshot -> snapshot.getSpec().getSteamId().equals(steamId)
+                            && !snapshot.getSpec().getSnapshotTime().isBefore(from)
+                            && snapshot.getSpec().getSnapshotTime().isBefore(to))
+                    .sorted(Comparator.comparing((PlaytimeSnapshot s) -> s.getSpec().getSnapshotTime()))
+                    .toList());
+        });
+    }
+
+    @Override
+    public Flux<DailyPlaytimeRecord> listDailyRecordsBefore(String cutoffDate) {
+        return Flux.defer(() -> {
+            reads.incrementAndGet();
+            return Flux.fromIterable(dailyRecords.values().stream()
+                    .filter(record -> record.getSpec().getDate().compareTo(cutoffDate) < 0)
+                    .toList());
+        });
+    }
+
+    @Override
+    public Mono<Void> deleteDailyRecord(DailyPlaytimeRecord record) {
+        return Mono.fromRunnable(() -> {
+            writes.incrementAndGet();
+            dailyVersion.incrementAndGet();
+            var spec = record.getSpec();
+            if (dailyRecords.remove(dailyKey(spec.getSteamId(), spec.getDate(), spec.getAppId())) != null) {
+                deletedMinutes.merge(spec.getAppId(), (long) spec.getPlaytimeMinutes(), Long::sum);
+            }
+        });
+    }
+
+    @Override
+    public long dailyRecordsVersion() {
+        return dailyVersion.get();
+    }
+
+    public long reads() {
+        return reads.get();
+    }
+
+    public long writes() {
+        return writes.get();
+    }
+
+    public int snapshotCount() {
+        return snapshots.size();
+    }
+
+    public int dailyRecordCount() {
+        return dailyRecords.size();
+    }
+
+    public Map<Long, Integer> initialPlaytime() {
+        return initialPlaytime;
+    }
+
+    public Map<Long, Long> deletedMinutes() {
+        return deletedMinutes;
+    }
+
+    public Iterable<DailyPlaytimeRecord> dailyRecords() {
+        return dailyRecords.values();
+    }
+
+    public Iterable<PlaytimeSnapshot> snapshots() {
+        return snapshots.values();
+    }
+
+    private static String dailyKey(String steamId, String date, Long appId) {
+        return steamId + "/" + date + "/" + appId;
+    }
+}
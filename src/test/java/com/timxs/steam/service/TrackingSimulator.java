@@ -0,0 +1,251 @@
+package com.timxs.steam.service;
+
+import com.timxs.steam.client.SteamApiClient;
+import com.timxs.steam.model.DailyPlaytimeRecord;
+import com.timxs.steam.model.OwnedGame;
+import com.timxs.steam.model.PlaytimeSnapshot;
+import com.timxs.steam.service.SteamSettingService.SteamConfig;
+import lombok.Data;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 游戏时长追踪模拟器
+ * 使用虚拟时钟按小时推进，在内存存储上重放合成的游玩行为（晚间高峰、轮换游玩、新游戏首次游玩、
+ * 服务器停机导致的跨天补记），统计每次追踪的读写次数与耗时，并校验总时长守恒
+ *
+ * <p>直接运行 main 可模拟一整年：参数依次为游戏数量（默认 2000）、天数（默认 365）、种子（默认 1）</p>
+ */
+public class TrackingSimulator {
+
+    private static final String STEAM_ID = "76561198000000000";
+    private static final ZoneId ZONE = ZoneId.of("Asia/Shanghai");
+    private static final Instant START = ZonedDateTime.of(2025, 1, 1, 0, 0, 0, 0, ZONE).toInstant();
+
+    /** 每小时开始一次停机的概率，停机持续 1 ~ 72 小时 */
+    private static final double OUTAGE_PROBABILITY = 0.002;
+
+    private final int gameCount;
+    private final int days;
+    private final long seed;
+
+    public TrackingSimulator(int gameCount, int days, long seed) {
+        this.gameCount = gameCount;
+        this.days = days;
+        this.seed = seed;
+    }
+
+    public Report run() {
+        Random random = new Random(seed);
+        VirtualClock clock = new VirtualClock(START, ZONE);
+        InMemoryPlaytimeStore store = new InMemoryPlaytimeStore();
+        List<OwnedGame> library = generateLibrary(random);
+
+        SteamApiClient apiClient = mock(SteamApiClient.class);
+        when(apiClient.getOwnedGames(anyString(), anyBoolean(), anyBoolean()))
+                .thenAnswer(invocation -> Mono.just(library));
+        SteamSettingService settingService = mock(SteamSettingService.class);
+        SteamConfig config = new SteamConfig();
+        config.setSteamId(STEAM_ID);
+        when(settingService.getConfig()).thenReturn(Mono.just(config));
+        when(settingService.isIncludeFreeGames()).thenReturn(Mono.just(true));
+        when(settingService.getHeatmapRetentionDays()).thenReturn(Mono.just(365));
+
+        PlaytimeTrackingServiceImpl service =
+                new PlaytimeTrackingServiceImpl(store, apiClient, settingService, clock);
+
+        // 当前轮换中的游戏，偶尔换成新游戏
+        List<Integer> rotation = new ArrayList<>();
+        for (int i = 0; i < Math.min(8, gameCount); i++) {
+            rotation.add(random.nextInt(gameCount));
+        }
+
+        Report report = new Report();
+        report.setGames(gameCount);
+        report.setDays(days);
+        List<Long> runNanos = new ArrayList<>();
+        List<Long> runReads = new ArrayList<>();
+        List<Long> runWrites = new ArrayList<>();
+        int outageHoursLeft = 0;
+        long wallStart = System.nanoTime();
+
+        int hours = days * 24;
+        for (int hour = 0; hour < hours; hour++) {
+            ZonedDateTime tickTime = START.plus(Duration.ofHours(hour)).atZone(ZONE);
+
+            // 1. 本小时的游玩：晚间概率更高
+            int hourOfDay = tickTime.getHour();
+            double playProbability = hourOfDay >= 19 && hourOfDay <= 23 ? 0.7
+                    : hourOfDay >= 9 && hourOfDay < 19 ? 0.15 : 0.03;
+            if (random.nextDouble() < playProbability) {
+                if (random.nextInt(200) == 0) {
+                    rotation.set(random.nextInt(rotation.size()), random.nextInt(gameCount));
+                }
+                OwnedGame game = library.get(rotation.get(random.nextInt(rotation.size())));
+                game.setPlaytimeForever(game.getPlaytimeForever() + 5 + random.nextInt(56));
+            }
+
+            // 2. 定时任务在每小时第 59 分钟执行，停机期间跳过
+            if (outageHoursLeft == 0 && random.nextDouble() < OUTAGE_PROBABILITY) {
+                outageHoursLeft = 1 + random.nextInt(72);
+                report.setOutages(report.getOutages() + 1);
+            }
+            if (outageHoursLeft > 0) {
+                outageHoursLeft--;
+                report.setSkippedRuns(report.getSkippedRuns() + 1);
+                continue;
+            }
+            clock.set(tickTime.withMinute(59).toInstant());
+            measure(() -> service.trackAllGames().block(), store, runNanos, runReads, runWrites);
+
+            // 3. 每天凌晨 3 点清理过期数据
+            if (hourOfDay == 3) {
+                service.cleanupExpiredData().block();
+            }
+        }
+
+        // 最后补一次追踪，使最后一小时的游玩也被记录
+        clock.set(START.plus(Duration.ofHours(hours)).atZone(ZONE).withMinute(59).toInstant());
+        measure(() -> service.trackAllGames().block(), store, runNanos, runReads, runWrites);
+
+        report.setWallMillis((System.nanoTime() - wallStart) / 1_000_000);
+        report.setRuns(runNanos.size());
+        report.setTotalReads(store.reads());
+        report.setTotalWrites(store.writes());
+        report.setAvgReadsPerRun(average(runReads));
+        report.setMaxReadsPerRun(max(runReads));
+        report.setAvgWritesPerRun(average(runWrites));
+        report.setMaxWritesPerRun(max(runWrites));
+        report.setAvgRunMicros(average(runNanos) / 1000);
+        report.setP95RunMicros(percentile(runNanos, 0.95) / 1000);
+        report.setMaxRunMicros(max(runNanos) / 1000);
+        report.setSnapshots(store.snapshotCount());
+        report.setDailyRecords(store.dailyRecordCount());
+        checkConservation(library, store, report);
+        return report;
+    }
+
+    private void measure(Runnable run, InMemoryPlaytimeStore store,
+                         List<Long> nanos, List<Long> reads, List<Long> writes) {
+        long readsBefore = store.reads();
+        long writesBefore = store.writes();
+        long start = System.nanoTime();
+        run.run();
+        nanos.add(System.nanoTime() - start);
+        reads.add(store.reads() - readsBefore);
+        writes.add(store.writes() - writesBefore);
+    }
+
+    /**
+     * 每款游戏：每日记录之和（含被清理的部分）= 当前总时长 - 初始快照时长，且快照等于当前总时长
+     */
+    private void checkConservation(List<OwnedGame> library, InMemoryPlaytimeStore store, Report report) {
+        Map<Long, Long> recorded = new HashMap<>(store.deletedMinutes());
+        for (DailyPlaytimeRecord record : store.dailyRecords()) {
+            recorded.merge(record.getSpec().getAppId(), (long) record.getSpec().getPlaytimeMinutes(), Long::sum);
+        }
+        Map<Long, Integer> snapshotPlaytime = new HashMap<>();
+        for (PlaytimeSnapshot snapshot : store.snapshots()) {
+            snapshotPlaytime.put(snapshot.getSpec().getAppId(), snapshot.getSpec().getPlaytimeForever());
+        }
+
+        long trackedMinutes = 0;
+        int mismatched = 0;
+        for (OwnedGame game : library) {
+            Integer initial = store.initialPlaytime().get(game.getAppId());
+            if (initial == null) {
+                continue;
+            }
+            long expected = game.getPlaytimeForever() - initial;
+            long actual = recorded.getOrDefault(game.getAppId(), 0L);
+            trackedMinutes += actual;
+            if (expected != actual || !game.getPlaytimeForever().equals(snapshotPlaytime.get(game.getAppId()))) {
+                mismatched++;
+            }
+        }
+        report.setTrackedMinutes(trackedMinutes);
+        report.setMismatchedGames(mismatched);
+    }
+
+    private List<OwnedGame> generateLibrary(Random random) {
+        List<OwnedGame> library = new ArrayList<>(gameCount);
+        for (int i = 0; i < gameCount; i++) {
+            OwnedGame game = new OwnedGame();
+            game.setAppId(10L + i * 10L);
+            game.setName("Game " + game.getAppId());
+            // 约 30% 的游戏从未游玩，首次游玩时才会创建快照
+            game.setPlaytimeForever(random.nextInt(10) < 3 ? 0 : random.nextInt(50_000));
+            library.add(game);
+        }
+        return library;
+    }
+
+    private static long average(List<Long> values) {
+        return values.isEmpty() ? 0 : values.stream().mapToLong(Long::longValue).sum() / values.size();
+    }
+
+    private static long max(List<Long> values) {
+        return values.stream().mapToLong(Long::longValue).max().orElse(0);
+    }
+
+    private static long percentile(List<Long> values, double quantile) {
+        if (values.isEmpty()) {
+            return 0;
+        }
+        long[] sorted = values.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1)];
+    }
+
+    /**
+     * 模拟结果
+     */
+    @Data
+    public static class Report {
+        private int games;
+        private int days;
+        private int runs;
+        private int skippedRuns;
+        private int outages;
+        private long wallMillis;
+        private long totalReads;
+        private long totalWrites;
+        private long avgReadsPerRun;
+        private long maxReadsPerRun;
+        private long avgWritesPerRun;
+        private long maxWritesPerRun;
+        private long avgRunMicros;
+        private long p95RunMicros;
+        private long maxRunMicros;
+        private int snapshots;
+        private int dailyRecords;
+        private long trackedMinutes;
+        private int mismatchedGames;
+    }
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int days = args.length > 1 ? Integer.parseInt(args[1]) : 365;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+        Report report = new TrackingSimulator(games, days, seed).run();
+        System.out.println(report);
+        if (report.getMismatchedGames() > 0) {
+            System.exit(1);
+        }
+    }
+}
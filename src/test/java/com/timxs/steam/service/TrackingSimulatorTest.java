@@ -0,0 +1,23 @@
+package com.timxs.steam.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 追踪模拟的小规模回归：两个月、300 款游戏
+ */
+class TrackingSimulatorTest {
+
+    @Test
+    void conservesPlaytimeAcrossOutages() {
+        TrackingSimulator.Report report = new TrackingSimulator(300, 60, 7).run();
+
+        assertEquals(0, report.getMismatchedGames(), report.toString());
+        assertTrue(report.getTrackedMinutes() > 0, report.toString());
+        assertTrue(report.getDailyRecords() > 0, report.toString());
+        // 每次追踪对每款有时长的游戏至少读取一次快照
+        assertTrue(report.getAvgReadsPerRun() >= report.getSnapshots() / 2, report.toString());
+    }
+}
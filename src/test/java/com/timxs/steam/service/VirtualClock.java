@@ -0,0 +1,43 @@
+package com.timxs.steam.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+
+/**
+ * 可手动推进的时钟
+ */
+public class VirtualClock extends Clock {
+
+    private final ZoneId zone;
+    private volatile Instant now;
+
+    public VirtualClock(Instant start, ZoneId zone) {
+        this.now = start;
+        this.zone = zone;
+    }
+
+    public void advance(Duration duration) {
+        now = now.plus(duration);
+    }
+
+    public void set(Instant instant) {
+        now = instant;
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return new VirtualClock(now, zone);
+    }
+
+    @Override
+    public Instant instant() {
+        return now;
+    }
+}
@@ -0,0 +1,178 @@
+package com.timxs.steam.transfer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.timxs.steam.model.DailyPlaytimeRecord;
+import com.timxs.steam.model.DailyPlaytimeRecord.DailyPlaytimeRecordSpec;
+import com.timxs.steam.service.InMemoryPlaytimeStore;
+import com.timxs.steam.service.PlaytimeTrackingService;
+import com.timxs.steam.service.SteamSettingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import reactor.core.publisher.Mono;
+import run.halo.app.extension.Metadata;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * PlaytimeImporter 导出往返、重复导入与文件内合并测试
+ */
+class PlaytimeImporterTest {
+
+    private static final String STEAM_ID = "76561198000000000";
+    private static final String START = "2024-01-01";
+    private static final String END = "2024-12-31";
+    private static final Duration BLOCK_TIMEOUT = Duration.ofSeconds(10);
+
+    @TempDir
+    Path dir;
+
+    private final ObjectProvider<ObjectMapper> objectMapper =
+            new StaticListableBeanFactory().getBeanProvider(ObjectMapper.class);
+    private SteamSettingService settingService;
+
+    @BeforeEach
+    void setUp() {
+        settingService = mock(SteamSettingService.class);
+        when(settingService.getSteamId()).thenReturn(Mono.just(STEAM_ID));
+    }
+
+    @Test
+    void exportedCsvImportsBackUnchanged() throws IOException {
+        roundTrip(TransferFormat.CSV);
+    }
+
+    @Test
+    void exportedNdjsonImportsBackUnchanged() throws IOException {
+        roundTrip(TransferFormat.NDJSON);
+    }
+
+    @Test
+    void importingSameFileTwiceWritesNothing() throws IOException {
+        InMemoryPlaytimeStore source = seededStore();
+        Path file = export(source, TransferFormat.CSV);
+        InMemoryPlaytimeStore target = new InMemoryPlaytimeStore();
+        PlaytimeImporter importer = new PlaytimeImporter(target, settingService, objectMapper);
+
+        ImportProgress first = importAll(importer, file, TransferFormat.CSV);
+        long writes = target.writes();
+        ImportProgress second = importAll(importer, file, TransferFormat.CSV);
+
+        assertEquals(3, first.created());
+        assertEquals(0, second.created());
+        assertEquals(0, second.updated());
+        assertEquals(3, second.unchanged());
+        assertEquals(writes, target.writes());
+    }
+
+    @Test
+    void countsInFileDuplicatesSeparatelyFromUnchanged() throws IOException {
+        // Excel 保存的 UTF-8 CSV：BOM + CRLF，列顺序与导出不同
+        Path file = dir.resolve("records.csv");
+        Files.writeString(file, "﻿appId,date,gameName,playtimeMinutes\r\n"
+                + "730,2024-03-01,\"Counter-Strike, 2\",30\r\n"
+                + "730,2024-03-01,\"Counter-Strike, 2\",50\r\n"
+                + "570,2024-03-01,Dota 2,20\r\n"
+                + "570,2024/03/02,Dota 2,20\r\n");
+        InMemoryPlaytimeStore store = new InMemoryPlaytimeStore();
+        PlaytimeImporter importer = new PlaytimeImporter(store, settingService, objectMapper);
+
+        ImportProgress first = importAll(importer, file, TransferFormat.CSV);
+        assertEquals(4, first.processed());
+        assertEquals(2, first.created());
+        assertEquals(1, first.merged());
+        assertEquals(0, first.unchanged());
+        assertEquals(1, first.invalid());
+        assertTrue(first.errors().get(0).startsWith("第 4 行"), first.errors().toString());
+        DailyPlaytimeRecordSpec merged = store.findDailyRecord(STEAM_ID, "2024-03-01", 730L)
+                .block(BLOCK_TIMEOUT).getSpec();
+        assertEquals(50, merged.getPlaytimeMinutes());
+        assertEquals("Counter-Strike, 2", merged.getGameName());
+
+        ImportProgress second = importAll(importer, file, TransferFormat.CSV);
+        assertEquals(0, second.created());
+        assertEquals(0, second.updated());
+        assertEquals(2, second.unchanged());
+        assertEquals(1, second.merged());
+    }
+
+    private void roundTrip(TransferFormat format) throws IOException {
+        InMemoryPlaytimeStore source = seededStore();
+        Path file = export(source, format);
+        InMemoryPlaytimeStore target = new InMemoryPlaytimeStore();
+
+        ImportProgress progress = importAll(new PlaytimeImporter(target, settingService, objectMapper), file, format);
+
+        assertTrue(progress.done());
+        assertEquals(0, progress.invalid(), progress.errors().toString());
+        assertEquals(3, progress.processed());
+        assertEquals(3, progress.created());
+        assertEquals(specs(source), specs(target));
+    }
+
+    private InMemoryPlaytimeStore seededStore() {
+        InMemoryPlaytimeStore store = new InMemoryPlaytimeStore();
+        store.createDailyRecord(record("2024-01-05", 730L, "Counter-Strike 2", 90,
+                Instant.parse("2024-01-05T12:00:00Z"), Instant.parse("2024-01-05T13:30:00.250Z"))).block();
+        store.createDailyRecord(record("2024-01-05", 220L, "Tom Clancy's \"Special\", Edition", 15, null, null))
+                .block();
+        store.createDailyRecord(record("2024-02-10", 1091500L, "赛博朋克 2077\n（中文）", 1440, null, null)).block();
+        return store;
+    }
+
+    private Path export(InMemoryPlaytimeStore store, TransferFormat format) throws IOException {
+        PlaytimeTrackingService trackingService = mock(PlaytimeTrackingService.class);
+        when(trackingService.streamDailyRecords(START, END))
+                .thenReturn(store.streamDailyRecords(STEAM_ID, START, END, 2));
+        List<String> chunks = new PlaytimeExporter(trackingService, objectMapper)
+                .export(PlaytimeExporter.Kind.RECORDS, format, START, END)
+                .collectList()
+                .block(BLOCK_TIMEOUT);
+        Path file = dir.resolve("export." + format.getExtension());
+        Files.writeString(file, String.join("", chunks));
+        return file;
+    }
+
+    private static ImportProgress importAll(PlaytimeImporter importer, Path file, TransferFormat format) {
+        List<ImportProgress> progress = importer.importDailyRecords(file, format).collectList().block(BLOCK_TIMEOUT);
+        return progress.get(progress.size() - 1);
+    }
+
+    private static List<DailyPlaytimeRecordSpec> specs(InMemoryPlaytimeStore store) {
+        return store.streamDailyRecords(STEAM_ID, START, END, 100)
+                .map(DailyPlaytimeRecord::getSpec)
+                .sort((a, b) -> a.getDate().equals(b.getDate())
+                        ? Long.compare(a.getAppId(), b.getAppId())
+                        : a.getDate().compareTo(b.getDate()))
+                .collectList()
+                .block(BLOCK_TIMEOUT);
+    }
+
+    private static DailyPlaytimeRecord record(String date, long appId, String gameName, int minutes,
+                                              Instant start, Instant end) {
+        DailyPlaytimeRecordSpec spec = new DailyPlaytimeRecordSpec();
+        spec.setSteamId(STEAM_ID);
+        spec.setDate(date);
+        spec.setAppId(appId);
+        spec.setGameName(gameName);
+        spec.setPlaytimeMinutes(minutes);
+        spec.setStartTime(start);
+        spec.setEndTime(end);
+        DailyPlaytimeRecord record = new DailyPlaytimeRecord();
+        record.setMetadata(new Metadata());
+        record.setSpec(spec);
+        return record;
+    }
+}
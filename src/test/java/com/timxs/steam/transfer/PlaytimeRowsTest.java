@@ -0,0 +1,71 @@
+package com.timxs.steam.transfer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * PlaytimeRows CSV 读取与转义测试
+ */
+class PlaytimeRowsTest {
+
+    @Test
+    void readsQuotedCommasNewlinesAndDoubledQuotes() throws IOException {
+        BufferedReader reader = reader("a,\"b,c\",\"line1\nline2\",\"say \"\"hi\"\"\",\nnext,row\n");
+
+        assertEquals(List.of("a", "b,c", "line1\nline2", "say \"hi\"", ""), PlaytimeRows.readCsvRecord(reader));
+        assertEquals(List.of("next", "row"), PlaytimeRows.readCsvRecord(reader));
+        assertNull(PlaytimeRows.readCsvRecord(reader));
+    }
+
+    @Test
+    void readsCrlfLineEndings() throws IOException {
+        BufferedReader reader = reader("date,appId\r\n2024-01-01,730\r\n\"x\r\ny\",\"\"\"\"\r\n");
+
+        assertEquals(List.of("date", "appId"), PlaytimeRows.readCsvRecord(reader));
+        assertEquals(List.of("2024-01-01", "730"), PlaytimeRows.readCsvRecord(reader));
+        // 引号内的 \r\n 属于字段内容；四个引号表示内容为一个引号
+        assertEquals(List.of("x\r\ny", "\""), PlaytimeRows.readCsvRecord(reader));
+        assertNull(PlaytimeRows.readCsvRecord(reader));
+    }
+
+    @Test
+    void readsLastRecordWithoutTrailingNewline() throws IOException {
+        BufferedReader reader = reader("a,\"b\"\"\"");
+
+        assertEquals(List.of("a", "b\""), PlaytimeRows.readCsvRecord(reader));
+        assertNull(PlaytimeRows.readCsvRecord(reader));
+    }
+
+    @Test
+    void keepsQuotesInsideUnquotedField() throws IOException {
+        assertEquals(List.of("ab\"c", "d"), PlaytimeRows.readCsvRecord(reader("ab\"c,d\n")));
+    }
+
+    @Test
+    void escapedValuesReadBackUnchanged() throws IOException {
+        List<String> values = List.of("plain", "a,b", "quote\"d", "multi\nline", "cr\r\nlf", " padded ", "", "中文，标点");
+
+        String line = PlaytimeRows.csvHeader(values);
+
+        assertEquals(values, PlaytimeRows.readCsvRecord(reader(line)));
+    }
+
+    @Test
+    void quotesOnlyWhenNeeded() {
+        assertEquals("Portal 2", PlaytimeRows.escape("Portal 2"));
+        assertEquals("\"a,b\"", PlaytimeRows.escape("a,b"));
+        assertEquals("\"say \"\"hi\"\"\"", PlaytimeRows.escape("say \"hi\""));
+        assertEquals("\" x\"", PlaytimeRows.escape(" x"));
+    }
+
+    private static BufferedReader reader(String text) {
+        return new BufferedReader(new StringReader(text));
+    }
+}